@@ -0,0 +1,70 @@
+package com.kq.fleet_and_cargo.benchmark;
+
+import com.kq.fleet_and_cargo.utils.BinUtilsBinaryReader;
+import com.kq.fleet_and_cargo.utils.CRC16Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checksums and decodes frames shaped like the TCP tracker payloads: a header of mixed-width
+ * integers followed by an opaque body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryCodecBenchmark {
+
+    private static final int HEADER_BYTES = 1 + 2 + 4 + 8 + 8;
+
+    @Param({"64", "1024"})
+    public int bodySize;
+
+    private byte[] frame;
+
+    @Setup
+    public void setUp() {
+        byte[] body = new byte[bodySize];
+        new Random(42).nextBytes(body);
+        frame = ByteBuffer.allocate(HEADER_BYTES + bodySize)
+                .put((byte) 1)
+                .putShort((short) bodySize)
+                .putInt(123456)
+                .putLong(System.currentTimeMillis())
+                .putDouble(2.0469)
+                .put(body)
+                .array();
+    }
+
+    @Benchmark
+    public short crc16() {
+        return CRC16Util.calculateCrc16(frame);
+    }
+
+    @Benchmark
+    public void readFrame(Blackhole blackhole) {
+        BinUtilsBinaryReader reader = new BinUtilsBinaryReader(frame);
+        blackhole.consume(reader.ReadInt8());
+        int length = reader.ReadInt16();
+        blackhole.consume(reader.ReadInt32());
+        blackhole.consume(reader.getLong());
+        blackhole.consume(reader.getDouble());
+        blackhole.consume(reader.ReadBytes(length));
+    }
+}
@@ -0,0 +1,89 @@
+package com.kq.fleet_and_cargo.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic cargo manifests shaped like production traffic: a few routes carry most of the
+ * volume and senders repeat. The same seed always yields the same sequence.
+ */
+final class CargoGenerator {
+
+    private static final String[] CITIES = {
+            "Mogadishu", "Hargeisa", "Bosaso", "Kismayo", "Garowe", "Baidoa",
+            "Galkayo", "Beledweyne", "Berbera", "Burao", "Nairobi", "Dubai"
+    };
+    private static final String[] FIRST_NAMES = {
+            "Abdi", "Hodan", "Ahmed", "Fadumo", "Mohamed", "Amina", "Omar", "Hawa", "Yusuf", "Sahra"
+    };
+    private static final String[] LAST_NAMES = {
+            "Ali", "Omer", "Hassan", "Warsame", "Farah", "Jama", "Nur", "Abdullahi"
+    };
+    private static final String[] CARGO_TYPES = {
+            "Documents", "Electronics", "Clothing", "Food", "Medicine", "Machinery Parts"
+    };
+
+    private final Random random;
+    private final int customers;
+
+    CargoGenerator(long seed, int customers) {
+        this.random = new Random(seed);
+        this.customers = Math.max(customers, 2);
+    }
+
+    /** A request body for {@code POST /api/cargos}, priced in USD. */
+    Map<String, Object> next() {
+        String pickup = CITIES[skewed(CITIES.length)];
+        String destination = CITIES[skewed(CITIES.length)];
+        while (destination.equals(pickup)) {
+            destination = CITIES[random.nextInt(CITIES.length)];
+        }
+        int sender = skewed(customers);
+        int receiver = random.nextInt(customers);
+
+        Map<String, Object> cargo = new LinkedHashMap<>();
+        cargo.put("sender", customer(sender, pickup));
+        cargo.put("receiver", customer(receiver == sender ? (receiver + 1) % customers : receiver, destination));
+        cargo.put("pickupLocation", pickup);
+        cargo.put("destination", destination);
+        cargo.put("cargoType", CARGO_TYPES[skewed(CARGO_TYPES.length)]);
+        cargo.put("description", "Benchmark shipment");
+        cargo.put("quantity", 1 + random.nextInt(20));
+        cargo.put("weight", Math.round((0.5 + random.nextDouble() * 60) * 10) / 10.0);
+        cargo.put("price", Map.of("amount", 5 + random.nextInt(500), "currencyCode", "USD"));
+        return cargo;
+    }
+
+    /** What a clerk types in the search box: a city, a first name or a phone number prefix. */
+    String searchTerm() {
+        return switch (random.nextInt(3)) {
+            case 0 -> CITIES[skewed(CITIES.length)];
+            case 1 -> FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            default -> phoneNumber(skewed(customers)).substring(0, 9);
+        };
+    }
+
+    int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    private Map<String, Object> customer(int index, String address) {
+        Map<String, Object> customer = new LinkedHashMap<>();
+        customer.put("firstName", FIRST_NAMES[index % FIRST_NAMES.length]);
+        customer.put("lastName", LAST_NAMES[index / FIRST_NAMES.length % LAST_NAMES.length]);
+        customer.put("phoneNumber", phoneNumber(index));
+        customer.put("address", address);
+        return customer;
+    }
+
+    private static String phoneNumber(int index) {
+        return "+25261" + String.format("%07d", index);
+    }
+
+    // Squaring a uniform sample favours low indexes, so the first cities and customers dominate.
+    private int skewed(int bound) {
+        double sample = random.nextDouble();
+        return (int) (sample * sample * bound);
+    }
+}
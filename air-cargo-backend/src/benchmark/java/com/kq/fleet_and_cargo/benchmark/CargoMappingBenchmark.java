@@ -0,0 +1,93 @@
+package com.kq.fleet_and_cargo.benchmark;
+
+import com.kq.fleet_and_cargo.enums.Gender;
+import com.kq.fleet_and_cargo.models.Cargo;
+import com.kq.fleet_and_cargo.models.Customer;
+import com.kq.fleet_and_cargo.models.Money;
+import com.kq.fleet_and_cargo.payload.dto.CargoDto;
+import com.kq.fleet_and_cargo.payload.response.CustomerNoCargoResponse;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/** The explicit DTO factories used on listing endpoints, against the reflective mapping they replaced. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CargoMappingBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private Cargo cargo;
+    private Customer customer;
+
+    @Setup
+    public void setUp() {
+        customer = Customer.builder()
+                .id("5d6f2c1e-0000-4000-8000-000000000001")
+                .firstName("Hodan")
+                .lastName("Ali")
+                .phoneNumber("+252633426114")
+                .email("sender@example.com")
+                .address("Mogadishu")
+                .gender(Gender.FEMALE)
+                .build();
+        Customer receiver = Customer.builder()
+                .id("5d6f2c1e-0000-4000-8000-000000000002")
+                .firstName("Abdi")
+                .lastName("Omer")
+                .phoneNumber("+252617000001")
+                .address("Hargeisa")
+                .gender(Gender.MALE)
+                .build();
+        cargo = Cargo.builder()
+                .id("5d6f2c1e-0000-4000-8000-000000000003")
+                .referenceNumber(100042L)
+                .sender(customer)
+                .receiver(receiver)
+                .pickupLocation("Mogadishu")
+                .destination("Hargeisa")
+                .description("Sample electronics shipment")
+                .cargoType("Electronics")
+                .quantity(10)
+                .weight(12.5)
+                .price(new Money(new BigDecimal("250.00"), "USD"))
+                .createdAt(ZonedDateTime.now())
+                .updatedAt(ZonedDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public CargoDto cargoFactory() {
+        return CargoDto.from(cargo);
+    }
+
+    @Benchmark
+    public CargoDto cargoModelMapper() {
+        return modelMapper.map(cargo, CargoDto.class);
+    }
+
+    @Benchmark
+    public CustomerNoCargoResponse customerFactory() {
+        return CustomerNoCargoResponse.from(customer);
+    }
+
+    @Benchmark
+    public CustomerNoCargoResponse customerModelMapper() {
+        return modelMapper.map(customer, CustomerNoCargoResponse.class);
+    }
+}
@@ -0,0 +1,64 @@
+package com.kq.fleet_and_cargo.benchmark;
+
+import com.kq.fleet_and_cargo.utils.ImageUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** A 1024x768 JPEG, roughly what a phone photo of a parcel label is after the client resizes it. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageUtilsBenchmark {
+
+    private byte[] jpeg;
+    private byte[] compressed;
+
+    @Setup
+    public void setUp() throws IOException {
+        BufferedImage image = new BufferedImage(1024, 768, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int shade = (x + y) / 8 + random.nextInt(16);
+                image.setRGB(x, y, (shade & 0xff) << 16 | (shade / 2 & 0xff) << 8 | random.nextInt(64));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        jpeg = out.toByteArray();
+        compressed = ImageUtils.compressImage(jpeg);
+    }
+
+    @Benchmark
+    public byte[] compress() throws IOException {
+        return ImageUtils.compressImage(jpeg);
+    }
+
+    @Benchmark
+    public byte[] decompress() {
+        return ImageUtils.decompressImage(compressed);
+    }
+
+    @Benchmark
+    public byte[] preview() throws Exception {
+        return ImageUtils.generateImagePreview(compressed, 200, 150);
+    }
+}
@@ -0,0 +1,235 @@
+package com.kq.fleet_and_cargo.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kq.fleet_and_cargo.FleetAndCargoApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Boots the application against an embedded Postgres, seeds {@code bench.cargos} cargos through the
+ * batch intake endpoint and drives the create, search, track and report endpoints from
+ * {@code bench.threads} concurrent clients. Throughput and latency percentiles per scenario are
+ * written as JSON to {@code bench.output} so runs from two commits can be diffed.
+ */
+public final class MacroBenchmark {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final int SEED_BATCH = 1000;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final String baseUrl;
+    private final String token;
+
+    private MacroBenchmark(String baseUrl, String token) {
+        this.baseUrl = baseUrl;
+        this.token = token;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int cargos = Integer.getInteger("bench.cargos", 10_000);
+        int requests = Integer.getInteger("bench.requests", 1_000);
+        int threads = Integer.getInteger("bench.threads", 8);
+        long seed = Long.getLong("bench.seed", 42);
+        Path output = Path.of(System.getProperty("bench.output", "target/benchmark-macro.json"));
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start();
+             ConfigurableApplicationContext context = start(postgres)) {
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            MacroBenchmark benchmark = new MacroBenchmark(baseUrl, login(baseUrl));
+            CargoGenerator generator = new CargoGenerator(seed, Math.max(cargos / 4, 100));
+
+            Map<String, Object> scenarios = new LinkedHashMap<>();
+            List<String> cargoIds = new ArrayList<>(cargos);
+            scenarios.put("seed", benchmark.seed(generator, cargos, cargoIds));
+
+            List<HttpRequest> creates = new ArrayList<>();
+            List<HttpRequest> searches = new ArrayList<>();
+            List<HttpRequest> tracks = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                creates.add(benchmark.post("/api/cargos", generator.next()));
+                searches.add(benchmark.get("/api/cargos?page=0&size=20&search="
+                        + URLEncoder.encode(generator.searchTerm(), StandardCharsets.UTF_8)));
+                tracks.add(benchmark.get("/api/cargos/tracking/" + cargoIds.get(generator.nextInt(cargoIds.size()))));
+            }
+            List<HttpRequest> reports = new ArrayList<>();
+            for (int i = 0; i < Math.max(requests / 50, 5); i++) {
+                reports.add(benchmark.get("/api/reports/cargos?format=csv"));
+            }
+
+            scenarios.put("create", benchmark.run(creates, threads));
+            scenarios.put("search", benchmark.run(searches, threads));
+            scenarios.put("track", benchmark.run(tracks, threads));
+            scenarios.put("report", benchmark.run(reports, Math.min(threads, 2)));
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("timestamp", Instant.now().toString());
+            result.put("cargos", cargos);
+            result.put("requests", requests);
+            result.put("threads", threads);
+            result.put("seed", seed);
+            result.put("scenarios", scenarios);
+            if (output.getParent() != null) {
+                Files.createDirectories(output.getParent());
+            }
+            JSON.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), result);
+            System.out.println(JSON.writerWithDefaultPrettyPrinter().writeValueAsString(scenarios));
+            System.out.println("Results written to " + output.toAbsolutePath());
+        }
+    }
+
+    // Arguments rather than default properties, so they win over application.yml.
+    private static ConfigurableApplicationContext start(EmbeddedPostgres postgres) throws IOException {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Path uploads = Files.createTempDirectory("benchmark-uploads");
+        return new SpringApplicationBuilder(FleetAndCargoApplication.class)
+                .profiles("benchmark")
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.mail.host=localhost",
+                        "--server.port=0",
+                        "--report-cache.redis-enabled=false",
+                        "--fx-rates.redis-enabled=false",
+                        "--entity-cache.redis-enabled=false",
+                        "--file.storage.provider=LOCAL",
+                        "--file.storage.local.dir=" + uploads,
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=ERROR",
+                        "--logging.level.org.springframework.amqp=OFF");
+    }
+
+    private static String login(String baseUrl) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"admin@example.com\",\"password\":\"admin\"}"))
+                .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with " + response.statusCode() + ": " + response.body());
+        }
+        return JSON.readTree(response.body()).get("token").asText();
+    }
+
+    /** Loads the dataset in intake-sized batches, collecting the ids the tracking scenario reads. */
+    private Map<String, Object> seed(CargoGenerator generator, int cargos, List<String> cargoIds) throws Exception {
+        Histogram latencies = new Histogram(3);
+        long started = System.nanoTime();
+        for (int offset = 0; offset < cargos; offset += SEED_BATCH) {
+            List<Map<String, Object>> batch = new ArrayList<>();
+            for (int i = offset; i < Math.min(offset + SEED_BATCH, cargos); i++) {
+                batch.add(generator.next());
+            }
+            long sent = System.nanoTime();
+            HttpResponse<String> response = http.send(post("/api/cargos/batch", batch), HttpResponse.BodyHandlers.ofString());
+            latencies.recordValue(System.nanoTime() - sent);
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+            for (JsonNode item : JSON.readTree(response.body())) {
+                if (item.hasNonNull("cargoId")) {
+                    cargoIds.add(item.get("cargoId").asText());
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        Map<String, Object> summary = summary(latencies, (int) latencies.getTotalCount(), cargos - cargoIds.size(), elapsed);
+        summary.put("cargosPerSecond", perSecond(cargoIds.size(), elapsed));
+        return summary;
+    }
+
+    /** Replays {@code requests} from {@code threads} clients after a warm-up pass over the first tenth. */
+    private Map<String, Object> run(List<HttpRequest> requests, int threads) throws Exception {
+        ConcurrentHistogram latencies = new ConcurrentHistogram(3);
+        AtomicInteger errors = new AtomicInteger();
+        try (ExecutorService clients = Executors.newFixedThreadPool(threads)) {
+            replay(clients, requests.subList(0, Math.max(requests.size() / 10, 1)), new ConcurrentHistogram(3), new AtomicInteger());
+            long started = System.nanoTime();
+            replay(clients, requests, latencies, errors);
+            return summary(latencies, requests.size(), errors.get(), System.nanoTime() - started);
+        }
+    }
+
+    private void replay(ExecutorService clients, List<HttpRequest> requests, Histogram latencies, AtomicInteger errors)
+            throws Exception {
+        List<Future<?>> pending = new ArrayList<>(requests.size());
+        for (HttpRequest request : requests) {
+            pending.add(clients.submit(() -> {
+                long sent = System.nanoTime();
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                latencies.recordValue(System.nanoTime() - sent);
+                if (response.statusCode() >= 400) {
+                    errors.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : pending) {
+            future.get();
+        }
+    }
+
+    private static Map<String, Object> summary(Histogram latencies, int requests, int errors, long elapsedNanos) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", millis(latencies.getMean()));
+        for (double percentile : new double[]{50, 90, 95, 99, 99.9}) {
+            latency.put("p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    millis(latencies.getValueAtPercentile(percentile)));
+        }
+        latency.put("max", millis(latencies.getMaxValue()));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", requests);
+        summary.put("errors", errors);
+        summary.put("throughputPerSecond", perSecond(requests, elapsedNanos));
+        summary.put("latencyMillis", latency);
+        return summary;
+    }
+
+    private static double perSecond(int count, long elapsedNanos) {
+        return Math.round(count * 1e9 / elapsedNanos * 100) / 100.0;
+    }
+
+    private static double millis(double nanos) {
+        return Math.round(nanos / 1e4) / 100.0;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, Object body) throws IOException {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body)))
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.kq.fleet_and_cargo.benchmark;
+
+import com.kq.fleet_and_cargo.models.FXRates;
+import com.kq.fleet_and_cargo.models.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private Money price;
+    private Money fee;
+    private FXRates rate;
+
+    @Setup
+    public void setUp() {
+        price = new Money(new BigDecimal("1234.5678"), "USD");
+        fee = new Money(new BigDecimal("12.34"), "USD");
+        rate = FXRates.builder()
+                .sourceCurrency("USD")
+                .destinationCurrency("KES")
+                .rate(129.37)
+                .build();
+    }
+
+    @Benchmark
+    public Money add() {
+        return price.add(fee);
+    }
+
+    @Benchmark
+    public Money multiply() {
+        return price.multiply(BigDecimal.valueOf(3));
+    }
+
+    @Benchmark
+    public Money exchangeToPreferred() {
+        return price.exchange(rate, true);
+    }
+
+    @Benchmark
+    public Money exchangeToStored() {
+        return price.exchange(rate, false);
+    }
+}
@@ -1,5 +1,6 @@
 package com.kq.fleet_and_cargo.advice;
 
+import com.kq.fleet_and_cargo.exceptions.BadRequestException;
 import com.kq.fleet_and_cargo.exceptions.ConflictException;
 import com.kq.fleet_and_cargo.exceptions.NotFoundException;
 import io.jsonwebtoken.JwtException;
@@ -23,6 +24,10 @@ public class GlobalExceptionAdvice {
     public ErrorResponse handleUsernameNotFoundException(JwtException e) {
         return ErrorResponse.builder(e, HttpStatus.UNAUTHORIZED, e.getMessage()).build();
     }
+    @ExceptionHandler({BadRequestException.class})
+    public ErrorResponse handleBadRequestException(BadRequestException e) {
+        return ErrorResponse.builder(e, e.getStatus(), e.getMessage()).build();
+    }
     @ExceptionHandler({ConflictException.class})
     public ErrorResponse handleConflictException(ConflictException e) {
         return ErrorResponse.builder(e, e.getStatus(), e.getMessage()).build();
@@ -0,0 +1,140 @@
+package com.kq.fleet_and_cargo.amqp;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outcome handling and metrics for the e-mail and WhatsApp consumers. A failed message is republished to the
+ * retry queue for its next attempt, which returns it to the work queue after the backoff, so the
+ * consumer moves on instead of sleeping; after {@code rabbitmq.retry.max-attempts} it goes to the
+ * queue's dead-letter queue.
+ */
+@Component
+@Slf4j
+public class ConsumerRetries {
+
+    public static final String ATTEMPT_HEADER = "x-attempt";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final AmqpAdmin amqpAdmin;
+    private final MeterRegistry meterRegistry;
+    private final RabbitConsumerConfiguration.RetrySettings retrySettings;
+    private final List<String> queues;
+    private final Map<String, AtomicLong> depths = new ConcurrentHashMap<>();
+
+    public ConsumerRetries(RabbitTemplate rabbitTemplate,
+                           AmqpAdmin amqpAdmin,
+                           MeterRegistry meterRegistry,
+                           RabbitConsumerConfiguration.RetrySettings consumerRetrySettings,
+                           @Value("${rabbitmq.queue.otp-email}") String otpEmailQueue,
+                           @Value("${rabbitmq.queue.customer-whatsapp}") String customerWhatsappQueue,
+                           @Value("${rabbitmq.queue.whatsapp-outbound}") String whatsappOutboundQueue) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.amqpAdmin = amqpAdmin;
+        this.meterRegistry = meterRegistry;
+        this.retrySettings = consumerRetrySettings;
+        this.queues = List.of(otpEmailQueue, customerWhatsappQueue, whatsappOutboundQueue);
+        for (String queue : queues) {
+            for (String monitored : List.of(queue, RabbitConsumerConfiguration.deadLetterQueue(queue))) {
+                meterRegistry.gauge("rabbitmq.queue.depth", Tags.of("queue", monitored),
+                        depths.computeIfAbsent(monitored, name -> new AtomicLong()));
+            }
+        }
+    }
+
+    /** Records a processed message: the consume rate, and the lag since it was first published. */
+    public void consumed(String queue, Message message) {
+        meterRegistry.counter("rabbitmq.consumer.messages", "queue", queue, "outcome", "success").increment();
+        if (message.getMessageProperties().getTimestamp() != null) {
+            long lag = System.currentTimeMillis() - message.getMessageProperties().getTimestamp().getTime();
+            meterRegistry.timer("rabbitmq.consumer.lag", "queue", queue).record(Duration.ofMillis(Math.max(0, lag)));
+        }
+    }
+
+    /** Schedules the next attempt of a message that failed, or dead-letters it once attempts run out. */
+    public void failed(String queue, Message message, Exception cause) {
+        MessageProperties properties = message.getMessageProperties();
+        int attempt = properties.getHeader(ATTEMPT_HEADER) instanceof Number previous ? previous.intValue() : 1;
+        properties.setHeader(ATTEMPT_HEADER, attempt + 1);
+        // A received message carries no delivery mode of its own; republish it persistent like the original.
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        if (attempt < retrySettings.maxAttempts()) {
+            Duration backoff = retrySettings.backoff(attempt);
+            log.warn("Attempt {} on {} failed, retrying in {}: {}", attempt, queue, backoff, cause.getMessage());
+            rabbitTemplate.send("", RabbitConsumerConfiguration.retryQueue(queue, backoff), message);
+            meterRegistry.counter("rabbitmq.consumer.messages", "queue", queue, "outcome", "retried").increment();
+        } else {
+            log.error("Giving up on a message from {} after {} attempts", queue, attempt, cause);
+            deadLetter(queue, message, cause);
+        }
+    }
+
+    /** Dead-letters a message that can never succeed, such as one the provider refused, without retrying it. */
+    public void rejected(String queue, Message message, Exception cause) {
+        log.error("Message from {} rejected: {}", queue, cause.getMessage());
+        message.getMessageProperties().setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        deadLetter(queue, message, cause);
+    }
+
+    private void deadLetter(String queue, Message message, Exception cause) {
+        message.getMessageProperties().setHeader("x-exception-message", String.valueOf(cause.getMessage()));
+        rabbitTemplate.send("", RabbitConsumerConfiguration.deadLetterQueue(queue), message);
+        meterRegistry.counter("rabbitmq.consumer.messages", "queue", queue, "outcome", "dead-lettered").increment();
+    }
+
+    /**
+     * Puts a message that could not be handled yet, through no fault of its own, back after at
+     * least {@code delay}, without counting an attempt. Delays beyond the longest backoff wait
+     * that long and are deferred again.
+     */
+    public void deferred(String queue, Message message, Duration delay) {
+        if (retrySettings.maxAttempts() < 2) {
+            failed(queue, message, new IllegalStateException("Deferred by " + delay + " with retries disabled"));
+            return;
+        }
+        Duration backoff = retrySettings.backoff(retrySettings.maxAttempts() - 1);
+        for (int attempt = 1; attempt < retrySettings.maxAttempts(); attempt++) {
+            if (retrySettings.backoff(attempt).compareTo(delay) >= 0) {
+                backoff = retrySettings.backoff(attempt);
+                break;
+            }
+        }
+        message.getMessageProperties().setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        log.debug("Deferring a message on {} by {}", queue, backoff);
+        rabbitTemplate.send("", RabbitConsumerConfiguration.retryQueue(queue, backoff), message);
+        meterRegistry.counter("rabbitmq.consumer.messages", "queue", queue, "outcome", "deferred").increment();
+    }
+
+    // A passive declare per queue, so the depth gauges cost the broker one call per interval, not per scrape.
+    @Scheduled(fixedDelayString = "${rabbitmq.depth-refresh-interval:PT15S}")
+    public void refreshDepths() {
+        try {
+            for (String queue : queues) {
+                for (String monitored : List.of(queue, RabbitConsumerConfiguration.deadLetterQueue(queue))) {
+                    QueueInformation information = amqpAdmin.getQueueInfo(monitored);
+                    if (information != null) {
+                        depths.get(monitored).set(information.getMessageCount());
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.debug("Could not read queue depths: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.kq.fleet_and_cargo.amqp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kq.fleet_and_cargo.models.OutboxEvent;
+import com.kq.fleet_and_cargo.payload.dto.CargoEvent;
+import com.kq.fleet_and_cargo.repositories.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Publishes {@link OutboxEvent}s to the cargo event exchange in id order, a batch per transaction.
+ * A batch is marked published only once the broker has confirmed all of it; a failed batch is sent
+ * again on the next run, so consumers see every event at least once and deduplicate by message id.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final long RELAY_LOCK = 0x6f7574626f78L;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final RabbitConfiguration rabbitConfiguration;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration confirmTimeout;
+    private final Duration retention;
+    private volatile boolean failing;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       RabbitTemplate rabbitTemplate,
+                       RabbitConfiguration rabbitConfiguration,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${outbox.batch-size:200}") int batchSize,
+                       @Value("${outbox.confirm-timeout:PT5S}") Duration confirmTimeout,
+                       @Value("${outbox.retention:P7D}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.rabbitConfiguration = rabbitConfiguration;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.confirmTimeout = confirmTimeout;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay-interval:PT0.25S}")
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published != null && published == batchSize);
+            if (failing) {
+                failing = false;
+                log.info("Outbox relay recovered");
+            }
+        } catch (RuntimeException e) {
+            // Logged once per outage; the events stay in the outbox until a run succeeds.
+            if (!failing) {
+                failing = true;
+                log.warn("Outbox relay failed, retrying: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval:PT1H}")
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(ZonedDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} published outbox events", deleted);
+        }
+    }
+
+    private int publishBatch() {
+        // Another instance holding the lock is already relaying; publishing in parallel would reorder events.
+        if (!outboxEventRepository.tryLock(RELAY_LOCK)) {
+            return 0;
+        }
+        List<OutboxEvent> events = outboxEventRepository.findUnpublished(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        String exchange = rabbitConfiguration.cargoEventExchange().getName();
+        rabbitTemplate.invoke(operations -> {
+            for (OutboxEvent outboxEvent : events) {
+                CargoEvent event = deserialize(outboxEvent);
+                operations.convertAndSend(exchange, rabbitConfiguration.cargoEventRoutingKey(event), event, message -> {
+                    message.getMessageProperties().setMessageId(String.valueOf(outboxEvent.getId()));
+                    return message;
+                });
+            }
+            operations.waitForConfirmsOrDie(confirmTimeout.toMillis());
+            return null;
+        });
+        outboxEventRepository.markPublished(events.stream().map(OutboxEvent::getId).toList(), ZonedDateTime.now());
+        return events.size();
+    }
+
+    private CargoEvent deserialize(OutboxEvent outboxEvent) {
+        try {
+            return objectMapper.readValue(outboxEvent.getPayload(), CargoEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox event " + outboxEvent.getId(), e);
+        }
+    }
+}
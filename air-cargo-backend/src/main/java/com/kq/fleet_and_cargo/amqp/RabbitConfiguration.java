@@ -1,13 +1,24 @@
 package com.kq.fleet_and_cargo.amqp;
 
+import com.kq.fleet_and_cargo.enums.WebSocketBrokerMode;
+import com.kq.fleet_and_cargo.payload.dto.CargoEvent;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
 @Configuration
 public class RabbitConfiguration {
 
@@ -17,6 +28,9 @@ public class RabbitConfiguration {
     @Value("${rabbitmq.queue.otp-email}")
     private String otpEmailQueue;
 
+    @Value("${rabbitmq.queue.whatsapp-outbound}")
+    private String whatsappOutboundQueue;
+
     @Value("${rabbitmq.exchanges.email}")
     private String emailExchange;
 
@@ -26,6 +40,21 @@ public class RabbitConfiguration {
     @Value("${rabbitmq.routing-keys.otp-notification}")
     private String otpEmailRoutingKey;
 
+    @Value("${rabbitmq.routing-keys.whatsapp-outbound}")
+    private String whatsappOutboundRoutingKey;
+
+    @Value("${rabbitmq.exchanges.cargo-events}")
+    private String cargoEventExchange;
+
+    @Value("${rabbitmq.queue.cargo-events}")
+    private String cargoEventQueue;
+
+    @Value("${rabbitmq.cargo-event-partitions}")
+    private int cargoEventPartitions;
+
+    @Value("${websocket.broker.mode:SIMPLE}")
+    private WebSocketBrokerMode webSocketBrokerMode;
+
     @Bean
     public TopicExchange topicExchange() {
         return new TopicExchange(emailExchange);
@@ -41,6 +70,11 @@ public class RabbitConfiguration {
         return new Queue(otpEmailQueue, true);
     }
 
+    @Bean
+    public Queue whatsappOutboundQueue() {
+        return new Queue(whatsappOutboundQueue, true);
+    }
+
     @Bean
     public Binding customerWhatsappBinding() {
         return BindingBuilder.bind(customerWhatsappQueue()).to(topicExchange()).with(customerWhatsappRoutingKey);
@@ -50,4 +84,59 @@ public class RabbitConfiguration {
     public Binding otpEmailBinding() {
         return BindingBuilder.bind(otpEmailQueue()).to(topicExchange()).with(otpEmailRoutingKey);
     }
+
+    @Bean
+    public Binding whatsappOutboundBinding() {
+        return BindingBuilder.bind(whatsappOutboundQueue()).to(topicExchange()).with(whatsappOutboundRoutingKey);
+    }
+
+    @Bean
+    public TopicExchange cargoEventExchange() {
+        return new TopicExchange(cargoEventExchange);
+    }
+
+    /**
+     * One durable queue per partition. Single active consumer keeps each queue, and so each cargo,
+     * processed in order however many instances listen. Changing the partition count moves cargos
+     * between queues, so only do it while the queues are drained.
+     */
+    @Bean
+    public Declarables cargoEventPartitionQueues() {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int partition = 0; partition < cargoEventPartitions; partition++) {
+            Queue queue = QueueBuilder.durable(cargoEventQueue + "." + partition).singleActiveConsumer().build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(cargoEventExchange()).with(partition + ".*"));
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * Every cargo event, for pushing to WebSocket clients. The simple broker only reaches this
+     * instance's clients, so each instance needs its own copy; through the relay one push reaches
+     * everyone, so the instances share a queue.
+     */
+    @Bean
+    public Queue cargoEventBroadcastQueue() {
+        if (webSocketBrokerMode == WebSocketBrokerMode.RELAY) {
+            return QueueBuilder.durable(cargoEventExchange + ".broadcast").build();
+        }
+        return new AnonymousQueue(new Base64UrlNamingStrategy(cargoEventExchange + ".broadcast."));
+    }
+
+    @Bean
+    public Binding cargoEventBroadcastBinding() {
+        return BindingBuilder.bind(cargoEventBroadcastQueue()).to(cargoEventExchange()).with("#");
+    }
+
+    public String[] cargoEventPartitionQueueNames() {
+        return IntStream.range(0, cargoEventPartitions)
+                .mapToObj(partition -> cargoEventQueue + "." + partition)
+                .toArray(String[]::new);
+    }
+
+    /** {@code <partition>.<type>}, with the partition fixed by the cargo id. */
+    public String cargoEventRoutingKey(CargoEvent event) {
+        return Math.floorMod(event.cargoId().hashCode(), cargoEventPartitions) + "." + event.type().name();
+    }
 }
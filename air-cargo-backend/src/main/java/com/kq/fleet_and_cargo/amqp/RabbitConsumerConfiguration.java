@@ -0,0 +1,141 @@
+package com.kq.fleet_and_cargo.amqp;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listener containers for the e-mail and WhatsApp queues, each tuned under {@code rabbitmq.consumers.<name>},
+ * and the retry topology behind {@link ConsumerRetries}: for every work queue one retry queue per
+ * attempt, holding messages for that attempt's backoff before dead-lettering them back, and a
+ * {@code .dlq} for messages that ran out of attempts.
+ */
+@Configuration
+public class RabbitConsumerConfiguration {
+
+    public static final String OTP_EMAIL = "otpEmailContainerFactory";
+    public static final String CUSTOMER_NOTIFICATION = "customerNotificationContainerFactory";
+    public static final String WHATSAPP = "whatsappContainerFactory";
+
+    /**
+     * Consumers start at {@code concurrency} and add threads up to {@code maxConcurrency} while
+     * busy. With {@code batchSize} above 1 the listener gets up to that many messages at once,
+     * or what arrived within {@code receiveTimeout}.
+     */
+    public record ConsumerSettings(@DefaultValue("1") int concurrency,
+                                   @DefaultValue("1") int maxConcurrency,
+                                   @DefaultValue("10") int prefetch,
+                                   @DefaultValue("1") int batchSize,
+                                   @DefaultValue("200ms") Duration receiveTimeout,
+                                   @DefaultValue("true") boolean virtualThreads) {}
+
+    /** Attempt {@code n} (1-based) of a failed message is retried after {@code initialInterval * multiplier^(n-1)}. */
+    public record RetrySettings(@DefaultValue("5") int maxAttempts,
+                                @DefaultValue("1s") Duration initialInterval,
+                                @DefaultValue("4") double multiplier,
+                                @DefaultValue("5m") Duration maxInterval) {
+
+        public Duration backoff(int attempt) {
+            double millis = initialInterval.toMillis() * Math.pow(multiplier, attempt - 1);
+            return Duration.ofMillis((long) Math.min(millis, maxInterval.toMillis()));
+        }
+    }
+
+    private final Binder binder;
+
+    public RabbitConsumerConfiguration(Environment environment) {
+        this.binder = Binder.get(environment);
+    }
+
+    @Bean
+    public RetrySettings consumerRetrySettings() {
+        return binder.bindOrCreate("rabbitmq.retry", RetrySettings.class);
+    }
+
+    @Bean(OTP_EMAIL)
+    public SimpleRabbitListenerContainerFactory otpEmailContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        return containerFactory("otp-email", configurer, connectionFactory);
+    }
+
+    @Bean(CUSTOMER_NOTIFICATION)
+    public SimpleRabbitListenerContainerFactory customerNotificationContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        return containerFactory("customer-notification", configurer, connectionFactory);
+    }
+
+    @Bean(WHATSAPP)
+    public SimpleRabbitListenerContainerFactory whatsappContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        return containerFactory("whatsapp", configurer, connectionFactory);
+    }
+
+    @Bean
+    public Declarables consumerRetryQueues(RetrySettings consumerRetrySettings,
+                                           @Value("${rabbitmq.queue.otp-email}") String otpEmailQueue,
+                                           @Value("${rabbitmq.queue.customer-whatsapp}") String customerWhatsappQueue,
+                                           @Value("${rabbitmq.queue.whatsapp-outbound}") String whatsappOutboundQueue) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (String queue : List.of(otpEmailQueue, customerWhatsappQueue, whatsappOutboundQueue)) {
+            for (int attempt = 1; attempt < consumerRetrySettings.maxAttempts(); attempt++) {
+                Duration backoff = consumerRetrySettings.backoff(attempt);
+                declarables.add(QueueBuilder.durable(retryQueue(queue, backoff))
+                        .ttl((int) backoff.toMillis())
+                        .deadLetterExchange("")
+                        .deadLetterRoutingKey(queue)
+                        .build());
+            }
+            declarables.add(QueueBuilder.durable(deadLetterQueue(queue)).build());
+        }
+        return new Declarables(declarables);
+    }
+
+    // The delay is part of the name because a queue's TTL cannot change once declared.
+    public static String retryQueue(String queue, Duration backoff) {
+        return queue + ".retry." + backoff.toMillis() + "ms";
+    }
+
+    public static String deadLetterQueue(String queue) {
+        return queue + ".dlq";
+    }
+
+    private SimpleRabbitListenerContainerFactory containerFactory(String consumer,
+                                                                  SimpleRabbitListenerContainerFactoryConfigurer configurer,
+                                                                  ConnectionFactory connectionFactory) {
+        ConsumerSettings settings = binder.bindOrCreate("rabbitmq.consumers." + consumer, ConsumerSettings.class);
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConcurrentConsumers(settings.concurrency());
+        factory.setMaxConcurrentConsumers(Math.max(settings.concurrency(), settings.maxConcurrency()));
+        factory.setPrefetchCount(Math.max(settings.prefetch(), settings.batchSize()));
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        // Failures are routed by ConsumerRetries; anything that still escapes is redelivered.
+        factory.setDefaultRequeueRejected(true);
+        if (settings.batchSize() > 1) {
+            factory.setBatchListener(true);
+            factory.setConsumerBatchEnabled(true);
+            factory.setBatchSize(settings.batchSize());
+            factory.setReceiveTimeout(settings.receiveTimeout().toMillis());
+        }
+        // Consumers block on SMTP or wait on WhatsApp replies; virtual threads make a high maxConcurrency cheap.
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("rabbit-" + consumer + "-");
+        executor.setVirtualThreads(settings.virtualThreads());
+        factory.setTaskExecutor(executor);
+        return factory;
+    }
+}
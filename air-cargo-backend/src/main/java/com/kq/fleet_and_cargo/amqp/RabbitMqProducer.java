@@ -4,8 +4,11 @@ import com.kq.fleet_and_cargo.payload.dto.WhatsappMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
 import org.springframework.stereotype.Component;
 
+import java.util.Date;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -13,10 +16,16 @@ public class RabbitMqProducer {
     private final AmqpTemplate amqpTemplate;
 
     public void sendWhatsappCustomer(WhatsappMessage whatsappMessage, String routingKey, String exchange) {
-        amqpTemplate.convertAndSend(exchange, routingKey, whatsappMessage);
+        amqpTemplate.convertAndSend(exchange, routingKey, whatsappMessage, RabbitMqProducer::timestamp);
     }
 
     public void sendOTP(String email, String otp, String routingKey, String exchange) {
-        amqpTemplate.convertAndSend(exchange, routingKey, email + ":" + otp);
+        amqpTemplate.convertAndSend(exchange, routingKey, email + ":" + otp, RabbitMqProducer::timestamp);
+    }
+
+    // Consumers report their lag from the publish time.
+    private static Message timestamp(Message message) {
+        message.getMessageProperties().setTimestamp(new Date());
+        return message;
     }
 }
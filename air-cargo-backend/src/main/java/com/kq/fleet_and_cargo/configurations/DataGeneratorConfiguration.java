@@ -0,0 +1,119 @@
+package com.kq.fleet_and_cargo.configurations;
+
+import com.kq.fleet_and_cargo.services.AnalyticsRollupService;
+import com.kq.fleet_and_cargo.services.CargoSearchService;
+import com.kq.fleet_and_cargo.services.CargoStatusService;
+import com.kq.fleet_and_cargo.utils.datagen.DatasetLoader;
+import com.kq.fleet_and_cargo.utils.datagen.DatasetShape;
+import com.kq.fleet_and_cargo.utils.datagen.SyntheticDataset;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads a seeded synthetic dataset at startup when the {@code datagen} profile is active. The same
+ * seed, volumes and end date always produce the same rows, so a dataset can be rebuilt on another
+ * machine to reproduce a measurement. Runs ahead of {@link ReadModelConfiguration}, after the seeder
+ * has created the admin that the tracking history is attributed to.
+ */
+@Component
+@Profile("datagen")
+@Slf4j
+public class DataGeneratorConfiguration {
+    private static final ZoneId ZONE = ZoneId.of("Africa/Mogadishu");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final CargoSearchService cargoSearchService;
+    private final CargoStatusService cargoStatusService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final ApplicationContext applicationContext;
+    private final DatasetShape shape;
+    private final String endDate;
+    private final int parallelism;
+    private final int chunkSize;
+    private final boolean exit;
+
+    public DataGeneratorConfiguration(DataSource dataSource,
+                                      JdbcTemplate jdbcTemplate,
+                                      CargoSearchService cargoSearchService,
+                                      CargoStatusService cargoStatusService,
+                                      AnalyticsRollupService analyticsRollupService,
+                                      ApplicationContext applicationContext,
+                                      @Value("${datagen.seed:42}") long seed,
+                                      @Value("${datagen.customers:300000}") int customers,
+                                      @Value("${datagen.cargos:2000000}") int cargos,
+                                      @Value("${datagen.expenses:50000}") int expenses,
+                                      @Value("${datagen.notifications:200000}") int notifications,
+                                      @Value("${datagen.days:730}") int days,
+                                      @Value("${datagen.end-date:}") String endDate,
+                                      @Value("${datagen.parallelism:4}") int parallelism,
+                                      @Value("${datagen.chunk-size:20000}") int chunkSize,
+                                      @Value("${datagen.exit:false}") boolean exit) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cargoSearchService = cargoSearchService;
+        this.cargoStatusService = cargoStatusService;
+        this.analyticsRollupService = analyticsRollupService;
+        this.applicationContext = applicationContext;
+        this.shape = new DatasetShape(seed, customers, cargos, expenses, notifications, days);
+        this.endDate = endDate;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.exit = exit;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void generate() {
+        List<String> clerkIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY email", String.class);
+        ZonedDateTime end = (endDate.isBlank() ? LocalDate.now(ZONE) : LocalDate.parse(endDate)).atStartOfDay(ZONE);
+        SyntheticDataset probe = new SyntheticDataset(shape, clerkIds, 0, end);
+        if (shape.customers() > 0 && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM customer WHERE id = ?)", Boolean.class, probe.customerId(0)))) {
+            log.info("Synthetic dataset for seed {} is already loaded", shape.seed());
+            finish();
+            return;
+        }
+
+        SyntheticDataset dataset = new SyntheticDataset(shape, clerkIds, reserveReferenceNumbers(), end);
+        log.info("Generating {} up to {}", shape, end);
+        long started = System.nanoTime();
+        Map<String, Long> rows = new DatasetLoader(dataSource, parallelism, chunkSize).load(dataset);
+
+        cargoSearchService.initialize();
+        cargoStatusService.initialize();
+        analyticsRollupService.reconcile();
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Synthetic dataset loaded in {}s: {}", (System.nanoTime() - started) / 1_000_000_000, rows);
+        finish();
+    }
+
+    // Moves the sequence past the generated range so cargos created afterwards do not collide.
+    private long reserveReferenceNumbers() {
+        Long first = jdbcTemplate.queryForObject("SELECT nextval('cargo_reference_seq')", Long.class);
+        jdbcTemplate.queryForObject("SELECT setval('cargo_reference_seq', ?)", Long.class, first + shape.cargos());
+        return first;
+    }
+
+    private void finish() {
+        if (exit) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+}
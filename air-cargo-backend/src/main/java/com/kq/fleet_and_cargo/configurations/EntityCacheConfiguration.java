@@ -0,0 +1,72 @@
+package com.kq.fleet_and_cargo.configurations;
+
+import com.kq.fleet_and_cargo.services.EntityCacheInvalidator;
+import com.kq.fleet_and_cargo.utils.cache.CaffeineRegionFactory;
+import com.kq.fleet_and_cargo.utils.cache.ResilientListenerContainer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
+
+import java.time.Duration;
+
+/**
+ * Second-level entity and query cache for reference data (locations, FX rates, users), see
+ * {@link CaffeineRegionFactory} and {@link EntityCacheInvalidator}.
+ */
+@Configuration
+public class EntityCacheConfiguration {
+
+    @Bean
+    public CaffeineRegionFactory caffeineRegionFactory(@Value("${entity-cache.ttl:PT10M}") Duration ttl,
+                                                       @Value("${entity-cache.max-size:10000}") long maxSize) {
+        return new CaffeineRegionFactory(ttl, maxSize);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheProperties(CaffeineRegionFactory regionFactory) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, regionFactory);
+        };
+    }
+
+    /** Hits, misses, puts, evictions and hit ratio per region; regions exist once the factory is built. */
+    @Bean
+    public MeterBinder entityCacheMetrics(CaffeineRegionFactory regionFactory, EntityManagerFactory entityManagerFactory) {
+        return registry -> regionFactory.regions().forEach((region, cache) -> {
+            CaffeineCacheMetrics.monitor(registry, cache, region, "layer", "hibernate");
+            Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                    .tag("cache", region)
+                    .tag("layer", "hibernate")
+                    .register(registry);
+        });
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "entity-cache.redis-enabled", havingValue = "true", matchIfMissing = true)
+    static class Invalidation {
+
+        @Bean
+        public RedisMessageListenerContainer entityCacheInvalidationContainer(RedisConnectionFactory connectionFactory,
+                                                                              EntityCacheInvalidator entityCacheInvalidator) {
+            RedisMessageListenerContainer container = new ResilientListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            MessageListenerAdapter listener = new MessageListenerAdapter(entityCacheInvalidator, "onInvalidation");
+            listener.afterPropertiesSet();
+            container.addMessageListener(listener, new ChannelTopic(EntityCacheInvalidator.INVALIDATION_CHANNEL));
+            return container;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.kq.fleet_and_cargo.configurations;
+
+import com.kq.fleet_and_cargo.utils.mail.MailTemplates;
+import com.kq.fleet_and_cargo.utils.mail.PooledMailSender;
+import com.kq.fleet_and_cargo.utils.mail.RecipientRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Replaces Boot's mail sender with {@link PooledMailSender}, configured from the same
+ * {@code spring.mail} properties, with its pool under {@code mail.pool} and the per-recipient
+ * rate under {@code mail.rate-limit}. One-time password mail has its own rate under
+ * {@code mail.rate-limit.otp}, so a busy recipient can still sign in.
+ */
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+public class MailConfiguration {
+
+    @Bean
+    public RecipientRateLimiter recipientRateLimiter(@Value("${mail.rate-limit.capacity:10}") int capacity,
+                                                     @Value("${mail.rate-limit.period:10m}") Duration period) {
+        return new RecipientRateLimiter(capacity, period);
+    }
+
+    @Bean
+    public PooledMailSender mailSender(MailProperties properties,
+                                       RecipientRateLimiter recipientRateLimiter,
+                                       @Value("${mail.rate-limit.otp.capacity:5}") int otpCapacity,
+                                       @Value("${mail.rate-limit.otp.period:10m}") Duration otpPeriod,
+                                       MeterRegistry meterRegistry,
+                                       Environment environment) {
+        PooledMailSender sender = new PooledMailSender(
+                Binder.get(environment).bindOrCreate("mail.pool", PooledMailSender.PoolSettings.class),
+                recipientRateLimiter, Map.of(MailTemplates.OTP, new RecipientRateLimiter(otpCapacity, otpPeriod)),
+                meterRegistry);
+        sender.setHost(properties.getHost());
+        if (properties.getPort() != null) {
+            sender.setPort(properties.getPort());
+        }
+        sender.setUsername(properties.getUsername());
+        sender.setPassword(properties.getPassword());
+        sender.setProtocol(properties.getProtocol());
+        if (properties.getDefaultEncoding() != null) {
+            sender.setDefaultEncoding(properties.getDefaultEncoding().name());
+        }
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.putAll(properties.getProperties());
+        sender.setJavaMailProperties(javaMailProperties);
+        return sender;
+    }
+}
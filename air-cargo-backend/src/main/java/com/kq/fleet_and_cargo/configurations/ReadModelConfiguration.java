@@ -0,0 +1,28 @@
+package com.kq.fleet_and_cargo.configurations;
+
+import com.kq.fleet_and_cargo.services.AnalyticsRollupService;
+import com.kq.fleet_and_cargo.services.CargoSearchService;
+import com.kq.fleet_and_cargo.services.CargoStatusService;
+import com.kq.fleet_and_cargo.services.FXRateCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ReadModelConfiguration {
+    private final CargoSearchService cargoSearchService;
+    private final CargoStatusService cargoStatusService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final FXRateCache fxRateCache;
+
+    // Runs after the seeder so the sample cargo is picked up by the backfills.
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeReadModels() {
+        cargoSearchService.initialize();
+        cargoStatusService.initialize();
+        analyticsRollupService.initialize();
+        fxRateCache.refresh();
+    }
+}
@@ -0,0 +1,27 @@
+package com.kq.fleet_and_cargo.configurations;
+
+import com.kq.fleet_and_cargo.services.ReportCacheService;
+import com.kq.fleet_and_cargo.utils.cache.ResilientListenerContainer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
+
+@Configuration
+@ConditionalOnProperty(name = "report-cache.redis-enabled", havingValue = "true", matchIfMissing = true)
+public class ReportCacheConfiguration {
+
+    @Bean
+    public RedisMessageListenerContainer reportCacheInvalidationContainer(RedisConnectionFactory connectionFactory,
+                                                                          ReportCacheService reportCacheService) {
+        RedisMessageListenerContainer container = new ResilientListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        MessageListenerAdapter listener = new MessageListenerAdapter(reportCacheService, "onInvalidation");
+        listener.afterPropertiesSet();
+        container.addMessageListener(listener, new ChannelTopic(ReportCacheService.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
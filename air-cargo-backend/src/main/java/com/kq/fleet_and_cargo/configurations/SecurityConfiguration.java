@@ -2,16 +2,19 @@ package com.kq.fleet_and_cargo.configurations;
 
 import static org.springframework.security.config.http.SessionCreationPolicy.STATELESS;
 
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -73,6 +76,8 @@ public class SecurityConfiguration {
                 http.cors(cors -> cors.configurationSource(corsConfigurationSource()));
                 http
                                 .csrf(AbstractHttpConfigurer::disable)
+                                // These rules apply to every dispatch. The ASYNC dispatch that finishes a streamed
+                                // export is authorized again, as the user JwtAuthFilter stored on the request.
                                 .authorizeHttpRequests(req -> req
                                                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                                                 .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
@@ -90,6 +95,9 @@ public class SecurityConfiguration {
                                                 .hasAnyAuthority("ADMIN", "USER")
                                                 .anyRequest().authenticated())
                                 .sessionManagement(session -> session.sessionCreationPolicy(STATELESS))
+                                // No login page to redirect to: anonymous requests get a plain 401.
+                                .exceptionHandling(exceptions -> exceptions
+                                                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                                 .authenticationProvider(authenticationProvider)
                                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
                                 .logout(logout -> logout.logoutUrl("/auth/logout"));
@@ -97,6 +105,14 @@ public class SecurityConfiguration {
                 return http.build();
         }
 
+        // The JWT filter runs inside the security chain only, not a second time as a servlet filter.
+        @Bean
+        public FilterRegistrationBean<JwtAuthFilter> jwtAuthFilterRegistration() {
+                FilterRegistrationBean<JwtAuthFilter> registration = new FilterRegistrationBean<>(jwtAuthFilter);
+                registration.setEnabled(false);
+                return registration;
+        }
+
         @Bean
         public CorsConfigurationSource corsConfigurationSource() {
                 CorsConfiguration configuration = new CorsConfiguration();
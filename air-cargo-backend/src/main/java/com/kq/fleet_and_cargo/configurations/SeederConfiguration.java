@@ -6,6 +6,7 @@ import com.kq.fleet_and_cargo.models.Admin;
 import com.kq.fleet_and_cargo.models.Cargo;
 import com.kq.fleet_and_cargo.models.Customer;
 import com.kq.fleet_and_cargo.models.FXRates;
+import com.kq.fleet_and_cargo.models.Money;
 import com.kq.fleet_and_cargo.repositories.AdminRepository;
 import com.kq.fleet_and_cargo.repositories.CargoRepository;
 import com.kq.fleet_and_cargo.repositories.CustomerRepository;
@@ -16,6 +17,7 @@ import org.springframework.boot.ApplicationRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.Optional;
 import java.util.Set;
@@ -73,6 +75,7 @@ public class SeederConfiguration implements ApplicationRunner {
                 .cargoType("Electronics")
                 .quantity(10)
                 .weight(12.5)
+                .price(new Money(BigDecimal.valueOf(250), "USD"))
                 .createdAt(ZonedDateTime.now())
                 .build();
         cargoRepository.save(sampleCargo);
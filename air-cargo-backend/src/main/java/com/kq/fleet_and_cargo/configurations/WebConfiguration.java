@@ -24,6 +24,20 @@ import io.swagger.v3.oas.models.security.SecurityScheme;
 @Configuration
 @EnableWebMvc
 public class WebConfiguration implements WebMvcConfigurer {
+    // Sends to a topic are coalesced per websocket.coalesce-window; the per-id topics carry arrays.
+    private static final String WEBSOCKET_TOPICS = "<h3>WebSocket topics</h3>" +
+            "<p>Connect over STOMP to <code>/ws</code>. Every frame body is JSON.</p><dl>" +
+            "<dt>/topic/cargo-notifications</dt>" +
+            "<dd>The string \"New cargo added\", at most once per 50 ms window by default.</dd>" +
+            "<dt>/topic/cargo-events.{cargoId}</dt>" +
+            "<dd>An array of cargo events, in the order they were raised.</dd>" +
+            "<dt>/topic/notifications.{userId}</dt>" +
+            "<dd>An array of Notification objects, in the order they were raised. " +
+            "Replaces /topic/notifications/{userId}, which sent one Notification per frame.</dd>" +
+            "<dt>/topic/geofence-update.{id}</dt>" +
+            "<dd>An array of Notification objects, in the order they were raised. " +
+            "Replaces /topic/geofence-update/{id}, which sent one Notification per frame.</dd></dl>";
+
     @Value("${spring.application.version}")
     private String version;
     @Override
@@ -65,7 +79,7 @@ public class WebConfiguration implements WebMvcConfigurer {
                                                             "<p style=\"color: red;\">then use the auth/otp-valid endpoint and use the userId and the OTP code to generate the token</p>"
                                                             +
 
-                                                            "</dd></dl>")
+                                                            "</dd></dl>" + WEBSOCKET_TOPICS)
 
                                             .version(version).contact(new Contact().name("Yaser Issa")
                                                             .email("yaseressa222@gmail.com").url("Garoon")));
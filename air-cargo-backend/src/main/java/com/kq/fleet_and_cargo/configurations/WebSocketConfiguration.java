@@ -1,22 +1,96 @@
-package com.kq.fleet_and_cargo.configurations;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.messaging.simp.config.MessageBrokerRegistry;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
-import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
-import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
-
-@Configuration
-@EnableWebSocketMessageBroker
-public class WebSocketConfiguration implements WebSocketMessageBrokerConfigurer {
-    @Override
-    public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
-        config.setApplicationDestinationPrefixes("/app");
-    }
-
-    @Override
-    public void registerStompEndpoints(StompEndpointRegistry registry) {
-        registry.addEndpoint("/ws").setAllowedOriginPatterns("*");
-    }
-}
\ No newline at end of file
+package com.kq.fleet_and_cargo.configurations;
+
+import com.kq.fleet_and_cargo.enums.WebSocketBrokerMode;
+import com.kq.fleet_and_cargo.utils.websocket.OutboundSessionGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompReactorNettyCodec;
+import org.springframework.messaging.tcp.reactor.ReactorNettyTcpClient;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
+
+/**
+ * SIMPLE keeps subscriptions in this instance's memory. RELAY forwards them to an external STOMP
+ * broker (RabbitMQ's STOMP plugin), so a message published on any instance reaches clients on all
+ * of them. Destinations use dots rather than slashes below {@code /topic}, which RabbitMQ requires.
+ * The relay connects through Spring's Reactor Netty TCP client, set explicitly because Spring only
+ * detects it on its own when reactor-netty-http is present.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfiguration implements WebSocketMessageBrokerConfigurer {
+
+    private final WebSocketBrokerMode mode;
+    private final String relayHost;
+    private final int relayPort;
+    private final String relayLogin;
+    private final String relayPasscode;
+    private final String relayVirtualHost;
+    private final Duration sendTimeLimit;
+    private final int sendBufferSizeLimit;
+    private final OutboundSessionGuard sessionGuard;
+
+    public WebSocketConfiguration(MeterRegistry meterRegistry,
+                                  @Value("${websocket.broker.mode:SIMPLE}") WebSocketBrokerMode mode,
+                                  @Value("${websocket.broker.relay.host:localhost}") String relayHost,
+                                  @Value("${websocket.broker.relay.port:61613}") int relayPort,
+                                  @Value("${websocket.broker.relay.login:guest}") String relayLogin,
+                                  @Value("${websocket.broker.relay.passcode:guest}") String relayPasscode,
+                                  @Value("${websocket.broker.relay.virtual-host:/}") String relayVirtualHost,
+                                  @Value("${websocket.outbound.max-pending-per-session:500}") int maxPendingPerSession,
+                                  @Value("${websocket.outbound.send-time-limit:PT10S}") Duration sendTimeLimit,
+                                  @Value("${websocket.outbound.send-buffer-size-limit:524288}") int sendBufferSizeLimit) {
+        this.mode = mode;
+        this.relayHost = relayHost;
+        this.relayPort = relayPort;
+        this.relayLogin = relayLogin;
+        this.relayPasscode = relayPasscode;
+        this.relayVirtualHost = relayVirtualHost;
+        this.sendTimeLimit = sendTimeLimit;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.sessionGuard = new OutboundSessionGuard(meterRegistry, maxPendingPerSession);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry config) {
+        if (mode == WebSocketBrokerMode.RELAY) {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setVirtualHost(relayVirtualHost)
+                    .setTcpClient(new ReactorNettyTcpClient<>(relayHost, relayPort, new StompReactorNettyCodec()));
+        } else {
+            config.enableSimpleBroker("/topic");
+        }
+        config.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws").setAllowedOriginPatterns("*");
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(sessionGuard);
+    }
+
+    // A session that stops reading is closed once a send blocks past the time or buffer limit.
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(sessionGuard)
+                .setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
+}
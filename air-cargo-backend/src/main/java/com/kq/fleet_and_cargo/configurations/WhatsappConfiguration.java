@@ -0,0 +1,22 @@
+package com.kq.fleet_and_cargo.configurations;
+
+import com.kq.fleet_and_cargo.utils.whatsapp.WhatsappGateway;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class WhatsappConfiguration {
+
+    @Bean
+    public WhatsappGateway whatsappGateway(@Value("${whatsapp.api.url}") String url,
+                                           @Value("${whatsapp.api.token}") String token,
+                                           MeterRegistry meterRegistry,
+                                           Environment environment) {
+        return new WhatsappGateway(url, token,
+                Binder.get(environment).bindOrCreate("whatsapp.gateway", WhatsappGateway.Settings.class), meterRegistry);
+    }
+}
@@ -5,7 +5,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.zip.DataFormatException;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -19,18 +18,24 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
 import com.kq.fleet_and_cargo.models.Cargo;
 import com.kq.fleet_and_cargo.models.CargoTrackingHistory;
 import com.kq.fleet_and_cargo.models.File;
 import com.kq.fleet_and_cargo.payload.dto.CargoDto;
 import com.kq.fleet_and_cargo.payload.request.PublicCargoTrackingRequest;
+import com.kq.fleet_and_cargo.payload.response.CargoBatchItemResponse;
+import com.kq.fleet_and_cargo.payload.response.CursorPageResponse;
+import com.kq.fleet_and_cargo.services.CargoBatchService;
 import com.kq.fleet_and_cargo.services.CargoService;
+import com.kq.fleet_and_cargo.services.CargoStatusService;
 import com.kq.fleet_and_cargo.services.CargoTrackingHistoryService;
 
 @RestController
 @RequestMapping("/api/cargos")
-public record CargoController(CargoService cargoService, ModelMapper modelMapper,
-        CargoTrackingHistoryService cargoTrackingHistoryService) {
+public record CargoController(CargoService cargoService,
+        CargoTrackingHistoryService cargoTrackingHistoryService, CargoBatchService cargoBatchService,
+        CargoStatusService cargoStatusService) {
     @GetMapping
     public ResponseEntity<Page<CargoDto>> getCargos(@RequestParam int page, @RequestParam int size,
             @RequestParam(required = false, defaultValue = "") String search,
@@ -39,15 +44,40 @@ public record CargoController(CargoService cargoService, ModelMapper modelMapper
             @RequestParam(required = false, defaultValue = "") String startDate,
             @RequestParam(required = false, defaultValue = "") String endDate,
             @RequestParam(required = false, defaultValue = "") String pickupLocation,
-            @RequestParam(required = false, defaultValue = "") String destination) {
-        return ResponseEntity.ok(
-                cargoService.findAll(search, page, size, sortBy, order, startDate, endDate, pickupLocation, destination)
-                        .map(cargo -> modelMapper.map(cargo, CargoDto.class)));
+            @RequestParam(required = false, defaultValue = "") String destination,
+            @RequestParam(required = false) LuggageStatusEnum status) {
+        Page<CargoDto> cargos = cargoService
+                .findAll(search, page, size, sortBy, order, startDate, endDate, pickupLocation, destination, status)
+                .map(CargoDto::from);
+        cargoStatusService.fill(cargos.getContent());
+        return ResponseEntity.ok(cargos);
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<CargoDto>> scrollCargos(@RequestParam int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "") String search,
+            @RequestParam(required = false, defaultValue = "createdAt") String sortBy,
+            @RequestParam(required = false, defaultValue = "desc") String order,
+            @RequestParam(required = false, defaultValue = "") String startDate,
+            @RequestParam(required = false, defaultValue = "") String endDate,
+            @RequestParam(required = false, defaultValue = "") String pickupLocation,
+            @RequestParam(required = false, defaultValue = "") String destination,
+            @RequestParam(required = false) LuggageStatusEnum status,
+            @RequestParam(required = false, defaultValue = "false") boolean estimateTotal) {
+        CursorPageResponse<CargoDto> cargos = cargoService
+                .scroll(search, cursor, size, sortBy, order, startDate, endDate, pickupLocation, destination, status,
+                        estimateTotal)
+                .map(CargoDto::from);
+        cargoStatusService.fill(cargos.content());
+        return ResponseEntity.ok(cargos);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<CargoDto> getCargo(@PathVariable("id") String id) {
-        return ResponseEntity.ok(modelMapper.map(cargoService.findById(id), CargoDto.class));
+        CargoDto cargo = CargoDto.from(cargoService.findById(id));
+        cargoStatusService.fill(List.of(cargo));
+        return ResponseEntity.ok(cargo);
     }
 
     @PostMapping
@@ -56,6 +86,12 @@ public record CargoController(CargoService cargoService, ModelMapper modelMapper
         return ResponseEntity.ok(cargoService.create(luggage, sendWhatsApp));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<CargoBatchItemResponse>> createCargos(@RequestBody List<Cargo> cargos,
+            @RequestParam(required = false, defaultValue = "false") boolean sendWhatsApp) {
+        return ResponseEntity.ok(cargoBatchService.create(cargos, sendWhatsApp));
+    }
+
     @PutMapping
     public ResponseEntity<Cargo> updateCargo(@RequestBody Cargo luggage) {
         return ResponseEntity.ok(cargoService.update(luggage));
@@ -3,6 +3,7 @@ package com.kq.fleet_and_cargo.controllers;
 import com.kq.fleet_and_cargo.models.Cargo;
 import com.kq.fleet_and_cargo.models.Customer;
 import com.kq.fleet_and_cargo.payload.request.CustomerUpdateRequest;
+import com.kq.fleet_and_cargo.payload.response.CursorPageResponse;
 import com.kq.fleet_and_cargo.payload.response.CustomerNoCargoResponse;
 import com.kq.fleet_and_cargo.services.CustomerService;
 import org.springframework.data.domain.Page;
@@ -41,6 +42,26 @@ public record CustomerController(CustomerService customerService) {
                                                                  @RequestParam(required = false, defaultValue = "desc") String order) {
         return ResponseEntity.ok(customerService.findReceivedCargoByCustomer(id, search, page, size, sortBy, order));
     }
+
+    @GetMapping("/{id}/sent-cargos/cursor")
+    public ResponseEntity<CursorPageResponse<Cargo>> scrollCustomerSentCargos(@PathVariable String id,
+                                                                              @RequestParam int size,
+                                                                              @RequestParam(required = false) String cursor,
+                                                                              @RequestParam(required = false, defaultValue = "") String search,
+                                                                              @RequestParam(required = false, defaultValue = "createdAt") String sortBy,
+                                                                              @RequestParam(required = false, defaultValue = "desc") String order) {
+        return ResponseEntity.ok(customerService.scrollSentCargoByCustomer(id, search, cursor, size, sortBy, order));
+    }
+
+    @GetMapping("/{id}/received-cargos/cursor")
+    public ResponseEntity<CursorPageResponse<Cargo>> scrollCustomerReceivedCargos(@PathVariable String id,
+                                                                                  @RequestParam int size,
+                                                                                  @RequestParam(required = false) String cursor,
+                                                                                  @RequestParam(required = false, defaultValue = "") String search,
+                                                                                  @RequestParam(required = false, defaultValue = "createdAt") String sortBy,
+                                                                                  @RequestParam(required = false, defaultValue = "desc") String order) {
+        return ResponseEntity.ok(customerService.scrollReceivedCargoByCustomer(id, search, cursor, size, sortBy, order));
+    }
    @GetMapping("/phone/{phone}")
     public ResponseEntity<Customer> getCustomerByPhone(@PathVariable("phone") String phone) {
         return ResponseEntity.ok(customerService.findByPhone(phone));
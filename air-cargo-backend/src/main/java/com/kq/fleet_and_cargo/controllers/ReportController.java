@@ -1,56 +1,66 @@
 package com.kq.fleet_and_cargo.controllers;
 
+import com.kq.fleet_and_cargo.payload.request.ReportJobRequest;
 import com.kq.fleet_and_cargo.payload.response.CargoTypeSummaryResponse;
 import com.kq.fleet_and_cargo.payload.response.ExpenseCurrencySummaryResponse;
 import com.kq.fleet_and_cargo.payload.response.ExpenseMonthlyTrendResponse;
 import com.kq.fleet_and_cargo.payload.response.PickupCityRevenueResponse;
+import com.kq.fleet_and_cargo.payload.response.ReportJobResponse;
+import com.kq.fleet_and_cargo.services.ReportJobService;
 import com.kq.fleet_and_cargo.services.ReportService;
+import com.kq.fleet_and_cargo.utils.export.ExportFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/reports")
-public record ReportController(ReportService reportService) {
+public record ReportController(ReportService reportService, ReportJobService reportJobService) {
 
     @GetMapping("/customers")
-    public ResponseEntity<byte[]> generateCustomerReport(
+    public ResponseEntity<StreamingResponseBody> generateCustomerReport(
             @RequestParam(value = "search", defaultValue = "", required = false) String search,
             @RequestParam(value = "startDate", required = false) String startDate,
-            @RequestParam(value = "endDate", required = false) String endDate
-    ) throws Exception {
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=CustomerReports.xlsx")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(reportService.generateCustomerExcelReportWithHeader(search, startDate, endDate));
+            @RequestParam(value = "endDate", required = false) String endDate,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip
+    ) {
+        return export("CustomerReports", ExportFormat.of(format, gzip),
+                exportFormat -> reportService.streamCustomerReport(search, startDate, endDate, exportFormat));
     }
 
     @GetMapping("/cargos")
-    public ResponseEntity<byte[]> generateCargoReport(
+    public ResponseEntity<StreamingResponseBody> generateCargoReport(
             @RequestParam(value = "search", defaultValue = "", required = false) String search,
             @RequestParam(value = "startDate", required = false) String startDate,
-            @RequestParam(value = "endDate", required = false) String endDate
-    ) throws Exception {
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=CargoReports.xlsx")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(reportService.generateCargoExcelReportWithHeader(search, startDate, endDate));
+            @RequestParam(value = "endDate", required = false) String endDate,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip
+    ) {
+        return export("CargoReports", ExportFormat.of(format, gzip),
+                exportFormat -> reportService.streamCargoReport(search, startDate, endDate, exportFormat));
     }
 
     @GetMapping("/cargos/pickup-city-revenue")
-    public ResponseEntity<byte[]> getPickupCityRevenue(
+    public ResponseEntity<StreamingResponseBody> getPickupCityRevenue(
             @RequestParam(value = "startDate", required = false) String startDate,
-            @RequestParam(value = "endDate", required = false) String endDate
-    ) throws Exception {
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=PickupCityRevenue.xlsx")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(reportService.generatePickupCityRevenueReport(startDate, endDate));
+            @RequestParam(value = "endDate", required = false) String endDate,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip
+    ) {
+        return export("PickupCityRevenue", ExportFormat.of(format, gzip),
+                exportFormat -> reportService.streamPickupCityRevenueReport(startDate, endDate, exportFormat));
     }
 
     @GetMapping("/cargos/pickup-city-revenue/preview")
@@ -63,14 +73,14 @@ public record ReportController(ReportService reportService) {
     }
 
     @GetMapping("/cargos/type-distribution")
-    public ResponseEntity<byte[]> getCargoTypeDistribution(
+    public ResponseEntity<StreamingResponseBody> getCargoTypeDistribution(
             @RequestParam(value = "startDate", required = false) String startDate,
-            @RequestParam(value = "endDate", required = false) String endDate
-    ) throws Exception {
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=CargoTypeDistribution.xlsx")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(reportService.generateCargoTypeDistributionReport(startDate, endDate));
+            @RequestParam(value = "endDate", required = false) String endDate,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip
+    ) {
+        return export("CargoTypeDistribution", ExportFormat.of(format, gzip),
+                exportFormat -> reportService.streamCargoTypeDistributionReport(startDate, endDate, exportFormat));
     }
 
     @GetMapping("/cargos/type-distribution/preview")
@@ -83,27 +93,27 @@ public record ReportController(ReportService reportService) {
     }
 
     @GetMapping("/expenses")
-    public ResponseEntity<byte[]> getExpenseReport(
+    public ResponseEntity<StreamingResponseBody> getExpenseReport(
             @RequestParam(value = "search", defaultValue = "", required = false) String search,
             @RequestParam(value = "startDate", required = false) String startDate,
-            @RequestParam(value = "endDate", required = false) String endDate
-    ) throws Exception {
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=Expenses.xlsx")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(reportService.generateExpenseDetailedReport(search, startDate, endDate));
+            @RequestParam(value = "endDate", required = false) String endDate,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip
+    ) {
+        return export("Expenses", ExportFormat.of(format, gzip),
+                exportFormat -> reportService.streamExpenseDetailedReport(search, startDate, endDate, exportFormat));
     }
 
     @GetMapping("/expenses/currency-breakdown")
-    public ResponseEntity<byte[]> getExpenseCurrencySummary(
+    public ResponseEntity<StreamingResponseBody> getExpenseCurrencySummary(
             @RequestParam(value = "search", defaultValue = "", required = false) String search,
             @RequestParam(value = "startDate", required = false) String startDate,
-            @RequestParam(value = "endDate", required = false) String endDate
-    ) throws Exception {
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=ExpenseCurrencySummary.xlsx")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(reportService.generateExpenseCurrencySummaryReport(search, startDate, endDate));
+            @RequestParam(value = "endDate", required = false) String endDate,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip
+    ) {
+        return export("ExpenseCurrencySummary", ExportFormat.of(format, gzip),
+                exportFormat -> reportService.streamExpenseCurrencySummaryReport(search, startDate, endDate, exportFormat));
     }
 
     @GetMapping("/expenses/currency-breakdown/preview")
@@ -116,15 +126,15 @@ public record ReportController(ReportService reportService) {
     }
 
     @GetMapping("/expenses/monthly-trend")
-    public ResponseEntity<byte[]> getExpenseMonthlyTrend(
+    public ResponseEntity<StreamingResponseBody> getExpenseMonthlyTrend(
             @RequestParam(value = "search", defaultValue = "", required = false) String search,
             @RequestParam(value = "startDate", required = false) String startDate,
-            @RequestParam(value = "endDate", required = false) String endDate
-    ) throws Exception {
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=ExpenseMonthlyTrend.xlsx")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(reportService.generateExpenseMonthlyTrendReport(search, startDate, endDate));
+            @RequestParam(value = "endDate", required = false) String endDate,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip
+    ) {
+        return export("ExpenseMonthlyTrend", ExportFormat.of(format, gzip),
+                exportFormat -> reportService.streamExpenseMonthlyTrendReport(search, startDate, endDate, exportFormat));
     }
 
     @GetMapping("/expenses/monthly-trend/preview")
@@ -135,4 +145,35 @@ public record ReportController(ReportService reportService) {
     ) {
         return ResponseEntity.ok(reportService.getExpenseMonthlyTrend(search, startDate, endDate));
     }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<ReportJobResponse> submitJob(@RequestBody ReportJobRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ReportJobResponse.from(reportJobService.submit(request)));
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ReportJobResponse> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(ReportJobResponse.from(reportJobService.get(id)));
+    }
+
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<?> downloadJob(@PathVariable String id) {
+        ReportJobService.ReportArtifact artifact = reportJobService.download(id);
+        if (artifact.view().isRedirect()) {
+            return ResponseEntity.status(HttpStatus.FOUND).location(artifact.view().redirectUri()).build();
+        }
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=" + artifact.fileName())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(artifact.view().resource());
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String baseName, ExportFormat format,
+                                                         Function<ExportFormat, StreamingResponseBody> report) {
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=" + format.fileName(baseName))
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .body(report.apply(format));
+    }
 }
@@ -0,0 +1,7 @@
+package com.kq.fleet_and_cargo.enums;
+
+public enum CargoEventType {
+    CARGO_CREATED,
+    STATUS_CHANGED,
+    FILE_ATTACHED
+}
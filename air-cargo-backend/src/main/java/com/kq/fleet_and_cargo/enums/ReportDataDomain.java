@@ -0,0 +1,7 @@
+package com.kq.fleet_and_cargo.enums;
+
+public enum ReportDataDomain {
+    CARGO,
+    CUSTOMER,
+    EXPENSE
+}
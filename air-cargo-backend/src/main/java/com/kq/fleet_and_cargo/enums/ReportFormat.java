@@ -0,0 +1,35 @@
+package com.kq.fleet_and_cargo.enums;
+
+import com.kq.fleet_and_cargo.exceptions.BadRequestException;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+@Getter
+public enum ReportFormat {
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+    CSV("csv", "text/csv"),
+    PARQUET("parquet", "application/vnd.apache.parquet");
+
+    private final String extension;
+    private final String contentType;
+
+    ReportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    /** Case-insensitive lookup for the {@code format} request parameter; blank means XLSX. */
+    public static ReportFormat from(String value) {
+        if (value == null || value.isBlank()) {
+            return XLSX;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported report format '" + value + "', expected one of "
+                    + Arrays.toString(values()).toLowerCase(Locale.ROOT));
+        }
+    }
+}
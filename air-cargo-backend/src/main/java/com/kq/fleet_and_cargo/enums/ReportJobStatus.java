@@ -0,0 +1,8 @@
+package com.kq.fleet_and_cargo.enums;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,20 @@
+package com.kq.fleet_and_cargo.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum ReportType {
+    CARGOS("CargoReports"),
+    CUSTOMERS("CustomerReports"),
+    PICKUP_CITY_REVENUE("PickupCityRevenue"),
+    CARGO_TYPE_DISTRIBUTION("CargoTypeDistribution"),
+    EXPENSES("Expenses"),
+    EXPENSE_CURRENCY_SUMMARY("ExpenseCurrencySummary"),
+    EXPENSE_MONTHLY_TREND("ExpenseMonthlyTrend");
+
+    private final String fileName;
+
+    ReportType(String fileName) {
+        this.fileName = fileName;
+    }
+}
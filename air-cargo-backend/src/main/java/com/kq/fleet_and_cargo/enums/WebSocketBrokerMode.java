@@ -0,0 +1,3 @@
+package com.kq.fleet_and_cargo.enums;
+
+public enum WebSocketBrokerMode { SIMPLE, RELAY }
@@ -0,0 +1,20 @@
+package com.kq.fleet_and_cargo.events;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * A committed write to a second-level cached entity, made on this instance or received from another.
+ */
+@Getter
+public class EntityChangedEvent extends ApplicationEvent {
+
+    private final Class<?> type;
+    private final String id;
+
+    public EntityChangedEvent(Object source, Class<?> type, String id) {
+        super(source);
+        this.type = type;
+        this.id = id;
+    }
+}
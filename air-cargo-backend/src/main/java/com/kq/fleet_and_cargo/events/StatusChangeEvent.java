@@ -2,11 +2,18 @@ package com.kq.fleet_and_cargo.events;
 
 
 import com.kq.fleet_and_cargo.models.Notification;
+import lombok.Getter;
 import org.springframework.context.ApplicationEvent;
 
+import java.util.List;
+
+@Getter
 public class StatusChangeEvent extends ApplicationEvent {
-    public StatusChangeEvent(Object source) {
+    private final List<String> recipientIds;
+
+    public StatusChangeEvent(Notification source, List<String> recipientIds) {
         super(source);
+        this.recipientIds = recipientIds;
     }
 
 }
\ No newline at end of file
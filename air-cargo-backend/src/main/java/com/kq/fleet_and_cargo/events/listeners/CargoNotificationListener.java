@@ -1,20 +1,38 @@
 package com.kq.fleet_and_cargo.events.listeners;
 
 
-import com.kq.fleet_and_cargo.events.CargoAddedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kq.fleet_and_cargo.enums.CargoEventType;
+import com.kq.fleet_and_cargo.payload.dto.CargoEvent;
+import com.kq.fleet_and_cargo.services.WebSocketPublisher;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+/**
+ * Pushes cargo events to WebSocket clients. With the simple broker every instance has its own
+ * broadcast queue and pushes to its own clients; with the broker relay the instances share one
+ * queue and each event is pushed once, through the relay, to clients on every instance.
+ */
 @Component
 @RequiredArgsConstructor
 public class CargoNotificationListener {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketPublisher publisher;
+    // A redelivery would only repeat a push, so remembering recent ids locally is enough.
+    private final Cache<String, Boolean> pushed = Caffeine.newBuilder().maximumSize(10_000).build();
 
-    @EventListener
-    public void handleCargoAddedEvent(CargoAddedEvent event) {
-        messagingTemplate.convertAndSend("/topic/cargo-notifications", "New cargo added");
+    @RabbitListener(queues = "#{cargoEventBroadcastQueue.name}")
+    public void handleCargoEvent(CargoEvent event, @Header(AmqpHeaders.MESSAGE_ID) String eventId) {
+        if (pushed.asMap().putIfAbsent(eventId, Boolean.TRUE) != null) {
+            return;
+        }
+        if (event.type() == CargoEventType.CARGO_CREATED) {
+            publisher.signal("/topic/cargo-notifications", "New cargo added");
+        }
+        publisher.batch("/topic/cargo-events." + event.cargoId(), event);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+package com.kq.fleet_and_cargo.events.listeners;
+
+import com.kq.fleet_and_cargo.enums.CargoEventType;
+import com.kq.fleet_and_cargo.events.StatusChangeEvent;
+import com.kq.fleet_and_cargo.models.Notification;
+import com.kq.fleet_and_cargo.payload.dto.CargoEvent;
+import com.kq.fleet_and_cargo.services.CargoService;
+import com.kq.fleet_and_cargo.services.NotificationService;
+import com.kq.fleet_and_cargo.repositories.ProcessedEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Turns status changes into a notification for every user, and sends a new cargo's details to its
+ * sender and receiver when it was created with {@code notifyCustomers}. Consumes the partition
+ * queues, so a cargo's changes are applied in order by one consumer at a time across all instances.
+ */
+@Component
+@Slf4j
+public class CargoStatusNotificationListener {
+
+    private static final String CONSUMER = "status-notification";
+    private static final String CUSTOMER_MAIL_CONSUMER = "customer-mail-notice";
+    private static final String CUSTOMER_WHATSAPP_CONSUMER = "customer-whatsapp-notice";
+
+    private final NotificationService notificationService;
+    private final CargoService cargoService;
+    private final ProcessedEventRepository processedEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+
+    public CargoStatusNotificationListener(NotificationService notificationService,
+                                           CargoService cargoService,
+                                           ProcessedEventRepository processedEventRepository,
+                                           ApplicationEventPublisher eventPublisher,
+                                           PlatformTransactionManager transactionManager,
+                                           @Value("${outbox.retention:P7D}") Duration retention) {
+        this.notificationService = notificationService;
+        this.cargoService = cargoService;
+        this.processedEventRepository = processedEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+    }
+
+    @RabbitListener(queues = "#{@rabbitConfiguration.cargoEventPartitionQueueNames()}",
+            concurrency = "${rabbitmq.cargo-event-partitions}")
+    public void handleCargoEvent(CargoEvent event, @Header(AmqpHeaders.MESSAGE_ID) String eventId) {
+        if (event.type() == CargoEventType.STATUS_CHANGED) {
+            notifyUsers(event, eventId);
+        } else if (event.type() == CargoEventType.CARGO_CREATED && event.notifyCustomers()) {
+            // Recorded separately, so a WhatsApp publish that fails is retried without e-mailing the customers again.
+            notifyCustomers(CUSTOMER_MAIL_CONSUMER, eventId, () -> cargoService.sendCargoMail(event.cargoId()));
+            notifyCustomers(CUSTOMER_WHATSAPP_CONSUMER, eventId, () -> cargoService.sendCargoWhatsapp(event.cargoId()));
+        }
+    }
+
+    private void notifyUsers(CargoEvent event, String eventId) {
+        Notification notification = Notification.builder()
+                .message("Cargo #" + event.referenceNumber() + " is now " + event.status().getStatus())
+                .associatedId(event.cargoId())
+                .build();
+        List<String> recipients = transactionTemplate.execute(status -> {
+            if (processedEventRepository.markProcessed(CONSUMER, Long.parseLong(eventId)) == 0) {
+                log.debug("Skipping redelivered event {}", eventId);
+                return null;
+            }
+            return notificationService.notifyAllUsers(notification);
+        });
+        // Pushed after commit, so clients are never told about a notification that was rolled back.
+        if (recipients != null) {
+            eventPublisher.publishEvent(new StatusChangeEvent(notification, recipients));
+        }
+    }
+
+    // Published inside the transaction, so a failed publish leaves the event unprocessed and it is redelivered.
+    private void notifyCustomers(String consumer, String eventId, Runnable send) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (processedEventRepository.markProcessed(consumer, Long.parseLong(eventId)) == 0) {
+                log.debug("Skipping redelivered event {} for {}", eventId, consumer);
+                return;
+            }
+            send.run();
+        });
+    }
+
+    // Redeliveries happen within minutes, so ids older than the outbox retention are never needed.
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval:PT1H}")
+    public void purge() {
+        transactionTemplate.executeWithoutResult(status ->
+                processedEventRepository.deleteProcessedBefore(ZonedDateTime.now().minus(retention)));
+    }
+}
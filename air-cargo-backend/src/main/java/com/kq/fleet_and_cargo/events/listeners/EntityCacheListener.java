@@ -0,0 +1,26 @@
+package com.kq.fleet_and_cargo.events.listeners;
+
+import com.kq.fleet_and_cargo.services.EntityCacheInvalidator;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells {@link EntityCacheInvalidator} about writes to entities kept in the second-level cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCacheListener {
+
+    private final ObjectProvider<EntityCacheInvalidator> entityCacheInvalidator;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        entityCacheInvalidator.getObject().changed(entity);
+    }
+}
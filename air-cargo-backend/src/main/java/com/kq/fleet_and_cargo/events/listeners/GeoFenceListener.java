@@ -1,24 +1,22 @@
 package com.kq.fleet_and_cargo.events.listeners;
 
 import com.kq.fleet_and_cargo.events.GeoFenceEvent;
-import com.kq.fleet_and_cargo.events.StatusChangeEvent;
 import com.kq.fleet_and_cargo.models.Notification;
+import com.kq.fleet_and_cargo.services.WebSocketPublisher;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import lombok.val;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
-@Slf4j
 public class GeoFenceListener {
-    private final SimpMessagingTemplate messagingTemplate;
+
+    private final WebSocketPublisher publisher;
+
+    // Dot-separated like the other per-id topics, which the broker relay needs; a burst arrives as one array frame.
     @EventListener
     public void handleNotification(GeoFenceEvent event) {
-
-            messagingTemplate.convertAndSend("/topic/geofence-update/" + ((Notification)event.getSource()).getAssociatedId(), event.getSource());
-        }
+        Notification notification = (Notification) event.getSource();
+        publisher.batch("/topic/geofence-update." + notification.getAssociatedId(), notification);
     }
-
+}
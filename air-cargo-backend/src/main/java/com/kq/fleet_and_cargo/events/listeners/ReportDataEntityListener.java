@@ -0,0 +1,47 @@
+package com.kq.fleet_and_cargo.events.listeners;
+
+import com.kq.fleet_and_cargo.enums.ReportDataDomain;
+import com.kq.fleet_and_cargo.models.Cargo;
+import com.kq.fleet_and_cargo.models.Customer;
+import com.kq.fleet_and_cargo.models.Expense;
+import com.kq.fleet_and_cargo.services.ReportCacheService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Tells {@link ReportCacheService} which day of which report domain an entity write touched.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportDataEntityListener {
+
+    private static final ZoneId DEFAULT_ZONE = ZoneId.of("Africa/Mogadishu");
+
+    private final ObjectProvider<ReportCacheService> reportCacheService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        if (entity instanceof Cargo cargo) {
+            mark(ReportDataDomain.CARGO, cargo.getCreatedAt());
+        } else if (entity instanceof Customer customer) {
+            mark(ReportDataDomain.CUSTOMER, customer.getCreatedAt());
+        } else if (entity instanceof Expense expense) {
+            mark(ReportDataDomain.EXPENSE, expense.getIncurredAt() != null ? expense.getIncurredAt() : expense.getCreatedAt());
+        }
+    }
+
+    private void mark(ReportDataDomain domain, ZonedDateTime dateTime) {
+        LocalDate day = dateTime == null ? LocalDate.now(DEFAULT_ZONE) : dateTime.withZoneSameInstant(DEFAULT_ZONE).toLocalDate();
+        reportCacheService.getObject().markChanged(domain, day);
+    }
+}
@@ -1,27 +1,24 @@
 package com.kq.fleet_and_cargo.events.listeners;
 
-import com.kq.fleet_and_cargo.events.CargoAddedEvent;
 import com.kq.fleet_and_cargo.events.StatusChangeEvent;
 import com.kq.fleet_and_cargo.models.Notification;
+import com.kq.fleet_and_cargo.services.WebSocketPublisher;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import lombok.val;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
-@Slf4j
 public class StatusChangeListener {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketPublisher publisher;
 
+    // Queued per user and flushed off this thread; a burst of changes reaches each user as one frame.
     @EventListener
     public void handleNotification(StatusChangeEvent event) {
-        for(val u : ((Notification)event.getSource()).getUsers()){
-            log.info("Sending notification to user: {}", u.getId());
-            messagingTemplate.convertAndSend("/topic/notifications/" + u.getId(), event.getSource());
+        Notification notification = (Notification) event.getSource();
+        for (String userId : event.getRecipientIds()) {
+            publisher.batch("/topic/notifications." + userId, notification);
         }
     }
 }
\ No newline at end of file
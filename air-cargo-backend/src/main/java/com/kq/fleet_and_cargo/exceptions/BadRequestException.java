@@ -0,0 +1,12 @@
+package com.kq.fleet_and_cargo.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+@Getter
+public class BadRequestException extends RuntimeException {
+    private final HttpStatus status = HttpStatus.BAD_REQUEST;
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package com.kq.fleet_and_cargo.filters;
 
 import com.kq.fleet_and_cargo.services.JWTAuthService;
+import com.kq.fleet_and_cargo.services.PrincipalCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,8 +12,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -21,7 +24,8 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JWTAuthService authService;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
       final String authHeader = request.getHeader("Authorization");
@@ -33,13 +37,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
           return;
       }
       jwt = authHeader.substring(7);
-      userEmail = authService.extractEmail(jwt);
+      // One signature check per request; the user comes from memory unless it changed or expired.
+      Claims claims = authService.extractClaims(jwt);
+      userEmail = claims.getSubject();
       if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null){
-          UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-          if(authService.isTokenValid(jwt, userDetails)){
+          UserDetails userDetails = principalCache.get(userEmail);
+          if(authService.isTokenValid(claims, userDetails)){
               UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
               authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
               SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+              // This filter skips the ASYNC dispatch of a streamed response; the security chain restores the user from here.
+              securityContextRepository.saveContext(SecurityContextHolder.getContext(), request, response);
           }
       }
       filterChain.doFilter(request, response);
@@ -1,27 +1,40 @@
 package com.kq.fleet_and_cargo.models;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.kq.fleet_and_cargo.events.listeners.ReportDataEntityListener;
+import com.kq.fleet_and_cargo.services.ReferenceNumberAllocator;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Formula;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(ReportDataEntityListener.class)
 @Getter
 @Setter
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+// Keyset pages walk (created_at, id), overall and per sender or receiver; reference_number is unique already.
+@Table(indexes = {
+        @Index(name = "idx_cargo_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_cargo_sender_created_at_id", columnList = "sender_id, created_at, id"),
+        @Index(name = "idx_cargo_receiver_created_at_id", columnList = "receiver_id, created_at, id")
+})
 public class Cargo {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
-    @SequenceGenerator(name = "cargo_reference_seq", sequenceName = "cargo_reference_seq", allocationSize = 1)
+    @SequenceGenerator(name = "cargo_reference_seq", sequenceName = "cargo_reference_seq", allocationSize = ReferenceNumberAllocator.BLOCK_SIZE)
     @Column(unique = true, updatable = false)
     private Long referenceNumber;
     private double weight;
@@ -43,6 +56,15 @@ public class Cargo {
     private List<CargoTrackingHistory> trackingHistory = new ArrayList<>();
     @Embedded
     private Money price;
+    /** {@link #price} in the preferred currency bound by {@code CurrencyProjection}, computed by the query. */
+    @Formula("money_round(amount * fx_rate())")
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private BigDecimal preferredAmount;
+    @Formula("coalesce(fx_currency(), currency)")
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private String preferredCurrencyCode;
 
     @UpdateTimestamp
 
@@ -56,4 +78,9 @@ public class Cargo {
         return weight * quantity;
     }
 
+    @JsonProperty("preferredPrice")
+    public Money getPreferredPrice() {
+        return preferredAmount == null ? price : new Money(preferredAmount, preferredCurrencyCode);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.kq.fleet_and_cargo.models;
+
+import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Latest {@link LuggageStatus} of each cargo, kept in step with the tracking history by
+ * {@code CargoStatusService} so listings, status filters and counts avoid scanning the history.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "cargo_current_status", indexes = {
+        @Index(name = "idx_cargo_current_status_status", columnList = "status, updated_at")
+})
+public class CargoCurrentStatus {
+    @Id
+    @Column(name = "cargo_id")
+    private String cargoId;
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cargo_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Cargo cargo;
+    @Column(nullable = false)
+    private LuggageStatusEnum status;
+    private String location;
+    private ZonedDateTime updatedAt;
+}
@@ -0,0 +1,33 @@
+package com.kq.fleet_and_cargo.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Denormalized, lower-cased text of everything a cargo can be searched by
+ * (reference number, ids, sender/receiver details, route and cargo type).
+ * Rows are written by {@code CargoSearchService} and served by a pg_trgm GIN index.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "cargo_search_document")
+public class CargoSearchDocument {
+    @Id
+    @Column(name = "cargo_id")
+    private String cargoId;
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cargo_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Cargo cargo;
+    @Column(nullable = false, columnDefinition = "text")
+    private String document;
+    private ZonedDateTime updatedAt;
+}
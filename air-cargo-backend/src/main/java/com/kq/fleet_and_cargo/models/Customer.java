@@ -3,6 +3,7 @@ package com.kq.fleet_and_cargo.models;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.kq.fleet_and_cargo.enums.Gender;
+import com.kq.fleet_and_cargo.events.listeners.ReportDataEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -13,6 +14,7 @@ import java.util.Set;
 
 
 @Entity
+@EntityListeners(ReportDataEntityListener.class)
 @Getter
 @Setter
 @Builder
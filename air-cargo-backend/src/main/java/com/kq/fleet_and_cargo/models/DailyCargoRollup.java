@@ -0,0 +1,38 @@
+package com.kq.fleet_and_cargo.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Cargos created per day (Africa/Mogadishu) and route/type, with their revenue.
+ * Maintained by {@code AnalyticsRollupService}.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "daily_cargo_rollup")
+public class DailyCargoRollup {
+    @EmbeddedId
+    private Key key;
+    private long cargoCount;
+    @Column(precision = 19, scale = 4)
+    private BigDecimal revenue;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private String pickupLocation;
+        private String destination;
+        private String cargoType;
+    }
+}
@@ -0,0 +1,21 @@
+package com.kq.fleet_and_cargo.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Customer registrations per day. Maintained by {@code AnalyticsRollupService}.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "daily_customer_rollup")
+public class DailyCustomerRollup {
+    @Id
+    private LocalDate day;
+    private long registrations;
+}
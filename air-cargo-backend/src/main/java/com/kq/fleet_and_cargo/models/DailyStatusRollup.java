@@ -0,0 +1,34 @@
+package com.kq.fleet_and_cargo.models;
+
+import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Cargos per current status, bucketed by the day that status was set.
+ * Maintained by {@code AnalyticsRollupService}.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "daily_status_rollup")
+public class DailyStatusRollup {
+    @EmbeddedId
+    private Key key;
+    private long cargoCount;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private LuggageStatusEnum status;
+    }
+}
@@ -1,6 +1,7 @@
 package com.kq.fleet_and_cargo.models;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.kq.fleet_and_cargo.events.listeners.ReportDataEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +14,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.ZonedDateTime;
 
 @Entity
+@EntityListeners(ReportDataEntityListener.class)
 @Table(name = "expenses")
 @Getter
 @Setter
@@ -1,11 +1,16 @@
 package com.kq.fleet_and_cargo.models;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.kq.fleet_and_cargo.events.listeners.EntityCacheListener;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.ZonedDateTime;
@@ -13,6 +18,9 @@ import java.time.ZonedDateTime;
 @Getter @Setter @Builder
 @NoArgsConstructor @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "fx-rates")
+@EntityListeners(EntityCacheListener.class)
 public class FXRates {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
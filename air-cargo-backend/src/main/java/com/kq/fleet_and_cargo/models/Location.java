@@ -1,9 +1,15 @@
 package com.kq.fleet_and_cargo.models;
 
+import com.kq.fleet_and_cargo.events.listeners.EntityCacheListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "locations")
+@EntityListeners(EntityCacheListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
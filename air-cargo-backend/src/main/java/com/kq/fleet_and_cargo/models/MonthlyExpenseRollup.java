@@ -0,0 +1,37 @@
+package com.kq.fleet_and_cargo.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Expense totals per closed month (Africa/Mogadishu) and normalized currency. The month still in
+ * progress is never stored here. Maintained by {@code AnalyticsRollupService}.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "monthly_expense_rollup")
+public class MonthlyExpenseRollup {
+    @EmbeddedId
+    private Key key;
+    @Column(precision = 19, scale = 4)
+    private BigDecimal totalAmount;
+    private long expenseCount;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        /** First day of the month. */
+        private LocalDate month;
+        private String currencyCode;
+    }
+}
@@ -1,13 +1,11 @@
 package com.kq.fleet_and_cargo.models;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.ZonedDateTime;
-import java.util.List;
 
 @Entity
 @Getter
@@ -20,17 +18,7 @@ public class Notification {
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
     private String message;
-    @JsonIgnore
-    @ManyToMany
-    @JoinTable(
-            name = "user_notifications",
-            joinColumns = @JoinColumn(name = "notification_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
-    )
-
-    private List<User> users;
     private String associatedId;
-    private boolean isRead;
 
     @CreationTimestamp
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Africa/Mogadishu")
@@ -0,0 +1,34 @@
+package com.kq.fleet_and_cargo.models;
+
+import com.kq.fleet_and_cargo.enums.CargoEventType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A cargo event written in the transaction that caused it and published to RabbitMQ afterwards by
+ * {@code OutboxRelay}. Ids come from {@code outbox_event_seq} one at a time, in the order the events
+ * for a cargo were written, so relaying by id keeps each cargo's events in order.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "outbox_event")
+public class OutboxEvent {
+    @Id
+    private Long id;
+    @Column(nullable = false)
+    private String cargoId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CargoEventType type;
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+    @Column(nullable = false)
+    private ZonedDateTime createdAt;
+    private ZonedDateTime publishedAt;
+}
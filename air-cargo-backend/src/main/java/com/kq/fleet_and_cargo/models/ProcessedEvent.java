@@ -0,0 +1,34 @@
+package com.kq.fleet_and_cargo.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * Outbox events a consumer has already applied, recorded in the same transaction as their effect
+ * so a redelivered event is recognised and skipped.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "processed_event")
+public class ProcessedEvent {
+    @EmbeddedId
+    private Key key;
+    @Column(nullable = false)
+    private ZonedDateTime processedAt;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String consumer;
+        private Long eventId;
+    }
+}
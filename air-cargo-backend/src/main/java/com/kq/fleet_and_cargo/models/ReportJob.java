@@ -0,0 +1,55 @@
+package com.kq.fleet_and_cargo.models;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.kq.fleet_and_cargo.enums.ReportFormat;
+import com.kq.fleet_and_cargo.enums.ReportJobStatus;
+import com.kq.fleet_and_cargo.enums.ReportType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A report export generated in the background. Requests with the same {@code fingerprint}
+ * share one job while it is in flight and its artifact until {@code expiresAt}.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "report_job", indexes = @Index(name = "idx_report_job_fingerprint", columnList = "fingerprint, status"))
+public class ReportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReportType type;
+    private String search;
+    private String startDate;
+    private String endDate;
+    @Enumerated(EnumType.STRING)
+    private ReportFormat format;
+    private Boolean gzip;
+    @Column(nullable = false)
+    private String fingerprint;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReportJobStatus status;
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "file_id")
+    private File file;
+    @Column(columnDefinition = "text")
+    private String error;
+    private String requestedBy;
+    @CreationTimestamp
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Africa/Mogadishu")
+    private ZonedDateTime createdAt;
+    private ZonedDateTime completedAt;
+    private ZonedDateTime expiresAt;
+    /** Refreshed by the instance holding a queued or running job; a job whose heartbeat stops is failed. */
+    private ZonedDateTime heartbeatAt;
+}
@@ -0,0 +1,35 @@
+package com.kq.fleet_and_cargo.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * A notification in one user's inbox. Read state belongs to the recipient, so marking it read
+ * for one user leaves it unread for everyone else.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_notifications")
+public class UserNotification {
+    @EmbeddedId
+    private Key key;
+    private ZonedDateTime readAt;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        @Column(name = "user_id")
+        private String userId;
+        @Column(name = "notification_id")
+        private String notificationId;
+    }
+}
@@ -5,6 +5,7 @@ import java.time.ZonedDateTime;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
+import com.kq.fleet_and_cargo.models.Cargo;
 import com.kq.fleet_and_cargo.models.Customer;
 import com.kq.fleet_and_cargo.models.Money;
 
@@ -31,7 +32,28 @@ public class CargoDto {
     
         @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Africa/Mogadishu") private ZonedDateTime createdAt;
     private Money price;
+    private Money preferredPrice;
     public double getTotalWeight() {
         return weight * quantity;
     }
+
+    /** {@code status} is left for {@code CargoStatusService.fill}. */
+    public static CargoDto from(Cargo cargo) {
+        CargoDto dto = new CargoDto();
+        dto.setId(cargo.getId());
+        dto.setWeight(cargo.getWeight());
+        dto.setPickupLocation(cargo.getPickupLocation());
+        dto.setDestination(cargo.getDestination());
+        dto.setDescription(cargo.getDescription());
+        dto.setSender(cargo.getSender());
+        dto.setReceiver(cargo.getReceiver());
+        dto.setReferenceNumber(cargo.getReferenceNumber());
+        dto.setCargoType(cargo.getCargoType());
+        dto.setQuantity(cargo.getQuantity());
+        dto.setUpdatedAt(cargo.getUpdatedAt());
+        dto.setCreatedAt(cargo.getCreatedAt());
+        dto.setPrice(cargo.getPrice());
+        dto.setPreferredPrice(cargo.getPreferredPrice());
+        return dto;
+    }
 }
@@ -0,0 +1,33 @@
+package com.kq.fleet_and_cargo.payload.dto;
+
+import com.kq.fleet_and_cargo.enums.CargoEventType;
+import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
+import com.kq.fleet_and_cargo.models.Cargo;
+import com.kq.fleet_and_cargo.models.File;
+import com.kq.fleet_and_cargo.repositories.projections.CargoStatusSnapshot;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A change to a cargo as published on the cargo event exchange. {@code status} and {@code location}
+ * are set for created and status changed events, {@code fileId} for file attachments.
+ * {@code notifyCustomers} asks for a created cargo's details to be sent to its sender and receiver.
+ */
+public record CargoEvent(CargoEventType type, String cargoId, Long referenceNumber, LuggageStatusEnum status,
+                         String location, String fileId, boolean notifyCustomers, ZonedDateTime occurredAt) {
+
+    public static CargoEvent created(Cargo cargo, boolean notifyCustomers) {
+        return new CargoEvent(CargoEventType.CARGO_CREATED, cargo.getId(), cargo.getReferenceNumber(),
+                LuggageStatusEnum.PENDING, cargo.getPickupLocation(), null, notifyCustomers, ZonedDateTime.now());
+    }
+
+    public static CargoEvent statusChanged(CargoStatusSnapshot status) {
+        return new CargoEvent(CargoEventType.STATUS_CHANGED, status.getCargoId(), status.getReferenceNumber(),
+                status.getStatus(), status.getLocation(), null, false, ZonedDateTime.now());
+    }
+
+    public static CargoEvent fileAttached(Cargo cargo, File file) {
+        return new CargoEvent(CargoEventType.FILE_ATTACHED, cargo.getId(), cargo.getReferenceNumber(),
+                null, null, file.getId(), false, ZonedDateTime.now());
+    }
+}
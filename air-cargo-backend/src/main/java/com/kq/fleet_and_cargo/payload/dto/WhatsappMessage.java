@@ -1,12 +1,20 @@
 package com.kq.fleet_and_cargo.payload.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.util.List;
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class WhatsappMessage {
     private String to;
     private String message;
+    // An approved template is sent instead of the free-form message when set.
+    private String template;
+    private String language;
+    private List<String> parameters;
 }
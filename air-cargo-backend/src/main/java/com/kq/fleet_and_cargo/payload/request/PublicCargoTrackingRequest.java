@@ -4,10 +4,12 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
 import com.kq.fleet_and_cargo.models.Cargo;
+import com.kq.fleet_and_cargo.models.CargoTrackingHistory;
 import com.kq.fleet_and_cargo.models.LuggageStatus;
 import lombok.Data;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -22,4 +24,16 @@ public class PublicCargoTrackingRequest {
         @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Africa/Mogadishu") private ZonedDateTime createdAt;
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private ZonedDateTime updatedAt;
+
+    public static PublicCargoTrackingRequest from(CargoTrackingHistory trackingHistory) {
+        PublicCargoTrackingRequest request = new PublicCargoTrackingRequest();
+        request.setId(trackingHistory.getId());
+        request.setCargo(trackingHistory.getCargo());
+        request.setLocation(trackingHistory.getLocation());
+        request.setHistory(trackingHistory.getHistory() == null ? null : new ArrayList<>(trackingHistory.getHistory()));
+        request.setDescription(trackingHistory.getDescription());
+        request.setCreatedAt(trackingHistory.getCreatedAt());
+        request.setUpdatedAt(trackingHistory.getUpdatedAt());
+        return request;
+    }
 }
@@ -0,0 +1,13 @@
+package com.kq.fleet_and_cargo.payload.request;
+
+import com.kq.fleet_and_cargo.enums.ReportType;
+
+public record ReportJobRequest(
+        ReportType type,
+        String search,
+        String startDate,
+        String endDate,
+        String format,
+        Boolean gzip
+) {
+}
@@ -0,0 +1,12 @@
+package com.kq.fleet_and_cargo.payload.response;
+
+public record CargoBatchItemResponse(int index, String cargoId, Long referenceNumber, String error) {
+
+    public static CargoBatchItemResponse created(int index, String cargoId, Long referenceNumber) {
+        return new CargoBatchItemResponse(index, cargoId, referenceNumber, null);
+    }
+
+    public static CargoBatchItemResponse rejected(int index, String error) {
+        return new CargoBatchItemResponse(index, null, null, error);
+    }
+}
@@ -1,4 +1,11 @@
 package com.kq.fleet_and_cargo.payload.response;
 
-public record CargoTypeSummaryResponse(String cargoType, long totalShipments, double totalRevenue) {
+import com.kq.fleet_and_cargo.repositories.projections.CargoTypeSummary;
+
+public record CargoTypeSummaryResponse(String cargoType, long totalShipments, double totalRevenue, String currencyCode) {
+
+    public static CargoTypeSummaryResponse from(CargoTypeSummary row, String currencyCode) {
+        return new CargoTypeSummaryResponse(row.getCargoType(), row.getTotalShipments(),
+                row.getTotalRevenue().doubleValue(), currencyCode);
+    }
 }
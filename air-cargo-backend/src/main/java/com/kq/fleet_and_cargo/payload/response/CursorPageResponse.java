@@ -0,0 +1,15 @@
+package com.kq.fleet_and_cargo.payload.response;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One slice of a keyset paginated listing. {@code nextCursor} is passed back to fetch the
+ * following slice; {@code estimatedTotal} is only filled in when requested and available.
+ */
+public record CursorPageResponse<T>(List<T> content, String nextCursor, boolean hasNext, Long estimatedTotal) {
+
+    public <R> CursorPageResponse<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPageResponse<>(content.stream().<R>map(mapper).toList(), nextCursor, hasNext, estimatedTotal);
+    }
+}
@@ -7,6 +7,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.kq.fleet_and_cargo.enums.Gender;
+import com.kq.fleet_and_cargo.models.Customer;
 
 import lombok.Data;
 @Data
@@ -24,4 +25,18 @@ public class CustomerNoCargoResponse {
     @UpdateTimestamp
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Africa/Mogadishu")
     private ZonedDateTime updatedAt;
+
+    public static CustomerNoCargoResponse from(Customer customer) {
+        CustomerNoCargoResponse response = new CustomerNoCargoResponse();
+        response.setId(customer.getId());
+        response.setFirstName(customer.getFirstName());
+        response.setLastName(customer.getLastName());
+        response.setEmail(customer.getEmail());
+        response.setPhoneNumber(customer.getPhoneNumber());
+        response.setAddress(customer.getAddress());
+        response.setGender(customer.getGender());
+        response.setCreatedAt(customer.getCreatedAt());
+        response.setUpdatedAt(customer.getUpdatedAt());
+        return response;
+    }
 }
@@ -1,4 +1,10 @@
 package com.kq.fleet_and_cargo.payload.response;
 
-public record PickupCityRevenueResponse(String pickupLocation, double totalRevenue) {
+import com.kq.fleet_and_cargo.repositories.projections.PickupCityRevenue;
+
+public record PickupCityRevenueResponse(String pickupLocation, double totalRevenue, String currencyCode) {
+
+    public static PickupCityRevenueResponse from(PickupCityRevenue row, String currencyCode) {
+        return new PickupCityRevenueResponse(row.getPickupLocation(), row.getTotalRevenue().doubleValue(), currencyCode);
+    }
 }
@@ -0,0 +1,31 @@
+package com.kq.fleet_and_cargo.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.kq.fleet_and_cargo.enums.ReportJobStatus;
+import com.kq.fleet_and_cargo.enums.ReportType;
+import com.kq.fleet_and_cargo.models.ReportJob;
+
+import java.time.ZonedDateTime;
+
+public record ReportJobResponse(
+        String id,
+        ReportType type,
+        ReportJobStatus status,
+        String error,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Africa/Mogadishu")
+        ZonedDateTime createdAt,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Africa/Mogadishu")
+        ZonedDateTime completedAt,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Africa/Mogadishu")
+        ZonedDateTime expiresAt,
+        String downloadUrl
+) {
+
+    public static ReportJobResponse from(ReportJob job) {
+        String downloadUrl = job.getStatus() == ReportJobStatus.COMPLETED
+                ? "/api/reports/jobs/" + job.getId() + "/download"
+                : null;
+        return new ReportJobResponse(job.getId(), job.getType(), job.getStatus(), job.getError(),
+                job.getCreatedAt(), job.getCompletedAt(), job.getExpiresAt(), downloadUrl);
+    }
+}
@@ -0,0 +1,54 @@
+package com.kq.fleet_and_cargo.repositories;
+
+import com.kq.fleet_and_cargo.models.CargoCurrentStatus;
+import com.kq.fleet_and_cargo.repositories.projections.CargoStatusSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Repository
+public interface CargoCurrentStatusRepository extends JpaRepository<CargoCurrentStatus, String> {
+
+    String LATEST_SELECT = """
+            SELECT DISTINCT ON (h.cargo_id) h.cargo_id, ls.status, h.location, ls.created_at
+            FROM luggage_status ls
+            JOIN cargo_tracking_history h ON h.id = ls.cargo_tracking_history_id
+            """;
+
+    String UPSERT = """
+            ORDER BY h.cargo_id, ls.created_at DESC
+            ON CONFLICT (cargo_id) DO UPDATE
+            SET status = EXCLUDED.status, location = EXCLUDED.location, updated_at = EXCLUDED.updated_at
+            """;
+
+    @Query("SELECT s.cargoId AS cargoId, c.referenceNumber AS referenceNumber, s.status AS status, "
+            + "s.location AS location FROM CargoCurrentStatus s JOIN s.cargo c WHERE s.cargoId IN :cargoIds")
+    List<CargoStatusSnapshot> findSnapshots(@Param("cargoIds") List<String> cargoIds);
+
+    @Query("SELECT DISTINCT s.updatedAt FROM CargoCurrentStatus s WHERE s.cargoId IN :cargoIds")
+    List<ZonedDateTime> findUpdatedAtByCargoIds(@Param("cargoIds") List<String> cargoIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO cargo_current_status (cargo_id, status, location, updated_at) "
+            + LATEST_SELECT + "WHERE h.cargo_id IN (:cargoIds) " + UPSERT, nativeQuery = true)
+    int refresh(@Param("cargoIds") List<String> cargoIds);
+
+    /** Drops the current status of cargos whose tracking history no longer has any status. */
+    @Modifying
+    @Query(value = "DELETE FROM cargo_current_status s WHERE s.cargo_id IN (:cargoIds) AND NOT EXISTS ("
+            + "SELECT 1 FROM luggage_status ls JOIN cargo_tracking_history h ON h.id = ls.cargo_tracking_history_id "
+            + "WHERE h.cargo_id = s.cargo_id)", nativeQuery = true)
+    int deleteWithoutHistory(@Param("cargoIds") List<String> cargoIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO cargo_current_status (cargo_id, status, location, updated_at) "
+            + LATEST_SELECT
+            + "WHERE NOT EXISTS (SELECT 1 FROM cargo_current_status s WHERE s.cargo_id = h.cargo_id) " + UPSERT,
+            nativeQuery = true)
+    int refreshMissing();
+}
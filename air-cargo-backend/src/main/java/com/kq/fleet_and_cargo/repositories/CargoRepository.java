@@ -1,91 +1,102 @@
 package com.kq.fleet_and_cargo.repositories;
 
 import com.kq.fleet_and_cargo.models.Cargo;
-import com.kq.fleet_and_cargo.models.CargoTrackingHistory;
+import com.kq.fleet_and_cargo.repositories.projections.CargoTypeSummary;
+import com.kq.fleet_and_cargo.repositories.projections.PickupCityRevenue;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface CargoRepository extends JpaRepository<Cargo, String> {
+public interface CargoRepository extends JpaRepository<Cargo, String>, JpaSpecificationExecutor<Cargo> {
+        String CONVERTED_PRICE = "FUNCTION('money_round', c.price.amount * :rate)";
+
+        // Listings and detail reads load sender and receiver in the same row instead of one select each.
+        @Override
+        @EntityGraph(attributePaths = { "sender", "receiver" })
+        Page<Cargo> findAll(Specification<Cargo> spec, Pageable pageable);
+
+        @Override
+        @EntityGraph(attributePaths = { "sender", "receiver" })
+        Optional<Cargo> findById(String id);
+
+        @EntityGraph(attributePaths = { "sender", "receiver" })
         @Query("SELECT l FROM Cargo l " +
-                        "WHERE (LOWER(l.sender.firstName) LIKE LOWER(concat('%', :search, '%')) " +
-                        "OR LOWER(concat(l.sender.firstName, ' ', l.sender.lastName)) LIKE LOWER(concat('%', :search, '%')) "
-                        +
-                        "OR LOWER(l.sender.lastName) LIKE LOWER(concat('%', :search, '%')) " +
-                        "OR LOWER(l.id) LIKE LOWER(concat('%', :search, '%')) " +
-                        "OR LOWER(l.sender.email) LIKE LOWER(concat('%', :search, '%')) " +
-                        "OR LOWER(l.sender.phoneNumber) LIKE LOWER(concat('%', :search, '%')) " +
-                        "OR LOWER(l.destination) LIKE LOWER(concat('%', :search, '%')) " +
-                        "OR LOWER(l.cargoType) LIKE LOWER(concat('%', :search, '%')) " +
-                        "OR LOWER(l.pickupLocation) LIKE LOWER(concat('%', :search, '%'))) " +
-                        "AND ((:pickupLocation IS NULL OR :pickupLocation = '') OR LOWER(l.pickupLocation) = LOWER(:pickupLocation)) "
+                        "WHERE ((:pickupLocation IS NULL OR :pickupLocation = '') OR LOWER(l.pickupLocation) = LOWER(:pickupLocation)) "
                         +
                         "AND ((:destination IS NULL OR :destination = '') OR LOWER(l.destination) = LOWER(:destination))")
-        Page<Cargo> findAll(@Param("search") String search,
-                        @Param("pickupLocation") String pickupLocation,
+        Page<Cargo> findAllByRoute(@Param("pickupLocation") String pickupLocation,
                         @Param("destination") String destination,
                         Pageable pageable);
 
+        @EntityGraph(attributePaths = { "sender", "receiver" })
         @Query("SELECT l FROM Cargo l " +
-                        "WHERE l.createdAt BETWEEN :startDate AND :endDate AND (" +
-                        "LOWER(l.id) LIKE LOWER(concat('%', :search, '%')) OR " +
-                        "LOWER(l.sender.firstName) LIKE LOWER(concat('%', :search, '%')) OR " +
-                        "LOWER(l.sender.lastName) LIKE LOWER(concat('%', :search, '%')) OR " +
-                        "LOWER(concat(l.sender.firstName, ' ', l.sender.lastName)) LIKE LOWER(concat('%', :search, '%')) OR "
-                        +
-                        "LOWER(l.sender.email) LIKE LOWER(concat('%', :search, '%')) OR " +
-                        "LOWER(l.sender.phoneNumber) LIKE LOWER(concat('%', :search, '%')) OR " +
-                        "LOWER(l.destination) LIKE LOWER(concat('%', :search, '%')) OR " +
-                        "LOWER(l.pickupLocation) LIKE LOWER(concat('%', :search, '%')) OR " +
-                        "LOWER(l.cargoType) LIKE LOWER(concat('%', :search, '%'))) " +
+                        "WHERE l.createdAt BETWEEN :startDate AND :endDate " +
                         "AND ((:pickupLocation IS NULL OR :pickupLocation = '') OR LOWER(l.pickupLocation) = LOWER(:pickupLocation)) "
                         +
                         "AND ((:destination IS NULL OR :destination = '') OR LOWER(l.destination) = LOWER(:destination))")
-        Page<Cargo> findAllByDate(@Param("search") String search,
-                        @Param("startDate") ZonedDateTime start,
+        Page<Cargo> findAllByRouteAndDate(@Param("startDate") ZonedDateTime start,
                         @Param("endDate") ZonedDateTime end,
                         @Param("pickupLocation") String pickupLocation,
                         @Param("destination") String destination,
                         Pageable pageable);
 
-        @Query("SELECT l FROM Cargo l " +
+        // Export cursor: sender and receiver are fetched in the same row and the driver pages results.
+        @QueryHints({
+                        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+        })
+        @Query("SELECT l FROM Cargo l JOIN FETCH l.sender s LEFT JOIN FETCH l.receiver " +
                         "WHERE l.createdAt BETWEEN :startDate AND :endDate AND (" +
                         "LOWER(l.id) LIKE LOWER(concat('%', :search, '%')) OR " +
-                        "LOWER(l.sender.firstName) LIKE LOWER(concat('%', :search, '%')) OR " +
-                        "LOWER(l.sender.lastName) LIKE LOWER(concat('%', :search, '%')) OR " +
-                        "LOWER(concat(l.sender.firstName, ' ', l.sender.lastName)) LIKE LOWER(concat('%', :search, '%')) OR "
+                        "LOWER(s.firstName) LIKE LOWER(concat('%', :search, '%')) OR " +
+                        "LOWER(s.lastName) LIKE LOWER(concat('%', :search, '%')) OR " +
+                        "LOWER(concat(s.firstName, ' ', s.lastName)) LIKE LOWER(concat('%', :search, '%')) OR "
                         +
-                        "LOWER(l.sender.email) LIKE LOWER(concat('%', :search, '%')) OR " +
-                        "LOWER(l.sender.phoneNumber) LIKE LOWER(concat('%', :search, '%')) OR " +
+                        "LOWER(s.email) LIKE LOWER(concat('%', :search, '%')) OR " +
+                        "LOWER(s.phoneNumber) LIKE LOWER(concat('%', :search, '%')) OR " +
 
                         "LOWER(l.destination) LIKE LOWER(concat('%', :search, '%')) OR " +
-                        "LOWER(l.pickupLocation) LIKE LOWER(concat('%', :search, '%'))) ")
-        List<Cargo> findAllByDateNoPaging(@Param("search") String search, @Param("startDate") ZonedDateTime start,
+                        "LOWER(l.pickupLocation) LIKE LOWER(concat('%', :search, '%'))) " +
+                        "ORDER BY l.createdAt")
+        Stream<Cargo> streamAllByDate(@Param("search") String search, @Param("startDate") ZonedDateTime start,
                         @Param("endDate") ZonedDateTime end);
 
+        // Planner statistics, refreshed by autovacuum; NULL until the table has been analyzed.
+        @Query(value = "SELECT CASE WHEN reltuples < 0 THEN NULL ELSE CAST(reltuples AS BIGINT) END " +
+                        "FROM pg_class WHERE oid = CAST('cargo' AS regclass)", nativeQuery = true)
+        Long estimateCount();
+
         @Query("SELECT COUNT(t) FROM Cargo t WHERE t.createdAt BETWEEN :startDate AND :endDate")
         Long countWithDate(@Param("startDate") ZonedDateTime startDate, @Param("endDate") ZonedDateTime endDate);
 
-        @Query("SELECT c.trackingHistory FROM Cargo c WHERE c.id = :id")
-        Optional<Set<CargoTrackingHistory>> findByCargoId(String id);
-
-        @Query("SELECT c.pickupLocation, SUM(c.price.amount) " +
+        /** Revenue is converted at {@code rate} per cargo, see {@code CurrencyProjection}. */
+        @Query("SELECT COALESCE(c.pickupLocation, 'Unknown') AS pickupLocation, " +
+                        "COALESCE(SUM(" + CONVERTED_PRICE + "), 0) AS totalRevenue " +
                         "FROM Cargo c " +
                         "WHERE c.createdAt BETWEEN :startDate AND :endDate " +
                         "GROUP BY c.pickupLocation " +
-                        "ORDER BY SUM(c.price.amount) DESC")
-        List<Object[]> findRevenueByPickupCity(@Param("startDate") ZonedDateTime start,
-                        @Param("endDate") ZonedDateTime end);
+                        "ORDER BY totalRevenue DESC")
+        List<PickupCityRevenue> findRevenueByPickupCity(@Param("startDate") ZonedDateTime start,
+                        @Param("endDate") ZonedDateTime end, @Param("rate") BigDecimal rate);
 
+        @EntityGraph(attributePaths = { "sender", "receiver" })
         @Query("SELECT c FROM Cargo c " +
                         "WHERE c.sender.id = :customerId AND (" +
                         "(:search IS NULL OR :search = '' ) OR " +
@@ -103,6 +114,7 @@ public interface CargoRepository extends JpaRepository<Cargo, String> {
                         @Param("search") String search,
                         Pageable pageable);
 
+        @EntityGraph(attributePaths = { "sender", "receiver" })
         @Query("SELECT c FROM Cargo c " +
                         "WHERE c.receiver.id = :customerId AND (" +
                         "(:search IS NULL OR :search = '' ) OR " +
@@ -120,11 +132,16 @@ public interface CargoRepository extends JpaRepository<Cargo, String> {
                         @Param("search") String search,
                         Pageable pageable);
 
-        @Query("SELECT COALESCE(c.cargoType, 'Unknown'), COUNT(c), COALESCE(SUM(c.price.amount), 0) " +
+        @Query("SELECT COALESCE(c.cargoType, 'Unknown') AS cargoType, COUNT(c) AS totalShipments, " +
+                        "COALESCE(SUM(" + CONVERTED_PRICE + "), 0) AS totalRevenue " +
                         "FROM Cargo c " +
                         "WHERE c.createdAt BETWEEN :startDate AND :endDate " +
                         "GROUP BY c.cargoType " +
                         "ORDER BY COUNT(c) DESC")
-        List<Object[]> findCargoTypeDistribution(@Param("startDate") ZonedDateTime start,
-                        @Param("endDate") ZonedDateTime end);
+        List<CargoTypeSummary> findCargoTypeDistribution(@Param("startDate") ZonedDateTime start,
+                        @Param("endDate") ZonedDateTime end, @Param("rate") BigDecimal rate);
+
+        // Row locks in id order, so writers touching several cargos cannot deadlock on each other.
+        @Query(value = "SELECT id FROM cargo WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+        List<String> lockAllById(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,95 @@
+package com.kq.fleet_and_cargo.repositories;
+
+import com.kq.fleet_and_cargo.models.Cargo;
+import com.kq.fleet_and_cargo.models.CargoSearchDocument;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Repository
+public interface CargoSearchRepository extends JpaRepository<CargoSearchDocument, String> {
+
+    String DOCUMENT_SELECT = """
+            SELECT c.id,
+                   lower(concat_ws(' ', c.reference_number, c.id,
+                                   s.first_name, s.last_name, s.phone_number, s.email,
+                                   r.first_name, r.last_name, r.phone_number, r.email,
+                                   c.pickup_location, c.destination, c.cargo_type)),
+                   now()
+            FROM cargo c
+            LEFT JOIN customer s ON s.id = c.sender_id
+            LEFT JOIN customer r ON r.id = c.receiver_id
+            """;
+
+    String UPSERT = """
+            ON CONFLICT (cargo_id) DO UPDATE
+            SET document = EXCLUDED.document, updated_at = EXCLUDED.updated_at
+            """;
+
+    String SEARCH_FILTER = """
+            WHERE d.document LIKE concat('%', :search, '%')
+              AND ((:pickupLocation IS NULL OR :pickupLocation = '') OR LOWER(c.pickupLocation) = LOWER(:pickupLocation))
+              AND ((:destination IS NULL OR :destination = '') OR LOWER(c.destination) = LOWER(:destination))
+            """;
+
+    String DATE_FILTER = "AND c.createdAt BETWEEN :startDate AND :endDate\n";
+
+    // Ranks by relevance only when asked to; otherwise every row ties here and the caller's Sort decides.
+    String SEARCH_ORDER =
+            "ORDER BY CASE WHEN :ranked = true THEN FUNCTION('similarity', d.document, :search) ELSE 0 END DESC";
+
+    // Entity graphs here would resolve against CargoSearchDocument, so the parties are fetch-joined.
+    String SEARCH_FETCH = """
+            SELECT c FROM Cargo c
+            JOIN CargoSearchDocument d ON d.cargoId = c.id
+            LEFT JOIN FETCH c.sender
+            LEFT JOIN FETCH c.receiver
+            """;
+
+    String SEARCH_COUNT = """
+            SELECT count(c) FROM Cargo c
+            JOIN CargoSearchDocument d ON d.cargoId = c.id
+            """;
+
+    @Query(value = SEARCH_FETCH + SEARCH_FILTER + SEARCH_ORDER, countQuery = SEARCH_COUNT + SEARCH_FILTER)
+    Page<Cargo> search(@Param("search") String search,
+                       @Param("pickupLocation") String pickupLocation,
+                       @Param("destination") String destination,
+                       @Param("ranked") boolean ranked,
+                       Pageable pageable);
+
+    @Query(value = SEARCH_FETCH + SEARCH_FILTER + DATE_FILTER + SEARCH_ORDER,
+            countQuery = SEARCH_COUNT + SEARCH_FILTER + DATE_FILTER)
+    Page<Cargo> searchByDate(@Param("search") String search,
+                             @Param("startDate") ZonedDateTime start,
+                             @Param("endDate") ZonedDateTime end,
+                             @Param("pickupLocation") String pickupLocation,
+                             @Param("destination") String destination,
+                             @Param("ranked") boolean ranked,
+                             Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO cargo_search_document (cargo_id, document, updated_at) "
+            + DOCUMENT_SELECT + "WHERE c.id IN (:cargoIds) " + UPSERT, nativeQuery = true)
+    int indexCargos(@Param("cargoIds") List<String> cargoIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO cargo_search_document (cargo_id, document, updated_at) "
+            + DOCUMENT_SELECT + "WHERE c.sender_id = :customerId OR c.receiver_id = :customerId " + UPSERT,
+            nativeQuery = true)
+    int indexCargosOfCustomer(@Param("customerId") String customerId);
+
+    @Modifying
+    @Query(value = "INSERT INTO cargo_search_document (cargo_id, document, updated_at) "
+            + DOCUMENT_SELECT
+            + "WHERE NOT EXISTS (SELECT 1 FROM cargo_search_document d WHERE d.cargo_id = c.id) " + UPSERT,
+            nativeQuery = true)
+    int indexMissing();
+}
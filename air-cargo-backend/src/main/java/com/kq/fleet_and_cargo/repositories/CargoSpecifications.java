@@ -0,0 +1,78 @@
+package com.kq.fleet_and_cargo.repositories;
+
+import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
+import com.kq.fleet_and_cargo.models.Cargo;
+import com.kq.fleet_and_cargo.models.CargoCurrentStatus;
+import com.kq.fleet_and_cargo.models.CargoSearchDocument;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Filters shared by the cursor based cargo listings. Each factory returns {@code null}
+ * when its argument is blank so they can be combined with {@link Specification#where}.
+ */
+public final class CargoSpecifications {
+
+    private CargoSpecifications() {
+    }
+
+    public static Specification<Cargo> matches(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Subquery<String> documents = query.subquery(String.class);
+            Root<CargoSearchDocument> document = documents.from(CargoSearchDocument.class);
+            documents.select(document.get("cargoId"))
+                    .where(cb.equal(document.get("cargoId"), root.get("id")),
+                            cb.like(document.get("document"), "%" + search + "%"));
+            return cb.exists(documents);
+        };
+    }
+
+    public static Specification<Cargo> currentStatus(LuggageStatusEnum status) {
+        if (status == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Subquery<String> statuses = query.subquery(String.class);
+            Root<CargoCurrentStatus> current = statuses.from(CargoCurrentStatus.class);
+            statuses.select(current.get("cargoId"))
+                    .where(cb.equal(current.get("cargoId"), root.get("id")),
+                            cb.equal(current.get("status"), status));
+            return cb.exists(statuses);
+        };
+    }
+
+    public static Specification<Cargo> createdBetween(ZonedDateTime start, ZonedDateTime end) {
+        if (start == null || end == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.between(root.get("createdAt"), start, end);
+    }
+
+    public static Specification<Cargo> pickupLocation(String pickupLocation) {
+        if (pickupLocation == null || pickupLocation.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("pickupLocation")), pickupLocation.toLowerCase());
+    }
+
+    public static Specification<Cargo> destination(String destination) {
+        if (destination == null || destination.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("destination")), destination.toLowerCase());
+    }
+
+    public static Specification<Cargo> sentBy(String customerId) {
+        return (root, query, cb) -> cb.equal(root.get("sender").get("id"), customerId);
+    }
+
+    public static Specification<Cargo> receivedBy(String customerId) {
+        return (root, query, cb) -> cb.equal(root.get("receiver").get("id"), customerId);
+    }
+}
@@ -1,12 +1,25 @@
 package com.kq.fleet_and_cargo.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.kq.fleet_and_cargo.models.CargoTrackingHistory;
 
+import java.util.List;
+
 @Repository
 public interface CargoTrackingHistoryRepository extends JpaRepository<CargoTrackingHistory, String> {
 
+    // Everything the tracking views serialize, in one statement.
+    @Query("SELECT DISTINCT h FROM CargoTrackingHistory h " +
+            "JOIN FETCH h.cargo c " +
+            "LEFT JOIN FETCH c.sender " +
+            "LEFT JOIN FETCH c.receiver " +
+            "LEFT JOIN FETCH h.history " +
+            "JOIN FETCH h.createdBy " +
+            "WHERE c.id = :cargoId")
+    List<CargoTrackingHistory> findAllByCargoId(@Param("cargoId") String cargoId);
 
 }
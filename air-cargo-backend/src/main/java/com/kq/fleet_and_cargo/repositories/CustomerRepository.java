@@ -1,17 +1,22 @@
 package com.kq.fleet_and_cargo.repositories;
 
 import com.kq.fleet_and_cargo.models.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, String> {
@@ -30,8 +35,13 @@ public interface CustomerRepository extends JpaRepository<Customer, String> {
             "OR LOWER(concat(c.firstName, ' ', c.lastName)) LIKE LOWER(concat('%', :search, '%')) " +
             "OR LOWER(c.lastName) LIKE LOWER(concat('%', :search, '%')) " +
             "OR LOWER(c.email) LIKE LOWER(concat('%', :search, '%')) " +
-            "OR LOWER(c.phoneNumber) LIKE LOWER(concat('%', :search, '%'))) ")
-    List<Customer> findAllByDateWithNoPaging(@Param("search") String search, @Param("start") ZonedDateTime start, @Param("end") ZonedDateTime end);
+            "OR LOWER(c.phoneNumber) LIKE LOWER(concat('%', :search, '%'))) " +
+            "ORDER BY c.createdAt")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Customer> streamAllByDate(@Param("search") String search, @Param("start") ZonedDateTime start, @Param("end") ZonedDateTime end);
     @Query("SELECT c FROM Customer c " +
             "WHERE c.createdAt BETWEEN :start AND :end AND (" +
             "LOWER(c.firstName) LIKE LOWER(concat('%', :search, '%')) " +
@@ -43,6 +53,7 @@ public interface CustomerRepository extends JpaRepository<Customer, String> {
             "OR LOWER(c.phoneNumber) LIKE LOWER(concat('%', :search, '%'))) ")
     Page<Customer> findAllByDate(@Param("search") String search, @Param("start") ZonedDateTime start, @Param("end") ZonedDateTime end, Pageable pageable);
     Optional<Customer> findByPhoneNumber(String phone);
+    List<Customer> findAllByPhoneNumberIn(Collection<String> phoneNumbers);
     @Query("SELECT COUNT(c) FROM Customer c WHERE c.createdAt BETWEEN :startDate AND :endDate")
     Long countWithDate(@Param("startDate") ZonedDateTime startDate, @Param("endDate") ZonedDateTime endDate);
     @Query("SELECT CONCAT(YEAR(c.createdAt), '-', MONTH(c.createdAt)) as month, COUNT(c) " +
@@ -0,0 +1,53 @@
+package com.kq.fleet_and_cargo.repositories;
+
+import com.kq.fleet_and_cargo.models.DailyCargoRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyCargoRollupRepository extends JpaRepository<DailyCargoRollup, DailyCargoRollup.Key> {
+
+    String BUCKETS = """
+            INSERT INTO daily_cargo_rollup (day, pickup_location, destination, cargo_type, cargo_count, revenue)
+            SELECT CAST(c.created_at AT TIME ZONE 'Africa/Mogadishu' AS date),
+                   COALESCE(c.pickup_location, ''), COALESCE(c.destination, ''), COALESCE(c.cargo_type, ''),
+            """;
+
+    @Query("SELECT COALESCE(SUM(r.cargoCount), 0) FROM DailyCargoRollup r")
+    Long sumCargoCount();
+
+    @Query("SELECT COALESCE(SUM(r.cargoCount), 0) FROM DailyCargoRollup r WHERE r.key.day BETWEEN :startDay AND :endDay")
+    Long sumCargoCount(@Param("startDay") LocalDate startDay, @Param("endDay") LocalDate endDay);
+
+    /** Adds ({@code sign = 1}) or removes ({@code sign = -1}) the given cargos from their buckets. */
+    @Modifying
+    @Query(value = BUCKETS + """
+                   :sign * COUNT(*), :sign * COALESCE(SUM(c.amount), 0)
+            FROM cargo c
+            WHERE c.id IN (:cargoIds)
+            GROUP BY 1, 2, 3, 4
+            ON CONFLICT (day, pickup_location, destination, cargo_type) DO UPDATE
+            SET cargo_count = daily_cargo_rollup.cargo_count + EXCLUDED.cargo_count,
+                revenue = daily_cargo_rollup.revenue + EXCLUDED.revenue
+            """, nativeQuery = true)
+    int apply(@Param("cargoIds") List<String> cargoIds, @Param("sign") int sign);
+
+    @Modifying
+    @Query(value = BUCKETS + """
+                   COUNT(*), COALESCE(SUM(c.amount), 0)
+            FROM cargo c
+            GROUP BY 1, 2, 3, 4
+            ON CONFLICT (day, pickup_location, destination, cargo_type) DO UPDATE
+            SET cargo_count = EXCLUDED.cargo_count, revenue = EXCLUDED.revenue
+            """, nativeQuery = true)
+    int rebuild();
+
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryLock(@Param("key") long key);
+}
@@ -0,0 +1,56 @@
+package com.kq.fleet_and_cargo.repositories;
+
+import com.kq.fleet_and_cargo.models.DailyCustomerRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyCustomerRollupRepository extends JpaRepository<DailyCustomerRollup, LocalDate> {
+
+    String BUCKETS = """
+            INSERT INTO daily_customer_rollup (day, registrations)
+            SELECT CAST(c.created_at AT TIME ZONE 'Africa/Mogadishu' AS date),
+            """;
+
+    @Query("SELECT COALESCE(SUM(r.registrations), 0) FROM DailyCustomerRollup r")
+    Long sumRegistrations();
+
+    @Query("SELECT COALESCE(SUM(r.registrations), 0) FROM DailyCustomerRollup r WHERE r.day BETWEEN :startDay AND :endDay")
+    Long sumRegistrations(@Param("startDay") LocalDate startDay, @Param("endDay") LocalDate endDay);
+
+    @Query("SELECT CONCAT(YEAR(r.day), '-', MONTH(r.day)) as month, SUM(r.registrations) " +
+            "FROM DailyCustomerRollup r " +
+            "WHERE r.day BETWEEN :startDay AND :endDay " +
+            "GROUP BY YEAR(r.day), MONTH(r.day) " +
+            "ORDER BY YEAR(r.day), MONTH(r.day)")
+    List<Object[]> getMonthlyRegistrationTrends(@Param("startDay") LocalDate startDay,
+                                                @Param("endDay") LocalDate endDay);
+
+    /** Adds ({@code sign = 1}) or removes ({@code sign = -1}) the given customers from their day. */
+    @Modifying
+    @Query(value = BUCKETS + """
+                   :sign * COUNT(*)
+            FROM customer c
+            WHERE c.id IN (:customerIds)
+            GROUP BY 1
+            ON CONFLICT (day) DO UPDATE
+            SET registrations = daily_customer_rollup.registrations + EXCLUDED.registrations
+            """, nativeQuery = true)
+    int apply(@Param("customerIds") List<String> customerIds, @Param("sign") int sign);
+
+    @Modifying
+    @Query(value = BUCKETS + """
+                   COUNT(*)
+            FROM customer c
+            GROUP BY 1
+            ON CONFLICT (day) DO UPDATE
+            SET registrations = EXCLUDED.registrations
+            """, nativeQuery = true)
+    int rebuild();
+}
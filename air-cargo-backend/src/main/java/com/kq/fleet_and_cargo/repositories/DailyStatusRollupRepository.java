@@ -0,0 +1,49 @@
+package com.kq.fleet_and_cargo.repositories;
+
+import com.kq.fleet_and_cargo.models.DailyStatusRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyStatusRollupRepository extends JpaRepository<DailyStatusRollup, DailyStatusRollup.Key> {
+
+    String BUCKETS = """
+            INSERT INTO daily_status_rollup (day, status, cargo_count)
+            SELECT CAST(s.updated_at AT TIME ZONE 'Africa/Mogadishu' AS date), s.status,
+            """;
+
+    @Query("SELECT r.key.status, SUM(r.cargoCount) FROM DailyStatusRollup r GROUP BY r.key.status")
+    List<Object[]> sumGroupByStatus();
+
+    @Query("SELECT r.key.status, SUM(r.cargoCount) FROM DailyStatusRollup r " +
+            "WHERE r.key.day BETWEEN :startDay AND :endDay GROUP BY r.key.status")
+    List<Object[]> sumGroupByStatus(@Param("startDay") LocalDate startDay, @Param("endDay") LocalDate endDay);
+
+    /** Adds ({@code sign = 1}) or removes ({@code sign = -1}) the current status of the given cargos. */
+    @Modifying
+    @Query(value = BUCKETS + """
+                   :sign * COUNT(*)
+            FROM cargo_current_status s
+            WHERE s.cargo_id IN (:cargoIds)
+            GROUP BY 1, 2
+            ON CONFLICT (day, status) DO UPDATE
+            SET cargo_count = daily_status_rollup.cargo_count + EXCLUDED.cargo_count
+            """, nativeQuery = true)
+    int apply(@Param("cargoIds") List<String> cargoIds, @Param("sign") int sign);
+
+    @Modifying
+    @Query(value = BUCKETS + """
+                   COUNT(*)
+            FROM cargo_current_status s
+            GROUP BY 1, 2
+            ON CONFLICT (day, status) DO UPDATE
+            SET cargo_count = EXCLUDED.cargo_count
+            """, nativeQuery = true)
+    int rebuild();
+}
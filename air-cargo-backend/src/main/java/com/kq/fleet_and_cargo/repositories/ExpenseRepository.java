@@ -1,53 +1,68 @@
 package com.kq.fleet_and_cargo.repositories;
 
 import com.kq.fleet_and_cargo.models.Expense;
+import com.kq.fleet_and_cargo.repositories.projections.ExpenseCurrencyTotal;
+import com.kq.fleet_and_cargo.repositories.projections.ExpenseMonthlyTotal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ExpenseRepository extends JpaRepository<Expense, String> {
 
     List<Expense> findAllByOrderByIncurredAtDesc();
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
     @Query("""
             SELECT e
             FROM Expense e
-            WHERE (:search IS NULL OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%')))
+            LEFT JOIN FETCH e.receipt
+            WHERE (:search IS NULL OR LOWER(e.description) LIKE LOWER(CONCAT('%', CAST(:search AS String), '%')))
               AND e.incurredAt BETWEEN :start AND :end
             ORDER BY e.incurredAt DESC
             """)
-    List<Expense> findAllWithinRange(
+    Stream<Expense> streamAllWithinRange(
             @Param("search") String search,
             @Param("start") ZonedDateTime start,
             @Param("end") ZonedDateTime end
     );
 
     @Query("""
-            SELECT e.amount.currencyCode, SUM(e.amount.amount), COUNT(e)
+            SELECT UPPER(TRIM(e.amount.currencyCode)) AS currencyCode,
+                   SUM(e.amount.amount) AS totalAmount, COUNT(e) AS expenseCount
             FROM Expense e
-            WHERE (:search IS NULL OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%')))
+            WHERE (:search IS NULL OR LOWER(e.description) LIKE LOWER(CONCAT('%', CAST(:search AS String), '%')))
               AND e.incurredAt BETWEEN :start AND :end
-            GROUP BY e.amount.currencyCode
-            ORDER BY SUM(e.amount.amount) DESC
+              AND TRIM(e.amount.currencyCode) <> ''
+            GROUP BY UPPER(TRIM(e.amount.currencyCode))
             """)
-    List<Object[]> summarizeByCurrency(
+    List<ExpenseCurrencyTotal> summarizeByCurrency(
             @Param("search") String search,
             @Param("start") ZonedDateTime start,
             @Param("end") ZonedDateTime end
     );
 
-    @Query("""
-            SELECT FUNCTION('DATE_TRUNC', 'month', e.incurredAt), e.amount.currencyCode, SUM(e.amount.amount)
-            FROM Expense e
-            WHERE (:search IS NULL OR LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%')))
-              AND e.incurredAt BETWEEN :start AND :end
-            GROUP BY FUNCTION('DATE_TRUNC', 'month', e.incurredAt), e.amount.currencyCode
-            ORDER BY FUNCTION('DATE_TRUNC', 'month', e.incurredAt)
-            """)
-    List<Object[]> summarizeByMonth(
+    /** Months are bucketed in Africa/Mogadishu, like {@code monthly_expense_rollup}. */
+    @Query(value = """
+            SELECT CAST(DATE_TRUNC('month', e.incurred_at AT TIME ZONE 'Africa/Mogadishu') AS date) AS "month",
+                   UPPER(TRIM(e.currency)) AS "currencyCode",
+                   SUM(e.amount) AS "totalAmount", COUNT(*) AS "expenseCount"
+            FROM expenses e
+            WHERE (CAST(:search AS text) IS NULL OR LOWER(e.description) LIKE LOWER(CONCAT('%', CAST(:search AS text), '%')))
+              AND e.incurred_at BETWEEN :start AND :end
+              AND TRIM(e.currency) <> ''
+            GROUP BY 1, 2
+            """, nativeQuery = true)
+    List<ExpenseMonthlyTotal> summarizeByMonth(
             @Param("search") String search,
             @Param("start") ZonedDateTime start,
             @Param("end") ZonedDateTime end
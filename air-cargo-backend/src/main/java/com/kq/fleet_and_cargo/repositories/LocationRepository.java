@@ -1,11 +1,19 @@
 package com.kq.fleet_and_cargo.repositories;
 
 import com.kq.fleet_and_cargo.models.Location;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface LocationRepository extends JpaRepository<Location, String> {
+
+    // Location dropdowns: served from the query cache until a location changes.
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Location> findAll();
 }
@@ -17,16 +17,11 @@ public interface LuggageStatusRepository extends JpaRepository<LuggageStatus, St
     @Query("SELECT COUNT(ls) FROM LuggageStatus ls WHERE ls.status = :luggageStatus AND ls.createdAt BETWEEN :startDate AND :endDate")
     Long countByStatusAndDate(@Param("luggageStatus") LuggageStatusEnum luggageStatusEnum, @Param("startDate") ZonedDateTime startDate, @Param("endDate") ZonedDateTime endDate);
     @Query("""
-            SELECT ls.trackingHistory.cargo.id AS cargoId,
-                   ls.status AS status,
-                   ls.trackingHistory.location AS location
-            FROM LuggageStatus ls
-            WHERE ls.trackingHistory.cargo.id IN :cargoIds
-              AND ls.createdAt = (
-                  SELECT MAX(lsInner.createdAt)
-                  FROM LuggageStatus lsInner
-                  WHERE lsInner.trackingHistory.cargo.id = ls.trackingHistory.cargo.id
-              )
+            SELECT s.cargoId AS cargoId,
+                   s.status AS status,
+                   s.location AS location
+            FROM CargoCurrentStatus s
+            WHERE s.cargoId IN :cargoIds
             """)
     List<CargoStorageSnapshot> findLatestStatusByCargoIds(@Param("cargoIds") List<String> cargoIds);
 
@@ -0,0 +1,67 @@
+package com.kq.fleet_and_cargo.repositories;
+
+import com.kq.fleet_and_cargo.models.MonthlyExpenseRollup;
+import com.kq.fleet_and_cargo.repositories.projections.ExpenseCurrencyTotal;
+import com.kq.fleet_and_cargo.repositories.projections.ExpenseMonthlyTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MonthlyExpenseRollupRepository extends JpaRepository<MonthlyExpenseRollup, MonthlyExpenseRollup.Key> {
+
+    String BUCKETS = """
+            INSERT INTO monthly_expense_rollup (month, currency_code, total_amount, expense_count)
+            SELECT CAST(DATE_TRUNC('month', e.incurred_at AT TIME ZONE 'Africa/Mogadishu') AS date),
+                   UPPER(TRIM(e.currency)), SUM(e.amount), COUNT(*)
+            FROM expenses e
+            WHERE e.incurred_at < DATE_TRUNC('month', now() AT TIME ZONE 'Africa/Mogadishu') AT TIME ZONE 'Africa/Mogadishu'
+              AND TRIM(e.currency) <> ''
+            """;
+
+    // A concurrent refresh of the same month may have inserted the bucket since this one deleted it.
+    String UPSERT = """
+            ON CONFLICT (month, currency_code) DO UPDATE
+            SET total_amount = EXCLUDED.total_amount, expense_count = EXCLUDED.expense_count
+            """;
+
+    @Query("""
+            SELECT r.key.currencyCode AS currencyCode, SUM(r.totalAmount) AS totalAmount, SUM(r.expenseCount) AS expenseCount
+            FROM MonthlyExpenseRollup r
+            WHERE r.key.month BETWEEN :startMonth AND :endMonth
+            GROUP BY r.key.currencyCode
+            """)
+    List<ExpenseCurrencyTotal> summarizeByCurrency(@Param("startMonth") LocalDate startMonth,
+                                                   @Param("endMonth") LocalDate endMonth);
+
+    @Query("""
+            SELECT r.key.month AS month, r.key.currencyCode AS currencyCode,
+                   r.totalAmount AS totalAmount, r.expenseCount AS expenseCount
+            FROM MonthlyExpenseRollup r
+            WHERE r.key.month BETWEEN :startMonth AND :endMonth
+            """)
+    List<ExpenseMonthlyTotal> summarizeByMonth(@Param("startMonth") LocalDate startMonth,
+                                               @Param("endMonth") LocalDate endMonth);
+
+    @Modifying
+    @Query("DELETE FROM MonthlyExpenseRollup r WHERE r.key.month IN :months")
+    int deleteMonths(@Param("months") Collection<LocalDate> months);
+
+    /** Recomputes the given months from the expenses table; open months are skipped. */
+    @Modifying
+    @Query(value = BUCKETS + """
+              AND CAST(DATE_TRUNC('month', e.incurred_at AT TIME ZONE 'Africa/Mogadishu') AS date) IN (:months)
+            GROUP BY 1, 2
+            """ + UPSERT, nativeQuery = true)
+    int insertMonths(@Param("months") Collection<LocalDate> months);
+
+    @Modifying
+    @Query(value = BUCKETS + "GROUP BY 1, 2\n" + UPSERT, nativeQuery = true)
+    int rebuild();
+}
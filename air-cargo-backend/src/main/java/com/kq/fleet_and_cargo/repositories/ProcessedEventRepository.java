@@ -0,0 +1,24 @@
+package com.kq.fleet_and_cargo.repositories;
+
+import com.kq.fleet_and_cargo.models.ProcessedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+
+@Repository
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, ProcessedEvent.Key> {
+
+    /** 1 the first time {@code consumer} sees {@code eventId}, 0 for a redelivery. */
+    @Modifying
+    @Query(value = "INSERT INTO processed_event (consumer, event_id, processed_at) VALUES (:consumer, :eventId, now()) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int markProcessed(@Param("consumer") String consumer, @Param("eventId") long eventId);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedEvent e WHERE e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") ZonedDateTime before);
+}
@@ -0,0 +1,48 @@
+package com.kq.fleet_and_cargo.repositories;
+
+import com.kq.fleet_and_cargo.enums.ReportJobStatus;
+import com.kq.fleet_and_cargo.models.ReportJob;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, String> {
+
+    /** Jobs a new request can attach to: still in flight, or finished with an artifact that has not expired. */
+    @Query("""
+            SELECT j FROM ReportJob j
+            WHERE j.fingerprint = :fingerprint
+              AND (j.status IN (com.kq.fleet_and_cargo.enums.ReportJobStatus.QUEUED,
+                                com.kq.fleet_and_cargo.enums.ReportJobStatus.RUNNING)
+                   OR (j.status = com.kq.fleet_and_cargo.enums.ReportJobStatus.COMPLETED AND j.expiresAt > :now))
+            ORDER BY j.createdAt DESC
+            """)
+    List<ReportJob> findReusable(@Param("fingerprint") String fingerprint, @Param("now") ZonedDateTime now);
+
+    @EntityGraph(attributePaths = "file")
+    List<ReportJob> findAllByStatusAndExpiresAtBefore(ReportJobStatus status, ZonedDateTime now);
+
+    @Modifying
+    @Query("""
+            UPDATE ReportJob j SET j.status = com.kq.fleet_and_cargo.enums.ReportJobStatus.FAILED,
+                                   j.error = 'Report generation did not finish'
+            WHERE j.status IN :statuses AND COALESCE(j.heartbeatAt, j.createdAt) < :before
+            """)
+    int failStale(@Param("statuses") Collection<ReportJobStatus> statuses, @Param("before") ZonedDateTime before);
+
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.heartbeatAt = :now WHERE j.id IN :ids")
+    int heartbeat(@Param("ids") Collection<String> ids, @Param("now") ZonedDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM ReportJob j WHERE j.status = com.kq.fleet_and_cargo.enums.ReportJobStatus.FAILED AND j.createdAt < :before")
+    int deleteFailedBefore(@Param("before") ZonedDateTime before);
+}
@@ -0,0 +1,41 @@
+package com.kq.fleet_and_cargo.repositories;
+
+import com.kq.fleet_and_cargo.models.Notification;
+import com.kq.fleet_and_cargo.models.UserNotification;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+
+@Repository
+public interface UserNotificationRepository extends JpaRepository<UserNotification, UserNotification.Key> {
+
+    @Query(value = "SELECT n FROM UserNotification un JOIN Notification n ON n.id = un.key.notificationId "
+            + "WHERE un.key.userId = :userId AND un.readAt IS NULL ORDER BY n.createdAt DESC",
+            countQuery = "SELECT COUNT(un) FROM UserNotification un WHERE un.key.userId = :userId AND un.readAt IS NULL")
+    Page<Notification> findUnread(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT COUNT(un) FROM UserNotification un WHERE un.key.userId = :userId AND un.readAt IS NULL")
+    long countUnread(@Param("userId") String userId);
+
+    /** The number of notifications that were unread and are now read. */
+    @Modifying
+    @Query("UPDATE UserNotification un SET un.readAt = :readAt "
+            + "WHERE un.key.userId = :userId AND un.key.notificationId IN :notificationIds AND un.readAt IS NULL")
+    int markRead(@Param("userId") String userId, @Param("notificationIds") Collection<String> notificationIds,
+                 @Param("readAt") ZonedDateTime readAt);
+
+    @Modifying
+    @Query("UPDATE UserNotification un SET un.readAt = :readAt WHERE un.key.userId = :userId AND un.readAt IS NULL")
+    int markAllRead(@Param("userId") String userId, @Param("readAt") ZonedDateTime readAt);
+
+    @Modifying
+    @Query("DELETE FROM UserNotification un WHERE un.key.userId = :userId")
+    int deleteByUserId(@Param("userId") String userId);
+}
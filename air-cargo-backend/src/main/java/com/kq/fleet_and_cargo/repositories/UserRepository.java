@@ -2,10 +2,13 @@ package com.kq.fleet_and_cargo.repositories;
 
 import com.kq.fleet_and_cargo.enums.UserRoles;
 import com.kq.fleet_and_cargo.models.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -26,6 +29,8 @@ public interface UserRepository extends JpaRepository<User, String> {
     @Query("select u from User u where :role MEMBER OF u.roles")
     List<User> findAllByRole(@Param("role") UserRoles role);
 
+    // Looked up on every authenticated request; results and the user itself come from the second-level cache.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("select u from User u where (u.email = :email or u.phoneNumber = :email)")
     Optional<User> findByEmail(@Param("email") String email);
 }
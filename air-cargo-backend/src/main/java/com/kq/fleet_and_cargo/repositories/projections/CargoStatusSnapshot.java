@@ -0,0 +1,13 @@
+package com.kq.fleet_and_cargo.repositories.projections;
+
+import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
+
+public interface CargoStatusSnapshot {
+    String getCargoId();
+
+    Long getReferenceNumber();
+
+    LuggageStatusEnum getStatus();
+
+    String getLocation();
+}
@@ -0,0 +1,11 @@
+package com.kq.fleet_and_cargo.repositories.projections;
+
+import java.math.BigDecimal;
+
+public interface ExpenseCurrencyTotal {
+    String getCurrencyCode();
+
+    BigDecimal getTotalAmount();
+
+    long getExpenseCount();
+}
@@ -0,0 +1,15 @@
+package com.kq.fleet_and_cargo.repositories.projections;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface ExpenseMonthlyTotal {
+    /** First day of the month, in Africa/Mogadishu. */
+    LocalDate getMonth();
+
+    String getCurrencyCode();
+
+    BigDecimal getTotalAmount();
+
+    long getExpenseCount();
+}
@@ -0,0 +1,9 @@
+package com.kq.fleet_and_cargo.repositories.projections;
+
+import java.math.BigDecimal;
+
+public interface PickupCityRevenue {
+    String getPickupLocation();
+
+    BigDecimal getTotalRevenue();
+}
@@ -0,0 +1,149 @@
+package com.kq.fleet_and_cargo.services;
+
+import com.kq.fleet_and_cargo.enums.ReportDataDomain;
+import com.kq.fleet_and_cargo.repositories.CargoCurrentStatusRepository;
+import com.kq.fleet_and_cargo.repositories.DailyCargoRollupRepository;
+import com.kq.fleet_and_cargo.repositories.DailyCustomerRollupRepository;
+import com.kq.fleet_and_cargo.repositories.DailyStatusRollupRepository;
+import com.kq.fleet_and_cargo.repositories.MonthlyExpenseRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the daily rollup tables read by {@link AnalyticsService}, and the monthly expense rollup
+ * read by {@link ReportService}, up to date. Write paths call
+ * {@code add*}/{@code remove*} in their own transaction; the nightly reconciliation rebuilds
+ * every bucket from the source tables to repair any drift. Rebuilds upsert, so a delta committed
+ * between the delete and the rebuild insert does not collide with it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsRollupService {
+
+    private static final ZoneId DEFAULT_ZONE = ZoneId.of("Africa/Mogadishu");
+    private static final long RECONCILE_LOCK = 0x726f6c6c7570L;
+
+    private final DailyCargoRollupRepository dailyCargoRollupRepository;
+    private final DailyStatusRollupRepository dailyStatusRollupRepository;
+    private final DailyCustomerRollupRepository dailyCustomerRollupRepository;
+    private final MonthlyExpenseRollupRepository monthlyExpenseRollupRepository;
+    private final CargoCurrentStatusRepository cargoCurrentStatusRepository;
+    private final ReportCacheService reportCacheService;
+
+    @Transactional
+    public void addCargos(List<String> cargoIds) {
+        if (!cargoIds.isEmpty()) {
+            dailyCargoRollupRepository.apply(cargoIds, 1);
+        }
+    }
+
+    @Transactional
+    public void removeCargos(List<String> cargoIds) {
+        if (!cargoIds.isEmpty()) {
+            dailyCargoRollupRepository.apply(cargoIds, -1);
+        }
+    }
+
+    @Transactional
+    public void addStatuses(List<String> cargoIds) {
+        if (!cargoIds.isEmpty()) {
+            dailyStatusRollupRepository.apply(cargoIds, 1);
+            markStatusDays(cargoIds);
+        }
+    }
+
+    @Transactional
+    public void removeStatuses(List<String> cargoIds) {
+        if (!cargoIds.isEmpty()) {
+            dailyStatusRollupRepository.apply(cargoIds, -1);
+            markStatusDays(cargoIds);
+        }
+    }
+
+    /** Status buckets are keyed by when the status was set, not by the cargo, so evict those days. */
+    private void markStatusDays(List<String> cargoIds) {
+        cargoCurrentStatusRepository.findUpdatedAtByCargoIds(cargoIds).forEach(updatedAt ->
+                reportCacheService.markChanged(ReportDataDomain.CARGO,
+                        updatedAt.withZoneSameInstant(DEFAULT_ZONE).toLocalDate()));
+    }
+
+    @Transactional
+    public void addCustomers(List<String> customerIds) {
+        if (!customerIds.isEmpty()) {
+            dailyCustomerRollupRepository.apply(customerIds, 1);
+        }
+    }
+
+    @Transactional
+    public void removeCustomers(List<String> customerIds) {
+        if (!customerIds.isEmpty()) {
+            dailyCustomerRollupRepository.apply(customerIds, -1);
+        }
+    }
+
+    /**
+     * Recomputes the closed months the given expense dates fall in. Expenses must be flushed
+     * first; callers pass both the old and the new date when an expense moves between months.
+     */
+    @Transactional
+    public void refreshExpenseMonths(Collection<ZonedDateTime> incurredAt) {
+        Set<LocalDate> months = incurredAt.stream()
+                .filter(Objects::nonNull)
+                .map(dateTime -> YearMonth.from(dateTime.withZoneSameInstant(DEFAULT_ZONE)).atDay(1))
+                .collect(Collectors.toSet());
+        if (!months.isEmpty()) {
+            monthlyExpenseRollupRepository.deleteMonths(months);
+            monthlyExpenseRollupRepository.insertMonths(months);
+        }
+    }
+
+    /** Moves the month that just ended into the expense rollup. */
+    @Scheduled(cron = "0 0 0 1 * ?", zone = "Africa/Mogadishu")
+    @Transactional
+    public void closeExpenseMonth() {
+        refreshExpenseMonths(List.of(ZonedDateTime.now(DEFAULT_ZONE).minusMonths(1)));
+    }
+
+    @Scheduled(cron = "0 30 2 * * ?", zone = "Africa/Mogadishu")
+    @Transactional
+    public void reconcile() {
+        // Every instance runs the schedule; one rebuild is enough and two would fight over the same rows.
+        if (!dailyCargoRollupRepository.tryLock(RECONCILE_LOCK)) {
+            log.info("Analytics rollups are being rebuilt by another instance, skipping");
+            return;
+        }
+        dailyCargoRollupRepository.deleteAllInBatch();
+        dailyStatusRollupRepository.deleteAllInBatch();
+        dailyCustomerRollupRepository.deleteAllInBatch();
+        monthlyExpenseRollupRepository.deleteAllInBatch();
+        int buckets = dailyCargoRollupRepository.rebuild()
+                + dailyStatusRollupRepository.rebuild()
+                + dailyCustomerRollupRepository.rebuild()
+                + monthlyExpenseRollupRepository.rebuild();
+        log.info("Rebuilt {} analytics rollup buckets", buckets);
+    }
+
+    /** Builds the rollups on first start against an existing database. */
+    @Transactional
+    public void initialize() {
+        if (dailyCargoRollupRepository.count() == 0 && dailyCustomerRollupRepository.count() == 0) {
+            reconcile();
+        } else if (monthlyExpenseRollupRepository.count() == 0) {
+            monthlyExpenseRollupRepository.rebuild();
+        }
+    }
+}
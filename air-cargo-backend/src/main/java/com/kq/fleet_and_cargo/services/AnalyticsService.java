@@ -1,80 +1,90 @@
 package com.kq.fleet_and_cargo.services;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
-import com.kq.fleet_and_cargo.repositories.CargoRepository;
-import com.kq.fleet_and_cargo.repositories.CustomerRepository;
-import com.kq.fleet_and_cargo.repositories.LuggageStatusRepository;
+import com.kq.fleet_and_cargo.repositories.DailyCargoRollupRepository;
+import com.kq.fleet_and_cargo.repositories.DailyCustomerRollupRepository;
+import com.kq.fleet_and_cargo.repositories.DailyStatusRollupRepository;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
+/**
+ * Dashboard figures, answered from the daily rollups maintained by {@link AnalyticsRollupService}.
+ * Ranges are resolved to whole days in Africa/Mogadishu and results are cached by {@link ReportCacheService}.
+ */
 @Service
-public record AnalyticsService(CargoRepository cargoRepository,
-                               LuggageStatusRepository luggageStatusRepository,
-                               CustomerRepository customerRepository) {
+public record AnalyticsService(DailyCargoRollupRepository dailyCargoRollupRepository,
+                               DailyStatusRollupRepository dailyStatusRollupRepository,
+                               DailyCustomerRollupRepository dailyCustomerRollupRepository,
+                               ReportCacheService reportCacheService) {
+
+    private static final ZoneId DEFAULT_ZONE = ZoneId.of("Africa/Mogadishu");
 
     public Long countCargo(String month) {
+        return cached("cargo-count", month, new TypeReference<>() {}, () -> loadCountCargo(month));
+    }
+
+    private Long loadCountCargo(String month) {
         DateRange range = resolveRange(month);
         if (range == null) {
-            return cargoRepository.count();
+            return dailyCargoRollupRepository.sumCargoCount();
         }
-        return cargoRepository.countWithDate(range.start(), range.end());
+        return dailyCargoRollupRepository.sumCargoCount(range.startDay(), range.endDay());
     }
 
     public Long countCustomers(String month) {
+        return cached("customer-count", month, new TypeReference<>() {}, () -> loadCountCustomers(month));
+    }
+
+    private Long loadCountCustomers(String month) {
         DateRange range = resolveRange(month);
         if (range == null) {
-            return customerRepository.count();
+            return dailyCustomerRollupRepository.sumRegistrations();
         }
-        return customerRepository.countWithDate(range.start(), range.end());
+        return dailyCustomerRollupRepository.sumRegistrations(range.startDay(), range.endDay());
     }
 
     public Map<String, Long> getCargoCountBasedOnStatus(String month) {
+        return cached("cargo-status", month, new TypeReference<>() {}, () -> loadCargoCountBasedOnStatus(month));
+    }
+
+    private Map<String, Long> loadCargoCountBasedOnStatus(String month) {
         DateRange range = resolveRange(month);
+        List<Object[]> rows = range == null
+                ? dailyStatusRollupRepository.sumGroupByStatus()
+                : dailyStatusRollupRepository.sumGroupByStatus(range.startDay(), range.endDay());
+        Map<LuggageStatusEnum, Long> counts = new EnumMap<>(LuggageStatusEnum.class);
+        for (Object[] row : rows) {
+            counts.put((LuggageStatusEnum) row[0], ((Number) row[1]).longValue());
+        }
         Map<String, Long> cargoData = new LinkedHashMap<>();
-
-        cargoData.put(
-                "Delivered",
-                range == null
-                        ? luggageStatusRepository.countByStatus(LuggageStatusEnum.DELIVERED)
-                        : luggageStatusRepository.countByStatusAndDate(
-                                LuggageStatusEnum.DELIVERED,
-                                range.start(),
-                                range.end())
-        );
-
-        cargoData.put(
-                "Lost",
-                range == null
-                        ? luggageStatusRepository.countByStatus(LuggageStatusEnum.LOST)
-                        : luggageStatusRepository.countByStatusAndDate(
-                                LuggageStatusEnum.LOST,
-                                range.start(),
-                                range.end())
-        );
-
-        cargoData.put(
-                "Pending",
-                range == null
-                        ? luggageStatusRepository.countByStatus(LuggageStatusEnum.PENDING)
-                        : luggageStatusRepository.countByStatusAndDate(
-                                LuggageStatusEnum.PENDING,
-                                range.start(),
-                                range.end())
-        );
-
+        cargoData.put("Delivered", counts.getOrDefault(LuggageStatusEnum.DELIVERED, 0L));
+        cargoData.put("Lost", counts.getOrDefault(LuggageStatusEnum.LOST, 0L));
+        cargoData.put("Pending", counts.getOrDefault(LuggageStatusEnum.PENDING, 0L));
         return cargoData;
     }
 
     public Map<String, Long> getCustomerRegistrationTrends(String month) {
+        return cached("customer-registration-trends", month, new TypeReference<>() {}, () -> loadCustomerRegistrationTrends(month));
+    }
+
+    private Map<String, Long> loadCustomerRegistrationTrends(String month) {
         DateRange range = resolveRange(month);
-        ZonedDateTime end = range == null ? ZonedDateTime.now() : range.end();
-        ZonedDateTime start = range == null ? end.minusMonths(6) : range.start();
+        if (range == null) {
+            ZonedDateTime end = ZonedDateTime.now();
+            range = new DateRange(end.minusMonths(6), end);
+        }
 
-        List<Object[]> trendsData = customerRepository.getMonthlyCustomerRegistrationTrends(start, end);
+        List<Object[]> trendsData = dailyCustomerRollupRepository.getMonthlyRegistrationTrends(
+                range.startDay(), range.endDay());
         Map<String, Long> monthlyTrends = new LinkedHashMap<>();
         for (Object[] row : trendsData) {
             String monthKey = (String) row[0];
@@ -84,6 +94,12 @@ public record AnalyticsService(CargoRepository cargoRepository,
         return monthlyTrends;
     }
 
+    private <T> T cached(String endpoint, String month, TypeReference<T> type, Supplier<T> loader) {
+        DateRange range = resolveRange(month);
+        return reportCacheService.get(ReportCacheService.ANALYTICS, endpoint + "|" + month,
+                range == null ? null : range.startDay(), range == null ? null : range.endDay(), null, type, loader);
+    }
+
     private DateRange resolveRange(String month) {
         if (month == null || month.isEmpty() || "all".equalsIgnoreCase(month)) {
             return null;
@@ -98,5 +114,13 @@ public record AnalyticsService(CargoRepository cargoRepository,
         }
     }
 
-    private record DateRange(ZonedDateTime start, ZonedDateTime end) {}
+    private record DateRange(ZonedDateTime start, ZonedDateTime end) {
+        LocalDate startDay() {
+            return start.withZoneSameInstant(DEFAULT_ZONE).toLocalDate();
+        }
+
+        LocalDate endDay() {
+            return end.withZoneSameInstant(DEFAULT_ZONE).toLocalDate();
+        }
+    }
 }
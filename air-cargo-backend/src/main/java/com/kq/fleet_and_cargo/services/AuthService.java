@@ -37,7 +37,8 @@ public record AuthService(UserRepository userRepository,
                           CustomerRepository customerRepository,
                           JWTAuthService jwtAuthService,
                           UserDetailsService userDetailsService,
-                          OtpService otpService) {
+                          OtpService otpService,
+                          EntityCacheInvalidator entityCacheInvalidator) {
 
     public AuthResponse AuthenticateUser(AuthRequest request) {
         User user = getUser(request.getEmail());
@@ -93,6 +94,8 @@ public record AuthService(UserRepository userRepository,
         }
         user.setPassword(passwordEncoder.encode(changePasswordRequest.getNewPassword()));
         userRepository.save(user);
+        // Drops the principal cached with the old hash, here and on the other instances.
+        entityCacheInvalidator.changed(user);
         return "Password changed successfully";
     }
 
@@ -108,6 +111,7 @@ public record AuthService(UserRepository userRepository,
         User user = getUser(email);
         user.setPassword(passwordEncoder.encode(forgetPasswordRequest.getPassword()));
         userRepository.save(user);
+        entityCacheInvalidator.changed(user);
         return "Password changed successfully";
     }
 
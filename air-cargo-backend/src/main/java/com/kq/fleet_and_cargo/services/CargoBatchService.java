@@ -0,0 +1,155 @@
+package com.kq.fleet_and_cargo.services;
+
+import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
+import com.kq.fleet_and_cargo.exceptions.BadRequestException;
+import com.kq.fleet_and_cargo.exceptions.NotFoundException;
+import com.kq.fleet_and_cargo.models.Cargo;
+import com.kq.fleet_and_cargo.models.CargoTrackingHistory;
+import com.kq.fleet_and_cargo.models.Customer;
+import com.kq.fleet_and_cargo.models.LuggageStatus;
+import com.kq.fleet_and_cargo.models.Money;
+import com.kq.fleet_and_cargo.models.User;
+import com.kq.fleet_and_cargo.payload.response.CargoBatchItemResponse;
+import com.kq.fleet_and_cargo.repositories.CargoRepository;
+import com.kq.fleet_and_cargo.repositories.CargoTrackingHistoryRepository;
+import com.kq.fleet_and_cargo.repositories.CustomerRepository;
+import com.kq.fleet_and_cargo.utils.UserContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manifest intake: resolves every sender and receiver with one IN query, inserts the missing
+ * customers, cargos and tracking histories (with their PENDING status) through JDBC batching,
+ * and reports a result per submitted item.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CargoBatchService {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final CargoRepository cargoRepository;
+    private final CustomerRepository customerRepository;
+    private final CargoTrackingHistoryRepository cargoTrackingHistoryRepository;
+    private final FXRateCache fxRateCache;
+    private final ReferenceNumberAllocator referenceNumberAllocator;
+    private final CargoSearchService cargoSearchService;
+    private final CargoStatusService cargoStatusService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final UserContext userContext;
+    private final OutboxService outboxService;
+
+    @Transactional
+    public List<CargoBatchItemResponse> create(List<Cargo> cargos, boolean sendWhatsapp) {
+        if (cargos.isEmpty() || cargos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch must contain between 1 and " + MAX_BATCH_SIZE + " cargos");
+        }
+        log.info("Creating batch of {} cargos", cargos.size());
+
+        CargoBatchItemResponse[] results = new CargoBatchItemResponse[cargos.size()];
+        Map<Integer, Cargo> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < cargos.size(); i++) {
+            String error = validate(cargos.get(i));
+            if (error != null) {
+                results[i] = CargoBatchItemResponse.rejected(i, error);
+            } else {
+                accepted.put(i, cargos.get(i));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return List.of(results);
+        }
+
+        Map<String, Customer> customers = resolveCustomers(accepted.values());
+        var currencyCode = userContext.getUserCurrencyCode();
+        var fxRate = fxRateCache.find(currencyCode)
+                .orElseThrow(() -> new NotFoundException("Invalid currency type: " + currencyCode));
+
+        for (Cargo cargo : accepted.values()) {
+            if (cargo.getReferenceNumber() == null) {
+                cargo.setReferenceNumber(referenceNumberAllocator.next());
+            }
+            cargo.setSender(customers.get(cargo.getSender().getPhoneNumber()));
+            cargo.setReceiver(customers.get(cargo.getReceiver().getPhoneNumber()));
+            cargo.setPrice(new Money(cargo.getPrice().getAmount(), currencyCode).exchange(fxRate, false));
+        }
+        List<Cargo> saved = cargoRepository.saveAll(accepted.values());
+
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        List<CargoTrackingHistory> histories = new ArrayList<>(saved.size());
+        for (Cargo cargo : saved) {
+            CargoTrackingHistory history = CargoTrackingHistory.builder()
+                    .cargo(cargo)
+                    .updatedAt(ZonedDateTime.now())
+                    .createdBy(user)
+                    .history(new ArrayList<>())
+                    .description("Cargo Received")
+                    .location(cargo.getPickupLocation())
+                    .build();
+            history.getHistory().add(LuggageStatus.builder().status(LuggageStatusEnum.PENDING).trackingHistory(history).build());
+            histories.add(history);
+        }
+        cargoTrackingHistoryRepository.saveAll(histories);
+        cargoRepository.flush();
+        List<String> cargoIds = saved.stream().map(Cargo::getId).toList();
+        cargoSearchService.index(cargoIds);
+        analyticsRollupService.addCargos(cargoIds);
+        cargoStatusService.refresh(cargoIds);
+
+        int position = 0;
+        for (Integer index : accepted.keySet()) {
+            Cargo cargo = saved.get(position++);
+            results[index] = CargoBatchItemResponse.created(index, cargo.getId(), cargo.getReferenceNumber());
+        }
+        outboxService.cargoCreated(saved, sendWhatsapp);
+        return List.of(results);
+    }
+
+    private Map<String, Customer> resolveCustomers(Iterable<Cargo> cargos) {
+        Map<String, Customer> submitted = new LinkedHashMap<>();
+        for (Cargo cargo : cargos) {
+            submitted.putIfAbsent(cargo.getSender().getPhoneNumber(), cargo.getSender());
+            submitted.putIfAbsent(cargo.getReceiver().getPhoneNumber(), cargo.getReceiver());
+        }
+        Map<String, Customer> resolved = new HashMap<>();
+        for (Customer customer : customerRepository.findAllByPhoneNumberIn(submitted.keySet())) {
+            resolved.put(customer.getPhoneNumber(), customer);
+        }
+        List<Customer> missing = submitted.values().stream()
+                .filter(customer -> !resolved.containsKey(customer.getPhoneNumber()))
+                .toList();
+        List<Customer> created = customerRepository.saveAll(missing);
+        for (Customer customer : created) {
+            resolved.put(customer.getPhoneNumber(), customer);
+        }
+        customerRepository.flush();
+        analyticsRollupService.addCustomers(created.stream().map(Customer::getId).toList());
+        return resolved;
+    }
+
+    private String validate(Cargo cargo) {
+        if (cargo.getSender() == null || cargo.getSender().getPhoneNumber() == null
+                || cargo.getSender().getPhoneNumber().isBlank()) {
+            return "Sender phone number is required";
+        }
+        if (cargo.getReceiver() == null || cargo.getReceiver().getPhoneNumber() == null
+                || cargo.getReceiver().getPhoneNumber().isBlank()) {
+            return "Receiver phone number is required";
+        }
+        if (cargo.getPrice() == null || cargo.getPrice().getAmount() == null) {
+            return "Price is required";
+        }
+        return null;
+    }
+}
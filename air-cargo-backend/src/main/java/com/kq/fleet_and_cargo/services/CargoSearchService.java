@@ -0,0 +1,133 @@
+package com.kq.fleet_and_cargo.services;
+
+import com.kq.fleet_and_cargo.exceptions.BadRequestException;
+import com.kq.fleet_and_cargo.models.Cargo;
+import com.kq.fleet_and_cargo.payload.response.CursorPageResponse;
+import com.kq.fleet_and_cargo.repositories.CargoRepository;
+import com.kq.fleet_and_cargo.repositories.CargoSearchRepository;
+import com.kq.fleet_and_cargo.utils.CurrencyProjection;
+import com.kq.fleet_and_cargo.utils.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CargoSearchService {
+
+    private final CargoSearchRepository cargoSearchRepository;
+    private final CargoRepository cargoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CurrencyProjection currencyProjection;
+    private final PlatformTransactionManager transactionManager;
+
+    @Transactional(readOnly = true)
+    public Page<Cargo> search(String search, ZonedDateTime start, ZonedDateTime end,
+                              String pickupLocation, String destination, Pageable pageable) {
+        currencyProjection.bind();
+        String term = search == null ? "" : search.trim().toLowerCase(Locale.ROOT);
+        boolean dated = start != null && end != null;
+        if (term.isEmpty()) {
+            return dated
+                    ? cargoRepository.findAllByRouteAndDate(start, end, pickupLocation, destination, pageable)
+                    : cargoRepository.findAllByRoute(pickupLocation, destination, pageable);
+        }
+        // Best matches first unless the caller chose an order.
+        boolean ranked = pageable.getSort().isUnsorted();
+        return dated
+                ? cargoSearchRepository.searchByDate(term, start, end, pickupLocation, destination, ranked, pageable)
+                : cargoSearchRepository.search(term, pickupLocation, destination, ranked, pageable);
+    }
+
+    /**
+     * Keyset paginated listing: seeks past the (sortBy, id) of the cursor instead of using an
+     * OFFSET, and skips the count query. {@code estimatedTotal} comes from planner statistics and
+     * is only available for unfiltered listings.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<Cargo> scroll(Specification<Cargo> filter, String sortBy, String order,
+                                            String cursor, int size, boolean estimateTotal) {
+        if (size < 1) {
+            throw new BadRequestException("Page size must be positive");
+        }
+        ScrollPosition position = KeysetCursor.decode(sortBy, cursor);
+        currencyProjection.bind();
+        Sort.Direction direction = Sort.Direction.fromOptionalString(order)
+                .orElseThrow(() -> new BadRequestException("Invalid sort order '" + order + "'"));
+        Sort sort = Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+        Specification<Cargo> spec = filter == null ? Specification.where(null) : filter;
+        Window<Cargo> window = cargoRepository.findBy(spec, query -> query.project("sender", "receiver").sortBy(sort).limit(size).scroll(position));
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? KeysetCursor.encode(sortBy, (KeysetScrollPosition) window.positionAt(window.size() - 1))
+                : null;
+        Long estimatedTotal = estimateTotal && filter == null ? cargoRepository.estimateCount() : null;
+        return new CursorPageResponse<>(window.getContent(), nextCursor, window.hasNext(), estimatedTotal);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Cargo> findSentByCustomer(String customerId, String search, Pageable pageable) {
+        currencyProjection.bind();
+        return cargoRepository.findAllSentByCustomer(customerId, search, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Cargo> findReceivedByCustomer(String customerId, String search, Pageable pageable) {
+        currencyProjection.bind();
+        return cargoRepository.findAllReceivedByCustomer(customerId, search, pageable);
+    }
+
+    @Transactional
+    public void index(String cargoId) {
+        cargoSearchRepository.indexCargos(List.of(cargoId));
+    }
+
+    @Transactional
+    public void index(List<String> cargoIds) {
+        if (!cargoIds.isEmpty()) {
+            cargoSearchRepository.indexCargos(cargoIds);
+        }
+    }
+
+    @Transactional
+    public void indexCustomer(String customerId) {
+        cargoSearchRepository.indexCargosOfCustomer(customerId);
+    }
+
+    /**
+     * Creates the trigram index if needed and backfills documents for cargos indexed before it existed.
+     * Term searches rank with pg_trgm's similarity(), so startup fails when the extension cannot be
+     * created. The DDL runs outside a transaction: a failed statement would abort the backfill's.
+     */
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_cargo_search_document_trgm "
+                    + "ON cargo_search_document USING gin (document gin_trgm_ops)");
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Cargo search needs the pg_trgm extension; install it or have a "
+                    + "superuser run CREATE EXTENSION pg_trgm on this database", e);
+        }
+        Integer indexed = new TransactionTemplate(transactionManager)
+                .execute(status -> cargoSearchRepository.indexMissing());
+        if (indexed != null && indexed > 0) {
+            log.info("Indexed {} cargos for search", indexed);
+        }
+    }
+}
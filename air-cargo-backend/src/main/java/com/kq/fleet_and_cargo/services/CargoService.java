@@ -2,6 +2,7 @@ package com.kq.fleet_and_cargo.services;
 
 import java.io.IOException;
 import java.time.ZonedDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
@@ -12,12 +13,10 @@ import java.util.stream.Collectors;
 
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.jdbc.BadSqlGrammarException;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -27,7 +26,6 @@ import org.springframework.web.multipart.MultipartFile;
 import com.kq.fleet_and_cargo.amqp.RabbitConfiguration;
 import com.kq.fleet_and_cargo.amqp.RabbitMqProducer;
 import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
-import com.kq.fleet_and_cargo.events.CargoAddedEvent;
 import com.kq.fleet_and_cargo.exceptions.NotFoundException;
 import com.kq.fleet_and_cargo.models.Cargo;
 import com.kq.fleet_and_cargo.models.CargoTrackingHistory;
@@ -38,11 +36,15 @@ import com.kq.fleet_and_cargo.models.LuggageStatus;
 import com.kq.fleet_and_cargo.models.Money;
 import com.kq.fleet_and_cargo.models.User;
 import com.kq.fleet_and_cargo.payload.dto.WhatsappMessage;
+import com.kq.fleet_and_cargo.payload.response.CursorPageResponse;
 import com.kq.fleet_and_cargo.repositories.CargoRepository;
+import com.kq.fleet_and_cargo.repositories.CargoSpecifications;
 import com.kq.fleet_and_cargo.repositories.CustomerRepository;
-import com.kq.fleet_and_cargo.repositories.FXRateRepository;
 import com.kq.fleet_and_cargo.repositories.LuggageStatusRepository;
+import com.kq.fleet_and_cargo.utils.CurrencyProjection;
 import com.kq.fleet_and_cargo.utils.UserContext;
+import com.kq.fleet_and_cargo.utils.mail.MailTemplates;
+import com.kq.fleet_and_cargo.utils.whatsapp.PhoneNumbers;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -55,33 +57,80 @@ public class CargoService {
     private final CargoRepository cargoRepository;
     private final FileService fileService;
     private final CustomerRepository customerRepository;
-    private final ApplicationEventPublisher eventPublisher;
     private final RabbitMqProducer rabbitMqProducer;
     private final RabbitConfiguration rabbitConfiguration;
     private final UserContext userContext;
     private final CargoTrackingHistoryService cargoTrackingHistoryService;
-    private final FXRateRepository fxRateRepository;
-    private final JdbcTemplate jdbcTemplate;
+    private final FXRateCache fxRateCache;
+    private final CurrencyProjection currencyProjection;
+    private final ReferenceNumberAllocator referenceNumberAllocator;
+    private final CargoSearchService cargoSearchService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final OutboxService outboxService;
+    private final MailTemplates mailTemplates;
 
     @Value("${frontend-url}")
     private String frontendUrl;
 
+    @Value("${whatsapp.enabled:false}")
+    private boolean whatsappEnabled;
+
+    @Value("${whatsapp.default-country-code:252}")
+    private String defaultCountryCode;
+
+    @Value("${whatsapp.cargo-template.name:}")
+    private String cargoTemplate;
+
+    @Value("${whatsapp.cargo-template.language:en}")
+    private String cargoTemplateLanguage;
+
     @Transactional(readOnly = true)
     public Page<Cargo> findAll(String search, int page, int size, String sortBy, String order,
-            String startDate, String endDate, String pickupLocation, String destination) {
+            String startDate, String endDate, String pickupLocation, String destination, LuggageStatusEnum status) {
         log.info("Fetching all cargo");
         Sort sort = Sort.by(Sort.Direction.fromString(order), sortBy);
         String formattedSearch = search.replaceFirst("^\\+|^0+", "").trim();
+        if (status != null) {
+            ZonedDateTime start = startDate.isBlank() || endDate.isBlank() ? null : ZonedDateTime.parse(startDate);
+            ZonedDateTime end = start == null ? null : ZonedDateTime.parse(endDate);
+            currencyProjection.bind();
+            return cargoRepository.findAll(filter(formattedSearch.toLowerCase(), start, end, pickupLocation, destination, status),
+                    PageRequest.of(page, size, sort));
+        }
         if (!startDate.isBlank() && !endDate.isBlank()) {
             ZonedDateTime start = ZonedDateTime.parse(startDate);
             ZonedDateTime end = ZonedDateTime.parse(endDate);
-            return cargoRepository.findAllByDate(formattedSearch, start, end, pickupLocation, destination,
+            return cargoSearchService.search(formattedSearch, start, end, pickupLocation, destination,
                     PageRequest.of(page, size, sort));
         }
-        return cargoRepository.findAll(formattedSearch, pickupLocation, destination,
+        return cargoSearchService.search(formattedSearch, null, null, pickupLocation, destination,
                 PageRequest.of(page, size, sort));
     }
 
+    public CursorPageResponse<Cargo> scroll(String search, String cursor, int size, String sortBy, String order,
+            String startDate, String endDate, String pickupLocation, String destination, LuggageStatusEnum status,
+            boolean estimateTotal) {
+        log.info("Scrolling cargo");
+        String formattedSearch = search.replaceFirst("^\\+|^0+", "").trim().toLowerCase();
+        ZonedDateTime start = startDate.isBlank() || endDate.isBlank() ? null : ZonedDateTime.parse(startDate);
+        ZonedDateTime end = start == null ? null : ZonedDateTime.parse(endDate);
+        boolean filtered = !formattedSearch.isEmpty() || start != null
+                || !pickupLocation.isBlank() || !destination.isBlank() || status != null;
+        return cargoSearchService.scroll(
+                filtered ? filter(formattedSearch, start, end, pickupLocation, destination, status) : null,
+                sortBy, order, cursor, size, estimateTotal);
+    }
+
+    private Specification<Cargo> filter(String search, ZonedDateTime start, ZonedDateTime end,
+            String pickupLocation, String destination, LuggageStatusEnum status) {
+        return Specification.allOf(
+                CargoSpecifications.matches(search),
+                CargoSpecifications.createdBetween(start, end),
+                CargoSpecifications.pickupLocation(pickupLocation),
+                CargoSpecifications.destination(destination),
+                CargoSpecifications.currentStatus(status));
+    }
+
     @Transactional(readOnly = true)
     public Cargo findById(String id) {
         Cargo cargo = cargoRepository.findById(id)
@@ -90,22 +139,11 @@ public class CargoService {
         return cargo;
     }
 
-    private synchronized Long getNextReferenceNumber() {
-        try {
-            return jdbcTemplate.queryForObject("SELECT nextval('cargo_reference_seq')", Long.class);
-        } catch (BadSqlGrammarException e) {
-            if ("42P01".equals(e.getSQLException().getSQLState())) { // sequence missing
-                jdbcTemplate.execute("CREATE SEQUENCE cargo_reference_seq");
-                return jdbcTemplate.queryForObject("SELECT nextval('cargo_reference_seq')", Long.class);
-            }
-            throw e;
-        }
-    }
-
+    @Transactional
     public Cargo create(Cargo cargo, boolean sendWhatsapp) {
         log.info("Creating cargo");
         if (cargo.getReferenceNumber() == null) {
-            cargo.setReferenceNumber(getNextReferenceNumber());
+            cargo.setReferenceNumber(referenceNumberAllocator.next());
         }
 
         Customer sender = findOrSaveCustomer(cargo.getSender());
@@ -115,18 +153,17 @@ public class CargoService {
 
         var price = cargo.getPrice();
         var currencyCode = userContext.getUserCurrencyCode();
-        var fxRate = fxRateRepository.findByCurrencyCode(currencyCode)
+        var fxRate = fxRateCache.find(currencyCode)
                 .orElseThrow(() -> new NotFoundException("Invalid currency type: " + currencyCode));
         Money money = new Money(price.getAmount(), currencyCode);
         cargo.setPrice(money.exchange(fxRate, false));
 
         Cargo saved = cargoRepository.save(cargo);
+        cargoSearchService.index(saved.getId());
+        analyticsRollupService.addCargos(List.of(saved.getId()));
 
-        if (sendWhatsapp) {
-            sendCargoHelper(saved);
-        }
-
-        eventPublisher.publishEvent(new CargoAddedEvent(saved));
+        // The details go out from the CARGO_CREATED event, so a rolled back cargo is never announced.
+        outboxService.cargoCreated(List.of(saved), sendWhatsapp);
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         User user = (User) auth.getPrincipal();
         CargoTrackingHistory history = CargoTrackingHistory.builder()
@@ -143,6 +180,7 @@ public class CargoService {
 
     @Transactional
     public Cargo update(Cargo cargo) {
+        analyticsRollupService.removeCargos(List.of(cargo.getId()));
         Cargo existing = findById(cargo.getId());
         existing.setWeight(cargo.getWeight());
         existing.setQuantity(cargo.getQuantity());
@@ -157,23 +195,33 @@ public class CargoService {
 
         var price = cargo.getPrice();
         var currencyCode = userContext.getUserCurrencyCode();
-        var fxRate = fxRateRepository.findByCurrencyCode(currencyCode)
+        var fxRate = fxRateCache.find(currencyCode)
                 .orElseThrow(() -> new NotFoundException("Invalid currency type: " + currencyCode));
         Money money = new Money(price.getAmount(), currencyCode);
         existing.setPrice(money.exchange(fxRate, false));
 
-        return cargoRepository.save(existing);
+        Cargo saved = cargoRepository.saveAndFlush(existing);
+        cargoSearchService.index(saved.getId());
+        analyticsRollupService.addCargos(List.of(saved.getId()));
+        return saved;
     }
 
     public Customer findOrSaveCustomer(Customer customer) {
         Optional<Customer> existing = customerRepository.findByPhoneNumber(customer.getPhoneNumber());
-        return existing.orElseGet(() -> customerRepository.save(customer));
+        return existing.orElseGet(() -> {
+            Customer saved = customerRepository.save(customer);
+            analyticsRollupService.addCustomers(List.of(saved.getId()));
+            return saved;
+        });
     }
 
+    @Transactional
     public String delete(String id) {
         log.info("Deleting cargo with id: {}", id);
         Cargo cargo = cargoRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Luggage not found"));
+        analyticsRollupService.removeStatuses(List.of(id));
+        analyticsRollupService.removeCargos(List.of(id));
         cargoRepository.delete(cargo);
         return "Luggage deleted successfully";
     }
@@ -188,6 +236,7 @@ public class CargoService {
         File file = fileService.saveFile(logo); // validates image type internally
         cargo.getFiles().add(file);
         cargoRepository.save(cargo);
+        outboxService.fileAttached(cargo, file);
         return "File with id %s saved successfully".formatted(file.getId());
     }
 
@@ -221,41 +270,35 @@ public class CargoService {
         return sendCargoHelper(cargo);
     }
 
+    // Called for a committed CARGO_CREATED event, outside any request, so the price is left unconverted.
+    @Transactional(readOnly = true)
+    public void sendCargoMail(String cargoId) {
+        cargoRepository.findById(cargoId).ifPresentOrElse(this::sendCargoMail,
+                () -> log.warn("Cargo {} no longer exists, not sending its details", cargoId));
+    }
+
+    @Transactional(readOnly = true)
+    public void sendCargoWhatsapp(String cargoId) {
+        cargoRepository.findById(cargoId).ifPresentOrElse(this::sendCargoWhatsapp,
+                () -> log.warn("Cargo {} no longer exists, not sending its details", cargoId));
+    }
+
     public String sendCargoHelper(Cargo cargo) {
-        String message = """
-                <html>
-                  <head>
-                    <style>
-                      body { font-family: Arial, sans-serif; background-color: #f0f8ff; padding: 20px; color: #333; }
-                      .card { background-color: #e6f7ff; border: 1px solid #b3e0ff; border-radius: 10px; padding: 20px; box-shadow: 0 4px 6px rgba(0,0,0,.1); }
-                      .card h2 { color: #007acc; margin-top: 0; }
-                      .card p { margin: 10px 0; font-size: 16px; }
-                      .label { font-weight: bold; color: #005f8c; }
-                    </style>
-                  </head>
-                  <body>
-                    <div class="card">
-                      <h2>🚚 Cargo Details</h2>
-                      <p><span class="label">Weight:</span> %s</p>
-                      <p><span class="label">Quantity:</span> %s</p>
-                      <p><span class="label">Destination:</span> %s</p>
-                      <p><span class="label">Cargo Type:</span> %s</p>
-                      <p><span class="label">Pickup Location:</span> %s</p>
-                      <p><span class="label">Description:</span> %s</p>
-                    </div>
-                    <a href="%s/track/%s" style="display:inline-block;margin-top:20px;padding:10px 20px;background-color:#007acc;color:#fff;text-decoration:none;border-radius:5px;">View Cargo Details</a>
-                  </body>
-                </html>
-                """
-                .formatted(
-                        cargo.getWeight(),
-                        cargo.getQuantity(),
-                        cargo.getDestination(),
-                        cargo.getCargoType(),
-                        cargo.getPickupLocation(),
-                        cargo.getDescription(),
-                        frontendUrl,
-                        cargo.getId());
+        sendCargoMail(cargo);
+        sendCargoWhatsapp(cargo);
+        return "Cargo info sent successfully to both sender and receiver";
+    }
+
+    private void sendCargoMail(Cargo cargo) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("weight", cargo.getWeight());
+        values.put("quantity", cargo.getQuantity());
+        values.put("destination", cargo.getDestination());
+        values.put("cargoType", cargo.getCargoType());
+        values.put("pickupLocation", cargo.getPickupLocation());
+        values.put("description", cargo.getDescription());
+        values.put("trackUrl", frontendUrl + "/track/" + cargo.getId());
+        String message = mailTemplates.render(MailTemplates.CARGO_DETAILS, values);
 
         rabbitMqProducer.sendWhatsappCustomer(
                 WhatsappMessage.builder().message(message).to(cargo.getSender().getEmail()).build(),
@@ -266,7 +309,30 @@ public class CargoService {
                 WhatsappMessage.builder().message(message).to(cargo.getReceiver().getEmail()).build(),
                 rabbitConfiguration.customerWhatsappBinding().getRoutingKey(),
                 rabbitConfiguration.customerWhatsappBinding().getExchange());
+    }
 
-        return "Cargo info sent successfully to both sender and receiver";
+    // Free-form text only reaches customers who messaged the business in the last 24 hours, so
+    // production sends the approved cargo template; the text is for testing without one.
+    private void sendCargoWhatsapp(Cargo cargo) {
+        if (whatsappEnabled) {
+            String trackUrl = frontendUrl + "/track/" + cargo.getId();
+            WhatsappMessage.WhatsappMessageBuilder message = cargoTemplate.isBlank()
+                    ? WhatsappMessage.builder().message("Cargo details\nWeight: %s\nQuantity: %s\nDestination: %s\nCargo Type: %s\nTrack it at %s"
+                            .formatted(cargo.getWeight(), cargo.getQuantity(), cargo.getDestination(), cargo.getCargoType(), trackUrl))
+                    : WhatsappMessage.builder().template(cargoTemplate).language(cargoTemplateLanguage)
+                            .parameters(List.of(String.valueOf(cargo.getWeight()), String.valueOf(cargo.getQuantity()),
+                                    String.valueOf(cargo.getDestination()), String.valueOf(cargo.getCargoType()), trackUrl));
+            // Published rather than sent, so the event consumer never waits on the WhatsApp provider.
+            for (Customer customer : List.of(cargo.getSender(), cargo.getReceiver())) {
+                Optional<String> to = PhoneNumbers.toE164(customer.getPhoneNumber(), defaultCountryCode);
+                if (to.isEmpty()) {
+                    log.warn("Customer {} has no usable phone number for WhatsApp: {}", customer.getId(), customer.getPhoneNumber());
+                    continue;
+                }
+                rabbitMqProducer.sendWhatsappCustomer(message.to(to.get()).build(),
+                        rabbitConfiguration.whatsappOutboundBinding().getRoutingKey(),
+                        rabbitConfiguration.whatsappOutboundBinding().getExchange());
+            }
+        }
     }
 }
@@ -0,0 +1,81 @@
+package com.kq.fleet_and_cargo.services;
+
+import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
+import com.kq.fleet_and_cargo.models.CargoCurrentStatus;
+import com.kq.fleet_and_cargo.payload.dto.CargoDto;
+import com.kq.fleet_and_cargo.repositories.CargoCurrentStatusRepository;
+import com.kq.fleet_and_cargo.repositories.projections.CargoStatusSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CargoStatusService {
+
+    private final CargoCurrentStatusRepository cargoCurrentStatusRepository;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final OutboxService outboxService;
+
+    /**
+     * Re-derives the current status of the given cargos from their tracking history and records a
+     * status changed event for each existing cargo whose status or location moved.
+     */
+    @Transactional
+    public void refresh(List<String> cargoIds) {
+        if (cargoIds.isEmpty()) {
+            return;
+        }
+        outboxService.lock(cargoIds);
+        Map<String, CargoStatusSnapshot> before = snapshots(cargoIds);
+        analyticsRollupService.removeStatuses(cargoIds);
+        cargoCurrentStatusRepository.deleteWithoutHistory(cargoIds);
+        cargoCurrentStatusRepository.refresh(cargoIds);
+        analyticsRollupService.addStatuses(cargoIds);
+
+        // A cargo without a previous status is new; its creation event already carries the first one.
+        List<CargoStatusSnapshot> changed = snapshots(cargoIds).values().stream()
+                .filter(after -> {
+                    CargoStatusSnapshot previous = before.get(after.getCargoId());
+                    return previous != null && (previous.getStatus() != after.getStatus()
+                            || !Objects.equals(previous.getLocation(), after.getLocation()));
+                })
+                .toList();
+        outboxService.statusChanged(changed);
+    }
+
+    @Transactional(readOnly = true)
+    public void fill(Collection<CargoDto> cargos) {
+        if (cargos.isEmpty()) {
+            return;
+        }
+        Map<String, LuggageStatusEnum> statuses = cargoCurrentStatusRepository
+                .findAllById(cargos.stream().map(CargoDto::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(CargoCurrentStatus::getCargoId, CargoCurrentStatus::getStatus));
+        cargos.forEach(cargo -> cargo.setStatus(statuses.get(cargo.getId())));
+    }
+
+    // Projections rather than entities: the refresh bypasses the persistence context.
+    private Map<String, CargoStatusSnapshot> snapshots(List<String> cargoIds) {
+        return cargoCurrentStatusRepository.findSnapshots(cargoIds).stream()
+                .collect(Collectors.toMap(CargoStatusSnapshot::getCargoId, Function.identity()));
+    }
+
+    @Transactional
+    public void initialize() {
+        int refreshed = cargoCurrentStatusRepository.refreshMissing();
+        if (refreshed > 0) {
+            log.info("Derived current status for {} cargos", refreshed);
+        }
+    }
+}
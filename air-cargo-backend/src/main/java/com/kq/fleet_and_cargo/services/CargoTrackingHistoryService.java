@@ -1,11 +1,13 @@
 package com.kq.fleet_and_cargo.services;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
 import com.kq.fleet_and_cargo.exceptions.NotFoundException;
@@ -17,16 +19,26 @@ import com.kq.fleet_and_cargo.repositories.CargoRepository;
 import com.kq.fleet_and_cargo.repositories.CargoTrackingHistoryRepository;
 import com.kq.fleet_and_cargo.repositories.LuggageStatusRepository;
 
+import lombok.RequiredArgsConstructor;
+
 @Service
-public record CargoTrackingHistoryService(CargoRepository cargoRepository, ModelMapper modelMapper, CargoTrackingHistoryRepository cargoTrackingHistoryRepository, UserService userService, LuggageStatusRepository luggageStatusRepository) {
+@RequiredArgsConstructor
+public class CargoTrackingHistoryService {
+
+    private final CargoRepository cargoRepository;
+    private final CargoTrackingHistoryRepository cargoTrackingHistoryRepository;
+    private final UserService userService;
+    private final LuggageStatusRepository luggageStatusRepository;
+    private final CargoStatusService cargoStatusService;
 
     public Set<PublicCargoTrackingRequest> publicFindById(String id) {
         return find(id)
                 .stream()
-                .map(cargo -> modelMapper.map(cargo, PublicCargoTrackingRequest.class))
+                .map(PublicCargoTrackingRequest::from)
                 .collect(Collectors.toSet());
     }
 
+    @Transactional
     public CargoTrackingHistory save(CargoTrackingHistory cargoTrackingHistory) {
         var cargo = cargoRepository.findById(cargoTrackingHistory.getCargo().getId())
                 .orElseThrow(() -> new NotFoundException("Cargo not found"));
@@ -44,6 +56,8 @@ public record CargoTrackingHistoryService(CargoRepository cargoRepository, Model
             luggageStatus.setTrackingHistory(saved);
             luggageStatusRepository.save(luggageStatus);
         }
+        luggageStatusRepository.flush();
+        cargoStatusService.refresh(List.of(cargo.getId()));
 
         return saved;
     }
@@ -53,11 +67,12 @@ public record CargoTrackingHistoryService(CargoRepository cargoRepository, Model
         return find(id);
     }
 
+    @Transactional(readOnly = true)
     public Set<CargoTrackingHistory> find(String id) {
-        return cargoRepository.findByCargoId(id)
-                .orElseThrow(() -> new NotFoundException("Cargo tracking history not found"));
+        return new LinkedHashSet<>(cargoTrackingHistoryRepository.findAllByCargoId(id));
     }
 
+    @Transactional
     public CargoTrackingHistory update(CargoTrackingHistory cargoTrackingHistory) {
         CargoTrackingHistory cargoTrackingHistoryNotFound = cargoTrackingHistoryRepository.findById(cargoTrackingHistory.getId())
                 .orElseThrow(() -> new NotFoundException("Cargo tracking history not found"));
@@ -66,7 +81,9 @@ public record CargoTrackingHistoryService(CargoRepository cargoRepository, Model
         for (var luggageStatus : cargoTrackingHistory.getHistory()) {
             addLuggageStatus(cargoTrackingHistoryNotFound, luggageStatus.getStatus().name());
         }
-        return cargoTrackingHistoryRepository.save(cargoTrackingHistoryNotFound);
+        CargoTrackingHistory saved = cargoTrackingHistoryRepository.saveAndFlush(cargoTrackingHistoryNotFound);
+        cargoStatusService.refresh(List.of(saved.getCargo().getId()));
+        return saved;
     }
 
     private void addLuggageStatus(CargoTrackingHistory cargoTrackingHistory, String status) {
@@ -80,7 +97,13 @@ public record CargoTrackingHistoryService(CargoRepository cargoRepository, Model
 
     }
 
+    @Transactional
     public void delete(String id) {
-        cargoTrackingHistoryRepository.deleteById(id);
+        CargoTrackingHistory cargoTrackingHistory = cargoTrackingHistoryRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Cargo tracking history not found"));
+        String cargoId = cargoTrackingHistory.getCargo().getId();
+        cargoTrackingHistoryRepository.delete(cargoTrackingHistory);
+        cargoTrackingHistoryRepository.flush();
+        cargoStatusService.refresh(List.of(cargoId));
     }
 }
@@ -1,20 +1,24 @@
 package com.kq.fleet_and_cargo.services;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.kq.fleet_and_cargo.exceptions.NotFoundException;
 import com.kq.fleet_and_cargo.models.Cargo;
 import com.kq.fleet_and_cargo.models.Customer;
 import com.kq.fleet_and_cargo.payload.request.CustomerUpdateRequest;
+import com.kq.fleet_and_cargo.payload.response.CursorPageResponse;
 import com.kq.fleet_and_cargo.payload.response.CustomerNoCargoResponse;
 import com.kq.fleet_and_cargo.repositories.CargoRepository;
+import com.kq.fleet_and_cargo.repositories.CargoSpecifications;
 import com.kq.fleet_and_cargo.repositories.CustomerRepository;
 
 import lombok.extern.slf4j.Slf4j;
@@ -23,7 +27,9 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public record CustomerService(CustomerRepository customerRepository,
                               CargoRepository cargoRepository,
-                              ModelMapper modelMapper) {
+                              CargoSearchService cargoSearchService,
+                              AnalyticsRollupService analyticsRollupService,
+                              PlatformTransactionManager transactionManager) {
     public Page<CustomerNoCargoResponse> findAll(String search, int page, int size, String sortBy, String order, String startDate, String endDate) {
         log.info("Fetching all customers");
         Sort sort = Sort.by(Sort.Direction.fromString(order), sortBy);
@@ -32,10 +38,10 @@ public record CustomerService(CustomerRepository customerRepository,
         if(!startDate.isBlank() && !endDate.isBlank()){
             ZonedDateTime start = ZonedDateTime.parse(startDate);
             ZonedDateTime end = ZonedDateTime.parse(endDate);
-            return customerRepository.findAllByDate(formattedSearch, start, end,  pageable).map(c -> modelMapper.map(c, CustomerNoCargoResponse.class));
+            return customerRepository.findAllByDate(formattedSearch, start, end,  pageable).map(CustomerNoCargoResponse::from);
         }
 
-        return customerRepository.findAll(formattedSearch, pageable).map(c -> modelMapper.map(c, CustomerNoCargoResponse.class));
+        return customerRepository.findAll(formattedSearch, pageable).map(CustomerNoCargoResponse::from);
     }
 
 
@@ -47,7 +53,12 @@ public record CustomerService(CustomerRepository customerRepository,
     }
     public Customer create(Customer customer) {
         log.info("Creating customer");
-        return customerRepository.save(customer);
+        // The registration bucket commits with the customer, or neither does.
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Customer saved = customerRepository.saveAndFlush(customer);
+            analyticsRollupService.addCustomers(List.of(saved.getId()));
+            return saved;
+        });
     }
     public Customer update(CustomerUpdateRequest customerUpdateRequest) {
         Customer existingCustomer = customerRepository.findById(customerUpdateRequest.getId()).orElseThrow(() -> new NotFoundException("Customer not found"));
@@ -57,12 +68,17 @@ public record CustomerService(CustomerRepository customerRepository,
         existingCustomer.setGender(customerUpdateRequest.getGender());
         existingCustomer.setEmail(customerUpdateRequest.getEmail());
         existingCustomer.setAddress(customerUpdateRequest.getAddress());
-        return customerRepository.save(existingCustomer);
+        Customer saved = customerRepository.saveAndFlush(existingCustomer);
+        cargoSearchService.indexCustomer(saved.getId());
+        return saved;
     }
     public String delete(String id) {
         log.info("Deleting customer with id: {}", id);
-        Customer customer = customerRepository.findById(id).orElseThrow(() -> new NotFoundException("Customer not found"));
-        customerRepository.delete(customer);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Customer customer = customerRepository.findById(id).orElseThrow(() -> new NotFoundException("Customer not found"));
+            analyticsRollupService.removeCustomers(List.of(id));
+            customerRepository.delete(customer);
+        });
         return "Customer deleted successfully";
     }
 
@@ -76,7 +92,7 @@ public record CustomerService(CustomerRepository customerRepository,
         Sort sort = Sort.by(Sort.Direction.fromString(order), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
         String formattedSearch = search == null ? "" : search.replaceFirst("^\\+|^0+", "").trim();
-        return cargoRepository.findAllSentByCustomer(customerId, formattedSearch, pageable);
+        return cargoSearchService.findSentByCustomer(customerId, formattedSearch, pageable);
     }
 
     public Page<Cargo> findReceivedCargoByCustomer(String customerId, String search, int page, int size, String sortBy, String order) {
@@ -84,7 +100,21 @@ public record CustomerService(CustomerRepository customerRepository,
         Sort sort = Sort.by(Sort.Direction.fromString(order), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
         String formattedSearch = search == null ? "" : search.replaceFirst("^\\+|^0+", "").trim();
-        return cargoRepository.findAllReceivedByCustomer(customerId, formattedSearch, pageable);
+        return cargoSearchService.findReceivedByCustomer(customerId, formattedSearch, pageable);
+    }
+
+    public CursorPageResponse<Cargo> scrollSentCargoByCustomer(String customerId, String search, String cursor, int size, String sortBy, String order) {
+        log.info("Scrolling sent cargo for customer: {}", customerId);
+        String formattedSearch = search == null ? "" : search.replaceFirst("^\\+|^0+", "").trim().toLowerCase();
+        return cargoSearchService.scroll(CargoSpecifications.sentBy(customerId).and(CargoSpecifications.matches(formattedSearch)),
+                sortBy, order, cursor, size, false);
+    }
+
+    public CursorPageResponse<Cargo> scrollReceivedCargoByCustomer(String customerId, String search, String cursor, int size, String sortBy, String order) {
+        log.info("Scrolling received cargo for customer: {}", customerId);
+        String formattedSearch = search == null ? "" : search.replaceFirst("^\\+|^0+", "").trim().toLowerCase();
+        return cargoSearchService.scroll(CargoSpecifications.receivedBy(customerId).and(CargoSpecifications.matches(formattedSearch)),
+                sortBy, order, cursor, size, false);
     }
 
 }
@@ -1,15 +1,27 @@
 package com.kq.fleet_and_cargo.services;
 
 import java.time.LocalDate;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kq.fleet_and_cargo.amqp.ConsumerRetries;
+import com.kq.fleet_and_cargo.amqp.RabbitConsumerConfiguration;
 import com.kq.fleet_and_cargo.payload.dto.WhatsappMessage;
 import com.kq.fleet_and_cargo.utils.PathConstructUtil;
+import com.kq.fleet_and_cargo.utils.mail.MailTemplates;
+import com.kq.fleet_and_cargo.utils.mail.PooledMailSender;
+import com.kq.fleet_and_cargo.utils.mail.RecipientRateLimitedException;
 
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,86 +32,104 @@ import lombok.extern.slf4j.Slf4j;
 public class EmailSenderService {
 
     private final JavaMailSender emailSender;
+    private final MailTemplates mailTemplates;
     private final PathConstructUtil pathConstructUtil;
     private final WhatsappSenderService whatsappSenderService;
+    private final ObjectMapper objectMapper;
+    private final ConsumerRetries consumerRetries;
+
+    @RabbitListener(queues = "${rabbitmq.queue.otp-email}", containerFactory = RabbitConsumerConfiguration.OTP_EMAIL)
+    public void sendOTP(Message message) {
+        String queue = message.getMessageProperties().getConsumerQueue();
+        try {
+            sendOTP(objectMapper.readValue(message.getBody(), String.class));
+            consumerRetries.consumed(queue, message);
+        } catch (Exception e) {
+            retry(queue, message, e);
+        }
+    }
 
-    @RabbitListener(queues = "${rabbitmq.queue.otp-email}")
     public void sendOTP(String content) {
         log.info("Sending OTP to email: {}", content.split(":")[0]);
         String email = content.split(":")[0];
         String Otp = content.split(":")[1];
-        String otpTemplate =
-                "<html><body>" +
-                        "<table width=\"100%\" cellpadding=\"0\" cellspacing=\"0\" border=\"0\" style=\"margin: 0; padding: 0;\">" +
-                        "  <tr>" +
-                        "    <td align=\"center\" style=\"padding: 20px 0;\">" +
-                        "      <table width=\"600\" cellpadding=\"0\" cellspacing=\"0\" border=\"0\" style=\"background-color: #ffffff; border-radius: 10px; overflow: hidden; box-shadow: 0 0 10px rgba(0,0,0,0.1);\">" +
-                        "        <tr>" +
-                        "          <td style=\"background-color: hsl(359.47, 96.61%, 46.27%); padding: 20px; text-align: center;\">" +
-                        "            <h1 style=\"color: #ffffff; margin: 0;\">Your OTP Code</h1>" +
-                        "          </td>" +
-                        "        </tr>" +
-                        "        <tr>" +
-                        "          <td style=\"padding: 20px;\">" +
-                        "            <p style=\"font-size: 16px; line-height: 1.6;\">Your One-Time Password (OTP) for verification is:</p>" +
-                        "            <p style=\"font-size: 24px; font-weight: bold; text-align: center;\">" + Otp + "</p>" +
-                        "            <p style=\"font-size: 16px; line-height: 1.6;\">Please enter this code in the app/website to proceed. This OTP is valid for the next 10 minutes.</p>" +
-                        "            <p style=\"font-size: 16px; line-height: 1.6;\">If you did not request this, please ignore this email.</p>" +
-                        "          </td>" +
-                        "        </tr>" +
-                        "        <tr>" +
-                        "          <td style=\"background-color: #f8f8f8; padding: 10px; text-align: center; font-size: 12px; color: #999999;\">" +
-                        "            <p style=\"margin: 0;\">&copy; " + LocalDate.now().getYear() + " Dhaqane. All rights reserved.</p>" +
-                        "          </td>" +
-                        "        </tr>" +
-                        "      </table>" +
-                        "    </td>" +
-                        "  </tr>" +
-                        "</table>" +
-                        "</body></html>";
-
+        MimeMessage mimeMessage = emailSender.createMimeMessage();
         try {
-
-            MimeMessage mimeMessage = emailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
             helper.setFrom("Sahan@gmail.com");
             helper.setTo(email.trim());
             helper.setSubject("no-reply - Sahan");
-            helper.setText(otpTemplate, true);
-
-            emailSender.send(mimeMessage);
-        } catch (Exception e) {
+            helper.setText(mailTemplates.render(MailTemplates.OTP, Map.of("otp", Otp, "year", LocalDate.now().getYear())), true);
+            mimeMessage.setHeader(PooledMailSender.RATE_HEADER, MailTemplates.OTP);
+        } catch (MessagingException e) {
             throw new RuntimeException("Error sending email", e);
         }
+        emailSender.send(mimeMessage);
     }
 
-    @RabbitListener(queues = "${rabbitmq.queue.customer-whatsapp}")
-    public void sendCustomerNotification(WhatsappMessage whatsappMessage) {
+    /**
+     * Sends a batch of customer notifications over one SMTP connection. Messages that cannot be
+     * read or sent are retried on their own; the rest of the batch is not sent again.
+     */
+    @RabbitListener(queues = "${rabbitmq.queue.customer-whatsapp}",
+            containerFactory = RabbitConsumerConfiguration.CUSTOMER_NOTIFICATION)
+    public void sendCustomerNotifications(List<Message> messages) {
+        Map<MimeMessage, Message> batch = new IdentityHashMap<>();
+        for (Message message : messages) {
+            try {
+                batch.put(customerNotification(objectMapper.readValue(message.getBody(), WhatsappMessage.class)), message);
+            } catch (Exception e) {
+                retry(message.getMessageProperties().getConsumerQueue(), message, e);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Object, Exception> failed = Map.of();
         try {
-            log.info("Sending customer notification to {}: {}", whatsappMessage.getTo(), whatsappMessage.getMessage());
-            StringBuilder messageBuilder = new StringBuilder();
-            messageBuilder.append("<html><body>")
-                    .append("<h2>Customer Notification</h2>")
-                    .append("<p>").append(whatsappMessage.getMessage()).append("</p>");
-
-
-            messageBuilder.append("<p style=\"font-size: 12px; color: #888;\">&copy; ")
-                    .append(LocalDate.now().getYear())
-                    .append(" Sahan. All rights reserved.</p>")
-                    .append("</body></html>");
-
-            MimeMessage mimeMessage = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
-            helper.setFrom("Sahan@gmail.com");
-            helper.setTo(whatsappMessage.getTo());
-            helper.setSubject("Customer Notification - Sahan");
-            helper.setText(messageBuilder.toString(), true);
+            emailSender.send(batch.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            failed = e.getFailedMessages().isEmpty() ? allFailed(batch, e) : e.getFailedMessages();
+        } catch (Exception e) {
+            failed = allFailed(batch, e);
+        }
+        for (Map.Entry<MimeMessage, Message> sent : batch.entrySet()) {
+            String queue = sent.getValue().getMessageProperties().getConsumerQueue();
+            Exception failure = failed.get(sent.getKey());
+            if (failure == null) {
+                consumerRetries.consumed(queue, sent.getValue());
+            } else {
+                retry(queue, sent.getValue(), failure);
+            }
+        }
+        log.info("Sent {} of {} customer notifications", batch.size() - failed.size(), messages.size());
+    }
 
-            emailSender.send(mimeMessage);
+    private MimeMessage customerNotification(WhatsappMessage whatsappMessage) throws MessagingException {
+        MimeMessage mimeMessage = emailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
+        helper.setFrom("Sahan@gmail.com");
+        helper.setTo(whatsappMessage.getTo());
+        helper.setSubject("Customer Notification - Sahan");
+        helper.setText(mailTemplates.render(MailTemplates.CUSTOMER_NOTIFICATION,
+                Map.of("message", whatsappMessage.getMessage(), "year", LocalDate.now().getYear())), true);
+        return mimeMessage;
+    }
 
-            log.info("✅ Email sent to {}: {}", whatsappMessage.getTo(), whatsappMessage.getMessage());
-        } catch (Exception e) {
-            log.error("❌ Failed to send email to {}: {}", whatsappMessage.getTo(), e.getMessage(), e);
+    // A rate-limited recipient is not the message's fault, so it waits without using up an attempt.
+    private void retry(String queue, Message message, Exception cause) {
+        Exception failure = cause instanceof MailSendException send && send.getFailedMessages().size() == 1
+                ? send.getFailedMessages().values().iterator().next() : cause;
+        if (failure instanceof RecipientRateLimitedException limited) {
+            consumerRetries.deferred(queue, message, limited.getRetryAfter());
+        } else {
+            consumerRetries.failed(queue, message, failure);
         }
     }
+
+    private static Map<Object, Exception> allFailed(Map<MimeMessage, Message> batch, Exception cause) {
+        Map<Object, Exception> failed = new IdentityHashMap<>();
+        batch.keySet().forEach(message -> failed.put(message, cause));
+        return failed;
+    }
 }
@@ -0,0 +1,123 @@
+package com.kq.fleet_and_cargo.services;
+
+import com.kq.fleet_and_cargo.events.EntityChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the second-level cache of other instances coherent. Hibernate updates this instance's
+ * regions itself; committed writes to cached entities are published over Redis pub/sub and every
+ * other instance drops the entity, its collections and the cached query results. Either way an
+ * {@link EntityChangedEvent} goes out locally for caches kept outside of Hibernate.
+ */
+@Service
+@Slf4j
+public class EntityCacheInvalidator {
+
+    public static final String INVALIDATION_CHANNEL = "entity-cache:invalidate";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean redisEnabled;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public EntityCacheInvalidator(EntityManagerFactory entityManagerFactory,
+                                  ObjectProvider<StringRedisTemplate> redisTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${entity-cache.redis-enabled:true}") boolean redisEnabled) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+        this.redisEnabled = redisEnabled;
+    }
+
+    /** Publishes the write once the current transaction commits, de-duplicated across the transaction. */
+    public void changed(Object entity) {
+        Change change = new Change(Hibernate.getClass(entity),
+                String.valueOf(entityManagerFactory.getPersistenceUnitUtil().getIdentifier(entity)));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(Set.of(change));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Change> pending = (Set<Change>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Change> changes = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EntityCacheInvalidator.this);
+                    if (status == STATUS_COMMITTED) {
+                        publish(changes);
+                    }
+                }
+            });
+            pending = changes;
+        }
+        pending.add(change);
+    }
+
+    /** Handles changes published by other instances. */
+    public void onInvalidation(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length == 3 && !instanceId.equals(parts[0])) {
+            evict(parts[1], parts[2]);
+        }
+    }
+
+    // Cached entities all have string ids, so the id travels as-is.
+    private void evict(String entityName, String id) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = sessionFactory.getMappingMetamodel().findEntityDescriptor(entityName);
+        if (persister == null) {
+            log.warn("Ignoring cache invalidation for unknown entity {}", entityName);
+            return;
+        }
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(entityName, id);
+        sessionFactory.getMappingMetamodel().forEachCollectionDescriptor(collection -> {
+            if (collection.hasCache()
+                    && collection.getOwnerEntityPersister().getRootEntityName().equals(persister.getRootEntityName())) {
+                cache.evictCollectionData(collection.getRole(), id);
+            }
+        });
+        // Query results only hold ids, but a write can change which rows a query matches.
+        cache.evictQueryRegions();
+        eventPublisher.publishEvent(new EntityChangedEvent(this, persister.getMappedClass(), id));
+    }
+
+    private void publish(Set<Change> changes) {
+        changes.forEach(change -> eventPublisher.publishEvent(new EntityChangedEvent(this, change.type(), change.id())));
+        StringRedisTemplate redis = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        if (redis == null) {
+            return;
+        }
+        try {
+            for (Change change : changes) {
+                redis.convertAndSend(INVALIDATION_CHANNEL, instanceId + "|" + change.type().getName() + "|" + change.id());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Unable to publish entity cache invalidation, other instances will expire it: {}", e.getMessage());
+        }
+    }
+
+    private record Change(Class<?> type, String id) {}
+}
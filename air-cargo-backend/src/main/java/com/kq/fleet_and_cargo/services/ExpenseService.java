@@ -1,5 +1,6 @@
 package com.kq.fleet_and_cargo.services;
 
+import com.kq.fleet_and_cargo.enums.ReportDataDomain;
 import com.kq.fleet_and_cargo.exceptions.NotFoundException;
 import com.kq.fleet_and_cargo.models.Expense;
 import com.kq.fleet_and_cargo.models.File;
@@ -13,15 +14,21 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class ExpenseService {
 
+    private static final ZoneId DEFAULT_ZONE = ZoneId.of("Africa/Mogadishu");
+
     private final ExpenseRepository expenseRepository;
     private final FileService fileService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final ReportCacheService reportCacheService;
 
     @Transactional(readOnly = true)
     public List<Expense> list() {
@@ -39,7 +46,8 @@ public class ExpenseService {
             replaceReceipt(expense, receipt);
         }
 
-        Expense saved = expenseRepository.save(expense);
+        Expense saved = expenseRepository.saveAndFlush(expense);
+        analyticsRollupService.refreshExpenseMonths(List.of(saved.getIncurredAt()));
         populateReceiptUrl(saved);
         return saved;
     }
@@ -52,13 +60,20 @@ public class ExpenseService {
         Expense existing = expenseRepository.findById(expenseId)
                 .orElseThrow(() -> new NotFoundException("Expense not found"));
 
+        ZonedDateTime previousIncurredAt = existing.getIncurredAt();
         applyRequest(existing, request);
 
         if (receipt != null && !receipt.isEmpty()) {
             replaceReceipt(existing, receipt);
         }
 
-        Expense saved = expenseRepository.save(existing);
+        Expense saved = expenseRepository.saveAndFlush(existing);
+        analyticsRollupService.refreshExpenseMonths(Arrays.asList(previousIncurredAt, saved.getIncurredAt()));
+        if (previousIncurredAt != null) {
+            // The entity listener only sees the new date; reports covering the old one are stale too.
+            reportCacheService.markChanged(ReportDataDomain.EXPENSE,
+                    previousIncurredAt.withZoneSameInstant(DEFAULT_ZONE).toLocalDate());
+        }
         populateReceiptUrl(saved);
         return saved;
     }
@@ -77,6 +92,8 @@ public class ExpenseService {
         }
 
         expenseRepository.delete(existing);
+        expenseRepository.flush();
+        analyticsRollupService.refreshExpenseMonths(Arrays.asList(existing.getIncurredAt()));
     }
 
     private void applyRequest(Expense expense, ExpenseRequest request) {
@@ -0,0 +1,131 @@
+package com.kq.fleet_and_cargo.services;
+
+import com.kq.fleet_and_cargo.models.FXRates;
+import com.kq.fleet_and_cargo.repositories.FXRateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of the FX rate table keyed by destination currency, so converting a price
+ * never touches the database. The snapshot is rebuilt and swapped in whole whenever a rate change
+ * commits; other instances are told to reload over Redis pub/sub, and a periodic reload covers any
+ * notification that got lost.
+ */
+@Service
+@Slf4j
+public class FXRateCache {
+
+    public static final String CHANGE_CHANNEL = "fx-rates:changed";
+
+    private final FXRateRepository fxRateRepository;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+    private final boolean redisEnabled;
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile Map<String, FXRates> rates;
+
+    public FXRateCache(FXRateRepository fxRateRepository,
+                       ObjectProvider<StringRedisTemplate> redisTemplate,
+                       @Value("${fx-rates.redis-enabled:true}") boolean redisEnabled) {
+        this.fxRateRepository = fxRateRepository;
+        this.redisTemplate = redisTemplate;
+        this.redisEnabled = redisEnabled;
+    }
+
+    /** Exact, case-insensitive match on the destination currency. */
+    public Optional<FXRates> find(String currencyCode) {
+        if (currencyCode == null) {
+            return Optional.empty();
+        }
+        Map<String, FXRates> snapshot = rates;
+        if (snapshot == null) {
+            snapshot = reload();
+        }
+        return Optional.ofNullable(snapshot.get(normalize(currencyCode)));
+    }
+
+    /** Reloads once the current transaction commits, or right away outside of one. */
+    public void changed() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reloadAndPublish();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reloadAndPublish();
+            }
+        });
+    }
+
+    /** Handles change notifications; the publishing instance has already reloaded. */
+    public void onChange(String message) {
+        if (!instanceId.equals(message)) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fx-rates.refresh-interval:PT5M}")
+    public void refresh() {
+        reload();
+    }
+
+    private Map<String, FXRates> reload() {
+        Map<String, FXRates> snapshot = fxRateRepository.findAll().stream()
+                .filter(rate -> rate.getDestinationCurrency() != null && rate.getRate() != null)
+                .map(FXRateCache::copy)
+                .collect(Collectors.toUnmodifiableMap(rate -> normalize(rate.getDestinationCurrency()),
+                        Function.identity(), FXRateCache::newest));
+        rates = snapshot;
+        return snapshot;
+    }
+
+    private void reloadAndPublish() {
+        reload();
+        StringRedisTemplate redis = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.convertAndSend(CHANGE_CHANNEL, instanceId);
+        } catch (DataAccessException e) {
+            log.warn("Unable to publish FX rate change, other instances will pick it up on their next refresh: {}",
+                    e.getMessage());
+        }
+    }
+
+    // Detached copies, so callers cannot change the shared snapshot.
+    private static FXRates copy(FXRates rate) {
+        return FXRates.builder()
+                .id(rate.getId())
+                .sourceCurrency(rate.getSourceCurrency())
+                .destinationCurrency(rate.getDestinationCurrency())
+                .rate(rate.getRate())
+                .createdAt(rate.getCreatedAt())
+                .build();
+    }
+
+    private static FXRates newest(FXRates left, FXRates right) {
+        Comparator<FXRates> byCreatedAt = Comparator.comparing(FXRates::getCreatedAt,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        return byCreatedAt.compare(left, right) >= 0 ? left : right;
+    }
+
+    private static String normalize(String currencyCode) {
+        return currencyCode.trim().toUpperCase(Locale.ROOT);
+    }
+}
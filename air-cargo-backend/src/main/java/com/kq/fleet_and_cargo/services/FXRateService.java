@@ -14,7 +14,7 @@ import java.util.Currency;
 import java.util.Set;
 
 @Service
-public record FXRateService(FXRateRepository fxExchangeRepository) {
+public record FXRateService(FXRateRepository fxExchangeRepository, FXRateCache fxRateCache) {
     public FXRates createFXRate(FXRates fxRates) {
         String destCurr = fxRates.getDestinationCurrency();
         fxRates.setSourceCurrency("USD");
@@ -25,8 +25,9 @@ public record FXRateService(FXRateRepository fxExchangeRepository) {
                 throw new NotFoundException("Invalid destination currency code: " + destCurr);
             }
         }
-        return fxExchangeRepository.save(fxRates);
-
+        FXRates saved = fxExchangeRepository.save(fxRates);
+        fxRateCache.changed();
+        return saved;
     }
 
     public Page<FXRates> getAllFXRates(String search, int page, int size, String sortBy, String order) {
@@ -52,7 +53,9 @@ public record FXRateService(FXRateRepository fxExchangeRepository) {
         FXRates existingFXRate = getFXRateById(fxRates.getId());
         existingFXRate.setDestinationCurrency(fxRates.getDestinationCurrency());
         existingFXRate.setRate(fxRates.getRate());
-        return fxExchangeRepository.save(existingFXRate);
+        FXRates saved = fxExchangeRepository.save(existingFXRate);
+        fxRateCache.changed();
+        return saved;
     }
 
     public Set<String> getAllSupportedCurrencies() {
@@ -64,6 +67,7 @@ public record FXRateService(FXRateRepository fxExchangeRepository) {
     public String deleteFXRate(String id) {
         FXRates existingFXRate = getFXRateById(id);
         fxExchangeRepository.delete(existingFXRate);
+        fxRateCache.changed();
         return "FX Rate deleted successfully with id: " + id;
     }
 }
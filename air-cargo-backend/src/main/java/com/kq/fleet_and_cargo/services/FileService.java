@@ -15,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -68,6 +69,17 @@ public class FileService {
         return fileRepository.save(stored);
     }
 
+    /** Save content generated by the application (no image check) using the configured provider. */
+    @Transactional
+    public File saveFile(String fileName, String contentType, Path content) throws IOException {
+        FileStorageStrategy storage = storagesByType.get(configuredProvider());
+        if (storage == null) throw new IllegalStateException("No storage bean for provider: " + storageProviderProp);
+
+        try (InputStream in = Files.newInputStream(content)) {
+            return fileRepository.save(storage.store(fileName, contentType, in, Files.size(content)));
+        }
+    }
+
     /** Load a file and attach a transient public URL (fileUrl). */
     @Transactional(readOnly = true)
     public File getFile(String fileId) {
@@ -90,6 +102,17 @@ public class FileService {
         fileRepository.deleteById(fileId);
     }
 
+    /** Delete the DB record only; remove the stored content with {@link #deleteContent} once that commits. */
+    @Transactional
+    public void deleteRecord(String fileId) {
+        fileRepository.deleteById(fileId);
+    }
+
+    /** Delete the stored content of a record that is already gone. */
+    public void deleteContent(File f) {
+        selectStorageForRecord(f).delete(f);
+    }
+
     /** Convenience helper for places where you just need the URL. */
     public String buildPublicUrl(File f) {
         return selectStorageForRecord(f).buildUrl(f);
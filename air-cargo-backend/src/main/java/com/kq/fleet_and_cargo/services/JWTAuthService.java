@@ -1,14 +1,18 @@
 package com.kq.fleet_and_cargo.services;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -31,12 +35,20 @@ public class JWTAuthService {
     private long jwtExpiration;
     @Value("${spring.application.security.refresh-token.expiration}")
     private long refreshExpiration;
+    // Built once from the secret; JwtParser is immutable and thread-safe.
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile Key signInKey;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile JwtParser jwtParser;
 
     public String extractEmail(String token) {
         return extractClaim(token, Claims::getSubject);
     }
+    /** Verifies the signature and expiry and returns the claims; parse once and reuse them per request. */
     public Claims extractClaims (String token){
-        return Jwts.parserBuilder().setSigningKey(getSignInKey()).build().parseClaimsJws(token).getBody();
+        return parser().parseClaimsJws(token).getBody();
     }
     public String generateToken(UserDetails userDetails) {
         return generateToken(new HashMap<>(), userDetails);
@@ -66,24 +78,33 @@ public class JWTAuthService {
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String email = extractEmail(token);
-        return (email.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
 public <T> T extractClaim(String token, Function<Claims, T> claimsResolver){
         final Claims claims = extractClaims(token);
         return claimsResolver.apply(claims);
 }
+    private JwtParser parser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            parser = Jwts.parserBuilder().setSigningKey(getSignInKey()).build();
+            jwtParser = parser;
+        }
+        return parser;
+    }
+
     private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        Key key = signInKey;
+        if (key == null) {
+            byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+            key = Keys.hmacShaKeyFor(keyBytes);
+            signInKey = key;
+        }
+        return key;
     }
 
 
@@ -3,39 +3,81 @@ package com.kq.fleet_and_cargo.services;
 import com.kq.fleet_and_cargo.models.Notification;
 import com.kq.fleet_and_cargo.payload.request.ReadNotificationRequest;
 import com.kq.fleet_and_cargo.repositories.NotificationRepository;
+import com.kq.fleet_and_cargo.repositories.UserNotificationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 
 @Service
-public record NotificationService(NotificationRepository notificationRepository) {
-   public Page<Notification> getUnreadNotificationsByUserId(String userId, int page, int size) {
-       Pageable pageable = PageRequest.of(page, size);
-       return notificationRepository.getUnreadNotificationsByUserId(userId, pageable);
-   }
-
-   public String readNotifications(String userId, ReadNotificationRequest notificationIds) {
-       List<Notification> notifications = notificationRepository.findAllById(notificationIds.getNotificationIds());
-       for (Notification notification : notifications) {
-           if (notification.getUsers().stream().anyMatch(user -> user.getId().equals(userId))) {
-               notification.setRead(true);
-           }
-       }
-       notificationRepository.saveAll(notifications);
-       return "Notifications marked as read";
-   }
-   public String readAllNotifications(String userId) {
-       List<Notification> notifications = notificationRepository.findAllByUsersId(userId);
-       for (Notification notification : notifications) {
-           notification.setRead(true);
-       }
-       notificationRepository.saveAll(notifications);
-       return "All notifications marked as read";
-   }
-   public Long countUnreadNotifications(String userId) {
-       return notificationRepository.countUnreadNotificationsByUserId(userId);
-   }
+@RequiredArgsConstructor
+public class NotificationService {
+
+    private final NotificationRepository notificationRepository;
+    private final UserNotificationRepository userNotificationRepository;
+    private final UnreadNotificationCounter unreadNotificationCounter;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Read state used to be one flag on the notification, shared by every recipient. It moves to
+     * each recipient's {@code read_at} once, then the flag is dropped.
+     */
+    @PostConstruct
+    void initialize() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_user_notifications_unread "
+                + "ON user_notifications (user_id, notification_id) WHERE read_at IS NULL");
+        jdbcTemplate.execute("""
+                DO $$ BEGIN
+                    IF EXISTS (SELECT 1 FROM information_schema.columns
+                               WHERE table_name = 'notification' AND column_name = 'is_read') THEN
+                        UPDATE user_notifications un SET read_at = n.created_at
+                        FROM notification n WHERE n.id = un.notification_id AND n.is_read;
+                        ALTER TABLE notification DROP COLUMN is_read;
+                    END IF;
+                END $$""");
+    }
+
+    /** Saves the notification into every user's inbox with one insert and returns the recipients. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<String> notifyAllUsers(Notification notification) {
+        Notification saved = notificationRepository.saveAndFlush(notification);
+        List<String> recipients = jdbcTemplate.queryForList("INSERT INTO user_notifications (user_id, notification_id) "
+                + "SELECT id, ? FROM users RETURNING user_id", String.class, saved.getId());
+        unreadNotificationCounter.added(recipients);
+        return recipients;
+    }
+
+    public Page<Notification> getUnreadNotificationsByUserId(String userId, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return userNotificationRepository.findUnread(userId, pageable);
+    }
+
+    @Transactional
+    public String readNotifications(String userId, ReadNotificationRequest notificationIds) {
+        if (notificationIds.getNotificationIds() != null && !notificationIds.getNotificationIds().isEmpty()) {
+            int read = userNotificationRepository.markRead(userId, notificationIds.getNotificationIds(),
+                    ZonedDateTime.now());
+            unreadNotificationCounter.read(userId, read);
+        }
+        return "Notifications marked as read";
+    }
+
+    @Transactional
+    public String readAllNotifications(String userId) {
+        userNotificationRepository.markAllRead(userId, ZonedDateTime.now());
+        unreadNotificationCounter.readAll(userId);
+        return "All notifications marked as read";
+    }
+
+    public Long countUnreadNotifications(String userId) {
+        return unreadNotificationCounter.get(userId);
+    }
 }
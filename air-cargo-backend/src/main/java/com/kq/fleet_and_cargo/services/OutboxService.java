@@ -0,0 +1,90 @@
+package com.kq.fleet_and_cargo.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kq.fleet_and_cargo.models.Cargo;
+import com.kq.fleet_and_cargo.models.File;
+import com.kq.fleet_and_cargo.payload.dto.CargoEvent;
+import com.kq.fleet_and_cargo.repositories.CargoRepository;
+import com.kq.fleet_and_cargo.repositories.projections.CargoStatusSnapshot;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Records cargo events in {@code outbox_event} as part of the caller's transaction, so an event
+ * exists exactly when the change it describes was committed. {@code OutboxRelay} publishes them.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final String INSERT = "INSERT INTO outbox_event (id, cargo_id, type, payload, created_at) "
+            + "VALUES (nextval('outbox_event_seq'), ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CargoRepository cargoRepository;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    void initialize() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS outbox_event_seq");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_outbox_event_unpublished "
+                + "ON outbox_event (id) WHERE published_at IS NULL");
+    }
+
+    /**
+     * Locks the cargos about to change. Writers to the same cargo then take outbox ids in commit
+     * order, which is what keeps the relay's id order equal to each cargo's event order.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lock(Collection<String> cargoIds) {
+        if (!cargoIds.isEmpty()) {
+            cargoRepository.lockAllById(cargoIds);
+        }
+    }
+
+    // A new cargo is invisible to other transactions until commit, so it needs no lock.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cargoCreated(Collection<Cargo> cargos, boolean notifyCustomers) {
+        append(cargos.stream().map(cargo -> CargoEvent.created(cargo, notifyCustomers)).toList());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(List<CargoStatusSnapshot> statuses) {
+        append(statuses.stream().map(CargoEvent::statusChanged).toList());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void fileAttached(Cargo cargo, File file) {
+        lock(List.of(cargo.getId()));
+        append(List.of(CargoEvent.fileAttached(cargo, file)));
+    }
+
+    private void append(List<CargoEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.cargoId());
+            statement.setString(2, event.type().name());
+            statement.setString(3, serialize(event));
+            statement.setTimestamp(4, Timestamp.from(event.occurredAt().toInstant()));
+        });
+    }
+
+    private String serialize(CargoEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event.type() + " for cargo " + event.cargoId(), e);
+        }
+    }
+}
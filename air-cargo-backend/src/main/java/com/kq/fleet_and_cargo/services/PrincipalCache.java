@@ -0,0 +1,53 @@
+package com.kq.fleet_and_cargo.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kq.fleet_and_cargo.events.EntityChangedEvent;
+import com.kq.fleet_and_cargo.models.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Signed-in users by token subject, so authenticating a request does not touch the database.
+ * Entries expire after {@code principal-cache.ttl} and are dropped as soon as the user is changed
+ * (enabled, password, roles, currency) on this or another instance.
+ */
+@Service
+public class PrincipalCache {
+
+    private final UserDetailsService userDetailsService;
+    private final Cache<String, UserDetails> principals;
+
+    public PrincipalCache(UserDetailsService userDetailsService,
+                          MeterRegistry meterRegistry,
+                          @Value("${principal-cache.ttl:PT5M}") Duration ttl,
+                          @Value("${principal-cache.max-size:10000}") long maxSize) {
+        this.userDetailsService = userDetailsService;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
+    }
+
+    /** Throws {@code UsernameNotFoundException} like the {@link UserDetailsService}; misses are not cached. */
+    public UserDetails get(String username) {
+        return principals.get(username, userDetailsService::loadUserByUsername);
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (User.class.isAssignableFrom(event.getType())) {
+            principals.asMap().values().removeIf(principal -> principal instanceof User user
+                    && event.getId().equals(user.getId()));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.kq.fleet_and_cargo.services;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out cargo reference numbers from blocks reserved on {@code cargo_reference_seq}.
+ * The sequence increments by {@link #BLOCK_SIZE}, so every {@code nextval} reserves a
+ * disjoint range and several app instances can allocate without coordinating.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceNumberAllocator {
+
+    public static final int BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(1, 0));
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    @PostConstruct
+    public void createSequence() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS cargo_reference_seq INCREMENT BY " + BLOCK_SIZE);
+        jdbcTemplate.execute("ALTER SEQUENCE cargo_reference_seq INCREMENT BY " + BLOCK_SIZE);
+    }
+
+    public long next() {
+        while (true) {
+            Block block = current.get();
+            long value = block.next().getAndIncrement();
+            if (value <= block.last()) {
+                return value;
+            }
+            // Only the refill is serialized, and only once per block; the fast path above never blocks.
+            refillLock.lock();
+            try {
+                if (current.get() == block) {
+                    current.set(reserve());
+                }
+            } finally {
+                refillLock.unlock();
+            }
+        }
+    }
+
+    private Block reserve() {
+        Long first = jdbcTemplate.queryForObject("SELECT nextval('cargo_reference_seq')", Long.class);
+        log.debug("Reserved cargo reference numbers {} - {}", first, first + BLOCK_SIZE - 1);
+        return new Block(first, first + BLOCK_SIZE - 1);
+    }
+
+    private record Block(AtomicLong next, long last) {
+        Block(long first, long last) {
+            this(new AtomicLong(first), last);
+        }
+    }
+}
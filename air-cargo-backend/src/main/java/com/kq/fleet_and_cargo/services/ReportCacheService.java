@@ -0,0 +1,242 @@
+package com.kq.fleet_and_cargo.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kq.fleet_and_cargo.enums.ReportDataDomain;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Two level cache for dashboard analytics and report previews: a bounded in-process L1 in front
+ * of a shared Redis L2. Entries are keyed by endpoint, day range and search. A write evicts, after
+ * commit, only the entries whose range contains the day it touched, locally, in Redis, and on the
+ * other instances through a Redis channel. Redis failures degrade to L1 only.
+ */
+@Service
+@Slf4j
+public class ReportCacheService {
+
+    public static final String ANALYTICS = "analytics";
+    public static final String CARGO_REPORTS = "cargo-reports";
+    public static final String EXPENSE_REPORTS = "expense-reports";
+    public static final String INVALIDATION_CHANNEL = "report-cache:invalidate";
+
+    private static final Map<ReportDataDomain, List<String>> CACHES_BY_DOMAIN = Map.of(
+            ReportDataDomain.CARGO, List.of(ANALYTICS, CARGO_REPORTS),
+            ReportDataDomain.CUSTOMER, List.of(ANALYTICS),
+            ReportDataDomain.EXPENSE, List.of(EXPENSE_REPORTS));
+    private static final String KEY_PREFIX = "report-cache::";
+    private static final String SEPARATOR = "::";
+    private static final String UNBOUNDED = "*";
+    private static final Duration REDIS_BACKOFF = Duration.ofSeconds(30);
+
+    private final Cache<String, Object> local;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean redisEnabled;
+    private final Duration ttl;
+    private volatile long redisRetryAt;
+
+    public ReportCacheService(ObjectProvider<StringRedisTemplate> redisTemplate,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${report-cache.redis-enabled:true}") boolean redisEnabled,
+                              @Value("${report-cache.ttl:10m}") Duration ttl,
+                              @Value("${report-cache.local-ttl:1m}") Duration localTtl,
+                              @Value("${report-cache.local-max-size:1000}") long localMaxSize) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.redisEnabled = redisEnabled;
+        this.ttl = ttl;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+    }
+
+    /**
+     * Returns the cached value for the endpoint and range, loading and storing it on a miss.
+     * A {@code null} start or end day means the range is unbounded on that side.
+     */
+    public <T> T get(String cache, String endpoint, LocalDate startDay, LocalDate endDay, String search,
+                     TypeReference<T> type, Supplier<T> loader) {
+        String key = KEY_PREFIX + cache + SEPARATOR + day(startDay) + SEPARATOR + day(endDay)
+                + SEPARATOR + endpoint + SEPARATOR + (search == null ? "" : search.trim().toLowerCase());
+
+        @SuppressWarnings("unchecked")
+        T value = (T) local.getIfPresent(key);
+        if (value != null) {
+            record(cache, "l1", "hit");
+            return value;
+        }
+        record(cache, "l1", "miss");
+
+        StringRedisTemplate redis = redis();
+        if (redis != null) {
+            value = readRemote(redis, key, type);
+            if (value != null) {
+                record(cache, "l2", "hit");
+                local.put(key, value);
+                return value;
+            }
+            record(cache, "l2", "miss");
+        }
+
+        value = loader.get();
+        if (value != null) {
+            local.put(key, value);
+            writeRemote(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Records that data of the given domain dated {@code day} changed. Inside a transaction the
+     * eviction is deferred until commit and de-duplicated across the whole transaction.
+     */
+    public void markChanged(ReportDataDomain domain, LocalDate day) {
+        Change change = new Change(domain, day);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(Set.of(change));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Change> pending = (Set<Change>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Change> changes = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ReportCacheService.this);
+                    if (status == STATUS_COMMITTED) {
+                        invalidate(changes);
+                    }
+                }
+            });
+            pending = changes;
+        }
+        pending.add(change);
+    }
+
+    /** Handles invalidations published by other instances. */
+    public void onInvalidation(String message) {
+        String[] parts = message.split("\\|", 2);
+        evictLocal(parts[0], LocalDate.parse(parts[1]));
+    }
+
+    private void invalidate(Set<Change> changes) {
+        for (Change change : changes) {
+            for (String cache : CACHES_BY_DOMAIN.get(change.domain())) {
+                evictLocal(cache, change.day());
+                evictRemote(cache, change.day());
+            }
+        }
+    }
+
+    private void evictLocal(String cache, LocalDate day) {
+        String prefix = KEY_PREFIX + cache + SEPARATOR;
+        local.asMap().keySet().removeIf(key -> key.startsWith(prefix) && covers(key, day));
+    }
+
+    private void evictRemote(String cache, LocalDate day) {
+        StringRedisTemplate redis = redis();
+        if (redis == null) {
+            return;
+        }
+        try {
+            List<String> stale = new ArrayList<>();
+            ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + cache + SEPARATOR + "*").count(500).build();
+            try (Cursor<String> keys = redis.scan(options)) {
+                keys.forEachRemaining(key -> {
+                    if (covers(key, day)) {
+                        stale.add(key);
+                    }
+                });
+            }
+            if (!stale.isEmpty()) {
+                redis.delete(stale);
+            }
+            redis.convertAndSend(INVALIDATION_CHANNEL, cache + "|" + day);
+        } catch (DataAccessException e) {
+            redisUnavailable(e);
+        }
+    }
+
+    private <T> T readRemote(StringRedisTemplate redis, String key, TypeReference<T> type) {
+        try {
+            String json = redis.opsForValue().get(key);
+            return json == null ? null : objectMapper.readValue(json, type);
+        } catch (DataAccessException e) {
+            redisUnavailable(e);
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable report cache entry {}", key, e);
+        }
+        return null;
+    }
+
+    private void writeRemote(String key, Object value) {
+        StringRedisTemplate redis = redis();
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.opsForValue().set(key, objectMapper.writeValueAsString(value), ttl);
+        } catch (DataAccessException e) {
+            redisUnavailable(e);
+        } catch (JsonProcessingException e) {
+            log.warn("Unable to serialize report cache entry {}", key, e);
+        }
+    }
+
+    private StringRedisTemplate redis() {
+        if (!redisEnabled || System.currentTimeMillis() < redisRetryAt) {
+            return null;
+        }
+        return redisTemplate.getIfAvailable();
+    }
+
+    private void redisUnavailable(DataAccessException e) {
+        redisRetryAt = System.currentTimeMillis() + REDIS_BACKOFF.toMillis();
+        log.warn("Redis unavailable, serving report cache from memory for {}s: {}", REDIS_BACKOFF.toSeconds(), e.getMessage());
+    }
+
+    private void record(String cache, String level, String result) {
+        meterRegistry.counter("report.cache.requests", "cache", cache, "level", level, "result", result).increment();
+    }
+
+    private static boolean covers(String key, LocalDate day) {
+        String[] parts = key.substring(KEY_PREFIX.length()).split(SEPARATOR, 4);
+        return (UNBOUNDED.equals(parts[1]) || !day.isBefore(LocalDate.parse(parts[1])))
+                && (UNBOUNDED.equals(parts[2]) || !day.isAfter(LocalDate.parse(parts[2])));
+    }
+
+    private static String day(LocalDate day) {
+        return day == null ? UNBOUNDED : day.toString();
+    }
+
+    private record Change(ReportDataDomain domain, LocalDate day) {}
+}
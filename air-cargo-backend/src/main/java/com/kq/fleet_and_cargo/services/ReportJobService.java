@@ -0,0 +1,340 @@
+package com.kq.fleet_and_cargo.services;
+
+import com.kq.fleet_and_cargo.enums.ReportJobStatus;
+import com.kq.fleet_and_cargo.enums.ReportType;
+import com.kq.fleet_and_cargo.exceptions.BadRequestException;
+import com.kq.fleet_and_cargo.exceptions.ConflictException;
+import com.kq.fleet_and_cargo.exceptions.NotFoundException;
+import com.kq.fleet_and_cargo.models.File;
+import com.kq.fleet_and_cargo.models.ReportJob;
+import com.kq.fleet_and_cargo.payload.request.ReportJobRequest;
+import com.kq.fleet_and_cargo.repositories.ReportJobRepository;
+import com.kq.fleet_and_cargo.utils.CurrencyProjection;
+import com.kq.fleet_and_cargo.utils.export.ExportFormat;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Generates report exports off the request thread. A bounded worker pool writes each report to a
+ * temp file and hands it to the configured {@code FileStorageStrategy}; identical requests attach
+ * to the job that is already running, or to its artifact while it is fresh, so a report asked for
+ * by many users at once is built a single time.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+
+    private static final Duration KEEP_FAILED = Duration.ofDays(1);
+    private static final int SUBMIT_LOCK_STRIPES = 64;
+
+    private final ReportJobRepository reportJobRepository;
+    private final ReportService reportService;
+    private final FileService fileService;
+    private final JdbcTemplate jdbcTemplate;
+    private final CurrencyProjection currencyProjection;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration staleAfter;
+    private final ThreadPoolTaskExecutor executor;
+    // Jobs queued or running on this instance; their heartbeat tells other instances they are alive.
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] submitLocks = new ReentrantLock[SUBMIT_LOCK_STRIPES];
+
+    public ReportJobService(ReportJobRepository reportJobRepository,
+                            ReportService reportService,
+                            FileService fileService,
+                            JdbcTemplate jdbcTemplate,
+                            CurrencyProjection currencyProjection,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${report-jobs.ttl:15m}") Duration ttl,
+                            @Value("${report-jobs.stale-after:PT5M}") Duration staleAfter,
+                            @Value("${report-jobs.workers:2}") int workers,
+                            @Value("${report-jobs.queue-capacity:50}") int queueCapacity) {
+        this.reportJobRepository = reportJobRepository;
+        this.reportService = reportService;
+        this.fileService = fileService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.currencyProjection = currencyProjection;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.staleAfter = staleAfter;
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(workers);
+        this.executor.setMaxPoolSize(workers);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setThreadNamePrefix("report-job-");
+        this.executor.setWaitForTasksToCompleteOnShutdown(false);
+        for (int i = 0; i < submitLocks.length; i++) {
+            submitLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /** At most one queued or running job per fingerprint, across instances. */
+    @PostConstruct
+    void initialize() {
+        executor.initialize();
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS ux_report_job_in_flight "
+                + "ON report_job (fingerprint) WHERE status IN ('QUEUED', 'RUNNING')");
+        // Hibernate's check lists the formats that existed when the table was created and is never widened.
+        jdbcTemplate.execute("ALTER TABLE report_job DROP CONSTRAINT IF EXISTS report_job_format_check");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public ReportJob submit(ReportJobRequest request) {
+        if (request == null || request.type() == null) {
+            throw new BadRequestException("Report type is required");
+        }
+        // Resolving the generator up front rejects invalid formats and dates before anything is queued.
+        ExportFormat format = ExportFormat.of(request.format(), request.gzip());
+        StreamingResponseBody generator = generator(request, format);
+        String fingerprint = fingerprint(request, format, currencyProjection.current());
+
+        // Identical requests on this instance queue up here; the unique index covers other instances.
+        ReentrantLock lock = submitLocks[Math.floorMod(fingerprint.hashCode(), submitLocks.length)];
+        lock.lock();
+        try {
+            return enqueue(request, format, fingerprint, generator);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReportJob enqueue(ReportJobRequest request, ExportFormat format, String fingerprint,
+                              StreamingResponseBody generator) {
+        ReportJob existing = findReusable(fingerprint);
+        if (existing != null) {
+            return existing;
+        }
+
+        ReportJob job;
+        try {
+            job = reportJobRepository.saveAndFlush(ReportJob.builder()
+                    .type(request.type())
+                    .search(request.search())
+                    .startDate(request.startDate())
+                    .endDate(request.endDate())
+                    .format(format.format())
+                    .gzip(format.gzip())
+                    .fingerprint(fingerprint)
+                    .status(ReportJobStatus.QUEUED)
+                    .heartbeatAt(ZonedDateTime.now())
+                    .requestedBy(currentUser())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race against an identical request on this or another instance.
+            existing = findReusable(fingerprint);
+            if (existing == null) {
+                throw e;
+            }
+            return existing;
+        }
+
+        String jobId = job.getId();
+        inFlight.add(jobId);
+        try {
+            executor.execute(() -> run(jobId, generator));
+        } catch (TaskRejectedException e) {
+            inFlight.remove(jobId);
+            fail(job, "Report queue is full");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Report queue is full, try again later");
+        }
+        return job;
+    }
+
+    public ReportJob get(String id) {
+        return reportJobRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Report job not found: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public ReportArtifact download(String id) {
+        ReportJob job = get(id);
+        if (job.getStatus() != ReportJobStatus.COMPLETED || job.getFile() == null) {
+            throw new ConflictException("Report is not ready, current status is " + job.getStatus());
+        }
+        if (job.getExpiresAt() != null && job.getExpiresAt().isBefore(ZonedDateTime.now())) {
+            throw new NotFoundException("Report has expired, request it again");
+        }
+        FileService.FileView view = fileService.resolveForViewing(fileService.buildPublicUrl(job.getFile()));
+        return new ReportArtifact(exportFormat(job).fileName(job.getType().getFileName()), view);
+    }
+
+    /** Keeps this instance's queued and running jobs from being taken for dead by {@link #cleanup()}. */
+    @Scheduled(fixedDelayString = "${report-jobs.heartbeat-interval:PT1M}")
+    @Transactional
+    public void heartbeat() {
+        if (!inFlight.isEmpty()) {
+            reportJobRepository.heartbeat(inFlight, ZonedDateTime.now());
+        }
+    }
+
+    /**
+     * Removes expired artifacts and clears out jobs that died with their instance: queued or running
+     * jobs whose heartbeat stopped for {@code report-jobs.stale-after}. Each expired job is deleted in
+     * its own transaction, and its stored file only once that commits, so one bad file neither blocks
+     * the rest nor loses content that a rolled back delete still points to.
+     */
+    @Scheduled(fixedDelayString = "${report-jobs.cleanup-interval:PT10M}")
+    public void cleanup() {
+        ZonedDateTime now = ZonedDateTime.now();
+        List<ReportJob> expired = reportJobRepository.findAllByStatusAndExpiresAtBefore(ReportJobStatus.COMPLETED, now);
+        int removed = 0;
+        for (ReportJob job : expired) {
+            File file = job.getFile();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    reportJobRepository.deleteById(job.getId());
+                    if (file != null) {
+                        fileService.deleteRecord(file.getId());
+                    }
+                });
+                removed++;
+            } catch (RuntimeException e) {
+                log.warn("Unable to remove expired report job {}", job.getId(), e);
+                continue;
+            }
+            if (file != null) {
+                try {
+                    fileService.deleteContent(file);
+                } catch (RuntimeException e) {
+                    log.warn("Unable to delete expired report file {}", file.getId(), e);
+                }
+            }
+        }
+        Integer stale = transactionTemplate.execute(status -> {
+            int failed = reportJobRepository.failStale(EnumSet.of(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING),
+                    now.minus(staleAfter));
+            reportJobRepository.deleteFailedBefore(now.minus(KEEP_FAILED));
+            return failed;
+        });
+        if (removed > 0 || (stale != null && stale > 0)) {
+            log.info("Removed {} expired report jobs, marked {} stale jobs as failed", removed, stale);
+        }
+    }
+
+    private void run(String jobId, StreamingResponseBody generator) {
+        try {
+            generate(jobId, generator);
+        } finally {
+            inFlight.remove(jobId);
+        }
+    }
+
+    private void generate(String jobId, StreamingResponseBody generator) {
+        ReportJob job = reportJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        job.setStatus(ReportJobStatus.RUNNING);
+        job = reportJobRepository.save(job);
+
+        Path temp = null;
+        try {
+            ExportFormat format = exportFormat(job);
+            temp = Files.createTempFile("report-" + jobId, null);
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                generator.writeTo(out);
+            }
+            File file = fileService.saveFile(format.fileName(job.getType().getFileName()), format.contentType(), temp);
+            ZonedDateTime now = ZonedDateTime.now();
+            job.setFile(file);
+            job.setStatus(ReportJobStatus.COMPLETED);
+            job.setCompletedAt(now);
+            job.setExpiresAt(now.plus(ttl));
+            reportJobRepository.save(job);
+        } catch (Exception e) {
+            log.error("Report job {} ({}) failed", jobId, job.getType(), e);
+            fail(job, e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.warn("Unable to delete temp report {}", temp, e);
+                }
+            }
+        }
+    }
+
+    private void fail(ReportJob job, String error) {
+        job.setStatus(ReportJobStatus.FAILED);
+        job.setError(error);
+        job.setCompletedAt(ZonedDateTime.now());
+        reportJobRepository.save(job);
+    }
+
+    private ReportJob findReusable(String fingerprint) {
+        return reportJobRepository.findReusable(fingerprint, ZonedDateTime.now()).stream().findFirst().orElse(null);
+    }
+
+    private static ExportFormat exportFormat(ReportJob job) {
+        return new ExportFormat(job.getFormat(), Boolean.TRUE.equals(job.getGzip()));
+    }
+
+    private StreamingResponseBody generator(ReportJobRequest request, ExportFormat format) {
+        String search = request.search() == null ? "" : request.search();
+        return switch (request.type()) {
+            case CARGOS -> reportService.streamCargoReport(search, request.startDate(), request.endDate(), format);
+            case CUSTOMERS -> reportService.streamCustomerReport(search, request.startDate(), request.endDate(), format);
+            case PICKUP_CITY_REVENUE -> reportService.streamPickupCityRevenueReport(request.startDate(), request.endDate(), format);
+            case CARGO_TYPE_DISTRIBUTION -> reportService.streamCargoTypeDistributionReport(request.startDate(), request.endDate(), format);
+            case EXPENSES -> reportService.streamExpenseDetailedReport(search, request.startDate(), request.endDate(), format);
+            case EXPENSE_CURRENCY_SUMMARY -> reportService.streamExpenseCurrencySummaryReport(search, request.startDate(), request.endDate(), format);
+            case EXPENSE_MONTHLY_TREND -> reportService.streamExpenseMonthlyTrendReport(search, request.startDate(), request.endDate(), format);
+        };
+    }
+
+    private static String fingerprint(ReportJobRequest request, ExportFormat format, CurrencyProjection.Rate rate) {
+        // Revenue reports are converted at the requester's current rate, the others carry no prices.
+        boolean revenue = request.type() == ReportType.PICKUP_CITY_REVENUE
+                || request.type() == ReportType.CARGO_TYPE_DISTRIBUTION;
+        String search = !revenue && request.search() != null ? request.search().trim().toLowerCase(Locale.ROOT) : "";
+        return String.join("|", request.type().name(), format.format().name(), String.valueOf(format.gzip()), search,
+                normalize(request.startDate()), normalize(request.endDate()),
+                revenue ? rate.currencyCode() + "|" + rate.rate().toPlainString() : "");
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    public record ReportArtifact(String fileName, FileService.FileView view) {}
+}
@@ -1,5 +1,6 @@
 package com.kq.fleet_and_cargo.services;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.kq.fleet_and_cargo.models.Cargo;
 import com.kq.fleet_and_cargo.models.Customer;
 import com.kq.fleet_and_cargo.models.Expense;
@@ -10,15 +11,22 @@ import com.kq.fleet_and_cargo.payload.response.PickupCityRevenueResponse;
 import com.kq.fleet_and_cargo.repositories.CargoRepository;
 import com.kq.fleet_and_cargo.repositories.CustomerRepository;
 import com.kq.fleet_and_cargo.repositories.ExpenseRepository;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.kq.fleet_and_cargo.repositories.MonthlyExpenseRollupRepository;
+import com.kq.fleet_and_cargo.repositories.projections.ExpenseCurrencyTotal;
+import com.kq.fleet_and_cargo.repositories.projections.ExpenseMonthlyTotal;
+import com.kq.fleet_and_cargo.utils.CurrencyProjection;
+import com.kq.fleet_and_cargo.utils.export.ExportFormat;
+import com.kq.fleet_and_cargo.utils.export.ReportWriter;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.ZoneId;
@@ -26,256 +34,201 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public record ReportService(CargoRepository cargoRepository,
                             CustomerRepository customerRepository,
-                            ExpenseRepository expenseRepository) {
+                            ExpenseRepository expenseRepository,
+                            MonthlyExpenseRollupRepository monthlyExpenseRollupRepository,
+                            ReportCacheService reportCacheService,
+                            CurrencyProjection currencyProjection,
+                            PlatformTransactionManager transactionManager,
+                            EntityManager entityManager) {
 
     private static final ZoneId DEFAULT_ZONE = ZoneId.of("Africa/Mogadishu");
     private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-
-    public synchronized byte[] generateCargoExcelReportWithHeader(String search, String startDate, String endDate) throws IOException {
+    private static final int DETACH_INTERVAL = 500;
+    private static final String[] CARGO_COLUMNS = {"Date", "Sender", "Receiver", "Pickup", "Destination", "Description", "Weight", "Quantity", "Cargo Type"};
+    private static final int[] CARGO_WIDTHS = {17, 25, 25, 18, 18, 40, 10, 10, 16};
+    private static final String[] CUSTOMER_COLUMNS = {"ID", "Name", "Email", "Phone Number", "Address", "Gender"};
+    private static final int[] CUSTOMER_WIDTHS = {38, 25, 30, 16, 30, 10};
+    private static final String[] EXPENSE_COLUMNS = {"Date", "Description", "Amount", "Currency", "Created At"};
+    private static final int[] EXPENSE_WIDTHS = {17, 40, 14, 10, 17};
+
+    public StreamingResponseBody streamCargoReport(String search, String startDate, String endDate, ExportFormat format) {
         DateRange range = resolveRange(startDate, endDate);
-        List<Cargo> cargos = cargoRepository.findAllByDateNoPaging(search, range.start(), range.end());
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Cargos");
-            String[] columns = {"Date", "Sender", "Receiver", "Pickup", "Destination", "Description", "Weight", "Quantity", "Cargo Type"};
-            createHeaderRow(sheet, columns);
-            int rowNum = 1;
-            for (Cargo cargo : cargos) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(formatDate(cargo.getCreatedAt()));
-                row.createCell(1).setCellValue(formatCustomerName(cargo.getSender()));
-                row.createCell(2).setCellValue(formatCustomerName(cargo.getReceiver()));
-                row.createCell(3).setCellValue(nullSafe(cargo.getPickupLocation()));
-                row.createCell(4).setCellValue(nullSafe(cargo.getDestination()));
-                row.createCell(5).setCellValue(nullSafe(cargo.getDescription()));
-                row.createCell(6).setCellValue(cargo.getWeight());
-                row.createCell(7).setCellValue(cargo.getQuantity());
-                row.createCell(8).setCellValue(nullSafe(cargo.getCargoType()));
+        return out -> export(out, format, "Cargos", CARGO_COLUMNS, CARGO_WIDTHS, writer -> {
+            try (Stream<Cargo> cargos = cargoRepository.streamAllByDate(search, range.start(), range.end())) {
+                forEachDetached(cargos, cargo -> writer.row(
+                        formatDate(cargo.getCreatedAt()),
+                        formatCustomerName(cargo.getSender()),
+                        formatCustomerName(cargo.getReceiver()),
+                        cargo.getPickupLocation(),
+                        cargo.getDestination(),
+                        cargo.getDescription(),
+                        cargo.getWeight(),
+                        cargo.getQuantity(),
+                        cargo.getCargoType()));
             }
-            resizeColumns(sheet, columns.length);
-            return writeWorkbookToByteArray(workbook);
-        }
+        });
     }
 
-    public synchronized byte[] generateCustomerExcelReportWithHeader(String search, String startDate, String endDate) throws IOException {
+    public StreamingResponseBody streamCustomerReport(String search, String startDate, String endDate, ExportFormat format) {
         DateRange range = resolveRange(startDate, endDate);
-        List<Customer> customers = customerRepository.findAllByDateWithNoPaging(search, range.start(), range.end());
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Customers");
-            String[] columns = {"ID", "Name", "Email", "Phone Number", "Address", "Gender"};
-            createHeaderRow(sheet, columns);
-            int rowNum = 1;
-            for (Customer customer : customers) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(nullSafe(customer.getId()));
-                row.createCell(1).setCellValue((nullSafe(customer.getFirstName()) + " " + nullSafe(customer.getLastName())).trim());
-                row.createCell(2).setCellValue(nullSafe(customer.getEmail()));
-                row.createCell(3).setCellValue(nullSafe(customer.getPhoneNumber()));
-                row.createCell(4).setCellValue(nullSafe(customer.getAddress()));
-                row.createCell(5).setCellValue(customer.getGender() != null ? customer.getGender().name() : "");
+        return out -> export(out, format, "Customers", CUSTOMER_COLUMNS, CUSTOMER_WIDTHS, writer -> {
+            try (Stream<Customer> customers = customerRepository.streamAllByDate(search, range.start(), range.end())) {
+                forEachDetached(customers, customer -> writer.row(
+                        customer.getId(),
+                        formatCustomerName(customer),
+                        customer.getEmail(),
+                        customer.getPhoneNumber(),
+                        customer.getAddress(),
+                        customer.getGender() != null ? customer.getGender().name() : ""));
             }
-            resizeColumns(sheet, columns.length);
-            return writeWorkbookToByteArray(workbook);
-        }
+        });
     }
 
-    public synchronized byte[] generatePickupCityRevenueReport(String startDate, String endDate) throws IOException {
+    public StreamingResponseBody streamPickupCityRevenueReport(String startDate, String endDate, ExportFormat format) {
         DateRange range = resolveRange(startDate, endDate);
-        List<Object[]> rows = cargoRepository.findRevenueByPickupCity(range.start(), range.end());
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Pickup Revenue");
-            String[] columns = {"Pickup Location", "Total Revenue"};
-            createHeaderRow(sheet, columns);
-            int rowNum = 1;
-            for (Object[] rowData : rows) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(rowData[0] != null ? rowData[0].toString() : "Unknown");
-                row.createCell(1).setCellValue(rowData[1] != null ? ((Number) rowData[1]).doubleValue() : 0.0);
-            }
-            resizeColumns(sheet, columns.length);
-            return writeWorkbookToByteArray(workbook);
-        }
+        CurrencyProjection.Rate rate = currencyProjection.current();
+        return out -> export(out, format, "Pickup Revenue",
+                new String[]{"Pickup Location", "Total Revenue (" + rate.currencyCode() + ")"}, new int[]{20, 18},
+                writer -> cargoRepository.findRevenueByPickupCity(range.start(), range.end(), rate.rate()).forEach(row -> writer.row(
+                        row.getPickupLocation(),
+                        row.getTotalRevenue().doubleValue())));
     }
 
     public List<PickupCityRevenueResponse> getPickupCityRevenuePreview(String search, String startDate, String endDate) {
+        CurrencyProjection.Rate rate = currencyProjection.current();
+        return cached(ReportCacheService.CARGO_REPORTS, "pickup-city-revenue|" + rate.currencyCode() + "|" + rate.rate().toPlainString(),
+                search, startDate, endDate,
+                new TypeReference<>() {}, () -> loadPickupCityRevenuePreview(search, startDate, endDate, rate));
+    }
+
+    private List<PickupCityRevenueResponse> loadPickupCityRevenuePreview(String search, String startDate, String endDate,
+                                                                         CurrencyProjection.Rate rate) {
         DateRange range = resolveRange(startDate, endDate);
         String normalizedSearch = search == null ? "" : search.trim().toLowerCase(Locale.ROOT);
 
-        return cargoRepository.findRevenueByPickupCity(range.start(), range.end()).stream()
-                .map(row -> new PickupCityRevenueResponse(
-                        row[0] != null ? row[0].toString() : "Unknown",
-                        row[1] != null ? ((Number) row[1]).doubleValue() : 0.0
-                ))
+        return cargoRepository.findRevenueByPickupCity(range.start(), range.end(), rate.rate()).stream()
+                .map(row -> PickupCityRevenueResponse.from(row, rate.currencyCode()))
                 .filter(response -> normalizedSearch.isBlank() ||
                         response.pickupLocation().toLowerCase(Locale.ROOT).contains(normalizedSearch))
                 .collect(Collectors.toList());
     }
 
-    public synchronized byte[] generateCargoTypeDistributionReport(String startDate, String endDate) throws IOException {
+    public StreamingResponseBody streamCargoTypeDistributionReport(String startDate, String endDate, ExportFormat format) {
         DateRange range = resolveRange(startDate, endDate);
-        List<Object[]> rows = cargoRepository.findCargoTypeDistribution(range.start(), range.end());
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Cargo Type Distribution");
-            String[] columns = {"Cargo Type", "Total Shipments", "Total Revenue"};
-            createHeaderRow(sheet, columns);
-            int rowNum = 1;
-            for (Object[] rowData : rows) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(rowData[0] != null ? rowData[0].toString() : "Unknown");
-                row.createCell(1).setCellValue(rowData[1] != null ? ((Number) rowData[1]).longValue() : 0L);
-                row.createCell(2).setCellValue(rowData[2] != null ? ((Number) rowData[2]).doubleValue() : 0.0);
-            }
-            resizeColumns(sheet, columns.length);
-            return writeWorkbookToByteArray(workbook);
-        }
+        CurrencyProjection.Rate rate = currencyProjection.current();
+        return out -> export(out, format, "Cargo Type Distribution",
+                new String[]{"Cargo Type", "Total Shipments", "Total Revenue (" + rate.currencyCode() + ")"},
+                new int[]{18, 16, 18},
+                writer -> cargoRepository.findCargoTypeDistribution(range.start(), range.end(), rate.rate()).forEach(row -> writer.row(
+                        row.getCargoType(),
+                        row.getTotalShipments(),
+                        row.getTotalRevenue().doubleValue())));
     }
 
     public List<CargoTypeSummaryResponse> getCargoTypeDistributionPreview(String search, String startDate, String endDate) {
+        CurrencyProjection.Rate rate = currencyProjection.current();
+        return cached(ReportCacheService.CARGO_REPORTS, "cargo-type-distribution|" + rate.currencyCode() + "|" + rate.rate().toPlainString(),
+                search, startDate, endDate,
+                new TypeReference<>() {}, () -> loadCargoTypeDistributionPreview(search, startDate, endDate, rate));
+    }
+
+    private List<CargoTypeSummaryResponse> loadCargoTypeDistributionPreview(String search, String startDate, String endDate,
+                                                                            CurrencyProjection.Rate rate) {
         DateRange range = resolveRange(startDate, endDate);
         String normalizedSearch = search == null ? "" : search.trim().toLowerCase(Locale.ROOT);
 
-        return cargoRepository.findCargoTypeDistribution(range.start(), range.end()).stream()
-                .map(row -> new CargoTypeSummaryResponse(
-                        row[0] != null ? row[0].toString() : "Unknown",
-                        row[1] != null ? ((Number) row[1]).longValue() : 0L,
-                        row[2] != null ? ((Number) row[2]).doubleValue() : 0.0
-                ))
+        return cargoRepository.findCargoTypeDistribution(range.start(), range.end(), rate.rate()).stream()
+                .map(row -> CargoTypeSummaryResponse.from(row, rate.currencyCode()))
                 .filter(response -> normalizedSearch.isBlank() ||
                         response.cargoType().toLowerCase(Locale.ROOT).contains(normalizedSearch))
                 .collect(Collectors.toList());
     }
 
-    public synchronized byte[] generateExpenseDetailedReport(String search, String startDate, String endDate) throws IOException {
+    public StreamingResponseBody streamExpenseDetailedReport(String search, String startDate, String endDate, ExportFormat format) {
         DateRange range = resolveRange(startDate, endDate);
         String normalizedSearch = normalizeSearch(search);
-        List<Expense> expenses = expenseRepository.findAllWithinRange(normalizedSearch, range.start(), range.end());
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Expenses");
-            String[] columns = {"Date", "Description", "Amount", "Currency", "Created At"};
-            createHeaderRow(sheet, columns);
-            int rowNum = 1;
-            for (Expense expense : expenses) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(formatDate(expense.getIncurredAt()));
-                row.createCell(1).setCellValue(nullSafe(expense.getDescription()));
-                row.createCell(2).setCellValue(expense.getAmount() != null ? expense.getAmount().getAmount().doubleValue() : 0.0);
-                row.createCell(3).setCellValue(expense.getAmount() != null ? expense.getAmount().getCurrencyCode() : "");
-                row.createCell(4).setCellValue(formatDate(expense.getCreatedAt()));
+        return out -> export(out, format, "Expenses", EXPENSE_COLUMNS, EXPENSE_WIDTHS, writer -> {
+            try (Stream<Expense> expenses = expenseRepository.streamAllWithinRange(normalizedSearch, range.start(), range.end())) {
+                forEachDetached(expenses, expense -> writer.row(
+                        formatDate(expense.getIncurredAt()),
+                        expense.getDescription(),
+                        expense.getAmount() != null ? expense.getAmount().getAmount().doubleValue() : 0.0,
+                        expense.getAmount() != null ? expense.getAmount().getCurrencyCode() : "",
+                        formatDate(expense.getCreatedAt())));
             }
-            resizeColumns(sheet, columns.length);
-            return writeWorkbookToByteArray(workbook);
-        }
+        });
     }
 
     public List<ExpenseCurrencySummaryResponse> getExpenseCurrencySummary(String search, String startDate, String endDate) {
+        return cached(ReportCacheService.EXPENSE_REPORTS, "expense-currency-summary", search, startDate, endDate,
+                new TypeReference<>() {}, () -> loadExpenseCurrencySummary(search, startDate, endDate));
+    }
+
+    private List<ExpenseCurrencySummaryResponse> loadExpenseCurrencySummary(String search, String startDate, String endDate) {
         DateRange range = resolveRange(startDate, endDate);
         String normalizedSearch = normalizeSearch(search);
 
-        List<Expense> expenses = expenseRepository.findAllWithinRange(
-                normalizedSearch,
-                range.start(),
-                range.end()
-        );
-
-        Map<String, CurrencySummary> totals = new HashMap<>();
-
-        for (Expense expense : expenses) {
-            if (expense.getAmount() == null || expense.getAmount().getAmount() == null) {
-                continue;
-            }
-            String currency = normalizeCurrency(expense.getAmount().getCurrencyCode());
-            if (currency == null) {
-                continue;
-            }
-
-            totals.compute(currency, (code, summary) -> {
-                BigDecimal amount = expense.getAmount().getAmount();
-                if (summary == null) {
-                    return new CurrencySummary(amount, 1L);
-                }
-                return summary.add(amount);
-            });
-        }
-
-        return totals.entrySet().stream()
-                .sorted(Map.Entry.<String, CurrencySummary>comparingByValue(
-                        Comparator.comparing(CurrencySummary::totalAmount).reversed()
-                ))
-                .map(entry -> new ExpenseCurrencySummaryResponse(
-                        entry.getKey(),
-                        entry.getValue().totalAmount(),
-                        entry.getValue().expenseCount()
-                ))
+        Map<String, ExpenseCurrencySummaryResponse> totals = new HashMap<>();
+        Consumer<ExpenseCurrencyTotal> add = total -> totals.merge(total.getCurrencyCode(),
+                new ExpenseCurrencySummaryResponse(total.getCurrencyCode(), total.getTotalAmount(), total.getExpenseCount()),
+                (left, right) -> new ExpenseCurrencySummaryResponse(left.currencyCode(),
+                        left.totalAmount().add(right.totalAmount()), left.expenseCount() + right.expenseCount()));
+        forEachExpenseSegment(normalizedSearch, range,
+                (start, end) -> expenseRepository.summarizeByCurrency(normalizedSearch, start, end).forEach(add),
+                (startMonth, endMonth) -> monthlyExpenseRollupRepository.summarizeByCurrency(startMonth, endMonth).forEach(add));
+
+        return totals.values().stream()
+                .sorted(Comparator.comparing(ExpenseCurrencySummaryResponse::totalAmount).reversed())
                 .collect(Collectors.toList());
     }
 
-    public synchronized byte[] generateExpenseCurrencySummaryReport(String search, String startDate, String endDate) throws IOException {
+    public StreamingResponseBody streamExpenseCurrencySummaryReport(String search, String startDate, String endDate, ExportFormat format) {
         List<ExpenseCurrencySummaryResponse> summaries = getExpenseCurrencySummary(search, startDate, endDate);
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Expense Currency Summary");
-            String[] columns = {"Currency", "Total Amount", "Number of Expenses"};
-            createHeaderRow(sheet, columns);
-            int rowNum = 1;
-            for (ExpenseCurrencySummaryResponse summary : summaries) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(summary.currencyCode());
-                row.createCell(1).setCellValue(summary.totalAmount().doubleValue());
-                row.createCell(2).setCellValue(summary.expenseCount());
-            }
-            resizeColumns(sheet, columns.length);
-            return writeWorkbookToByteArray(workbook);
-        }
+        return out -> export(out, format, "Expense Currency Summary", new String[]{"Currency", "Total Amount", "Number of Expenses"},
+                new int[]{10, 15, 20},
+                writer -> summaries.forEach(summary -> writer.row(
+                        summary.currencyCode(),
+                        summary.totalAmount().doubleValue(),
+                        summary.expenseCount())));
     }
 
     public List<ExpenseMonthlyTrendResponse> getExpenseMonthlyTrend(String search, String startDate, String endDate) {
+        return cached(ReportCacheService.EXPENSE_REPORTS, "expense-monthly-trend", search, startDate, endDate,
+                new TypeReference<>() {}, () -> loadExpenseMonthlyTrend(search, startDate, endDate));
+    }
+
+    private List<ExpenseMonthlyTrendResponse> loadExpenseMonthlyTrend(String search, String startDate, String endDate) {
         DateRange range = resolveRange(startDate, endDate);
         String normalizedSearch = normalizeSearch(search);
 
-        List<Expense> expenses = expenseRepository.findAllWithinRange(
-                normalizedSearch,
-                range.start(),
-                range.end()
-        );
-
-        Map<YearMonth, Map<String, BigDecimal>> totalsByMonth = new LinkedHashMap<>();
-
-        expenses.stream()
-                .filter(expense -> expense.getAmount() != null && expense.getAmount().getAmount() != null)
-                .forEach(expense -> {
-                    ZonedDateTime incurred = resolveExpenseDate(expense);
-                    if (incurred == null) {
-                        return;
-                    }
-                    YearMonth period = YearMonth.from(incurred.withZoneSameInstant(DEFAULT_ZONE));
-                    String currency = normalizeCurrency(expense.getAmount().getCurrencyCode());
-                    if (currency == null) {
-                        return;
-                    }
-
-                    totalsByMonth
-                            .computeIfAbsent(period, key -> new HashMap<>())
-                            .merge(currency, expense.getAmount().getAmount(), BigDecimal::add);
-                });
+        // Segments never share a month except at the partial edges, which merge here.
+        Map<YearMonth, Map<String, BigDecimal>> totalsByMonth = new TreeMap<>();
+        Consumer<ExpenseMonthlyTotal> add = total -> totalsByMonth
+                .computeIfAbsent(YearMonth.from(total.getMonth()), key -> new TreeMap<>())
+                .merge(total.getCurrencyCode(), total.getTotalAmount(), BigDecimal::add);
+        forEachExpenseSegment(normalizedSearch, range,
+                (start, end) -> expenseRepository.summarizeByMonth(normalizedSearch, start, end).forEach(add),
+                (startMonth, endMonth) -> monthlyExpenseRollupRepository.summarizeByMonth(startMonth, endMonth).forEach(add));
 
         return totalsByMonth.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
                 .flatMap(entry -> entry.getValue().entrySet().stream()
                         .map(currencyEntry -> new ExpenseMonthlyTrendResponse(
                                 formatPeriod(entry.getKey()),
@@ -285,104 +238,94 @@ public record ReportService(CargoRepository cargoRepository,
                 .collect(Collectors.toCollection(ArrayList::new));
     }
 
-    public synchronized byte[] generateExpenseMonthlyTrendReport(String search, String startDate, String endDate) throws IOException {
-        List<ExpenseMonthlyTrendResponse> trends = getExpenseMonthlyTrend(search, startDate, endDate);
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Expense Monthly Trend");
-            String[] columns = {"Period", "Currency", "Total Amount"};
-            createHeaderRow(sheet, columns);
-            int rowNum = 1;
-            for (ExpenseMonthlyTrendResponse trend : trends) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(trend.period());
-                row.createCell(1).setCellValue(trend.currencyCode());
-                row.createCell(2).setCellValue(trend.totalAmount().doubleValue());
-            }
-            resizeColumns(sheet, columns.length);
-            return writeWorkbookToByteArray(workbook);
-        }
-    }
-
-    private String normalizeSearch(String search) {
-        if (search == null || search.isBlank()) {
-            return null;
+    /**
+     * Splits an expense aggregation so that whole closed months inside the range come from
+     * {@code monthly_expense_rollup} and only the partial months at either edge, plus the month in
+     * progress, are aggregated from the expenses table. Searches filter on the description, which
+     * the rollup does not keep, so they always go to the expenses table.
+     */
+    private void forEachExpenseSegment(String search, DateRange range,
+                                       BiConsumer<ZonedDateTime, ZonedDateTime> live,
+                                       BiConsumer<LocalDate, LocalDate> rolledUp) {
+        ZonedDateTime start = range.start().withZoneSameInstant(DEFAULT_ZONE);
+        ZonedDateTime end = range.end().withZoneSameInstant(DEFAULT_ZONE);
+        YearMonth firstFull = YearMonth.from(start);
+        if (!start.equals(monthStart(firstFull))) {
+            firstFull = firstFull.plusMonths(1);
         }
-        return search.trim();
-    }
-
-    private String normalizeCurrency(String currencyCode) {
-        if (!hasText(currencyCode)) {
-            return null;
+        // The range end is inclusive, so a month is covered once the end reaches its last microsecond.
+        YearMonth lastFull = YearMonth.from(end.plus(1, ChronoUnit.MICROS)).minusMonths(1);
+        YearMonth lastClosed = YearMonth.now(DEFAULT_ZONE).minusMonths(1);
+        if (lastFull.isAfter(lastClosed)) {
+            lastFull = lastClosed;
         }
-        return currencyCode.trim().toUpperCase(Locale.ROOT);
-    }
 
-    private boolean hasText(String value) {
-        return value != null && !value.isBlank();
-    }
-
-    private String formatPeriod(Object value) {
-        if (value == null) {
-            return "";
-        }
-        if (value instanceof YearMonth yearMonth) {
-            return String.format(
-                    "%s %d",
-                    yearMonth.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH),
-                    yearMonth.getYear()
-            );
+        if (search != null || firstFull.isAfter(lastFull)) {
+            live.accept(start, end);
+            return;
         }
-        if (value instanceof ZonedDateTime zonedDateTime) {
-            return String.format(
-                    "%s %d",
-                    zonedDateTime.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH),
-                    zonedDateTime.getYear()
-            );
+        if (start.isBefore(monthStart(firstFull))) {
+            live.accept(start, monthStart(firstFull).minus(1, ChronoUnit.MICROS));
         }
-        if (value instanceof LocalDateTime localDateTime) {
-            return String.format(
-                    "%s %d",
-                    localDateTime.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH),
-                    localDateTime.getYear()
-            );
+        rolledUp.accept(firstFull.atDay(1), lastFull.atDay(1));
+        ZonedDateTime afterRollup = monthStart(lastFull.plusMonths(1));
+        if (!end.isBefore(afterRollup)) {
+            live.accept(afterRollup, end);
         }
-        return value.toString();
     }
 
-    private ZonedDateTime resolveExpenseDate(Expense expense) {
-        if (expense.getIncurredAt() != null) {
-            return expense.getIncurredAt();
-        }
-        if (expense.getCreatedAt() != null) {
-            return expense.getCreatedAt();
-        }
-        return expense.getUpdatedAt();
+    private static ZonedDateTime monthStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay(DEFAULT_ZONE);
     }
 
-    private record CurrencySummary(BigDecimal totalAmount, long expenseCount) {
-        private CurrencySummary add(BigDecimal increment) {
-            return new CurrencySummary(totalAmount.add(increment), expenseCount + 1);
-        }
+    public StreamingResponseBody streamExpenseMonthlyTrendReport(String search, String startDate, String endDate, ExportFormat format) {
+        List<ExpenseMonthlyTrendResponse> trends = getExpenseMonthlyTrend(search, startDate, endDate);
+        return out -> export(out, format, "Expense Monthly Trend", new String[]{"Period", "Currency", "Total Amount"},
+                new int[]{12, 10, 15},
+                writer -> trends.forEach(trend -> writer.row(
+                        trend.period(),
+                        trend.currencyCode(),
+                        trend.totalAmount().doubleValue())));
     }
 
-    private void createHeaderRow(Sheet sheet, String[] columns) {
-        Row headerRow = sheet.createRow(0);
-        for (int i = 0; i < columns.length; i++) {
-            headerRow.createCell(i).setCellValue(columns[i]);
+    private String normalizeSearch(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
         }
+        return search.trim();
     }
 
-    private void resizeColumns(Sheet sheet, int columnCount) {
-        for (int i = 0; i < columnCount; i++) {
-            sheet.autoSizeColumn(i);
+    private String formatPeriod(YearMonth yearMonth) {
+        return String.format(
+                "%s %d",
+                yearMonth.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH),
+                yearMonth.getYear()
+        );
+    }
+
+    /**
+     * Fills the report inside a read-only transaction, which the driver needs to honour the fetch
+     * size. Text formats reach the client row by row; xlsx is written out once the connection has
+     * been released.
+     */
+    private void export(OutputStream out, ExportFormat format, String sheetName, String[] columns, int[] widths,
+                        Consumer<ReportWriter> rows) throws IOException {
+        try (ReportWriter writer = format.open(out, sheetName, columns, widths)) {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> rows.accept(writer));
+            writer.finish();
         }
     }
 
-    private byte[] writeWorkbookToByteArray(Workbook workbook) throws IOException {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            workbook.write(out);
-            return out.toByteArray();
+    /** Clears the persistence context as the cursor advances so exported entities can be collected. */
+    private <T> void forEachDetached(Stream<T> rows, Consumer<T> action) {
+        Iterator<T> iterator = rows.iterator();
+        for (int count = 1; iterator.hasNext(); count++) {
+            action.accept(iterator.next());
+            if (count % DETACH_INTERVAL == 0) {
+                entityManager.clear();
+            }
         }
     }
 
@@ -404,6 +347,13 @@ public record ReportService(CargoRepository cargoRepository,
         return value == null ? "" : value;
     }
 
+    private <T> T cached(String cache, String endpoint, String search, String startDate, String endDate,
+                         TypeReference<T> type, Supplier<T> loader) {
+        DateRange range = resolveRange(startDate, endDate);
+        return reportCacheService.get(cache, endpoint + "|" + nullSafe(startDate) + "|" + nullSafe(endDate),
+                range.start().toLocalDate(), range.end().toLocalDate(), search, type, loader);
+    }
+
     private DateRange resolveRange(String startDate, String endDate) {
         ZonedDateTime end = parseDate(endDate);
         ZonedDateTime start = parseDate(startDate);
@@ -439,4 +389,4 @@ public record ReportService(CargoRepository cargoRepository,
     }
 
     private record DateRange(ZonedDateTime start, ZonedDateTime end) {}
-}
+}
@@ -0,0 +1,114 @@
+package com.kq.fleet_and_cargo.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kq.fleet_and_cargo.repositories.UserNotificationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Unread notification counts by user, so the badge does not count rows on every poll. A count is
+ * loaded once and then adjusted as inbox writes commit on this instance; other instances are told
+ * over Redis pub/sub to drop the users' counts. A count loaded while a write commits can be off by
+ * that write, which {@code unread-notifications.ttl} bounds.
+ */
+@Service
+@Slf4j
+public class UnreadNotificationCounter {
+
+    public static final String CHANGE_CHANNEL = "unread-notifications:changed";
+
+    private final UserNotificationRepository userNotificationRepository;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+    private final boolean redisEnabled;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Cache<String, Long> counts;
+
+    public UnreadNotificationCounter(UserNotificationRepository userNotificationRepository,
+                                     ObjectProvider<StringRedisTemplate> redisTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${unread-notifications.redis-enabled:true}") boolean redisEnabled,
+                                     @Value("${unread-notifications.ttl:PT10M}") Duration ttl,
+                                     @Value("${unread-notifications.max-size:10000}") long maxSize) {
+        this.userNotificationRepository = userNotificationRepository;
+        this.redisTemplate = redisTemplate;
+        this.redisEnabled = redisEnabled;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "unread-notifications");
+    }
+
+    public long get(String userId) {
+        return counts.get(userId, userNotificationRepository::countUnread);
+    }
+
+    /** Each of {@code userIds} received one notification. */
+    public void added(Collection<String> userIds) {
+        afterCommit(userIds, () -> userIds.forEach(userId ->
+                counts.asMap().computeIfPresent(userId, (id, count) -> count + 1)));
+    }
+
+    /** {@code read} of the user's unread notifications were marked read. */
+    public void read(String userId, int read) {
+        if (read > 0) {
+            afterCommit(List.of(userId), () -> counts.asMap().computeIfPresent(userId,
+                    (id, count) -> Math.max(0, count - read)));
+        }
+    }
+
+    public void readAll(String userId) {
+        afterCommit(List.of(userId), () -> counts.put(userId, 0L));
+    }
+
+    /** Handles changes published by other instances. */
+    public void onChange(String message) {
+        String[] parts = message.split("\\|", 2);
+        if (parts.length == 2 && !instanceId.equals(parts[0])) {
+            counts.invalidateAll(Arrays.asList(parts[1].split(",")));
+        }
+    }
+
+    private void afterCommit(Collection<String> userIds, Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            publish(userIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+                publish(userIds);
+            }
+        });
+    }
+
+    private void publish(Collection<String> userIds) {
+        StringRedisTemplate redis = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        if (redis == null || userIds.isEmpty()) {
+            return;
+        }
+        try {
+            redis.convertAndSend(CHANGE_CHANNEL, instanceId + "|" + String.join(",", userIds));
+        } catch (DataAccessException e) {
+            log.warn("Unable to publish unread notification change, other instances will expire it: {}", e.getMessage());
+        }
+    }
+}
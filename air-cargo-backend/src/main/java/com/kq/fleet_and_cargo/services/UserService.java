@@ -4,6 +4,7 @@ import com.kq.fleet_and_cargo.enums.UserRoles;
 import com.kq.fleet_and_cargo.exceptions.NotFoundException;
 import com.kq.fleet_and_cargo.models.User;
 import com.kq.fleet_and_cargo.payload.request.UserUpdateRequest;
+import com.kq.fleet_and_cargo.repositories.UserNotificationRepository;
 import com.kq.fleet_and_cargo.repositories.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -11,10 +12,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Slf4j
-public record UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+public record UserService(UserRepository userRepository, UserNotificationRepository userNotificationRepository,
+                          PasswordEncoder passwordEncoder, PlatformTransactionManager transactionManager,
+                          EntityCacheInvalidator entityCacheInvalidator) {
     public Page<User> findAll(int page, int size, String search, String userRole) {
         log.info("Fetching all users");
         String formattedSearch = search.replaceFirst("^\\+|^0+", "").trim();
@@ -40,18 +45,27 @@ public record UserService(UserRepository userRepository, PasswordEncoder passwor
 
     public User update(UserUpdateRequest userUpdateRequest) {
         log.info("Updating user with id: {}", userUpdateRequest.getId());
-        User existingUser = userRepository.findById(userUpdateRequest.getId()).orElseThrow(() -> new NotFoundException("User not found"));
-        existingUser.setFirstName(userUpdateRequest.getFirstName());
-        existingUser.setLastName(userUpdateRequest.getLastName());
-        existingUser.setPhoneNumber(userUpdateRequest.getPhoneNumber());
-        existingUser.setEmail(userUpdateRequest.getEmail());
-        existingUser.setEnabled(userUpdateRequest.isEnabled());
-        existingUser.setRoles(userUpdateRequest.getRoles());
-        return userRepository.save(existingUser);
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            User existingUser = userRepository.findById(userUpdateRequest.getId()).orElseThrow(() -> new NotFoundException("User not found"));
+            existingUser.setFirstName(userUpdateRequest.getFirstName());
+            existingUser.setLastName(userUpdateRequest.getLastName());
+            existingUser.setPhoneNumber(userUpdateRequest.getPhoneNumber());
+            existingUser.setEmail(userUpdateRequest.getEmail());
+            existingUser.setEnabled(userUpdateRequest.isEnabled());
+            existingUser.setRoles(userUpdateRequest.getRoles());
+            User saved = userRepository.save(existingUser);
+            // The roles live in their own table, so changing only them need not fire @PostUpdate on the user.
+            entityCacheInvalidator.changed(saved);
+            return saved;
+        });
     }
     public String delete(String id) {
         log.info("Deleting user with id: {}", id);
-        userRepository.deleteById(id);
+        // The inbox rows reference the user, so they go first, in the same transaction.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userNotificationRepository.deleteByUserId(id);
+            userRepository.deleteById(id);
+        });
         return "User deleted successfully";
     }
 }
\ No newline at end of file
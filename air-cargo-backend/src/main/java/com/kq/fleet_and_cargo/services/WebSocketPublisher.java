@@ -0,0 +1,105 @@
+package com.kq.fleet_and_cargo.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends to WebSocket destinations in per-destination windows instead of once per call. Within a
+ * window, {@link #signal} keeps only the latest payload and {@link #batch} collects every payload
+ * into one array frame, so a burst costs each subscriber one frame per destination per window.
+ */
+@Service
+@Slf4j
+public class WebSocketPublisher {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long windowMillis;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("websocket-flush").daemon().factory());
+    private final Counter coalesced;
+
+    public WebSocketPublisher(SimpMessagingTemplate messagingTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${websocket.coalesce-window:50ms}") Duration window) {
+        this.messagingTemplate = messagingTemplate;
+        this.windowMillis = window.toMillis();
+        this.coalesced = meterRegistry.counter("websocket.coalesced");
+    }
+
+    /** Sends {@code payload}, or only the last payload for {@code destination} if more arrive within the window. */
+    public void signal(String destination, Object payload) {
+        enqueue(destination, payload, false);
+    }
+
+    /** Sends every payload for {@code destination} in the window together, as one JSON array. */
+    public void batch(String destination, Object payload) {
+        enqueue(destination, payload, true);
+    }
+
+    private void enqueue(String destination, Object payload, boolean keepAll) {
+        if (windowMillis <= 0) {
+            send(destination, keepAll ? List.of(payload) : payload);
+            return;
+        }
+        windows.compute(destination, (key, window) -> {
+            if (window == null) {
+                window = new Window(keepAll);
+                flusher.schedule(() -> flush(destination), windowMillis, TimeUnit.MILLISECONDS);
+            } else {
+                coalesced.increment();
+            }
+            if (!window.keepAll) {
+                window.payloads.clear();
+            }
+            window.payloads.add(payload);
+            return window;
+        });
+    }
+
+    private void flush(String destination) {
+        Window window = windows.remove(destination);
+        if (window != null) {
+            send(destination, window.keepAll ? window.payloads : window.payloads.get(0));
+        }
+    }
+
+    private void send(String destination, Object payload) {
+        try {
+            messagingTemplate.convertAndSend(destination, payload);
+        } catch (MessagingException e) {
+            // The broker relay is down or the channel is full; clients reload on reconnect.
+            log.warn("Could not send to {}: {}", destination, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        windows.keySet().forEach(this::flush);
+    }
+
+    private static final class Window {
+        private final boolean keepAll;
+        private final List<Object> payloads = new ArrayList<>();
+
+        private Window(boolean keepAll) {
+            this.keepAll = keepAll;
+        }
+    }
+}
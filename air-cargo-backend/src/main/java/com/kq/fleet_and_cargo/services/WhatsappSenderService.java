@@ -1,65 +1,150 @@
 package com.kq.fleet_and_cargo.services;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kq.fleet_and_cargo.amqp.ConsumerRetries;
+import com.kq.fleet_and_cargo.amqp.RabbitConsumerConfiguration;
+import com.kq.fleet_and_cargo.payload.dto.WhatsappMessage;
+import com.kq.fleet_and_cargo.utils.whatsapp.WhatsappDeliveryException;
+import com.kq.fleet_and_cargo.utils.whatsapp.WhatsappGateway;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
+@Slf4j
+@RequiredArgsConstructor
 public class WhatsappSenderService  {
 
-    @Value("${whatsapp.api.url}")
-    private String whatsappApiUrl;
+    private final WhatsappGateway whatsappGateway;
+    private final ObjectMapper objectMapper;
+    private final ConsumerRetries consumerRetries;
 
-    @Value("${whatsapp.api.token}")
-    private String whatsappApiToken;
+    public CompletableFuture<Void> sendTextMessage(String to, String message) {
+        return send(new TextMessage(to, new Text(message)));
+    }
 
-    private final RestTemplate restTemplate;
+    public CompletableFuture<Void> sendMediaMessage(String to, String mediaUrl, String caption) {
+        return send(new ImageMessage(to, new Image(mediaUrl, caption)));
+    }
 
-    public WhatsappSenderService(RestTemplateBuilder restTemplateBuilder) {
-        this.restTemplate = restTemplateBuilder.build();
+    /**
+     * Sends an approved template with the given body parameters. Unlike free-form text, which the
+     * Cloud API only delivers within 24 hours of the customer's last message, a template can be
+     * sent at any time.
+     */
+    public CompletableFuture<Void> sendTemplateMessage(String to, String name, String language, List<String> parameters) {
+        List<Parameter> body = parameters.stream().map(text -> new Parameter("text", text)).toList();
+        return send(new TemplateMessage(to, new Template(name, new Language(language), List.of(new Component("body", body)))));
     }
 
-    public void sendTextMessage(String to, String message) {
-        Map<String, Object> payload = Map.of(
-                "to", to,
-                "type", "text",
-                "text", Map.of("body", message)
-        );
+    /**
+     * Sends a batch from the outbound queue concurrently and returns once every message has been
+     * sent or handed to {@link ConsumerRetries}, so the batch is only acknowledged after that.
+     */
+    @RabbitListener(queues = "${rabbitmq.queue.whatsapp-outbound}", containerFactory = RabbitConsumerConfiguration.WHATSAPP)
+    public void sendOutbound(List<Message> messages) {
+        Map<Message, CompletableFuture<Void>> sends = new IdentityHashMap<>();
+        for (Message message : messages) {
+            try {
+                WhatsappMessage whatsappMessage = objectMapper.readValue(message.getBody(), WhatsappMessage.class);
+                sends.put(message, whatsappMessage.getTemplate() != null
+                        ? sendTemplateMessage(whatsappMessage.getTo(), whatsappMessage.getTemplate(),
+                                whatsappMessage.getLanguage(), whatsappMessage.getParameters())
+                        : sendTextMessage(whatsappMessage.getTo(), whatsappMessage.getMessage()));
+            } catch (Exception e) {
+                sends.put(message, CompletableFuture.failedFuture(e));
+            }
+        }
+        int sent = 0;
+        for (Map.Entry<Message, CompletableFuture<Void>> send : sends.entrySet()) {
+            String queue = send.getKey().getMessageProperties().getConsumerQueue();
+            try {
+                send.getValue().join();
+                consumerRetries.consumed(queue, send.getKey());
+                sent++;
+            } catch (CompletionException e) {
+                retry(queue, send.getKey(), e.getCause());
+            }
+        }
+        log.info("Sent {} of {} WhatsApp messages", sent, messages.size());
+    }
 
-        sendRequest(payload);
+    private CompletableFuture<Void> send(Object payload) {
+        try {
+            return whatsappGateway.send(objectMapper.writeValueAsBytes(payload));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new WhatsappDeliveryException("Could not write WhatsApp message", false, null, e));
+        }
     }
 
-    public void sendMediaMessage(String to, String mediaUrl, String caption) {
-        Map<String, Object> payload = Map.of(
-                "to", to,
-                "type", "image",
-                "image", Map.of(
-                        "link", mediaUrl,
-                        "caption", caption
-                )
-        );
-
-        sendRequest(payload);
+    // Waiting on the provider or an open circuit is not the message's fault; a refused or unreadable message never succeeds.
+    private void retry(String queue, Message message, Throwable cause) {
+        Exception failure = cause instanceof Exception exception ? exception : new IllegalStateException(cause);
+        if (cause instanceof WhatsappDeliveryException delivery && delivery.getRetryAfter() != null) {
+            consumerRetries.deferred(queue, message, delivery.getRetryAfter());
+        } else if (cause instanceof WhatsappDeliveryException delivery && !delivery.isRetryable()
+                || cause instanceof JsonProcessingException) {
+            consumerRetries.rejected(queue, message, failure);
+        } else {
+            consumerRetries.failed(queue, message, failure);
+        }
+    }
+
+    record TextMessage(String to, Text text) {
+        @JsonProperty("messaging_product")
+        public String messagingProduct() {
+            return "whatsapp";
+        }
+
+        @JsonProperty("type")
+        public String type() {
+            return "text";
+        }
     }
 
-    private void sendRequest(Map<String, Object> payload) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(whatsappApiToken);
+    record Text(String body) {}
+
+    record ImageMessage(String to, Image image) {
+        @JsonProperty("messaging_product")
+        public String messagingProduct() {
+            return "whatsapp";
+        }
 
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
+        @JsonProperty("type")
+        public String type() {
+            return "image";
+        }
+    }
 
-        ResponseEntity<String> response = restTemplate.postForEntity(whatsappApiUrl, request, String.class);
+    record Image(String link, String caption) {}
 
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            throw new RuntimeException("Failed to send WhatsApp message: " + response.getBody());
+    record TemplateMessage(String to, Template template) {
+        @JsonProperty("messaging_product")
+        public String messagingProduct() {
+            return "whatsapp";
+        }
+
+        @JsonProperty("type")
+        public String type() {
+            return "template";
         }
     }
+
+    record Template(String name, Language language, List<Component> components) {}
+
+    record Language(String code) {}
+
+    record Component(String type, List<Parameter> parameters) {}
+
+    record Parameter(String type, String text) {}
 }
@@ -0,0 +1,61 @@
+package com.kq.fleet_and_cargo.utils;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calls to a dependency after {@code failureThreshold} consecutive failures. It stays open
+ * for {@code openFor}, then lets one trial call through: success closes it, failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openForNanos;
+    private final LongSupplier clock;
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, Duration openFor) {
+        this(failureThreshold, openFor, System::nanoTime);
+    }
+
+    public CircuitBreaker(int failureThreshold, Duration openFor, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openForNanos = openFor.toNanos();
+        this.clock = clock;
+    }
+
+    /** Returns zero if a call may go ahead, else how long before it is worth asking again. */
+    public synchronized Duration acquire() {
+        if (state == State.CLOSED) {
+            return Duration.ZERO;
+        }
+        long remaining = openedAt + openForNanos - clock.getAsLong();
+        if (state == State.OPEN && remaining <= 0) {
+            state = State.HALF_OPEN;
+            return Duration.ZERO;
+        }
+        // While the trial call is out, others wait as if the breaker had just opened.
+        return Duration.ofNanos(state == State.OPEN ? remaining : openForNanos);
+    }
+
+    public synchronized void success() {
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    public synchronized void failure() {
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            failures = 0;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kq.fleet_and_cargo.utils;
+
+import com.kq.fleet_and_cargo.exceptions.NotFoundException;
+import com.kq.fleet_and_cargo.models.User;
+import com.kq.fleet_and_cargo.services.FXRateCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Converts stored amounts to the reader's preferred currency inside SQL instead of per row in Java.
+ * Aggregations take {@link #current()}'s rate as a query parameter and wrap each converted amount in
+ * {@code money_round}, which rounds like {@code Money}. Entity reads call {@link #bind()} first so the
+ * {@code Cargo.preferredPrice} formula can read the rate through {@code fx_rate()}/{@code fx_currency()}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrencyProjection {
+
+    private static final Rate IDENTITY = new Rate("USD", BigDecimal.ONE);
+
+    private final FXRateCache fxRateCache;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void initialize() {
+        // Money keeps four decimals rounded HALF_EVEN, while numeric round() goes half away from zero.
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION money_round(value numeric) RETURNS numeric
+                LANGUAGE sql IMMUTABLE AS $$
+                    SELECT CASE
+                        WHEN abs(value * 10000 - trunc(value * 10000)) = 0.5 AND mod(trunc(value * 10000), 2) = 0
+                            THEN trunc(value, 4)
+                        ELSE round(value, 4)
+                    END
+                $$""");
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION fx_rate() RETURNS numeric
+                LANGUAGE sql STABLE AS $$
+                    SELECT COALESCE(CAST(NULLIF(current_setting('app.fx_rate', true), '') AS numeric), 1)
+                $$""");
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION fx_currency() RETURNS text
+                LANGUAGE sql STABLE AS $$
+                    SELECT NULLIF(current_setting('app.fx_currency', true), '')
+                $$""");
+    }
+
+    /** The signed-in user's currency and its rate from the stored (USD) amounts; USD at 1 when anonymous. */
+    public Rate current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            return IDENTITY;
+        }
+        String currencyCode = user.getPreferredCurrencyCode();
+        return fxRateCache.find(currencyCode)
+                .map(rates -> new Rate(currencyCode, BigDecimal.valueOf(rates.getRate())))
+                .orElseThrow(() -> new NotFoundException("Fx Rate not found."));
+    }
+
+    /** Exposes {@link #current()} to SQL for the rest of the current transaction. */
+    public void bind() {
+        Rate rate = current();
+        entityManager.createNativeQuery("SELECT set_config('app.fx_rate', :rate, true), set_config('app.fx_currency', :currency, true)")
+                .setParameter("rate", rate.rate().toPlainString())
+                .setParameter("currency", rate.currencyCode())
+                .getSingleResult();
+    }
+
+    public record Rate(String currencyCode, BigDecimal rate) {}
+}
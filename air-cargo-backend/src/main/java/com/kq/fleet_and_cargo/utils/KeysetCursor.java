@@ -0,0 +1,58 @@
+package com.kq.fleet_and_cargo.utils;
+
+import com.kq.fleet_and_cargo.exceptions.BadRequestException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opaque cursor over the (sort key, id) pair of the last row of a cargo slice.
+ */
+public final class KeysetCursor {
+
+    public static final Set<String> SORT_KEYS = Set.of("createdAt", "referenceNumber");
+    private static final String SEPARATOR = "|";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(String sortBy, KeysetScrollPosition position) {
+        Map<String, ?> keys = position.getKeys();
+        String raw = sortBy + SEPARATOR + keys.get(sortBy) + SEPARATOR + keys.get("id");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ScrollPosition decode(String sortBy, String cursor) {
+        if (!SORT_KEYS.contains(sortBy)) {
+            throw new BadRequestException("Cursor pagination supports sorting by " + SORT_KEYS + " only");
+        }
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, 3);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (parts.length != 3 || !parts[0].equals(sortBy)) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            keys.put(sortBy, "createdAt".equals(sortBy) ? ZonedDateTime.parse(parts[1]) : Long.valueOf(parts[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        keys.put("id", parts[2]);
+        return ScrollPosition.forward(keys);
+    }
+}
@@ -0,0 +1,48 @@
+package com.kq.fleet_and_cargo.utils;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/** Up to {@code capacity} permits at once, refilled evenly at {@code capacity} per {@code period}. */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double nanosPerToken;
+    private final LongSupplier clock;
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(int capacity, Duration period) {
+        this(capacity, period, System::nanoTime);
+    }
+
+    public TokenBucket(int capacity, Duration period, LongSupplier clock) {
+        this.capacity = capacity;
+        this.nanosPerToken = (double) period.toNanos() / capacity;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.refilledAt = clock.getAsLong();
+    }
+
+    /** Takes a token; returns zero if one was available, else how long until one will be. */
+    public synchronized Duration acquire() {
+        Duration wait = available();
+        if (wait.isZero()) {
+            tokens--;
+        }
+        return wait;
+    }
+
+    /** Returns zero if a token is available, else how long until one will be, without taking it. */
+    public synchronized Duration available() {
+        long now = clock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) / nanosPerToken);
+        refilledAt = now;
+        return tokens >= 1 ? Duration.ZERO : Duration.ofNanos((long) Math.ceil((1 - tokens) * nanosPerToken));
+    }
+
+    /** Gives back a token taken for work that did not happen. */
+    public synchronized void release() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+}
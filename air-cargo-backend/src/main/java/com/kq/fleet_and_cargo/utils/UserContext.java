@@ -3,14 +3,14 @@ package com.kq.fleet_and_cargo.utils;
 import com.kq.fleet_and_cargo.exceptions.NotFoundException;
 import com.kq.fleet_and_cargo.models.FXRates;
 import com.kq.fleet_and_cargo.models.User;
-import com.kq.fleet_and_cargo.repositories.FXRateRepository;
+import com.kq.fleet_and_cargo.services.FXRateCache;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 @Component
 public record UserContext(
-        FXRateRepository fxRateRepository
+        FXRateCache fxRateCache
 ) {
     public String getUserCurrencyCode() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -19,7 +19,7 @@ public record UserContext(
     }
 
     public FXRates getUserFxRates() {
-        return fxRateRepository.findByCurrencyCode(getUserCurrencyCode()).orElseThrow(() -> new NotFoundException("Fx Rate not found."));
+        return fxRateCache.find(getUserCurrencyCode()).orElseThrow(() -> new NotFoundException("Fx Rate not found."));
     }
 
 }
@@ -0,0 +1,120 @@
+package com.kq.fleet_and_cargo.utils.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernate second-level cache regions held in local Caffeine caches. Entity, collection and query
+ * regions expire after {@code ttl}, so a change notification another instance missed heals on its
+ * own; the update-timestamps region never expires, since query results are validated against it.
+ */
+public class CaffeineRegionFactory extends RegionFactoryTemplate {
+
+    private final Duration ttl;
+    private final long maxSize;
+    private final Map<String, Cache<Object, Object>> regions = new ConcurrentHashMap<>();
+
+    public CaffeineRegionFactory(Duration ttl, long maxSize) {
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+    }
+
+    /** The caches backing each region built so far, by region name. */
+    public Map<String, Cache<Object, Object>> regions() {
+        return Collections.unmodifiableMap(regions);
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new Storage(region(regionConfig.getRegionName(), true));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return new Storage(region(regionName, true));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return new Storage(region(regionName, false));
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(Cache::invalidateAll);
+        regions.clear();
+    }
+
+    private Cache<Object, Object> region(String name, boolean expiring) {
+        return regions.computeIfAbsent(name, key -> {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+            if (expiring) {
+                builder.maximumSize(maxSize).expireAfterWrite(ttl);
+            }
+            return builder.build();
+        });
+    }
+
+    private record Storage(Cache<Object, Object> cache) implements DomainDataStorageAccess {
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public void clearCache(SharedSessionContractImplementor session) {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.asMap().containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public void release() {
+            cache.invalidateAll();
+        }
+    }
+}
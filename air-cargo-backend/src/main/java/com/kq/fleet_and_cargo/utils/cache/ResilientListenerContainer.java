@@ -0,0 +1,77 @@
+package com.kq.fleet_and_cargo.utils.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link RedisMessageListenerContainer} that starts without Redis. When the first subscribe fails
+ * it stays unsubscribed and tries again every recovery interval until Redis answers; after that the
+ * container recovers dropped connections itself. Messages published while it is not subscribed are
+ * missed, which the local caches behind these channels tolerate through their TTLs.
+ */
+@Slf4j
+public class ResilientListenerContainer extends RedisMessageListenerContainer {
+
+    private volatile long retryInterval = DEFAULT_RECOVERY_INTERVAL;
+    private volatile boolean active;
+    private boolean retrying;
+    private String beanName = "RedisMessageListenerContainer";
+
+    @Override
+    public void setRecoveryInterval(long recoveryInterval) {
+        super.setRecoveryInterval(recoveryInterval);
+        this.retryInterval = recoveryInterval;
+    }
+
+    @Override
+    public void setBeanName(String name) {
+        super.setBeanName(name);
+        this.beanName = name;
+    }
+
+    @Override
+    public void start() {
+        active = true;
+        subscribe();
+    }
+
+    private synchronized void subscribe() {
+        if (!active || isListening()) {
+            return;
+        }
+        try {
+            super.start();
+        } catch (DataAccessException e) {
+            // A failed first subscribe leaves the container running but never retries; reset it and try later.
+            super.stop(() -> { });
+            log.warn("{} could not subscribe, retrying in {} ms: {}", beanName, retryInterval, e.getMessage());
+            retrying = true;
+            CompletableFuture.runAsync(this::subscribe,
+                    CompletableFuture.delayedExecutor(retryInterval, TimeUnit.MILLISECONDS));
+            return;
+        }
+        if (retrying) {
+            retrying = false;
+            log.info("{} subscribed", beanName);
+        }
+    }
+
+    // Still running while it retries, so the context stops it on shutdown.
+    @Override
+    public boolean isRunning() {
+        return active || super.isRunning();
+    }
+
+    // stop() and destroy() come through here as well.
+    @Override
+    public void stop(Runnable callback) {
+        active = false;
+        synchronized (this) {
+            super.stop(callback);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.kq.fleet_and_cargo.utils.datagen;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+
+/**
+ * Streams rows into one table through {@code COPY ... FROM STDIN} in CSV format. Values are written
+ * with {@link String#valueOf}, zoned timestamps as their offset form; {@code null} becomes SQL NULL. Nothing is visible until
+ * {@link #finish()}, and {@link #cancel()} discards the rows sent so far.
+ */
+public class CopyWriter {
+
+    private static final int FLUSH_BYTES = 1 << 20;
+
+    private final CopyIn copyIn;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(FLUSH_BYTES + (FLUSH_BYTES >> 2));
+    private final StringBuilder line = new StringBuilder(256);
+    private long rows;
+
+    public CopyWriter(Connection connection, String table, String... columns) throws SQLException {
+        this.copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)");
+    }
+
+    public void row(Object... values) throws SQLException {
+        line.setLength(0);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            if (values[i] instanceof ZonedDateTime at) {
+                quote(at.toOffsetDateTime().toString());
+            } else if (values[i] != null) {
+                quote(String.valueOf(values[i]));
+            }
+        }
+        line.append('\n');
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+        rows++;
+        if (buffer.size() >= FLUSH_BYTES) {
+            flush();
+        }
+    }
+
+    public long finish() throws SQLException {
+        flush();
+        copyIn.endCopy();
+        return rows;
+    }
+
+    public void cancel() {
+        try {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        } catch (SQLException ignored) {
+            // The server has already failed the COPY; the caller rethrows the original error.
+        }
+    }
+
+    // An unquoted empty field is NULL in CSV mode, so every value is quoted.
+    private void quote(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private void flush() throws SQLException {
+        if (buffer.size() > 0) {
+            copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+            buffer.reset();
+        }
+    }
+}
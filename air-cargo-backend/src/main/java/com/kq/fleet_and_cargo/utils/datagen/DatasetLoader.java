@@ -0,0 +1,154 @@
+package com.kq.fleet_and_cargo.utils.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes a {@link SyntheticDataset} with {@code COPY}, one table at a time in foreign key order.
+ * Each table is split into chunks that load concurrently on their own connections and commit
+ * independently, so a failed run leaves whole chunks behind and should be loaded again into a
+ * fresh database.
+ */
+@Slf4j
+public class DatasetLoader {
+
+    private final DataSource dataSource;
+    private final int parallelism;
+    private final int chunkSize;
+
+    public DatasetLoader(DataSource dataSource, int parallelism, int chunkSize) {
+        this.dataSource = dataSource;
+        this.parallelism = Math.max(parallelism, 1);
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    /** Rows written per table. */
+    public Map<String, Long> load(SyntheticDataset dataset) {
+        DatasetShape shape = dataset.shape();
+        Map<String, Long> written = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            written.put("customer", copy(executor, shape.customers(), "customer",
+                    new String[]{"id", "first_name", "last_name", "email", "phone_number", "address", "gender",
+                            "created_at", "updated_at"},
+                    (writer, index) -> {
+                        SyntheticDataset.Customer customer = dataset.customer(index);
+                        writer.row(customer.id(), customer.firstName(), customer.lastName(), customer.email(),
+                                customer.phoneNumber(), customer.address(), customer.gender().ordinal(),
+                                customer.createdAt(), customer.createdAt());
+                    }));
+            written.put("cargo", copy(executor, shape.cargos(), "cargo",
+                    new String[]{"id", "reference_number", "sender_id", "receiver_id", "pickup_location",
+                            "destination", "cargo_type", "description", "quantity", "weight", "amount", "currency",
+                            "created_at", "updated_at"},
+                    (writer, index) -> {
+                        SyntheticDataset.Cargo cargo = dataset.cargo(index);
+                        writer.row(cargo.id(), cargo.referenceNumber(), cargo.senderId(), cargo.receiverId(),
+                                cargo.pickupLocation(), cargo.destination(), cargo.cargoType(), cargo.description(),
+                                cargo.quantity(), cargo.weight(), cargo.amount(), "USD", cargo.createdAt(),
+                                cargo.updatedAt());
+                    }));
+            written.put("cargo_tracking_history", copy(executor, shape.cargos(), "cargo_tracking_history",
+                    new String[]{"id", "cargo_id", "location", "description", "user_id", "created_at", "updated_at"},
+                    (writer, index) -> {
+                        SyntheticDataset.Cargo cargo = dataset.cargo(index);
+                        for (SyntheticDataset.Stop stop : cargo.stops()) {
+                            writer.row(stop.id(), cargo.id(), stop.location(), stop.description(), stop.clerkId(),
+                                    stop.statuses().get(0).at(), stop.statuses().get(stop.statuses().size() - 1).at());
+                        }
+                    }));
+            written.put("luggage_status", copy(executor, shape.cargos(), "luggage_status",
+                    new String[]{"id", "cargo_tracking_history_id", "status", "created_at"},
+                    (writer, index) -> {
+                        for (SyntheticDataset.Stop stop : dataset.cargo(index).stops()) {
+                            for (int i = 0; i < stop.statuses().size(); i++) {
+                                SyntheticDataset.StatusAt status = stop.statuses().get(i);
+                                writer.row(stop.statusIds().get(i), stop.id(), status.status().ordinal(), status.at());
+                            }
+                        }
+                    }));
+            written.put("expenses", copy(executor, shape.expenses(), "expenses",
+                    new String[]{"id", "description", "amount", "currency", "incurred_at", "created_at", "updated_at"},
+                    (writer, index) -> {
+                        SyntheticDataset.Expense expense = dataset.expense(index);
+                        writer.row(expense.id(), expense.description(), expense.amount(), expense.currencyCode(),
+                                expense.incurredAt(), expense.incurredAt(), expense.incurredAt());
+                    }));
+            written.put("notification", copy(executor, shape.notifications(), "notification",
+                    new String[]{"id", "associated_id", "message", "created_at"},
+                    (writer, index) -> {
+                        SyntheticDataset.Notification notification = dataset.notification(index);
+                        writer.row(notification.id(), notification.cargoId(), notification.message(),
+                                notification.createdAt());
+                    }));
+            written.put("user_notifications", copy(executor, shape.notifications(), "user_notifications",
+                    new String[]{"notification_id", "user_id", "read_at"},
+                    (writer, index) -> {
+                        SyntheticDataset.Notification notification = dataset.notification(index);
+                        List<String> clerkIds = dataset.clerkIds();
+                        for (int recipient = 0; recipient < clerkIds.size(); recipient++) {
+                            writer.row(notification.id(), clerkIds.get(recipient),
+                                    dataset.readAt(index, notification, recipient));
+                        }
+                    }));
+        }
+        return written;
+    }
+
+    private long copy(ExecutorService executor, int count, String table, String[] columns, RowSource source) {
+        long started = System.nanoTime();
+        List<Future<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < count; from += chunkSize) {
+            int start = from;
+            int end = Math.min(from + chunkSize, count);
+            chunks.add(executor.submit(() -> copyChunk(table, columns, source, start, end)));
+        }
+        long rows = 0;
+        try {
+            for (Future<Long> chunk : chunks) {
+                rows += chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading " + table, e);
+        } catch (ExecutionException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            throw new IllegalStateException("Failed to load " + table, e.getCause());
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.info("Loaded {} rows into {} in {}s ({} rows/s)", rows, table, String.format("%.1f", seconds),
+                Math.round(rows / Math.max(seconds, 1e-3)));
+        return rows;
+    }
+
+    private long copyChunk(String table, String[] columns, RowSource source, int from, int to) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            CopyWriter writer = new CopyWriter(connection, table, columns);
+            try {
+                for (int index = from; index < to; index++) {
+                    source.write(writer, index);
+                }
+                return writer.finish();
+            } catch (SQLException | RuntimeException e) {
+                writer.cancel();
+                throw e;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        void write(CopyWriter writer, int index) throws SQLException;
+    }
+}
@@ -0,0 +1,21 @@
+package com.kq.fleet_and_cargo.utils.datagen;
+
+/**
+ * Row counts for a generated dataset; tracking history and status rows follow from each cargo's
+ * lifecycle (about three and six per cargo once delivered). {@code days} is how far back
+ * creation dates reach.
+ */
+public record DatasetShape(long seed, int customers, int cargos, int expenses, int notifications, int days) {
+
+    public DatasetShape {
+        if (customers < 0 || cargos < 0 || expenses < 0 || notifications < 0 || days < 1) {
+            throw new IllegalArgumentException("Dataset volumes must not be negative and days must be positive");
+        }
+        if (cargos > 0 && customers < 2) {
+            throw new IllegalArgumentException("Cargos need at least two customers");
+        }
+        if (notifications > 0 && cargos == 0) {
+            throw new IllegalArgumentException("Notifications need cargos to refer to");
+        }
+    }
+}
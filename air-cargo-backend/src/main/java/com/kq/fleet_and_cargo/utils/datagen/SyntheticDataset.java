@@ -0,0 +1,279 @@
+package com.kq.fleet_and_cargo.utils.datagen;
+
+import com.kq.fleet_and_cargo.enums.Gender;
+import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic model of the production dataset. Every row is a pure function of the seed and its
+ * index, so each table can be written in its own pass after its parents are committed, in parallel
+ * chunks, and the same seed always produces the same rows.
+ *
+ * <p>The skew follows production: a handful of cities account for most pickups, roughly half of
+ * the cargos come from the busiest tenth of senders, volume grows towards the present, and older
+ * cargos have run through more of their status lifecycle.
+ */
+public class SyntheticDataset {
+
+    /** Cities ordered by traffic; sampling favours the front of the list. */
+    private static final String[] CITIES = {
+            "Mogadishu", "Hargeisa", "Bosaso", "Garowe", "Kismayo", "Baidoa", "Galkayo", "Berbera",
+            "Burao", "Beledweyne", "Jowhar", "Borama", "Las Anod", "Erigavo", "Dhusamareb", "Nairobi",
+            "Dubai", "Addis Ababa", "Djibouti", "Jeddah"
+    };
+    private static final int DOMESTIC_CITIES = 15;
+    private static final String[] FIRST_NAMES = {
+            "Abdi", "Hodan", "Ahmed", "Fadumo", "Mohamed", "Amina", "Omar", "Hawa", "Yusuf", "Sahra",
+            "Ali", "Khadija", "Hassan", "Maryan", "Ibrahim", "Ayaan", "Abdirahman", "Ifrah", "Mustafe",
+            "Nimco", "Abdullahi", "Sagal", "Ismail", "Hibo", "Farah", "Ubah", "Osman", "Idil"
+    };
+    private static final String[] LAST_NAMES = {
+            "Ali", "Omer", "Hassan", "Warsame", "Farah", "Jama", "Nur", "Abdullahi", "Egal", "Dahir",
+            "Hersi", "Mohamud", "Aden", "Yusuf", "Gedi", "Samatar", "Elmi", "Duale", "Barre", "Guled"
+    };
+    private static final String[] PHONE_PREFIXES = {"+25261", "+25263", "+25290"};
+    private static final String[] CARGO_TYPES = {
+            "Documents", "Clothing", "Electronics", "Food", "Medicine", "Cosmetics", "Machinery Parts",
+            "Khat", "Livestock Products", "Furniture"
+    };
+    private static final String[] EXPENSES = {
+            "Fuel", "Aircraft handling", "Customs fees", "Warehouse rent", "Salaries", "Vehicle maintenance",
+            "Office supplies", "Airport parking", "Packaging material", "Internet and phone"
+    };
+    private static final int[] EXPENSE_SCALE = {1500, 2500, 800, 3000, 6000, 400, 60, 120, 150, 90};
+
+    private static final int CUSTOMER = 1;
+    private static final int CARGO = 2;
+    private static final int HISTORY = 3;
+    private static final int STATUS = 4;
+    private static final int EXPENSE = 5;
+    private static final int NOTIFICATION = 6;
+    private static final int NOTIFICATION_READ = 7;
+
+    private final DatasetShape shape;
+    private final List<String> clerkIds;
+    private final long firstReference;
+    private final ZonedDateTime end;
+
+    public SyntheticDataset(DatasetShape shape, List<String> clerkIds, long firstReference, ZonedDateTime end) {
+        if (clerkIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one user is needed to record tracking history");
+        }
+        this.shape = shape;
+        this.clerkIds = List.copyOf(clerkIds);
+        this.firstReference = firstReference;
+        this.end = end;
+    }
+
+    public DatasetShape shape() {
+        return shape;
+    }
+
+    public List<String> clerkIds() {
+        return clerkIds;
+    }
+
+    public String customerId(int index) {
+        return id(CUSTOMER, index);
+    }
+
+    public Customer customer(int index) {
+        SplittableRandom random = random(CUSTOMER, index);
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String email = random.nextInt(10) < 3
+                ? (firstName + "." + lastName + index + "@example.com").toLowerCase()
+                : "N/A";
+        // (prefix, index / prefixes) is unique per index, so phone numbers never collide.
+        String phoneNumber = PHONE_PREFIXES[index % PHONE_PREFIXES.length]
+                + String.format("%07d", index / PHONE_PREFIXES.length);
+        Gender gender = random.nextBoolean() ? Gender.MALE : Gender.FEMALE;
+        ZonedDateTime createdAt = pastInstant(random);
+        return new Customer(customerId(index), firstName, lastName, email, phoneNumber,
+                CITIES[skewed(random, CITIES.length, 2.5)], gender, createdAt);
+    }
+
+    public Cargo cargo(int index) {
+        SplittableRandom random = random(CARGO, index);
+        ZonedDateTime createdAt = pastInstant(random);
+        int pickup = skewed(random, CITIES.length, 2.5);
+        int destination = skewed(random, CITIES.length, 2);
+        while (destination == pickup) {
+            destination = random.nextInt(CITIES.length);
+        }
+        int sender = skewed(random, shape.customers(), 3);
+        int receiver = skewed(random, shape.customers(), 1.5);
+        if (receiver == sender) {
+            receiver = (receiver + 1) % shape.customers();
+        }
+        String cargoType = CARGO_TYPES[skewed(random, CARGO_TYPES.length, 2)];
+        int quantity = 1 + skewed(random, 40, 4);
+        double weight = Math.round((0.5 + Math.exp(random.nextGaussian() * 0.9 + 1.5)) * 10) / 10.0;
+        BigDecimal amount = BigDecimal.valueOf(Math.max(5, weight * quantity * (4 + random.nextDouble() * 5)))
+                .setScale(2, RoundingMode.HALF_EVEN);
+
+        List<Stop> stops = lifecycle(random, index, CITIES[pickup], CITIES[destination], destination >= DOMESTIC_CITIES,
+                createdAt);
+        Stop last = stops.get(stops.size() - 1);
+        ZonedDateTime updatedAt = last.statuses().get(last.statuses().size() - 1).at();
+        return new Cargo(id(CARGO, index), firstReference + index, customerId(sender), customerId(receiver),
+                CITIES[pickup], CITIES[destination], cargoType, cargoType + " shipment", quantity, weight, amount,
+                createdAt, updatedAt, stops);
+    }
+
+    public Expense expense(int index) {
+        SplittableRandom random = random(EXPENSE, index);
+        int kind = skewed(random, EXPENSES.length, 1.5);
+        double usd = EXPENSE_SCALE[kind] * Math.exp(random.nextGaussian() * 0.5);
+        int currency = random.nextInt(20);
+        String currencyCode = currency < 15 ? "USD" : currency < 18 ? "SLSH" : "KES";
+        double rate = switch (currencyCode) {
+            case "SLSH" -> 8500;
+            case "KES" -> 129.37;
+            default -> 1;
+        };
+        ZonedDateTime incurredAt = end.minusSeconds((long) (random.nextDouble() * shape.days() * 86_400));
+        return new Expense(id(EXPENSE, index), EXPENSES[kind],
+                BigDecimal.valueOf(usd * rate).setScale(2, RoundingMode.HALF_EVEN), currencyCode, incurredAt);
+    }
+
+    /** A status update on one of the cargos, addressed to every staff user. */
+    public Notification notification(int index) {
+        SplittableRandom random = random(NOTIFICATION, index);
+        Cargo cargo = cargo(random.nextInt(shape.cargos()));
+        List<StatusAt> statuses = cargo.stops().stream().flatMap(stop -> stop.statuses().stream()).toList();
+        StatusAt status = statuses.get(random.nextInt(statuses.size()));
+        return new Notification(id(NOTIFICATION, index), cargo.id(),
+                "Cargo #" + cargo.referenceNumber() + " is now " + status.status().getStatus(), status.at());
+    }
+
+    /** When the {@code recipient}th clerk read the notification, or null if it is still unread. Week-old ones are read. */
+    public ZonedDateTime readAt(int index, Notification notification, int recipient) {
+        SplittableRandom random = random(NOTIFICATION_READ, (long) index * clerkIds.size() + recipient);
+        if (notification.createdAt().isAfter(end.minusDays(7)) && random.nextInt(10) >= 4) {
+            return null;
+        }
+        ZonedDateTime readAt = notification.createdAt().plusSeconds(random.nextLong(3 * 86_400));
+        return readAt.isAfter(end) ? end : readAt;
+    }
+
+    /**
+     * Pickup, transit and destination stops (locations are unique per cargo), each holding the
+     * statuses recorded there, cut off at {@code end} so recent cargos are still in progress.
+     */
+    private List<Stop> lifecycle(SplittableRandom random, int index, String pickup, String destination,
+                                 boolean international, ZonedDateTime createdAt) {
+        String clerk = clerkIds.get(Math.floorMod(pickup.hashCode(), clerkIds.size()));
+        String destinationClerk = clerkIds.get(Math.floorMod(destination.hashCode(), clerkIds.size()));
+        List<StatusAt> atPickup = new ArrayList<>();
+        List<StatusAt> inTransit = new ArrayList<>();
+        List<StatusAt> atDestination = new ArrayList<>();
+
+        ZonedDateTime at = createdAt;
+        atPickup.add(new StatusAt(LuggageStatusEnum.PENDING, at));
+        at = step(at, random, 30, 6 * 60);
+        atPickup.add(new StatusAt(LuggageStatusEnum.CHECKED_IN, at));
+        at = step(at, random, 6 * 60, 48 * 60);
+        inTransit.add(new StatusAt(LuggageStatusEnum.IN_TRANSIT, at));
+        int incident = random.nextInt(1000);
+        if (incident < 3) {
+            inTransit.add(new StatusAt(LuggageStatusEnum.LOST, step(at, random, 24 * 60, 7 * 24 * 60)));
+        } else {
+            if (international) {
+                at = step(at, random, 6 * 60, 24 * 60);
+                inTransit.add(new StatusAt(LuggageStatusEnum.CUSTOMS_CHECK, at));
+            }
+            if (incident < 20) {
+                at = step(at, random, 12 * 60, 5 * 24 * 60);
+                inTransit.add(new StatusAt(LuggageStatusEnum.ON_HOLD, at));
+            }
+            at = step(at, random, 12 * 60, 72 * 60);
+            atDestination.add(new StatusAt(LuggageStatusEnum.ARRIVED, at));
+            if (incident >= 20 && incident < 25) {
+                atDestination.add(new StatusAt(LuggageStatusEnum.DAMAGED, step(at, random, 10, 60)));
+            }
+            at = step(at, random, 60, 12 * 60);
+            atDestination.add(new StatusAt(LuggageStatusEnum.IN_OFFICE, at));
+            at = step(at, random, 6 * 60, 7 * 24 * 60);
+            atDestination.add(new StatusAt(random.nextInt(4) == 0 ? LuggageStatusEnum.RETRIEVED : LuggageStatusEnum.DELIVERED,
+                    at));
+        }
+
+        List<Stop> stops = new ArrayList<>(3);
+        addStop(stops, index, 0, pickup, "Cargo Received", clerk, atPickup);
+        addStop(stops, index, 1, "In Transit", "Departed " + pickup, clerk, inTransit);
+        addStop(stops, index, 2, destination, "Arrived at " + destination, destinationClerk, atDestination);
+        return stops;
+    }
+
+    private void addStop(List<Stop> stops, int index, int position, String location, String description, String clerk,
+                         List<StatusAt> statuses) {
+        List<StatusAt> reached = statuses.stream().filter(status -> !status.at().isAfter(end)).toList();
+        if (!reached.isEmpty()) {
+            // Three stops at most per cargo, so the stop and status ordinals share the index space.
+            long key = (long) index * 8 + position;
+            List<String> statusIds = new ArrayList<>(reached.size());
+            for (int i = 0; i < reached.size(); i++) {
+                statusIds.add(id(STATUS, key * 8 + i));
+            }
+            stops.add(new Stop(id(HISTORY, key), location, description, clerk, reached, statusIds));
+        }
+    }
+
+    private static ZonedDateTime step(ZonedDateTime at, SplittableRandom random, int minMinutes, int maxMinutes) {
+        return at.plus(Duration.ofMinutes(minMinutes + random.nextInt(maxMinutes - minMinutes)));
+    }
+
+    // Volume grows towards the present: the square root pulls samples towards age zero.
+    private ZonedDateTime pastInstant(SplittableRandom random) {
+        double age = (1 - Math.sqrt(random.nextDouble())) * shape.days();
+        return end.minusSeconds((long) (age * 86_400));
+    }
+
+    /** An index in {@code [0, bound)}; higher exponents concentrate more samples at the low end. */
+    private static int skewed(SplittableRandom random, int bound, double exponent) {
+        return (int) (Math.pow(random.nextDouble(), exponent) * bound);
+    }
+
+    private SplittableRandom random(int kind, long index) {
+        return new SplittableRandom(mix(shape.seed() ^ ((long) kind << 56 | index)) ^ 0x632BE59BD9B4E019L);
+    }
+
+    // The key is unique per (kind, index) and mix is a bijection, so ids never collide for a given seed.
+    private String id(int kind, long index) {
+        long high = mix(shape.seed() ^ ((long) kind << 56 | index));
+        long low = mix(high + 0x9E3779B97F4A7C15L);
+        return new UUID(high & ~0xF000L | 0x4000L, low & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L).toString();
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public record Customer(String id, String firstName, String lastName, String email, String phoneNumber,
+                           String address, Gender gender, ZonedDateTime createdAt) {}
+
+    public record Cargo(String id, long referenceNumber, String senderId, String receiverId, String pickupLocation,
+                        String destination, String cargoType, String description, int quantity, double weight,
+                        BigDecimal amount, ZonedDateTime createdAt, ZonedDateTime updatedAt, List<Stop> stops) {}
+
+    public record Stop(String id, String location, String description, String clerkId, List<StatusAt> statuses,
+                       List<String> statusIds) {}
+
+    public record StatusAt(LuggageStatusEnum status, ZonedDateTime at) {}
+
+    public record Expense(String id, String description, BigDecimal amount, String currencyCode,
+                          ZonedDateTime incurredAt) {}
+
+    public record Notification(String id, String cargoId, String message, ZonedDateTime createdAt) {}
+}
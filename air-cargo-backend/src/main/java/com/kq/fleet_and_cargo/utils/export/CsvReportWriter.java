@@ -0,0 +1,96 @@
+package com.kq.fleet_and_cargo.utils.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * RFC 4180 CSV written straight to the response as rows arrive, optionally gzip compressed.
+ * Nothing is buffered beyond the writer's own buffer, so memory stays flat for any row count.
+ * Text that a spreadsheet would evaluate as a formula is prefixed with {@code '}.
+ */
+public final class CsvReportWriter implements ReportWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final GZIPOutputStream gzip;
+    private final Writer writer;
+
+    public CsvReportWriter(OutputStream out, String[] columns, boolean compress) throws IOException {
+        this.gzip = compress ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        this.writer = new BufferedWriter(
+                new OutputStreamWriter(compress ? gzip : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        row((Object[]) columns);
+    }
+
+    @Override
+    public void row(Object... values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                write(values[i]);
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+        if (gzip != null) {
+            gzip.finish();
+        }
+    }
+
+    /** The response stream belongs to the container, so it is left open. */
+    @Override
+    public void close() {
+    }
+
+    private void write(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof BigDecimal decimal) {
+            writer.write(decimal.toPlainString());
+            return;
+        }
+        if (value instanceof Number) {
+            writer.write(value.toString());
+            return;
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
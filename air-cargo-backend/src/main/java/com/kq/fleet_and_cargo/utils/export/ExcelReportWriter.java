@@ -0,0 +1,69 @@
+package com.kq.fleet_and_cargo.utils.export;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Single sheet xlsx writer backed by a windowed {@link SXSSFWorkbook}: only the last
+ * {@value #ROW_WINDOW} rows stay in memory, older rows are flushed to a compressed temp file.
+ * Column widths are fixed up front because auto-sizing would need every row.
+ */
+public final class ExcelReportWriter implements ReportWriter {
+
+    private static final int ROW_WINDOW = 100;
+    private static final int MAX_COLUMN_WIDTH = 255 * 256;
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private final Sheet sheet;
+    private int rowNum;
+
+    /** {@code widths} are in characters, one per column. */
+    public ExcelReportWriter(OutputStream out, String sheetName, String[] columns, int[] widths) {
+        if (columns.length != widths.length) {
+            throw new IllegalArgumentException("Every column needs a width");
+        }
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+        this.sheet = workbook.createSheet(sheetName);
+        for (int i = 0; i < widths.length; i++) {
+            sheet.setColumnWidth(i, Math.min(widths[i] * 256, MAX_COLUMN_WIDTH));
+        }
+        row((Object[]) columns);
+    }
+
+    @Override
+    public void row(Object... values) {
+        Row row = sheet.createRow(rowNum++);
+        for (int i = 0; i < values.length; i++) {
+            Cell cell = row.createCell(i);
+            Object value = values[i];
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else {
+                cell.setCellValue(value == null ? "" : value.toString());
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        workbook.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.dispose();
+        } finally {
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.kq.fleet_and_cargo.utils.export;
+
+import com.kq.fleet_and_cargo.enums.ReportFormat;
+import com.kq.fleet_and_cargo.exceptions.BadRequestException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output format of a report export: the file format, plus gzip compression for text formats.
+ */
+public record ExportFormat(ReportFormat format, boolean gzip) {
+
+    public static final ExportFormat XLSX = new ExportFormat(ReportFormat.XLSX, false);
+
+    public ExportFormat {
+        if (format == null) {
+            format = ReportFormat.XLSX;
+        }
+        if (gzip && format != ReportFormat.CSV) {
+            throw new BadRequestException(format + " is already compressed, gzip applies to CSV only");
+        }
+    }
+
+    public static ExportFormat of(String format, Boolean gzip) {
+        return new ExportFormat(ReportFormat.from(format), Boolean.TRUE.equals(gzip));
+    }
+
+    public String fileName(String baseName) {
+        return baseName + "." + format.getExtension() + (gzip ? ".gz" : "");
+    }
+
+    public String contentType() {
+        return gzip ? "application/gzip" : format.getContentType();
+    }
+
+    /** {@code widths} are column widths in characters; text formats ignore them. */
+    public ReportWriter open(OutputStream out, String sheetName, String[] columns, int[] widths) throws IOException {
+        return switch (format) {
+            case XLSX -> new ExcelReportWriter(out, sheetName, columns, widths);
+            case CSV -> new CsvReportWriter(out, columns, gzip);
+            case PARQUET -> new ParquetReportWriter(out, columns);
+        };
+    }
+}
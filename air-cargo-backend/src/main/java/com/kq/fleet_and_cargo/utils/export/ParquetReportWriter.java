@@ -0,0 +1,242 @@
+package com.kq.fleet_and_cargo.utils.export;
+
+import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.CompressionCodec;
+import org.apache.parquet.format.ConvertedType;
+import org.apache.parquet.format.DataPageHeader;
+import org.apache.parquet.format.Encoding;
+import org.apache.parquet.format.FieldRepetitionType;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.LogicalType;
+import org.apache.parquet.format.PageHeader;
+import org.apache.parquet.format.PageType;
+import org.apache.parquet.format.RowGroup;
+import org.apache.parquet.format.SchemaElement;
+import org.apache.parquet.format.Statistics;
+import org.apache.parquet.format.StringType;
+import org.apache.parquet.format.Type;
+import org.apache.parquet.format.Util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Parquet file of flat, optional columns written to the response as rows arrive. Rows are held
+ * {@value #ROW_GROUP_SIZE} at a time and written out as one row group with a single gzip-compressed
+ * PLAIN page per column, so memory stays bounded by a row group for any row count. A column holds
+ * doubles when its first value is a number and UTF-8 strings otherwise, the split the xlsx writer
+ * makes between numeric and text cells.
+ */
+public final class ParquetReportWriter implements ReportWriter {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final int ROW_GROUP_SIZE = 10_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PositionOutputStream out;
+    private final String[] columns;
+    private final List<Object[]> rows = new ArrayList<>();
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+    private Type[] types;
+    private long rowCount;
+
+    public ParquetReportWriter(OutputStream out, String[] columns) throws IOException {
+        this.out = new PositionOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        this.columns = columns.clone();
+        this.out.write(MAGIC);
+    }
+
+    @Override
+    public void row(Object... values) {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " values, got " + values.length);
+        }
+        rows.add(values.clone());
+        if (rows.size() == ROW_GROUP_SIZE) {
+            try {
+                writeRowGroup();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (!rows.isEmpty() || types == null) {
+            writeRowGroup();
+        }
+        FileMetaData metaData = new FileMetaData(1, schema(), rowCount, rowGroups);
+        metaData.setCreated_by("fleet-and-cargo");
+        long footerStart = out.position();
+        Util.writeFileMetaData(metaData, out);
+        writeInt(out, (int) (out.position() - footerStart));
+        out.write(MAGIC);
+        out.flush();
+    }
+
+    /** The response stream belongs to the container, so it is left open. */
+    @Override
+    public void close() {
+    }
+
+    // The first row group fixes the column types; a column without any value yet is text.
+    private void writeRowGroup() throws IOException {
+        if (types == null) {
+            types = new Type[columns.length];
+            for (int column = 0; column < columns.length; column++) {
+                types[column] = Type.BYTE_ARRAY;
+                for (Object[] row : rows) {
+                    if (row[column] != null) {
+                        types[column] = row[column] instanceof Number ? Type.DOUBLE : Type.BYTE_ARRAY;
+                        break;
+                    }
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<ColumnChunk> chunks = new ArrayList<>(columns.length);
+        long totalSize = 0;
+        for (int column = 0; column < columns.length; column++) {
+            ColumnChunk chunk = writeColumn(column);
+            chunks.add(chunk);
+            totalSize += chunk.getMeta_data().getTotal_uncompressed_size();
+        }
+        rowGroups.add(new RowGroup(chunks, totalSize, rows.size()));
+        rowCount += rows.size();
+        rows.clear();
+    }
+
+    private ColumnChunk writeColumn(int column) throws IOException {
+        ByteArrayOutputStream values = new ByteArrayOutputStream();
+        boolean[] present = new boolean[rows.size()];
+        long nulls = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            Object value = rows.get(i)[column];
+            present[i] = value != null;
+            if (value == null) {
+                nulls++;
+            } else if (types[column] == Type.DOUBLE) {
+                if (!(value instanceof Number number)) {
+                    throw new IllegalArgumentException("Column " + columns[column] + " holds numbers, got " + value);
+                }
+                writeLong(values, Double.doubleToLongBits(number.doubleValue()));
+            } else {
+                byte[] text = (value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString())
+                        .getBytes(StandardCharsets.UTF_8);
+                writeInt(values, text.length);
+                values.write(text);
+            }
+        }
+
+        // A data page v1 is the length-prefixed definition levels followed by the values.
+        byte[] levels = definitionLevels(present);
+        ByteArrayOutputStream page = new ByteArrayOutputStream(4 + levels.length + values.size());
+        writeInt(page, levels.length);
+        page.write(levels);
+        values.writeTo(page);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            page.writeTo(gzip);
+        }
+
+        PageHeader header = new PageHeader(PageType.DATA_PAGE, page.size(), compressed.size());
+        header.setData_page_header(new DataPageHeader(rows.size(), Encoding.PLAIN, Encoding.RLE, Encoding.RLE)
+                .setStatistics(new Statistics().setNull_count(nulls)));
+        long offset = out.position();
+        Util.writePageHeader(header, out);
+        long headerSize = out.position() - offset;
+        compressed.writeTo(out);
+
+        ColumnMetaData metaData = new ColumnMetaData(types[column], List.of(Encoding.PLAIN, Encoding.RLE),
+                List.of(columns[column]), CompressionCodec.GZIP, rows.size(),
+                headerSize + page.size(), headerSize + compressed.size(), offset);
+        metaData.setStatistics(new Statistics().setNull_count(nulls));
+        return new ColumnChunk(offset).setMeta_data(metaData);
+    }
+
+    /** Runs of the RLE/bit-packed hybrid with bit width 1: a varint of the run length shifted left once, then the level. */
+    private static byte[] definitionLevels(boolean[] present) {
+        ByteArrayOutputStream levels = new ByteArrayOutputStream();
+        for (int start = 0; start < present.length; ) {
+            int end = start;
+            while (end < present.length && present[end] == present[start]) {
+                end++;
+            }
+            for (int header = (end - start) << 1; ; header >>>= 7) {
+                if ((header & ~0x7F) == 0) {
+                    levels.write(header);
+                    break;
+                }
+                levels.write((header & 0x7F) | 0x80);
+            }
+            levels.write(present[start] ? 1 : 0);
+            start = end;
+        }
+        return levels.toByteArray();
+    }
+
+    private List<SchemaElement> schema() {
+        List<SchemaElement> schema = new ArrayList<>(columns.length + 1);
+        schema.add(new SchemaElement("schema").setNum_children(columns.length));
+        for (int column = 0; column < columns.length; column++) {
+            SchemaElement element = new SchemaElement(columns[column])
+                    .setType(types[column])
+                    .setRepetition_type(FieldRepetitionType.OPTIONAL);
+            if (types[column] == Type.BYTE_ARRAY) {
+                element.setConverted_type(ConvertedType.UTF8).setLogicalType(LogicalType.STRING(new StringType()));
+            }
+            schema.add(element);
+        }
+        return schema;
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static void writeLong(OutputStream out, long value) throws IOException {
+        writeInt(out, (int) value);
+        writeInt(out, (int) (value >>> 32));
+    }
+
+    /** Parquet metadata refers to pages by their offset in the file. */
+    private static final class PositionOutputStream extends FilterOutputStream {
+        private long position;
+
+        private PositionOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            position++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            position += len;
+        }
+
+        private long position() {
+            return position;
+        }
+    }
+}
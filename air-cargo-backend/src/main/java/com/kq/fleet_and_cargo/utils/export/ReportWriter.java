@@ -0,0 +1,15 @@
+package com.kq.fleet_and_cargo.utils.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Row sink for one tabular report. Numbers are written as numbers, {@code null} as an empty value.
+ */
+public interface ReportWriter extends Closeable {
+
+    void row(Object... values);
+
+    /** Completes the document on the underlying stream; {@link #close()} only releases resources. */
+    void finish() throws IOException;
+}
@@ -0,0 +1,74 @@
+package com.kq.fleet_and_cargo.utils.mail;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTML mail body parsed once into literal text and placeholders. {@code {{name}}} is replaced
+ * by the HTML-escaped value, {@code {{{name}}}} by the value as is, for values that are markup.
+ */
+public final class MailTemplate {
+
+    private final String name;
+    private final List<Part> parts;
+    private final int literalLength;
+
+    private MailTemplate(String name, List<Part> parts) {
+        this.name = name;
+        this.parts = parts;
+        this.literalLength = parts.stream().filter(part -> part.placeholder() == null)
+                .mapToInt(part -> part.text().length()).sum();
+    }
+
+    public static MailTemplate parse(String name, String source) {
+        List<Part> parts = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int start = source.indexOf("{{", position);
+            if (start < 0) {
+                break;
+            }
+            boolean raw = source.startsWith("{{{", start);
+            String close = raw ? "}}}" : "}}";
+            int end = source.indexOf(close, start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in mail template " + name + " at " + start);
+            }
+            if (start > position) {
+                parts.add(new Part(source.substring(position, start), null, false));
+            }
+            parts.add(new Part(null, source.substring(start + (raw ? 3 : 2), end).trim(), raw));
+            position = end + close.length();
+        }
+        if (position < source.length()) {
+            parts.add(new Part(source.substring(position), null, false));
+        }
+        return new MailTemplate(name, List.copyOf(parts));
+    }
+
+    /**
+     * Fails on a placeholder missing from {@code values} rather than sending a mail with a hole in
+     * it; a placeholder mapped to {@code null} renders empty.
+     */
+    public String render(Map<String, ?> values) {
+        StringBuilder rendered = new StringBuilder(literalLength + 64 * parts.size());
+        for (Part part : parts) {
+            if (part.placeholder() == null) {
+                rendered.append(part.text());
+                continue;
+            }
+            if (!values.containsKey(part.placeholder())) {
+                throw new IllegalArgumentException("No value for " + part.placeholder() + " in mail template " + name);
+            }
+            Object value = values.get(part.placeholder());
+            String text = value == null ? "" : value.toString();
+            rendered.append(part.raw() ? text : HtmlUtils.htmlEscape(text));
+        }
+        return rendered.toString();
+    }
+
+    private record Part(String text, String placeholder, boolean raw) {}
+}
@@ -0,0 +1,41 @@
+package com.kq.fleet_and_cargo.utils.mail;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/** The HTML templates under {@code classpath:mail/}, parsed once at startup and named by file name. */
+@Component
+public class MailTemplates {
+
+    public static final String OTP = "otp";
+    public static final String CUSTOMER_NOTIFICATION = "customer-notification";
+    public static final String CARGO_DETAILS = "cargo-details";
+
+    private final Map<String, MailTemplate> templates = new HashMap<>();
+
+    public MailTemplates() {
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath*:mail/*.html")) {
+                String name = resource.getFilename().substring(0, resource.getFilename().length() - ".html".length());
+                templates.put(name, MailTemplate.parse(name, resource.getContentAsString(StandardCharsets.UTF_8)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load mail templates", e);
+        }
+    }
+
+    public String render(String name, Map<String, ?> values) {
+        MailTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("No mail template " + name);
+        }
+        return template.render(values);
+    }
+}
@@ -0,0 +1,259 @@
+package com.kq.fleet_and_cargo.utils.mail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link JavaMailSenderImpl} that keeps its SMTP connections open between sends. Each send
+ * borrows an authenticated connection from the pool and delivers all of its messages over it, so
+ * the TCP, TLS and AUTH handshakes are paid once per connection rather than once per call. A
+ * connection idle for {@code validateAfter} is checked with a NOOP before reuse, one idle for
+ * {@code maxIdle} is closed, and a message that fails because its connection dropped is sent
+ * once more on a new one. Messages to a recipient over their {@link RecipientRateLimiter} rate
+ * are not sent and fail with {@link RecipientRateLimitedException}; a message takes a token from
+ * every recipient or from none, and gets them back if it could not be sent, so retrying it costs
+ * no more than sending it once. A message with a {@link #RATE_HEADER} counts against the rate of
+ * that name instead of the default one; the header itself is not sent.
+ */
+@Slf4j
+public class PooledMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+    public record PoolSettings(@DefaultValue("4") int maxConnections,
+                               @DefaultValue("30s") Duration borrowTimeout,
+                               @DefaultValue("5s") Duration validateAfter,
+                               @DefaultValue("1m") Duration maxIdle) {}
+
+    /** Names the rate a message counts against, for mail such as one-time passwords that must not share the default one. */
+    public static final String RATE_HEADER = "X-Mail-Rate";
+
+    private final PoolSettings settings;
+    private final RecipientRateLimiter rateLimiter;
+    private final Map<String, RecipientRateLimiter> namedRateLimiters;
+    private final Semaphore permits;
+    private final Deque<IdleTransport> idle = new ConcurrentLinkedDeque<>();
+    private final Counter opened;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter rateLimited;
+    private volatile boolean closed;
+
+    public PooledMailSender(PoolSettings settings, RecipientRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this(settings, rateLimiter, Map.of(), meterRegistry);
+    }
+
+    public PooledMailSender(PoolSettings settings, RecipientRateLimiter rateLimiter,
+                            Map<String, RecipientRateLimiter> namedRateLimiters, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.rateLimiter = rateLimiter;
+        this.namedRateLimiters = Map.copyOf(namedRateLimiters);
+        this.permits = new Semaphore(settings.maxConnections());
+        this.opened = meterRegistry.counter("mail.connections.opened");
+        this.sent = meterRegistry.counter("mail.messages", "outcome", "sent");
+        this.failed = meterRegistry.counter("mail.messages", "outcome", "failed");
+        this.rateLimited = meterRegistry.counter("mail.messages", "outcome", "rate-limited");
+        Gauge.builder("mail.connections.idle", idle, Deque::size).register(meterRegistry);
+        Gauge.builder("mail.connections.active", permits, free -> settings.maxConnections() - free.availablePermits())
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        Map<Integer, Charge> allowed = new LinkedHashMap<>();
+        for (int i = 0; i < mimeMessages.length; i++) {
+            try {
+                allowed.put(i, charge(mimeMessages[i]));
+            } catch (MessagingException e) {
+                (e instanceof RecipientRateLimitedException ? rateLimited : failed).increment();
+                failedMessages.put(original(mimeMessages, originalMessages, i), e);
+            }
+        }
+        if (!allowed.isEmpty()) {
+            Transport transport;
+            try {
+                transport = borrow();
+            } catch (MessagingException e) {
+                allowed.values().forEach(Charge::refund);
+                if (e instanceof AuthenticationFailedException) {
+                    throw new MailAuthenticationException(e);
+                }
+                allowed.keySet().forEach(i -> failedMessages.put(original(mimeMessages, originalMessages, i), e));
+                failed.increment(allowed.size());
+                throw new MailSendException("Mail server connection failed", e, failedMessages);
+            }
+            try {
+                for (int i : allowed.keySet()) {
+                    MimeMessage mimeMessage = mimeMessages[i];
+                    try {
+                        Address[] addresses = prepare(mimeMessage);
+                        if (transport == null) {
+                            transport = connect();
+                        }
+                        try {
+                            transport.sendMessage(mimeMessage, addresses);
+                        } catch (MessagingException | IllegalStateException e) {
+                            // Still connected means the server refused this message, which another connection would not change.
+                            if (transport.isConnected()) {
+                                throw e;
+                            }
+                            log.debug("SMTP connection dropped, sending again on a new one: {}", e.getMessage());
+                            close(transport);
+                            transport = null;
+                            transport = connect();
+                            transport.sendMessage(mimeMessage, addresses);
+                        }
+                        sent.increment();
+                    } catch (MessagingException | RuntimeException e) {
+                        allowed.get(i).refund();
+                        failed.increment();
+                        failedMessages.put(original(mimeMessages, originalMessages, i), e);
+                    }
+                }
+            } finally {
+                release(transport);
+            }
+        }
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    private static Address[] prepare(MimeMessage mimeMessage) throws MessagingException {
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.removeHeader(RATE_HEADER);
+        mimeMessage.saveChanges();
+        if (messageId != null) {
+            // saveChanges assigns a new Message-ID; keep the one the caller set.
+            mimeMessage.setHeader("Message-ID", messageId);
+        }
+        Address[] addresses = mimeMessage.getAllRecipients();
+        return addresses != null ? addresses : new Address[0];
+    }
+
+    private Charge charge(MimeMessage mimeMessage) throws MessagingException {
+        String[] rate = mimeMessage.getHeader(RATE_HEADER);
+        RecipientRateLimiter limiter = rate != null ? namedRateLimiters.getOrDefault(rate[0], rateLimiter) : rateLimiter;
+        Address[] addresses = mimeMessage.getAllRecipients();
+        List<String> recipients = new ArrayList<>();
+        if (addresses != null) {
+            for (Address address : addresses) {
+                recipients.add(address instanceof InternetAddress internet ? internet.getAddress() : address.toString());
+            }
+        }
+        return new Charge(limiter, limiter.acquire(recipients));
+    }
+
+    private Transport borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(settings.borrowTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new MessagingException("No SMTP connection free within " + settings.borrowTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted waiting for an SMTP connection", e);
+        }
+        try {
+            evictIdle();
+            // Most recently used first: it is the least likely to have been dropped by the server.
+            for (IdleTransport pooled = idle.pollFirst(); pooled != null; pooled = idle.pollFirst()) {
+                if (System.nanoTime() - pooled.since() < settings.validateAfter().toNanos() || pooled.transport().isConnected()) {
+                    return pooled.transport();
+                }
+                close(pooled.transport());
+            }
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(@Nullable Transport transport) {
+        if (transport != null) {
+            if (closed) {
+                close(transport);
+            } else {
+                idle.offerFirst(new IdleTransport(transport, System.nanoTime()));
+            }
+        }
+        permits.release();
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = connectTransport();
+        opened.increment();
+        return transport;
+    }
+
+    @Scheduled(fixedDelayString = "PT30S")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (IdleTransport oldest = idle.peekLast();
+             oldest != null && now - oldest.since() > settings.maxIdle().toNanos();
+             oldest = idle.peekLast()) {
+            if (idle.removeLastOccurrence(oldest)) {
+                close(oldest.transport());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        for (IdleTransport pooled = idle.pollFirst(); pooled != null; pooled = idle.pollFirst()) {
+            close(pooled.transport());
+        }
+    }
+
+    private static void close(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Closing SMTP connection failed: {}", e.getMessage());
+        }
+    }
+
+    private static Object original(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages, int index) {
+        return originalMessages != null ? originalMessages[index] : mimeMessages[index];
+    }
+
+    private record IdleTransport(Transport transport, long since) {}
+
+    /** The tokens a message took, given back if it is not sent. */
+    private record Charge(RecipientRateLimiter limiter, Set<String> addresses) {
+        void refund() {
+            limiter.release(addresses);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.kq.fleet_and_cargo.utils.mail;
+
+import jakarta.mail.MessagingException;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/** A message held back because one of its recipients has used up their rate; it can be sent after {@link #getRetryAfter()}. */
+@Getter
+public class RecipientRateLimitedException extends MessagingException {
+
+    private final Duration retryAfter;
+
+    public RecipientRateLimitedException(String recipient, Duration retryAfter) {
+        super("Rate limit reached for " + recipient + ", retry after " + retryAfter);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,83 @@
+package com.kq.fleet_and_cargo.utils.mail;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kq.fleet_and_cargo.utils.TokenBucket;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link TokenBucket} per recipient address: up to {@code capacity} mails at once, refilled
+ * evenly at {@code capacity} per {@code period}. Buckets of recipients that have been quiet for a
+ * full period are dropped, since they would be full again anyway.
+ */
+public class RecipientRateLimiter {
+
+    private final int capacity;
+    private final Duration period;
+    private final LongSupplier clock;
+    private final Cache<String, TokenBucket> buckets;
+
+    public RecipientRateLimiter(int capacity, Duration period) {
+        this(capacity, period, System::nanoTime);
+    }
+
+    RecipientRateLimiter(int capacity, Duration period, LongSupplier clock) {
+        this.capacity = capacity;
+        this.period = period;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder().expireAfterAccess(period).build();
+    }
+
+    /** Takes a token for {@code recipient}; returns zero if one was available, else how long until one will be. */
+    public synchronized Duration acquire(String recipient) {
+        return bucket(recipient).acquire();
+    }
+
+    /**
+     * Takes a token for each of {@code recipients}, counting an address listed twice once. Either
+     * every recipient has a token and all are taken, or none is taken and the message fails with
+     * how long until the last of them has one.
+     */
+    public synchronized Set<String> acquire(Collection<String> recipients) throws RecipientRateLimitedException {
+        Set<String> addresses = new LinkedHashSet<>();
+        recipients.forEach(recipient -> addresses.add(normalize(recipient)));
+        String limited = null;
+        Duration retryAfter = Duration.ZERO;
+        for (String address : addresses) {
+            Duration wait = bucket(address).available();
+            if (wait.compareTo(retryAfter) > 0) {
+                limited = address;
+                retryAfter = wait;
+            }
+        }
+        if (limited != null) {
+            throw new RecipientRateLimitedException(limited, retryAfter);
+        }
+        addresses.forEach(address -> bucket(address).acquire());
+        return addresses;
+    }
+
+    /** Gives back the tokens {@link #acquire(Collection)} took for a message that was not sent. */
+    public synchronized void release(Collection<String> addresses) {
+        for (String address : addresses) {
+            TokenBucket bucket = buckets.getIfPresent(address);
+            if (bucket != null) {
+                bucket.release();
+            }
+        }
+    }
+
+    private TokenBucket bucket(String recipient) {
+        return buckets.get(normalize(recipient), address -> new TokenBucket(capacity, period, clock));
+    }
+
+    private static String normalize(String recipient) {
+        return recipient.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -6,10 +6,13 @@ import com.kq.fleet_and_cargo.models.File;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 public interface FileStorageStrategy {
     StorageProvider provider();
     File save(MultipartFile file) throws IOException;
+    /** Stores content produced by the application itself, e.g. generated reports. */
+    File store(String fileName, String contentType, InputStream content, long size) throws IOException;
     String buildUrl(File file);
     void delete(File file);
 }
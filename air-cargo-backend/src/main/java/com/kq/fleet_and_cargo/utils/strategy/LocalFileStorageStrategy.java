@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -38,8 +39,14 @@ public class LocalFileStorageStrategy implements FileStorageStrategy {
     @Override
     public File save(MultipartFile file) throws IOException {
         checkIfImage(file);
+        try (var in = file.getInputStream()) {
+            return store(Objects.requireNonNullElse(file.getOriginalFilename(), "file"), file.getContentType(), in, file.getSize());
+        }
+    }
 
-        String original = sanitize(Objects.requireNonNullElse(file.getOriginalFilename(), "file"));
+    @Override
+    public File store(String fileName, String contentType, InputStream content, long size) throws IOException {
+        String original = sanitize(fileName);
         // Store raw (unencoded) name in DB; the physical file lives under <localBaseDir>/files/
         String unique = UUID.randomUUID() + "-" + original;
 
@@ -50,9 +57,7 @@ public class LocalFileStorageStrategy implements FileStorageStrategy {
         Path target = dir.resolve(unique).normalize();
         if (!target.startsWith(base)) throw new IOException("Invalid path traversal");
 
-        try (var in = file.getInputStream()) {
-            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
-        }
+        Files.copy(content, target, StandardCopyOption.REPLACE_EXISTING);
         try {
             Files.setPosixFilePermissions(target, EnumSet.of(
                     PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
@@ -64,7 +69,7 @@ public class LocalFileStorageStrategy implements FileStorageStrategy {
 
         return File.builder()
                 .fileName(original)
-                .fileType(file.getContentType())
+                .fileType(contentType)
                 .localPath(unique)   // <-- only the filename in DB (no "files/" prefix, no encoding)
                 .s3ObjectKey(null)
                 .build();
@@ -15,6 +15,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
@@ -45,25 +46,31 @@ public class S3FileStorageStrategy implements FileStorageStrategy {
     @Override
     public File save(MultipartFile file) throws IOException {
         checkIfImage(file);
+        try (InputStream in = file.getInputStream()) {
+            return store(Objects.requireNonNullElse(file.getOriginalFilename(), "file"), file.getContentType(), in, file.getSize());
+        }
+    }
+
+    @Override
+    public File store(String fileName, String contentType, InputStream content, long size) throws IOException {
         AmazonS3 client = s3.orElseThrow(() ->
                 new IllegalStateException("S3 storage selected but AmazonS3 bean is missing"));
 
-        String original = Objects.requireNonNullElse(file.getOriginalFilename(), "file");
         // Keep the key URL-safe (encode only the filename segment)
-        String encoded = URLEncoder.encode(original, StandardCharsets.UTF_8).replace("+", "%20");
+        String encoded = URLEncoder.encode(fileName, StandardCharsets.UTF_8).replace("+", "%20");
         String unique = UUID.randomUUID() + "-" + encoded;
         String key = "files/" + unique;
 
         try {
             ObjectMetadata md = new ObjectMetadata();
-            md.setContentType(file.getContentType());
-            md.setContentLength(file.getSize());
-            client.putObject(bucketName, key, file.getInputStream(), md);
+            md.setContentType(contentType);
+            md.setContentLength(size);
+            client.putObject(bucketName, key, content, md);
             log.info("S3 upload OK: {}", key);
 
             return File.builder()
-                    .fileName(original)
-                    .fileType(file.getContentType())
+                    .fileName(fileName)
+                    .fileType(contentType)
                     .s3ObjectKey(key)
                     .localPath(null)
                     .build();
@@ -0,0 +1,120 @@
+package com.kq.fleet_and_cargo.utils.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds how many frames each WebSocket session may have queued on the client outbound channel.
+ * A session that falls {@code maxPending} frames behind loses the frame and is closed, so it
+ * reconnects and reloads instead of holding outbound threads and memory for everyone else.
+ */
+@Slf4j
+public class OutboundSessionGuard implements ExecutorChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    private final int maxPending;
+    private final Map<String, TrackedSession> sessions = new ConcurrentHashMap<>();
+    private final Counter dropped;
+    private final Counter evicted;
+
+    public OutboundSessionGuard(MeterRegistry meterRegistry, int maxPending) {
+        this.maxPending = maxPending;
+        this.dropped = meterRegistry.counter("websocket.outbound.dropped");
+        this.evicted = meterRegistry.counter("websocket.sessions.evicted");
+        Gauge.builder("websocket.sessions", sessions, Map::size).register(meterRegistry);
+        Gauge.builder("websocket.outbound.pending", sessions,
+                tracked -> tracked.values().stream().mapToInt(session -> session.pending().get()).sum())
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.pending.max", sessions,
+                tracked -> tracked.values().stream().mapToInt(session -> session.pending().get()).max().orElse(0))
+                .register(meterRegistry);
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), new TrackedSession(session, new AtomicInteger(), new AtomicBoolean()));
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        TrackedSession session = session(message);
+        if (session == null) {
+            return message;
+        }
+        if (session.pending().incrementAndGet() > maxPending) {
+            session.pending().decrementAndGet();
+            dropped.increment();
+            evict(session);
+            return null;
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (!sent) {
+            release(message);
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        release(message);
+    }
+
+    private void release(Message<?> message) {
+        TrackedSession session = session(message);
+        if (session != null) {
+            session.pending().decrementAndGet();
+        }
+    }
+
+    private TrackedSession session(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        return sessionId == null ? null : sessions.get(sessionId);
+    }
+
+    private void evict(TrackedSession session) {
+        if (!session.evicted().compareAndSet(false, true)) {
+            return;
+        }
+        evicted.increment();
+        log.warn("Closing WebSocket session {}: more than {} frames pending", session.session().getId(), maxPending);
+        try {
+            session.session().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Closing slow WebSocket session {} failed", session.session().getId(), e);
+        }
+    }
+
+    private record TrackedSession(WebSocketSession session, AtomicInteger pending, AtomicBoolean evicted) {}
+}
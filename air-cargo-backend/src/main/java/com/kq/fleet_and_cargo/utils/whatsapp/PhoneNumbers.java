@@ -0,0 +1,41 @@
+package com.kq.fleet_and_cargo.utils.whatsapp;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Brings customer phone numbers to E.164, the form the WhatsApp Cloud API addresses recipients by.
+ * Spaces, dots, dashes and brackets are dropped. A number starting with {@code +} or {@code 00} is
+ * international and one starting with {@code 0} is national; bare digits are international only
+ * when they already begin with the default country code and are longer than a national number.
+ */
+public final class PhoneNumbers {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s().-]");
+    private static final Pattern E164_DIGITS = Pattern.compile("[1-9]\\d{7,14}");
+    private static final int MIN_NATIONAL_LENGTH = 7;
+
+    private PhoneNumbers() {
+    }
+
+    public static Optional<String> toE164(String phoneNumber, String defaultCountryCode) {
+        if (phoneNumber == null) {
+            return Optional.empty();
+        }
+        String number = SEPARATORS.matcher(phoneNumber).replaceAll("");
+        String digits;
+        if (number.startsWith("+")) {
+            digits = number.substring(1);
+        } else if (number.startsWith("00")) {
+            digits = number.substring(2);
+        } else if (number.startsWith("0")) {
+            digits = defaultCountryCode + number.substring(1);
+        } else if (number.startsWith(defaultCountryCode)
+                && number.length() >= defaultCountryCode.length() + MIN_NATIONAL_LENGTH) {
+            digits = number;
+        } else {
+            digits = defaultCountryCode + number;
+        }
+        return E164_DIGITS.matcher(digits).matches() ? Optional.of("+" + digits) : Optional.empty();
+    }
+}
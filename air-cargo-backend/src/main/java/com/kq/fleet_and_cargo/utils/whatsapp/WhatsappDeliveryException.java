@@ -0,0 +1,23 @@
+package com.kq.fleet_and_cargo.utils.whatsapp;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A WhatsApp message the provider did not accept. {@code retryable} is false when the provider
+ * rejected the message itself; {@code retryAfter} is set when the provider asked us to back off
+ * or the circuit is open, which says nothing about the message.
+ */
+@Getter
+public class WhatsappDeliveryException extends RuntimeException {
+
+    private final boolean retryable;
+    private final Duration retryAfter;
+
+    public WhatsappDeliveryException(String message, boolean retryable, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,197 @@
+package com.kq.fleet_and_cargo.utils.whatsapp;
+
+import com.kq.fleet_and_cargo.utils.CircuitBreaker;
+import com.kq.fleet_and_cargo.utils.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts messages to the WhatsApp Cloud API without tying up a thread per request. One JDK
+ * {@link HttpClient} keeps its connections (a single multiplexed one over HTTP/2) for every
+ * request; at most {@code maxInFlight} requests are out at once and at most {@code rateLimit}
+ * start per {@code ratePeriod}, the provider's throughput limit. Timeouts, 408, 429 and 5xx
+ * responses are retried up to {@code maxAttempts} with jittered exponential backoff, or after
+ * the provider's Retry-After; {@code failureThreshold} such failures in a row open the circuit
+ * for {@code openFor}, during which sends fail at once.
+ */
+@Slf4j
+public class WhatsappGateway implements DisposableBean {
+
+    public record Settings(@DefaultValue("32") int maxInFlight,
+                           @DefaultValue("5s") Duration connectTimeout,
+                           @DefaultValue("10s") Duration requestTimeout,
+                           @DefaultValue("80") int rateLimit,
+                           @DefaultValue("1s") Duration ratePeriod,
+                           @DefaultValue("3") int maxAttempts,
+                           @DefaultValue("200ms") Duration initialBackoff,
+                           @DefaultValue("5s") Duration maxBackoff,
+                           @DefaultValue("5") int failureThreshold,
+                           @DefaultValue("30s") Duration openFor) {}
+
+    private final URI uri;
+    private final String token;
+    private final Settings settings;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+    private final Semaphore inFlight;
+    private final TokenBucket rateLimit;
+    private final CircuitBreaker circuitBreaker;
+    private final Timer latency;
+    private final Counter sent;
+    private final Counter rejected;
+    private final Counter failed;
+    private final Counter retried;
+
+    public WhatsappGateway(String url, String token, Settings settings, MeterRegistry meterRegistry) {
+        this.uri = URI.create(url);
+        this.token = token;
+        this.settings = settings;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(settings.connectTimeout())
+                .executor(executor)
+                .build();
+        this.inFlight = new Semaphore(settings.maxInFlight());
+        this.rateLimit = new TokenBucket(settings.rateLimit(), settings.ratePeriod());
+        this.circuitBreaker = new CircuitBreaker(settings.failureThreshold(), settings.openFor());
+        this.latency = meterRegistry.timer("whatsapp.request.latency");
+        this.sent = meterRegistry.counter("whatsapp.messages", "outcome", "sent");
+        this.rejected = meterRegistry.counter("whatsapp.messages", "outcome", "rejected");
+        this.failed = meterRegistry.counter("whatsapp.messages", "outcome", "failed");
+        this.retried = meterRegistry.counter("whatsapp.requests.retried");
+        Gauge.builder("whatsapp.requests.in-flight", inFlight, free -> settings.maxInFlight() - free.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("whatsapp.circuit.open", circuitBreaker,
+                breaker -> breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1).register(meterRegistry);
+    }
+
+    /**
+     * Sends one JSON message body. Waits only while {@code maxInFlight} sends are outstanding, so
+     * a caller faster than the provider is held back instead of queueing requests without bound;
+     * the returned future fails with a {@link WhatsappDeliveryException}.
+     */
+    public CompletableFuture<Void> send(byte[] json) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new WhatsappDeliveryException("Interrupted before sending", true, null, e));
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        result.whenComplete((ignored, error) -> inFlight.release());
+        attempt(json, 1, result);
+        return result;
+    }
+
+    private void attempt(byte[] json, int attempt, CompletableFuture<Void> result) {
+        try {
+            // The rate comes first: a half-open circuit grants one trial, which must not then wait.
+            Duration wait = rateLimit.acquire();
+            if (!wait.isZero()) {
+                later(wait, () -> attempt(json, attempt, result));
+                return;
+            }
+            Duration open = circuitBreaker.acquire();
+            if (!open.isZero()) {
+                failed.increment();
+                result.completeExceptionally(new WhatsappDeliveryException("WhatsApp circuit is open", true, open, null));
+                return;
+            }
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(settings.requestTimeout())
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(json))
+                    .build();
+            long started = System.nanoTime();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+                latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                completed(json, attempt, result, response, error);
+            });
+        } catch (RuntimeException e) {
+            failed.increment();
+            result.completeExceptionally(new WhatsappDeliveryException("Could not send WhatsApp message", true, null, e));
+        }
+    }
+
+    private void completed(byte[] json, int attempt, CompletableFuture<Void> result,
+                           HttpResponse<String> response, Throwable error) {
+        if (error == null && response.statusCode() / 100 == 2) {
+            circuitBreaker.success();
+            sent.increment();
+            result.complete(null);
+            return;
+        }
+        if (error == null && refused(response.statusCode())) {
+            // The provider answered, so it is up; it refused this message, which a retry would not change.
+            circuitBreaker.success();
+            rejected.increment();
+            result.completeExceptionally(new WhatsappDeliveryException(
+                    "WhatsApp rejected the message: " + response.statusCode() + " " + response.body(), false, null, null));
+            return;
+        }
+        circuitBreaker.failure();
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        String reason = cause != null ? String.valueOf(cause.getMessage()) : response.statusCode() + " " + response.body();
+        Duration retryAfter = cause == null ? retryAfter(response) : null;
+        boolean retry = attempt < settings.maxAttempts()
+                && circuitBreaker.state() == CircuitBreaker.State.CLOSED
+                && (retryAfter == null || retryAfter.compareTo(settings.maxBackoff()) <= 0);
+        if (retry) {
+            retried.increment();
+            Duration delay = retryAfter != null ? retryAfter : backoff(attempt);
+            log.debug("WhatsApp attempt {} failed, retrying in {}: {}", attempt, delay, reason);
+            later(delay, () -> attempt(json, attempt + 1, result));
+        } else {
+            failed.increment();
+            result.completeExceptionally(new WhatsappDeliveryException(
+                    "WhatsApp send failed after " + attempt + " attempts: " + reason, true, retryAfter, cause));
+        }
+    }
+
+    // Full jitter: a random delay up to the exponential cap, so failed requests do not come back in step.
+    private Duration backoff(int attempt) {
+        double cap = Math.min(settings.maxBackoff().toMillis(), settings.initialBackoff().toMillis() * Math.pow(2, attempt - 1));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong((long) cap + 1));
+    }
+
+    private void later(Duration delay, Runnable task) {
+        CompletableFuture.runAsync(task, CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS, executor));
+    }
+
+    private static boolean refused(int status) {
+        return status >= 400 && status < 500 && status != 408 && status != 429;
+    }
+
+    private static Duration retryAfter(HttpResponse<String> response) {
+        try {
+            return response.headers().firstValue("Retry-After").map(Long::parseLong).map(Duration::ofSeconds).orElse(null);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        httpClient.shutdown();
+        executor.shutdown();
+    }
+}
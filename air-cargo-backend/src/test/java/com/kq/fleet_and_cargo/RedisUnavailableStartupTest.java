@@ -0,0 +1,27 @@
+package com.kq.fleet_and_cargo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+// Nothing listens on port 1, so every Redis connection is refused.
+@SpringBootTest(properties = {"spring.data.redis.host=localhost", "spring.data.redis.port=1"})
+class RedisUnavailableStartupTest {
+
+    @Autowired
+    private Map<String, RedisMessageListenerContainer> containers;
+
+    @Test
+    void startsWhileRedisIsDown() {
+        assertThat(containers).containsOnlyKeys("reportCacheInvalidationContainer", "fxRateChangeContainer",
+                "entityCacheInvalidationContainer", "unreadNotificationChangeContainer");
+        assertThat(containers.values()).allSatisfy(container -> {
+            assertThat(container.isRunning()).isTrue();
+            assertThat(container.isListening()).isFalse();
+        });
+    }
+}
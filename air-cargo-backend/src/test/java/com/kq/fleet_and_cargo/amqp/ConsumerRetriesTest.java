@@ -0,0 +1,80 @@
+package com.kq.fleet_and_cargo.amqp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+class ConsumerRetriesTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RabbitConsumerConfiguration.RetrySettings settings =
+            new RabbitConsumerConfiguration.RetrySettings(3, Duration.ofSeconds(1), 4, Duration.ofSeconds(10));
+    private final ConsumerRetries retries = new ConsumerRetries(rabbitTemplate, mock(AmqpAdmin.class), meterRegistry,
+            settings, "email.queue.otp", "whatsapp.queue.customer", "whatsapp.queue.outbound");
+
+    @Test
+    void backsOffExponentiallyUpToTheCap() {
+        assertThat(settings.backoff(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(settings.backoff(2)).isEqualTo(Duration.ofSeconds(4));
+        assertThat(settings.backoff(3)).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void retriesThroughEachAttemptsQueueThenDeadLetters() {
+        Message message = new Message("\"a@b.c:123456\"".getBytes(), new MessageProperties());
+
+        retries.failed("email.queue.otp", message, new IllegalStateException("smtp down"));
+        verify(rabbitTemplate).send(eq(""), eq("email.queue.otp.retry.1000ms"), any(Message.class));
+        retries.failed("email.queue.otp", message, new IllegalStateException("smtp down"));
+        verify(rabbitTemplate).send(eq(""), eq("email.queue.otp.retry.4000ms"), any(Message.class));
+        retries.failed("email.queue.otp", message, new IllegalStateException("smtp down"));
+
+        ArgumentCaptor<Message> deadLettered = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq(""), eq("email.queue.otp.dlq"), deadLettered.capture());
+        assertThat(deadLettered.getValue().getMessageProperties().<String>getHeader("x-exception-message"))
+                .isEqualTo("smtp down");
+        assertThat(meterRegistry.counter("rabbitmq.consumer.messages", "queue", "email.queue.otp", "outcome", "retried")
+                .count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("rabbitmq.consumer.messages", "queue", "email.queue.otp", "outcome",
+                "dead-lettered").count()).isEqualTo(1);
+    }
+
+    @Test
+    void defersWithoutCountingAnAttempt() {
+        Message message = new Message("\"a@b.c:123456\"".getBytes(), new MessageProperties());
+
+        retries.deferred("email.queue.otp", message, Duration.ofMillis(500));
+        verify(rabbitTemplate).send(eq(""), eq("email.queue.otp.retry.1000ms"), any(Message.class));
+        retries.deferred("email.queue.otp", message, Duration.ofSeconds(2));
+        retries.deferred("email.queue.otp", message, Duration.ofMinutes(10));
+        verify(rabbitTemplate, times(2)).send(eq(""), eq("email.queue.otp.retry.4000ms"), any(Message.class));
+
+        assertThat(message.getMessageProperties().<Object>getHeader(ConsumerRetries.ATTEMPT_HEADER)).isNull();
+    }
+
+    @Test
+    void recordsLagFromThePublishTimestamp() {
+        MessageProperties properties = new MessageProperties();
+        properties.setTimestamp(new Date(System.currentTimeMillis() - 2_000));
+
+        retries.consumed("email.queue.otp", new Message(new byte[0], properties));
+
+        assertThat(meterRegistry.timer("rabbitmq.consumer.lag", "queue", "email.queue.otp")
+                .max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(2_000);
+    }
+}
@@ -0,0 +1,176 @@
+package com.kq.fleet_and_cargo.amqp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.kq.fleet_and_cargo.FleetAndCargoApplication;
+import com.kq.fleet_and_cargo.configurations.JacksonConfig;
+import com.kq.fleet_and_cargo.enums.CargoEventType;
+import com.kq.fleet_and_cargo.models.Cargo;
+import com.kq.fleet_and_cargo.payload.dto.CargoEvent;
+import com.kq.fleet_and_cargo.repositories.OutboxEventRepository;
+import com.kq.fleet_and_cargo.services.OutboxService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the relay against a real outbox table with the broker mocked out, checking that events go
+ * out in write order to their cargo's partition and stay in the outbox until the broker confirms.
+ */
+@DataJpaTest(properties = {
+        "rabbitmq.exchanges.cargo-events=cargo.events",
+        "rabbitmq.queue.cargo-events=cargo.events.partition",
+        "rabbitmq.cargo-event-partitions=4",
+        "rabbitmq.queue.customer-whatsapp=whatsapp.queue.customer",
+        "rabbitmq.queue.otp-email=email.queue.otp",
+        "rabbitmq.exchanges.email=email.exchange",
+        "rabbitmq.routing-keys.customer-notification=customer.notification",
+        "rabbitmq.routing-keys.otp-notification=email.queue.otp",
+        "outbox.batch-size=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private RabbitConfiguration rabbitConfiguration;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    private final RabbitOperations operations = mock(RabbitOperations.class);
+
+    /** Repositories and the outbox beans only, the application class would pull in security and messaging. */
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = FleetAndCargoApplication.class)
+    @Import({OutboxService.class, OutboxRelay.class, RabbitConfiguration.class, JacksonConfig.class})
+    static class Outbox {
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+            return embeddedPostgres.getPostgresDatabase();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAllInBatch();
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+    }
+
+    @Test
+    void publishesEveryEventInWriteOrderToItsCargosPartition() {
+        write(cargo("first"), cargo("second"), cargo("first"));
+
+        outboxRelay.relay();
+
+        List<Sent> sent = sent(3);
+        assertThat(sent).extracting(s -> s.event().cargoId()).containsExactly("first", "second", "first");
+        assertThat(sent).extracting(s -> s.event().type()).containsOnly(CargoEventType.CARGO_CREATED);
+        assertThat(sent).extracting(Sent::routingKey)
+                .containsExactly(rabbitConfiguration.cargoEventRoutingKey(sent.get(0).event()),
+                        rabbitConfiguration.cargoEventRoutingKey(sent.get(1).event()),
+                        rabbitConfiguration.cargoEventRoutingKey(sent.get(0).event()));
+        assertThat(sent).extracting(s -> Long.parseLong(s.messageId())).isSorted().doesNotHaveDuplicates();
+        assertThat(outboxEventRepository.findUnpublished(10)).isEmpty();
+
+        clearInvocations(operations);
+        outboxRelay.relay();
+        verify(operations, times(0)).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void keepsUnconfirmedEventsForTheNextRun() {
+        write(cargo("first"));
+        doThrow(new AmqpTimeoutException("no confirm")).when(operations).waitForConfirmsOrDie(anyLong());
+
+        outboxRelay.relay();
+        assertThat(outboxEventRepository.findUnpublished(10)).hasSize(1);
+
+        doThrow(new AmqpTimeoutException("no confirm")).doNothing().when(operations).waitForConfirmsOrDie(anyLong());
+        clearInvocations(operations);
+        outboxRelay.relay();
+        outboxRelay.relay();
+        assertThat(outboxEventRepository.findUnpublished(10)).isEmpty();
+        assertThat(sent(2)).extracting(Sent::messageId).containsOnly(sent(2).get(0).messageId());
+    }
+
+    private void write(Cargo... cargos) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (Cargo cargo : cargos) {
+                outboxService.cargoCreated(List.of(cargo), false);
+            }
+        });
+    }
+
+    private static Cargo cargo(String id) {
+        return Cargo.builder().id(id).referenceNumber(1L).pickupLocation("Mogadishu").build();
+    }
+
+    private List<Sent> sent(int count) {
+        ArrayList<Sent> sent = new ArrayList<>();
+        ArgumentCaptor<String> routingKeys = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<MessagePostProcessor> postProcessors = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(operations, times(count)).convertAndSend(eq("cargo.events"), routingKeys.capture(), events.capture(),
+                postProcessors.capture());
+        for (int i = 0; i < count; i++) {
+            Message message = postProcessors.getAllValues().get(i).postProcessMessage(new Message(new byte[0], new MessageProperties()));
+            sent.add(new Sent(routingKeys.getAllValues().get(i), (CargoEvent) events.getAllValues().get(i),
+                    message.getMessageProperties().getMessageId()));
+        }
+        return sent;
+    }
+
+    private record Sent(String routingKey, CargoEvent event, String messageId) {}
+}
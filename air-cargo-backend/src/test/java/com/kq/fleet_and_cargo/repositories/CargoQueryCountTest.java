@@ -0,0 +1,205 @@
+package com.kq.fleet_and_cargo.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kq.fleet_and_cargo.FleetAndCargoApplication;
+import com.kq.fleet_and_cargo.enums.LuggageStatusEnum;
+import com.kq.fleet_and_cargo.enums.UserRoles;
+import com.kq.fleet_and_cargo.models.Cargo;
+import com.kq.fleet_and_cargo.models.CargoTrackingHistory;
+import com.kq.fleet_and_cargo.models.Customer;
+import com.kq.fleet_and_cargo.models.LuggageStatus;
+import com.kq.fleet_and_cargo.models.Money;
+import com.kq.fleet_and_cargo.models.User;
+import com.kq.fleet_and_cargo.services.EntityCacheInvalidator;
+import com.kq.fleet_and_cargo.services.FXRateCache;
+import com.kq.fleet_and_cargo.services.ReportCacheService;
+import com.kq.fleet_and_cargo.utils.CurrencyProjection;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Fails when a cargo or customer read path starts loading associations row by row. Each page holds
+ * {@value #CARGOS} cargos with distinct senders, so an N+1 regression shows up as a statement count
+ * that grows with the page instead of staying constant.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CargoQueryCountTest {
+
+    private static final int CARGOS = 10;
+    // Page, count, then one batch each for files, tracking history and its clerk's roles.
+    private static final int LISTING_STATEMENTS = 5;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CargoRepository cargoRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CargoTrackingHistoryRepository cargoTrackingHistoryRepository;
+
+    @Autowired
+    private CargoSearchRepository cargoSearchRepository;
+
+    @MockBean
+    private FXRateCache fxRateCache;
+
+    @MockBean
+    private ReportCacheService reportCacheService;
+
+    @MockBean
+    private EntityCacheInvalidator entityCacheInvalidator;
+
+    private Customer receiver;
+    private Cargo tracked;
+
+    /** Repositories and entities only, the application class would pull in security and messaging. */
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = FleetAndCargoApplication.class)
+    @Import(CurrencyProjection.class)
+    static class Repositories {
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+            return embeddedPostgres.getPostgresDatabase();
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        User clerk = User.builder()
+                .email("clerk@example.com")
+                .password("secret")
+                .firstName("Hodan")
+                .lastName("Ali")
+                .roles(Set.of(UserRoles.USER))
+                .build();
+        entityManager.persist(clerk);
+        receiver = customer("+252617000000");
+        for (int i = 0; i < CARGOS; i++) {
+            Cargo cargo = Cargo.builder()
+                    .sender(customer("+25261700000" + (i + 1)))
+                    .receiver(receiver)
+                    .pickupLocation("Mogadishu")
+                    .destination("Hargeisa")
+                    .cargoType("Parcel")
+                    .quantity(1)
+                    .weight(2)
+                    .price(new Money(BigDecimal.TEN, "USD"))
+                    .files(new ArrayList<>())
+                    .trackingHistory(new ArrayList<>())
+                    .build();
+            entityManager.persist(cargo);
+            CargoTrackingHistory history = CargoTrackingHistory.builder()
+                    .cargo(cargo)
+                    .location("Mogadishu")
+                    .createdBy(clerk)
+                    .history(new ArrayList<>())
+                    .build();
+            entityManager.persist(history);
+            entityManager.persist(LuggageStatus.builder().status(LuggageStatusEnum.CHECKED_IN).trackingHistory(history).build());
+            tracked = cargo;
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void cargoListingsLoadSenderAndReceiverWithThePage() {
+        PageRequest page = PageRequest.of(0, CARGOS, Sort.by("createdAt"));
+
+        assertThat(statements(() -> serialize(cargoRepository.findAll(Specification.where(null), page).getContent())))
+                .isLessThanOrEqualTo(LISTING_STATEMENTS);
+        assertThat(statements(() -> serialize(cargoRepository.findAllByRoute("mogadishu", "", page).getContent())))
+                .isLessThanOrEqualTo(LISTING_STATEMENTS);
+        assertThat(statements(() -> serialize(cargoRepository.findAllReceivedByCustomer(receiver.getId(), "", page).getContent())))
+                .isLessThanOrEqualTo(LISTING_STATEMENTS);
+    }
+
+    @Test
+    void cargoSearchLoadsSenderAndReceiverWithThePage() {
+        entityManager.createNativeQuery("CREATE EXTENSION IF NOT EXISTS pg_trgm").executeUpdate();
+        cargoSearchRepository.indexMissing();
+        PageRequest page = PageRequest.of(0, CARGOS);
+
+        assertThat(statements(() -> serialize(cargoSearchRepository.search("mogadishu", "", "", true, page).getContent())))
+                .isLessThanOrEqualTo(LISTING_STATEMENTS);
+    }
+
+    @Test
+    void cargoDetailIsASingleStatement() {
+        assertThat(statements(() -> cargoRepository.findById(tracked.getId()).orElseThrow().getSender().getFirstName()))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void trackingHistoryIsFetchedWithItsCargoAndStatuses() {
+        assertThat(statements(() -> cargoTrackingHistoryRepository.findAllByCargoId(tracked.getId())
+                .forEach(history -> {
+                    history.getCargo().getReceiver().getFirstName();
+                    history.getHistory().size();
+                    history.getCreatedBy().getRoles().size();
+                })))
+                .isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void customerListingDoesNotTouchCargos() {
+        assertThat(statements(() -> customerRepository.findAll("", PageRequest.of(0, CARGOS)).getContent()))
+                .isLessThanOrEqualTo(2);
+    }
+
+    /** Touches what the JSON views of a cargo page read. */
+    private static void serialize(List<Cargo> cargos) {
+        assertThat(cargos).hasSize(CARGOS);
+        for (Cargo cargo : cargos) {
+            cargo.getSender().getFirstName();
+            cargo.getReceiver().getFirstName();
+            cargo.getFiles().size();
+            cargo.getTrackingHistory().size();
+        }
+    }
+
+    private long statements(Runnable read) {
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        read.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Customer customer(String phoneNumber) {
+        Customer customer = Customer.builder().firstName("Abdi").lastName("Omer").phoneNumber(phoneNumber).build();
+        entityManager.persist(customer);
+        return customer;
+    }
+}
@@ -0,0 +1,108 @@
+package com.kq.fleet_and_cargo.security;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.kq.fleet_and_cargo.configurations.SecurityConfiguration;
+import com.kq.fleet_and_cargo.controllers.ReportController;
+import com.kq.fleet_and_cargo.filters.JwtAuthFilter;
+import com.kq.fleet_and_cargo.repositories.UserRepository;
+import com.kq.fleet_and_cargo.services.AuthService;
+import com.kq.fleet_and_cargo.services.OtpService;
+import com.kq.fleet_and_cargo.services.ReportJobService;
+import com.kq.fleet_and_cargo.services.ReportService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = ReportController.class)
+@Import({SecurityConfiguration.class, AuthenticationEntryPointTest.PassThroughJwtFilter.class})
+class AuthenticationEntryPointTest {
+
+    private static final String PREVIEW = "/api/reports/cargos/pickup-city-revenue/preview";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReportService reportService;
+
+    @MockBean
+    private ReportJobService reportJobService;
+
+    @MockBean
+    private OtpService otpService;
+
+    @MockBean
+    private AuthService authService;
+
+    @MockBean
+    private AuthenticationProvider authenticationProvider;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private ConnectionFactory connectionFactory;
+
+    @TestConfiguration
+    static class PassThroughJwtFilter {
+        @Bean
+        JwtAuthFilter jwtAuthFilter() throws Exception {
+            JwtAuthFilter filter = mock(JwtAuthFilter.class);
+            Mockito.doAnswer(invocation -> {
+                FilterChain chain = invocation.getArgument(2);
+                chain.doFilter(invocation.<ServletRequest>getArgument(0), invocation.<ServletResponse>getArgument(1));
+                return null;
+            }).when(filter).doFilter(any(), any(), any());
+            return filter;
+        }
+    }
+
+    @Test
+    void anonymousRequestGets401WithoutARedirect() throws Exception {
+        mockMvc.perform(get(PREVIEW))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().doesNotExist(HttpHeaders.LOCATION));
+    }
+
+    @Test
+    void anonymousRequestToAnUnlistedPathGets401() throws Exception {
+        mockMvc.perform(get("/api/unlisted"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(authorities = "VIEWER")
+    void authenticatedUserWithoutTheAuthorityStillGets403() throws Exception {
+        mockMvc.perform(get(PREVIEW))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(authorities = "USER")
+    void authorizedUserGetsThrough() throws Exception {
+        given(reportService.getPickupCityRevenuePreview(any(), any(), any())).willReturn(Collections.emptyList());
+
+        mockMvc.perform(get(PREVIEW))
+                .andExpect(status().isOk());
+    }
+}
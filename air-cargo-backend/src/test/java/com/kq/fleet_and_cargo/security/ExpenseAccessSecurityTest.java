@@ -14,7 +14,11 @@ import com.kq.fleet_and_cargo.controllers.ReportController;
 import com.kq.fleet_and_cargo.models.Expense;
 import com.kq.fleet_and_cargo.models.Money;
 import com.kq.fleet_and_cargo.payload.request.ExpenseRequest;
+import com.kq.fleet_and_cargo.repositories.UserRepository;
+import com.kq.fleet_and_cargo.services.AuthService;
 import com.kq.fleet_and_cargo.services.ExpenseService;
+import com.kq.fleet_and_cargo.services.OtpService;
+import com.kq.fleet_and_cargo.services.ReportJobService;
 import com.kq.fleet_and_cargo.services.ReportService;
 import com.kq.fleet_and_cargo.filters.JwtAuthFilter;
 import java.math.BigDecimal;
@@ -23,11 +27,12 @@ import java.time.ZonedDateTime;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
-import org.springframework.context.annotation.TestConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
@@ -41,7 +46,7 @@ import java.util.Collections;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(controllers = {ExpenseController.class, ReportController.class})
-@Import(ExpenseAccessSecurityTest.TestSecurityConfig.class)
+@Import({SecurityConfiguration.class, ExpenseAccessSecurityTest.TestSecurityConfig.class})
 class ExpenseAccessSecurityTest {
 
     @Autowired
@@ -53,13 +58,28 @@ class ExpenseAccessSecurityTest {
     @MockBean
     private ReportService reportService;
 
+    @MockBean
+    private ReportJobService reportJobService;
+
+    // WebConfiguration documents the auth endpoints with these.
+    @MockBean
+    private OtpService otpService;
+
+    @MockBean
+    private AuthService authService;
+
+    // The application class defines the real provider, whose user lookup needs the repository.
+    @MockBean
+    private AuthenticationProvider authenticationProvider;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private ConnectionFactory connectionFactory;
+
     @TestConfiguration
     static class TestSecurityConfig {
-        @Bean
-        SecurityConfiguration securityConfiguration(JwtAuthFilter jwtAuthFilter, AuthenticationProvider authenticationProvider) {
-            return new SecurityConfiguration(jwtAuthFilter, authenticationProvider);
-        }
-
         @Bean
         JwtAuthFilter jwtAuthFilter() {
             JwtAuthFilter filter = mock(JwtAuthFilter.class);
@@ -76,11 +96,6 @@ class ExpenseAccessSecurityTest {
             }
             return filter;
         }
-
-        @Bean
-        AuthenticationProvider authenticationProvider() {
-            return mock(AuthenticationProvider.class);
-        }
     }
 
     private MockMultipartFile expensePart() {
@@ -117,7 +132,8 @@ class ExpenseAccessSecurityTest {
     @Test
     @WithMockUser(authorities = "USER")
     void userCanDownloadExpenseReport() throws Exception {
-        given(reportService.generateExpenseDetailedReport(any(), any(), any())).willReturn("report".getBytes(StandardCharsets.UTF_8));
+        given(reportService.streamExpenseDetailedReport(any(), any(), any(), any()))
+                .willReturn(out -> out.write("report".getBytes(StandardCharsets.UTF_8)));
 
         mockMvc.perform(get("/api/reports/expenses"))
                 .andExpect(status().isOk());
@@ -0,0 +1,119 @@
+package com.kq.fleet_and_cargo.security;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.kq.fleet_and_cargo.configurations.SecurityConfiguration;
+import com.kq.fleet_and_cargo.controllers.ReportController;
+import com.kq.fleet_and_cargo.filters.JwtAuthFilter;
+import com.kq.fleet_and_cargo.repositories.UserRepository;
+import com.kq.fleet_and_cargo.services.AuthService;
+import com.kq.fleet_and_cargo.services.JWTAuthService;
+import com.kq.fleet_and_cargo.services.OtpService;
+import com.kq.fleet_and_cargo.services.PrincipalCache;
+import com.kq.fleet_and_cargo.services.ReportJobService;
+import com.kq.fleet_and_cargo.services.ReportService;
+import io.jsonwebtoken.Claims;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * A streamed export finishes on an ASYNC dispatch that the JWT filter does not see; the user
+ * authorized on the first dispatch must still be the one the security rules check on the second.
+ */
+@WebMvcTest(controllers = ReportController.class)
+@Import({SecurityConfiguration.class, JwtAuthFilter.class})
+class StreamedExportSecurityTest {
+
+    private static final String EXPORT = "/api/reports/cargos/pickup-city-revenue?format=csv";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReportService reportService;
+
+    @MockBean
+    private ReportJobService reportJobService;
+
+    @MockBean
+    private OtpService otpService;
+
+    @MockBean
+    private AuthService authService;
+
+    @MockBean
+    private AuthenticationProvider authenticationProvider;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private ConnectionFactory connectionFactory;
+
+    @MockBean
+    private JWTAuthService jwtAuthService;
+
+    @MockBean
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    void tokens() {
+        token("user-token", "clerk@example.com", "USER");
+        token("viewer-token", "viewer@example.com", "VIEWER");
+        StreamingResponseBody body = out -> out.write("city,revenue\n".getBytes(StandardCharsets.UTF_8));
+        given(reportService.streamPickupCityRevenueReport(any(), any(), any())).willReturn(body);
+    }
+
+    @Test
+    void streamedExportCompletesForTheAuthorizedUser() throws Exception {
+        MvcResult started = mockMvc.perform(get(EXPORT).header(HttpHeaders.AUTHORIZATION, "Bearer user-token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("city,revenue\n"));
+    }
+
+    @Test
+    void streamedExportIsNotStartedForAnotherAuthority() throws Exception {
+        mockMvc.perform(get(EXPORT).header(HttpHeaders.AUTHORIZATION, "Bearer viewer-token"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void streamedExportIsNotStartedAnonymously() throws Exception {
+        mockMvc.perform(get(EXPORT))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private void token(String token, String email, String authority) {
+        Claims claims = mock(Claims.class);
+        given(claims.getSubject()).willReturn(email);
+        given(jwtAuthService.extractClaims(token)).willReturn(claims);
+        User user = new User(email, "secret", List.of(() -> authority));
+        given(principalCache.get(email)).willReturn(user);
+        given(jwtAuthService.isTokenValid(eq(claims), any())).willReturn(true);
+    }
+}
@@ -0,0 +1,93 @@
+package com.kq.fleet_and_cargo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kq.fleet_and_cargo.amqp.ConsumerRetries;
+import com.kq.fleet_and_cargo.payload.dto.WhatsappMessage;
+import com.kq.fleet_and_cargo.utils.PathConstructUtil;
+import com.kq.fleet_and_cargo.utils.mail.MailTemplates;
+import com.kq.fleet_and_cargo.utils.mail.RecipientRateLimitedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+class EmailSenderServiceTest {
+
+    private static final String QUEUE = "whatsapp.queue.customer";
+
+    private final JavaMailSender emailSender = mock(JavaMailSender.class);
+    private final ConsumerRetries consumerRetries = mock(ConsumerRetries.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EmailSenderService emailSenderService = new EmailSenderService(emailSender, new MailTemplates(),
+            mock(PathConstructUtil.class), mock(WhatsappSenderService.class), objectMapper, consumerRetries);
+
+    @Test
+    void retriesOnlyTheMessagesThatFailedInABatch() throws Exception {
+        when(emailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        doAnswer(invocation -> {
+            MimeMessage rejected = Arrays.stream(invocation.getArguments()).map(MimeMessage.class::cast)
+                    .filter(message -> recipient(message).equals("bad@example.com")).findFirst().orElseThrow();
+            throw new MailSendException(Map.of(rejected, new IllegalStateException("mailbox unavailable")));
+        }).when(emailSender).send(any(MimeMessage[].class));
+        Message good = message(WhatsappMessage.builder().to("good@example.com").message("hi").build());
+        Message bad = message(WhatsappMessage.builder().to("bad@example.com").message("hi").build());
+        Message unreadable = new Message("not json".getBytes(), properties());
+
+        emailSenderService.sendCustomerNotifications(List.of(good, bad, unreadable));
+
+        verify(consumerRetries).consumed(QUEUE, good);
+        verify(consumerRetries).failed(eq(QUEUE), same(bad), any(IllegalStateException.class));
+        verify(consumerRetries).failed(eq(QUEUE), same(unreadable), any(Exception.class));
+        verify(consumerRetries, never()).failed(eq(QUEUE), same(good), any());
+    }
+
+    @Test
+    void defersRateLimitedMessagesWithoutUsingAnAttempt() throws Exception {
+        when(emailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        doAnswer(invocation -> {
+            throw new MailSendException(Map.of(invocation.getArgument(0),
+                    new RecipientRateLimitedException("busy@example.com", Duration.ofSeconds(30))));
+        }).when(emailSender).send(any(MimeMessage[].class));
+        Message busy = message(WhatsappMessage.builder().to("busy@example.com").message("<b>hi</b>").build());
+
+        emailSenderService.sendCustomerNotifications(List.of(busy));
+
+        verify(consumerRetries).deferred(QUEUE, busy, Duration.ofSeconds(30));
+        verify(consumerRetries, never()).failed(any(), any(), any());
+    }
+
+    private static String recipient(MimeMessage message) {
+        try {
+            return message.getAllRecipients()[0].toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Message message(WhatsappMessage whatsappMessage) throws Exception {
+        return new Message(objectMapper.writeValueAsBytes(whatsappMessage), properties());
+    }
+
+    private static MessageProperties properties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(QUEUE);
+        return properties;
+    }
+}
@@ -0,0 +1,153 @@
+package com.kq.fleet_and_cargo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kq.fleet_and_cargo.FleetAndCargoApplication;
+import com.kq.fleet_and_cargo.models.Notification;
+import com.kq.fleet_and_cargo.payload.request.ReadNotificationRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Inbox writes against a real {@code user_notifications} table: one insert reaches every user,
+ * read state is per recipient and the cached unread count follows each write.
+ */
+@DataJpaTest(properties = {"unread-notifications.redis-enabled=false", "entity-cache.redis-enabled=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationServiceTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = FleetAndCargoApplication.class)
+    @Import({NotificationService.class, UnreadNotificationCounter.class, UserService.class, EntityCacheInvalidator.class})
+    static class Inbox {
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+            return embeddedPostgres.getPostgresDatabase();
+        }
+
+        @Bean
+        SimpleMeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder();
+        }
+    }
+
+    // Fresh users per test, since counts cached by an earlier test outlive its rows.
+    private final String alice = "alice-" + UUID.randomUUID();
+    private final String bob = "bob-" + UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM user_notifications");
+        jdbcTemplate.execute("DELETE FROM notification");
+        jdbcTemplate.execute("DELETE FROM users");
+        for (String id : List.of(alice, bob)) {
+            jdbcTemplate.update("INSERT INTO users (id, email, password, first_name, last_name, enabled, role_type) "
+                    + "VALUES (?, ?, 'x', ?, ?, true, 'Admin')", id, id + "@example.com", id, id);
+        }
+    }
+
+    @Test
+    void deliversToEveryUserAndTracksReadStatePerRecipient() {
+        String first = notifyAll("first");
+        notifyAll("second");
+        assertThat(notificationService.countUnreadNotifications(alice)).isEqualTo(2);
+        assertThat(notificationService.countUnreadNotifications(bob)).isEqualTo(2);
+
+        notificationService.readNotifications(alice, read(first));
+        notificationService.readNotifications(alice, read(first));
+
+        assertThat(notificationService.countUnreadNotifications(alice)).isEqualTo(1);
+        assertThat(notificationService.countUnreadNotifications(bob)).isEqualTo(2);
+        assertThat(notificationService.getUnreadNotificationsByUserId(alice, 0, 10))
+                .extracting(Notification::getMessage).containsExactly("second");
+        assertThat(notificationService.getUnreadNotificationsByUserId(bob, 0, 10))
+                .extracting(Notification::getMessage).containsExactly("second", "first");
+    }
+
+    @Test
+    void cachedCountsFollowNewNotificationsAndReadAll() {
+        assertThat(notificationService.countUnreadNotifications(alice)).isZero();
+        notifyAll("first");
+        notifyAll("second");
+        assertThat(notificationService.countUnreadNotifications(alice)).isEqualTo(2);
+
+        notificationService.readAllNotifications(alice);
+
+        assertThat(notificationService.countUnreadNotifications(alice)).isZero();
+        assertThat(notificationService.getUnreadNotificationsByUserId(alice, 0, 10)).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM user_notifications "
+                + "WHERE user_id = ? AND read_at IS NULL", Long.class, alice)).isZero();
+    }
+
+    @Test
+    void deletingAUserClearsOnlyTheirInbox() {
+        // Databases that had the old @ManyToMany join table still carry its foreign key to users.
+        jdbcTemplate.execute("ALTER TABLE user_notifications DROP CONSTRAINT IF EXISTS fk_user_notifications_user");
+        jdbcTemplate.execute("ALTER TABLE user_notifications ADD CONSTRAINT fk_user_notifications_user "
+                + "FOREIGN KEY (user_id) REFERENCES users (id)");
+        notifyAll("first");
+
+        userService.delete(alice);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE id = ?", Long.class, alice)).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT user_id FROM user_notifications", String.class))
+                .containsExactly(bob);
+    }
+
+    private String notifyAll(String message) {
+        Notification notification = Notification.builder().message(message).associatedId("cargo").build();
+        List<String> recipients = new TransactionTemplate(transactionManager)
+                .execute(status -> notificationService.notifyAllUsers(notification));
+        assertThat(recipients).containsExactlyInAnyOrder(alice, bob);
+        return notification.getId();
+    }
+
+    private static ReadNotificationRequest read(String... ids) {
+        ReadNotificationRequest request = new ReadNotificationRequest();
+        request.setNotificationIds(List.of(ids));
+        return request;
+    }
+}
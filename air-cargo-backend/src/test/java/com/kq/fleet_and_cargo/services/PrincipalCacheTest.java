@@ -0,0 +1,132 @@
+package com.kq.fleet_and_cargo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kq.fleet_and_cargo.FleetAndCargoApplication;
+import com.kq.fleet_and_cargo.enums.UserRoles;
+import com.kq.fleet_and_cargo.models.CargoUser;
+import com.kq.fleet_and_cargo.models.User;
+import com.kq.fleet_and_cargo.payload.request.UserUpdateRequest;
+import com.kq.fleet_and_cargo.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Cached principals against real user writes: a change the user row does not show, such as the
+ * roles alone, must still drop the cached principal once it commits.
+ */
+@DataJpaTest(properties = "entity-cache.redis-enabled=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PrincipalCacheTest {
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = FleetAndCargoApplication.class)
+    @Import({PrincipalCache.class, UserService.class, EntityCacheInvalidator.class})
+    static class Users {
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+            return embeddedPostgres.getPostgresDatabase();
+        }
+
+        @Bean
+        SimpleMeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder();
+        }
+
+        @Bean
+        UserDetailsService userDetailsService(UserRepository userRepository) {
+            return email -> userRepository.findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        }
+    }
+
+    @Test
+    void changingOnlyTheRolesDropsTheCachedPrincipal() {
+        User user = user(Set.of(UserRoles.USER));
+        assertThat(authorities(user)).containsExactly("USER");
+
+        userService.update(UserUpdateRequest.builder()
+                .id(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .phoneNumber(user.getPhoneNumber())
+                .enabled(user.isEnabled())
+                .roles(new HashSet<>(Set.of(UserRoles.ADMIN)))
+                .build());
+
+        assertThat(authorities(user)).containsExactly("ADMIN");
+    }
+
+    @Test
+    void changingAUserColumnDropsTheCachedPrincipal() {
+        User user = user(Set.of(UserRoles.ADMIN));
+        assertThat(authorities(user)).containsExactly("ADMIN");
+
+        userService.update(UserUpdateRequest.builder()
+                .id(user.getId())
+                .firstName("Renamed")
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .phoneNumber(user.getPhoneNumber())
+                .enabled(user.isEnabled())
+                .roles(new HashSet<>(Set.of(UserRoles.ADMIN)))
+                .build());
+
+        assertThat(principalCache.get(user.getEmail())).isInstanceOfSatisfying(User.class,
+                cached -> assertThat(cached.getFirstName()).isEqualTo("Renamed"));
+    }
+
+    private User user(Set<UserRoles> roles) {
+        CargoUser user = new CargoUser();
+        user.setEmail("clerk-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setFirstName("Hodan");
+        user.setLastName("Ali");
+        user.setRoles(new HashSet<>(roles));
+        return userService.create(user);
+    }
+
+    private String[] authorities(User user) {
+        return principalCache.get(user.getEmail()).getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,45 @@
+package com.kq.fleet_and_cargo.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+class WebSocketPublisherTest {
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final WebSocketPublisher publisher =
+            new WebSocketPublisher(messagingTemplate, new SimpleMeterRegistry(), Duration.ofMillis(50));
+
+    @Test
+    void signalsSendOnlyTheLatestPayloadOfAWindow() {
+        publisher.signal("/topic/a", "first");
+        publisher.signal("/topic/a", "second");
+        publisher.signal("/topic/b", "other");
+
+        verify(messagingTemplate, timeout(1000)).convertAndSend("/topic/a", (Object) "second");
+        verify(messagingTemplate, timeout(1000)).convertAndSend("/topic/b", (Object) "other");
+        verify(messagingTemplate, after(200).times(2)).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void batchesSendEveryPayloadOfAWindowAsOneFrame() {
+        publisher.batch("/topic/a", "first");
+        publisher.batch("/topic/a", "second");
+
+        verify(messagingTemplate, timeout(1000)).convertAndSend("/topic/a", (Object) List.of("first", "second"));
+
+        publisher.batch("/topic/a", "third");
+        verify(messagingTemplate, timeout(1000)).convertAndSend("/topic/a", (Object) List.of("third"));
+        verify(messagingTemplate, after(200).times(2)).convertAndSend(anyString(), any(Object.class));
+    }
+}
@@ -0,0 +1,111 @@
+package com.kq.fleet_and_cargo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kq.fleet_and_cargo.amqp.ConsumerRetries;
+import com.kq.fleet_and_cargo.payload.dto.WhatsappMessage;
+import com.kq.fleet_and_cargo.utils.whatsapp.WhatsappDeliveryException;
+import com.kq.fleet_and_cargo.utils.whatsapp.WhatsappGateway;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+class WhatsappSenderServiceTest {
+
+    private static final String QUEUE = "whatsapp.queue.outbound";
+
+    private final WhatsappGateway gateway = mock(WhatsappGateway.class);
+    private final ConsumerRetries consumerRetries = mock(ConsumerRetries.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WhatsappSenderService whatsappSenderService =
+            new WhatsappSenderService(gateway, objectMapper, consumerRetries);
+
+    @Test
+    void routesEachMessageOfABatchByItsOutcome() throws Exception {
+        when(gateway.send(any())).thenAnswer(invocation -> {
+            String to = objectMapper.readTree((byte[]) invocation.getArgument(0)).get("to").asText();
+            return switch (to) {
+                case "busy" -> CompletableFuture.failedFuture(
+                        new WhatsappDeliveryException("circuit open", true, Duration.ofSeconds(30), null));
+                case "refused" -> CompletableFuture.failedFuture(
+                        new WhatsappDeliveryException("invalid number", false, null, null));
+                case "flaky" -> CompletableFuture.failedFuture(
+                        new WhatsappDeliveryException("503", true, null, null));
+                default -> CompletableFuture.completedFuture(null);
+            };
+        });
+        Message sent = message("252610000000");
+        Message busy = message("busy");
+        Message refused = message("refused");
+        Message flaky = message("flaky");
+        Message unreadable = new Message("not json".getBytes(), properties());
+
+        whatsappSenderService.sendOutbound(List.of(sent, busy, refused, flaky, unreadable));
+
+        verify(consumerRetries).consumed(QUEUE, sent);
+        verify(consumerRetries).deferred(QUEUE, busy, Duration.ofSeconds(30));
+        verify(consumerRetries).rejected(eq(QUEUE), same(refused), any(WhatsappDeliveryException.class));
+        verify(consumerRetries).failed(eq(QUEUE), same(flaky), any(WhatsappDeliveryException.class));
+        verify(consumerRetries).rejected(eq(QUEUE), same(unreadable), any(Exception.class));
+    }
+
+    @Test
+    void writesTheCloudApiTextMessage() throws Exception {
+        when(gateway.send(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        whatsappSenderService.sendTextMessage("252610000000", "Cargo details").join();
+
+        ArgumentCaptor<byte[]> body = ArgumentCaptor.forClass(byte[].class);
+        verify(gateway).send(body.capture());
+        JsonNode json = objectMapper.readTree(body.getValue());
+        assertThat(json.get("messaging_product").asText()).isEqualTo("whatsapp");
+        assertThat(json.get("type").asText()).isEqualTo("text");
+        assertThat(json.get("to").asText()).isEqualTo("252610000000");
+        assertThat(json.at("/text/body").asText()).isEqualTo("Cargo details");
+    }
+
+    @Test
+    void sendsATemplateWhenTheMessageNamesOne() throws Exception {
+        when(gateway.send(any())).thenReturn(CompletableFuture.completedFuture(null));
+        Message message = new Message(objectMapper.writeValueAsBytes(WhatsappMessage.builder()
+                .to("+252610000000").template("cargo_details").language("en").parameters(List.of("12.5", "3")).build()),
+                properties());
+
+        whatsappSenderService.sendOutbound(List.of(message));
+
+        ArgumentCaptor<byte[]> body = ArgumentCaptor.forClass(byte[].class);
+        verify(gateway).send(body.capture());
+        JsonNode json = objectMapper.readTree(body.getValue());
+        assertThat(json.get("type").asText()).isEqualTo("template");
+        assertThat(json.get("to").asText()).isEqualTo("+252610000000");
+        assertThat(json.at("/template/name").asText()).isEqualTo("cargo_details");
+        assertThat(json.at("/template/language/code").asText()).isEqualTo("en");
+        assertThat(json.at("/template/components/0/type").asText()).isEqualTo("body");
+        assertThat(json.at("/template/components/0/parameters/1/text").asText()).isEqualTo("3");
+        assertThat(json.has("text")).isFalse();
+        verify(consumerRetries).consumed(QUEUE, message);
+    }
+
+    private Message message(String to) throws Exception {
+        return new Message(objectMapper.writeValueAsBytes(WhatsappMessage.builder().to(to).message("hi").build()),
+                properties());
+    }
+
+    private static MessageProperties properties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(QUEUE);
+        return properties;
+    }
+}
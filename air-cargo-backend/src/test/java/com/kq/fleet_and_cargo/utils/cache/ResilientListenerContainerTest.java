@@ -0,0 +1,194 @@
+package com.kq.fleet_and_cargo.utils.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+
+class ResilientListenerContainerTest {
+
+    private static final String CHANNEL = "cache-invalidation";
+
+    private final RedisStandIn redis = new RedisStandIn();
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private int port;
+    private LettuceConnectionFactory connectionFactory;
+    private ResilientListenerContainer container;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port),
+                LettuceClientConfiguration.builder().commandTimeout(Duration.ofSeconds(1)).build());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        container = new ResilientListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setRecoveryInterval(100);
+        container.setMaxSubscriptionRegistrationWaitingTime(1000);
+        container.addMessageListener((message, pattern) ->
+                received.add(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(CHANNEL));
+        container.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        container.destroy();
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @Test
+    void startsWithoutRedisAndSubscribesOnceItIsUp() throws Exception {
+        container.start();
+        assertThat(container.isRunning()).isTrue();
+        assertThat(container.isListening()).isFalse();
+
+        redis.start(port);
+
+        assertThat(within(Duration.ofSeconds(10), container::isListening)).isTrue();
+        redis.publish(CHANNEL, "location|42");
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo("location|42");
+    }
+
+    @Test
+    void stopsRetryingOnceStopped() throws Exception {
+        container.start();
+        container.stop();
+
+        redis.start(port);
+
+        assertThat(within(Duration.ofMillis(500), () -> !redis.subscribed.isEmpty())).isFalse();
+        assertThat(container.isRunning()).isFalse();
+    }
+
+    private static boolean within(Duration timeout, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return condition.getAsBoolean();
+    }
+
+    /** Just enough of the Redis protocol (RESP2) for Lettuce to connect and subscribe. */
+    private static class RedisStandIn {
+
+        private final List<OutputStream> subscribed = new CopyOnWriteArrayList<>();
+        private final List<Socket> open = new CopyOnWriteArrayList<>();
+        private ServerSocket server;
+
+        void start(int port) throws IOException {
+            server = new ServerSocket(port);
+            Thread.ofVirtual().start(() -> {
+                while (!server.isClosed()) {
+                    try {
+                        Socket socket = server.accept();
+                        open.add(socket);
+                        Thread.ofVirtual().start(() -> serve(socket));
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        void publish(String channel, String payload) throws IOException {
+            for (OutputStream out : subscribed) {
+                synchronized (out) {
+                    out.write(array(bulk("message"), bulk(channel), bulk(payload)).getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            }
+        }
+
+        void stop() throws IOException {
+            if (server != null) {
+                server.close();
+            }
+            for (Socket socket : open) {
+                socket.close();
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket; BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8))) {
+                OutputStream out = socket.getOutputStream();
+                for (List<String> command = read(in); command != null; command = read(in)) {
+                    String reply = switch (command.get(0).toUpperCase()) {
+                        // Refusing RESP3 makes Lettuce fall back to RESP2.
+                        case "HELLO" -> "-ERR unknown command 'HELLO'\r\n";
+                        case "PING" -> "+PONG\r\n";
+                        case "SUBSCRIBE" -> {
+                            subscribed.add(out);
+                            StringBuilder replies = new StringBuilder();
+                            for (int i = 1; i < command.size(); i++) {
+                                replies.append(array(bulk("subscribe"), bulk(command.get(i)), ":" + i + "\r\n"));
+                            }
+                            yield replies.toString();
+                        }
+                        case "UNSUBSCRIBE" -> {
+                            subscribed.remove(out);
+                            yield array(bulk("unsubscribe"), bulk(command.size() > 1 ? command.get(1) : CHANNEL), ":0\r\n");
+                        }
+                        default -> "+OK\r\n";
+                    };
+                    synchronized (out) {
+                        out.write(reply.getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                // Closed by stop.
+            } finally {
+                open.remove(socket);
+            }
+        }
+
+        private static List<String> read(BufferedReader in) throws IOException {
+            String header = in.readLine();
+            if (header == null) {
+                return null;
+            }
+            List<String> command = new ArrayList<>();
+            for (int i = Integer.parseInt(header.substring(1)); i > 0; i--) {
+                in.readLine();
+                command.add(in.readLine());
+            }
+            return command;
+        }
+
+        private static String array(String... elements) {
+            return "*" + elements.length + "\r\n" + String.join("", elements);
+        }
+
+        private static String bulk(String value) {
+            return "$" + value.getBytes(StandardCharsets.UTF_8).length + "\r\n" + value + "\r\n";
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.kq.fleet_and_cargo.utils.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class CsvReportWriterTest {
+
+    @Test
+    void prefixesTextASpreadsheetWouldEvaluate() throws IOException {
+        String csv = csv("=HYPERLINK(\"http://x\")", "+1", "-2", "@SUM(A1)", "\tcmd");
+
+        assertThat(csv).endsWith("\"'=HYPERLINK(\"\"http://x\"\")\",'+1,'-2,'@SUM(A1),'\tcmd\r\n");
+    }
+
+    @Test
+    void leavesNumbersAndPlainTextAlone() throws IOException {
+        String csv = csv(-12, new BigDecimal("-0.50"), "Mogadishu, SO", null, "a-b");
+
+        assertThat(csv).endsWith("-12,-0.50,\"Mogadishu, SO\",,a-b\r\n");
+    }
+
+    private static String csv(Object... values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String[] columns = new String[values.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = "c" + i;
+        }
+        try (CsvReportWriter writer = new CsvReportWriter(out, columns, false)) {
+            writer.row(values);
+            writer.finish();
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,113 @@
+package com.kq.fleet_and_cargo.utils.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.PageHeader;
+import org.apache.parquet.format.SchemaElement;
+import org.apache.parquet.format.Type;
+import org.apache.parquet.format.Util;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reads the written file back through the footer: the schema, the row groups and the values of a
+ * page must be what a Parquet reader expects.
+ */
+class ParquetReportWriterTest {
+
+    private static final String[] COLUMNS = {"Date", "Pickup Location", "Weight"};
+
+    @Test
+    void typesColumnsByTheirFirstValue() throws IOException {
+        byte[] file = parquet(3, i -> new Object[] {"2026-10-0" + (i + 1), i == 1 ? null : "Hargeisa", i * 1.5});
+
+        FileMetaData metaData = footer(file);
+        List<SchemaElement> schema = metaData.getSchema();
+        assertThat(schema).hasSize(4);
+        assertThat(schema.get(1).getType()).isEqualTo(Type.BYTE_ARRAY);
+        assertThat(schema.get(2).getType()).isEqualTo(Type.BYTE_ARRAY);
+        assertThat(schema.get(3).getType()).isEqualTo(Type.DOUBLE);
+        assertThat(metaData.getNum_rows()).isEqualTo(3);
+        assertThat(metaData.getRow_groups()).hasSize(1);
+    }
+
+    @Test
+    void splitsRowsIntoRowGroups() throws IOException {
+        byte[] file = parquet(25_000, i -> new Object[] {"2026-10-01", "Berbera", (double) i});
+
+        FileMetaData metaData = footer(file);
+        assertThat(metaData.getNum_rows()).isEqualTo(25_000);
+        assertThat(metaData.getRow_groups()).extracting(group -> group.getNum_rows())
+                .containsExactly(10_000L, 10_000L, 5_000L);
+    }
+
+    @Test
+    void writesNullsAsDefinitionLevelsAndValuesPlain() throws IOException {
+        byte[] file = parquet(3, i -> new Object[] {"d", i == 1 ? null : "City " + i, null});
+
+        ColumnMetaData column = footer(file).getRow_groups().get(0).getColumns().get(1).getMeta_data();
+        assertThat(column.getStatistics().getNull_count()).isEqualTo(1);
+        InputStream in = new ByteArrayInputStream(file, (int) column.getData_page_offset(), file.length);
+        PageHeader header = Util.readPageHeader(in);
+        assertThat(header.getData_page_header().getNum_values()).isEqualTo(3);
+        ByteBuffer page = ByteBuffer.wrap(new GZIPInputStream(in).readNBytes(header.getUncompressed_page_size()))
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        // Runs of one present, one null, one present.
+        byte[] levels = new byte[page.getInt()];
+        page.get(levels);
+        assertThat(levels).containsExactly(2, 1, 2, 0, 2, 1);
+        List<String> values = new ArrayList<>();
+        while (page.hasRemaining()) {
+            byte[] value = new byte[page.getInt()];
+            page.get(value);
+            values.add(new String(value, StandardCharsets.UTF_8));
+        }
+        assertThat(values).containsExactly("City 0", "City 2");
+    }
+
+    @Test
+    void writesAValidFileWithoutRows() throws IOException {
+        byte[] file = parquet(0, i -> null);
+
+        assertThat(Arrays.copyOf(file, 4)).isEqualTo("PAR1".getBytes(StandardCharsets.US_ASCII));
+        FileMetaData metaData = footer(file);
+        assertThat(metaData.getNum_rows()).isZero();
+        assertThat(metaData.getRow_groups()).isEmpty();
+        assertThat(metaData.getSchema()).hasSize(4);
+    }
+
+    private interface Rows {
+        Object[] row(int index);
+    }
+
+    private static byte[] parquet(int count, Rows rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParquetReportWriter writer = new ParquetReportWriter(out, COLUMNS)) {
+            for (int i = 0; i < count; i++) {
+                writer.row(rows.row(i));
+            }
+            writer.finish();
+        }
+        return out.toByteArray();
+    }
+
+    private static FileMetaData footer(byte[] file) throws IOException {
+        assertThat(Arrays.copyOfRange(file, file.length - 4, file.length))
+                .isEqualTo("PAR1".getBytes(StandardCharsets.US_ASCII));
+        int length = ByteBuffer.wrap(file, file.length - 8, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        return Util.readFileMetaData(new ByteArrayInputStream(file, file.length - 8 - length, length));
+    }
+}
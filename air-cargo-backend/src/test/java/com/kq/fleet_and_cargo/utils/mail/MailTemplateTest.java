@@ -0,0 +1,38 @@
+package com.kq.fleet_and_cargo.utils.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class MailTemplateTest {
+
+    @Test
+    void escapesValuesUnlessTripleBraced() {
+        MailTemplate template = MailTemplate.parse("test", "<p>{{ name }}</p><div>{{{body}}}</div>&copy; {{year}}");
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", "<Ali & Co>");
+        values.put("body", "<b>hi</b>");
+        values.put("year", null);
+
+        assertThat(template.render(values)).isEqualTo("<p>&lt;Ali &amp; Co&gt;</p><div><b>hi</b></div>&copy; ");
+    }
+
+    @Test
+    void refusesToRenderWithAMissingValue() {
+        MailTemplate template = MailTemplate.parse("test", "Your code is {{otp}}");
+
+        assertThatThrownBy(() -> template.render(Map.of())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MailTemplate.parse("test", "{{otp")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void loadsTheBundledTemplates() {
+        String otp = new MailTemplates().render(MailTemplates.OTP, Map.of("otp", "123456", "year", 2026));
+
+        assertThat(otp).contains(">123456</p>").contains("&copy; 2026 Dhaqane");
+    }
+}
@@ -0,0 +1,268 @@
+package com.kq.fleet_and_cargo.utils.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+class PooledMailSenderTest {
+
+    private final SmtpStandIn smtp = new SmtpStandIn();
+    private PooledMailSender sender;
+
+    @BeforeEach
+    void start() throws IOException {
+        smtp.start();
+        sender = sender(new RecipientRateLimiter(100, Duration.ofMinutes(1)));
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        sender.destroy();
+        smtp.stop();
+    }
+
+    @Test
+    void reusesOneConnectionAcrossSends() throws Exception {
+        sender.send(message("a@example.com"), message("b@example.com"), message("c@example.com"));
+        sender.send(message("d@example.com"));
+        sender.send(message("e@example.com"), message("f@example.com"));
+
+        assertThat(smtp.connections).hasValue(1);
+        assertThat(smtp.recipients).containsExactly("a@example.com", "b@example.com", "c@example.com",
+                "d@example.com", "e@example.com", "f@example.com");
+    }
+
+    @Test
+    void reportsOnlyTheMessagesTheServerRefused() throws Exception {
+        MimeMessage refused = message("reject@example.com");
+
+        assertThatThrownBy(() -> sender.send(message("a@example.com"), refused, message("b@example.com")))
+                .isInstanceOfSatisfying(MailSendException.class,
+                        e -> assertThat(e.getFailedMessages()).containsOnlyKeys(refused));
+        assertThat(smtp.recipients).containsExactly("a@example.com", "b@example.com");
+        assertThat(smtp.connections).hasValue(1);
+    }
+
+    @Test
+    void sendsAgainOnANewConnectionWhenTheServerDroppedIt() throws Exception {
+        sender.send(message("a@example.com"));
+        smtp.dropConnections();
+
+        sender.send(message("b@example.com"));
+
+        assertThat(smtp.connections).hasValue(2);
+        assertThat(smtp.recipients).containsExactly("a@example.com", "b@example.com");
+    }
+
+    @Test
+    void holdsBackMessagesOverTheRecipientsRate() throws Exception {
+        sender.destroy();
+        sender = sender(new RecipientRateLimiter(2, Duration.ofMinutes(1)));
+        MimeMessage third = message("Busy@Example.com");
+
+        assertThatThrownBy(() -> sender.send(message("busy@example.com"), message("busy@example.com"), third,
+                message("other@example.com")))
+                .isInstanceOfSatisfying(MailSendException.class, e -> {
+                    assertThat(e.getFailedMessages()).containsOnlyKeys(third);
+                    assertThat(e.getFailedMessages().get(third)).isInstanceOfSatisfying(
+                            RecipientRateLimitedException.class,
+                            limited -> assertThat(limited.getRetryAfter()).isPositive());
+                });
+        assertThat(smtp.recipients).containsExactly("busy@example.com", "busy@example.com", "other@example.com");
+    }
+
+    @Test
+    void takesNoTokenWhenAnyRecipientIsOverTheirRate() throws Exception {
+        sender.destroy();
+        sender = sender(new RecipientRateLimiter(1, Duration.ofMinutes(1)));
+        sender.send(message("busy@example.com"));
+
+        assertThatThrownBy(() -> sender.send(message("other@example.com", "busy@example.com")))
+                .isInstanceOfSatisfying(MailSendException.class, e -> assertThat(e.getFailedMessages().values())
+                        .singleElement().isInstanceOf(RecipientRateLimitedException.class));
+        sender.send(message("other@example.com"));
+
+        assertThat(smtp.recipients).containsExactly("busy@example.com", "other@example.com");
+    }
+
+    @Test
+    void givesTheTokensOfAMessageThatWasNotSentBack() throws Exception {
+        sender.destroy();
+        sender = sender(new RecipientRateLimiter(1, Duration.ofMinutes(1)));
+        MimeMessage retried = message("reject@example.com");
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            assertThatThrownBy(() -> sender.send(retried))
+                    .isInstanceOfSatisfying(MailSendException.class, e -> assertThat(e.getFailedMessages().get(retried))
+                            .isNotInstanceOf(RecipientRateLimitedException.class));
+        }
+    }
+
+    @Test
+    void countsMessagesAgainstTheRateTheyName() throws Exception {
+        sender.destroy();
+        sender = new PooledMailSender(
+                new PooledMailSender.PoolSettings(2, Duration.ofSeconds(5), Duration.ofSeconds(5), Duration.ofMinutes(1)),
+                new RecipientRateLimiter(1, Duration.ofMinutes(1)),
+                Map.of("otp", new RecipientRateLimiter(1, Duration.ofMinutes(1))), new SimpleMeterRegistry());
+        sender.setHost("localhost");
+        sender.setPort(smtp.port());
+        MimeMessage otp = message("a@example.com");
+        otp.setHeader(PooledMailSender.RATE_HEADER, "otp");
+        MimeMessage secondOtp = message("a@example.com");
+        secondOtp.setHeader(PooledMailSender.RATE_HEADER, "otp");
+
+        sender.send(message("a@example.com"));
+        sender.send(otp);
+
+        assertThat(otp.getHeader(PooledMailSender.RATE_HEADER)).isNull();
+        assertThatThrownBy(() -> sender.send(secondOtp)).isInstanceOfSatisfying(MailSendException.class,
+                e -> assertThat(e.getFailedMessages().get(secondOtp)).isInstanceOf(RecipientRateLimitedException.class));
+        assertThat(smtp.recipients).containsExactly("a@example.com", "a@example.com");
+    }
+
+    @Test
+    void refillsARecipientsTokensOverThePeriod() {
+        AtomicLong now = new AtomicLong();
+        RecipientRateLimiter limiter = new RecipientRateLimiter(2, Duration.ofSeconds(10), now::get);
+
+        assertThat(limiter.acquire("a@example.com")).isZero();
+        assertThat(limiter.acquire("A@example.com ")).isZero();
+        assertThat(limiter.acquire("a@example.com")).isEqualTo(Duration.ofSeconds(5));
+        assertThat(limiter.acquire("b@example.com")).isZero();
+
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(limiter.acquire("a@example.com")).isZero();
+    }
+
+    private PooledMailSender sender(RecipientRateLimiter rateLimiter) {
+        PooledMailSender pooled = new PooledMailSender(
+                new PooledMailSender.PoolSettings(2, Duration.ofSeconds(5), Duration.ofSeconds(5), Duration.ofMinutes(1)),
+                rateLimiter, new SimpleMeterRegistry());
+        pooled.setHost("localhost");
+        pooled.setPort(smtp.port());
+        return pooled;
+    }
+
+    private MimeMessage message(String... to) throws Exception {
+        MimeMessage message = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "utf-8");
+        helper.setFrom("Sahan@gmail.com");
+        helper.setTo(to);
+        helper.setSubject("Customer Notification - Sahan");
+        helper.setText("<p>hi</p>", true);
+        return message;
+    }
+
+    /** Just enough SMTP for Jakarta Mail: accepts everything except recipients starting with "reject". */
+    private static class SmtpStandIn {
+
+        private final AtomicInteger connections = new AtomicInteger();
+        private final List<String> recipients = new CopyOnWriteArrayList<>();
+        private final List<Socket> open = new CopyOnWriteArrayList<>();
+        private ServerSocket server;
+
+        void start() throws IOException {
+            server = new ServerSocket(0);
+            Thread.ofVirtual().start(() -> {
+                while (!server.isClosed()) {
+                    try {
+                        Socket socket = server.accept();
+                        connections.incrementAndGet();
+                        open.add(socket);
+                        Thread.ofVirtual().start(() -> serve(socket));
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        void dropConnections() throws IOException {
+            for (Socket socket : open) {
+                socket.close();
+            }
+        }
+
+        void stop() throws IOException {
+            server.close();
+            dropConnections();
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                reply(out, "220 localhost ready");
+                List<String> pending = new CopyOnWriteArrayList<>();
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                    switch (command) {
+                        case "EHLO" -> reply(out, "250-localhost\r\n250 8BITMIME");
+                        case "HELO", "MAIL", "NOOP" -> reply(out, "250 OK");
+                        case "RSET" -> {
+                            pending.clear();
+                            reply(out, "250 OK");
+                        }
+                        case "RCPT" -> {
+                            String address = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                            if (address.startsWith("reject")) {
+                                reply(out, "550 No such user");
+                            } else {
+                                pending.add(address);
+                                reply(out, "250 OK");
+                            }
+                        }
+                        case "DATA" -> {
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            while (!".".equals(in.readLine())) {
+                                // The body is not checked.
+                            }
+                            recipients.addAll(pending);
+                            pending.clear();
+                            reply(out, "250 OK");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 Bye");
+                            return;
+                        }
+                        default -> reply(out, "500 Unknown command");
+                    }
+                }
+            } catch (IOException e) {
+                // Dropped by dropConnections.
+            } finally {
+                open.remove(socket);
+            }
+        }
+
+        private static void reply(PrintWriter out, String reply) {
+            out.print(reply + "\r\n");
+            out.flush();
+        }
+    }
+}
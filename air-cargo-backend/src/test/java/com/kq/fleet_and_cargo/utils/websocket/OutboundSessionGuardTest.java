@@ -0,0 +1,62 @@
+package com.kq.fleet_and_cargo.utils.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+class OutboundSessionGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OutboundSessionGuard guard = new OutboundSessionGuard(meterRegistry, 2);
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final WebSocketSession session = mock(WebSocketSession.class);
+
+    @BeforeEach
+    void connect() throws Exception {
+        when(session.getId()).thenReturn("slow");
+        guard.decorate(mock(WebSocketHandler.class)).afterConnectionEstablished(session);
+    }
+
+    @Test
+    void dropsFramesAndClosesTheSessionOnceItFallsBehind() throws Exception {
+        assertThat(guard.preSend(frame(), channel)).isNotNull();
+        assertThat(guard.preSend(frame(), channel)).isNotNull();
+        assertThat(guard.preSend(frame(), channel)).isNull();
+        assertThat(guard.preSend(frame(), channel)).isNull();
+
+        verify(session, times(1)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(meterRegistry.counter("websocket.outbound.dropped").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("websocket.sessions.evicted").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("websocket.outbound.pending").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void handledFramesFreeTheirSlot() {
+        for (int i = 0; i < 10; i++) {
+            Message<?> frame = guard.preSend(frame(), channel);
+            assertThat(frame).isNotNull();
+            guard.afterMessageHandled(frame, channel, mock(MessageHandler.class), null);
+        }
+        assertThat(meterRegistry.get("websocket.outbound.pending").gauge().value()).isZero();
+    }
+
+    private static Message<byte[]> frame() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setSessionId("slow");
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,38 @@
+package com.kq.fleet_and_cargo.utils.whatsapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class PhoneNumbersTest {
+
+    private static final String SOMALIA = "252";
+
+    @Test
+    void keepsInternationalNumbers() {
+        assertThat(PhoneNumbers.toE164("+252612345678", SOMALIA)).contains("+252612345678");
+        assertThat(PhoneNumbers.toE164("00252612345678", SOMALIA)).contains("+252612345678");
+        assertThat(PhoneNumbers.toE164("+44 20 7946 0958", SOMALIA)).contains("+442079460958");
+    }
+
+    @Test
+    void prefixesNationalNumbersWithTheDefaultCountryCode() {
+        assertThat(PhoneNumbers.toE164("061-234-5678", SOMALIA)).contains("+252612345678");
+        assertThat(PhoneNumbers.toE164("(61) 234 5678", SOMALIA)).contains("+252612345678");
+    }
+
+    @Test
+    void takesBareDigitsWithTheCountryCodeAsInternational() {
+        assertThat(PhoneNumbers.toE164("252612345678", SOMALIA)).contains("+252612345678");
+        assertThat(PhoneNumbers.toE164("2526123", SOMALIA)).contains("+2522526123");
+    }
+
+    @Test
+    void rejectsWhatCannotBeAPhoneNumber() {
+        assertThat(PhoneNumbers.toE164(null, SOMALIA)).isEmpty();
+        assertThat(PhoneNumbers.toE164("", SOMALIA)).isEmpty();
+        assertThat(PhoneNumbers.toE164("N/A", SOMALIA)).isEmpty();
+        assertThat(PhoneNumbers.toE164("+0612345678", SOMALIA)).isEmpty();
+        assertThat(PhoneNumbers.toE164("+2526123456789012", SOMALIA)).isEmpty();
+    }
+}
@@ -0,0 +1,143 @@
+package com.kq.fleet_and_cargo.utils.whatsapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WhatsappGatewayTest {
+
+    private static final byte[] MESSAGE = "{\"to\":\"252610000000\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final Queue<String> authorizations = new ConcurrentLinkedQueue<>();
+    private volatile IntUnaryOperator status = request -> 200;
+    private volatile long delayMillis;
+    private HttpServer server;
+    private WhatsappGateway gateway;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/messages", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        gateway.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void postsWithTheTokenAndBoundsRequestsInFlight() {
+        gateway = gateway(4, 1000, Duration.ofSeconds(1), 1, 5);
+        delayMillis = 50;
+
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sends.add(gateway.send(MESSAGE));
+        }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(requests).hasValue(20);
+        assertThat(maxConcurrent.get()).isBetween(1, 4);
+        assertThat(authorizations).containsOnly("Bearer test-token");
+    }
+
+    @Test
+    void startsNoMoreRequestsThanTheRateAllows() {
+        gateway = gateway(10, 2, Duration.ofMillis(400), 1, 5);
+
+        long started = System.nanoTime();
+        CompletableFuture.allOf(gateway.send(MESSAGE), gateway.send(MESSAGE), gateway.send(MESSAGE), gateway.send(MESSAGE))
+                .join();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(350));
+        assertThat(requests).hasValue(4);
+    }
+
+    @Test
+    void retriesServerErrorsWithBackoff() {
+        gateway = gateway(4, 1000, Duration.ofSeconds(1), 3, 5);
+        status = request -> request < 3 ? 503 : 200;
+
+        gateway.send(MESSAGE).join();
+
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    void doesNotRetryAMessageTheProviderRefused() {
+        gateway = gateway(4, 1000, Duration.ofSeconds(1), 3, 5);
+        status = request -> 400;
+
+        assertThatThrownBy(() -> gateway.send(MESSAGE).join()).isInstanceOf(CompletionException.class)
+                .cause().isInstanceOfSatisfying(WhatsappDeliveryException.class,
+                        e -> assertThat(e.isRetryable()).isFalse());
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void failsFastWhileTheCircuitIsOpen() {
+        gateway = gateway(4, 1000, Duration.ofSeconds(1), 1, 2);
+        status = request -> 500;
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> gateway.send(MESSAGE).join()).cause()
+                    .isInstanceOfSatisfying(WhatsappDeliveryException.class, e -> assertThat(e.getRetryAfter()).isNull());
+        }
+        assertThatThrownBy(() -> gateway.send(MESSAGE).join()).cause()
+                .isInstanceOfSatisfying(WhatsappDeliveryException.class,
+                        e -> assertThat(e.getRetryAfter()).isPositive());
+        assertThat(requests).hasValue(2);
+    }
+
+    private WhatsappGateway gateway(int maxInFlight, int rateLimit, Duration ratePeriod, int maxAttempts, int failureThreshold) {
+        WhatsappGateway.Settings settings = new WhatsappGateway.Settings(maxInFlight, Duration.ofSeconds(2),
+                Duration.ofSeconds(5), rateLimit, ratePeriod, maxAttempts, Duration.ofMillis(10), Duration.ofMillis(50),
+                failureThreshold, Duration.ofMinutes(1));
+        return new WhatsappGateway("http://localhost:" + server.getAddress().getPort() + "/messages", "test-token",
+                settings, new SimpleMeterRegistry());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int request = requests.incrementAndGet();
+        maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+        try (exchange) {
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            exchange.getRequestBody().readAllBytes();
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            // Before replying, since the client may start its next request as soon as it has the reply.
+            concurrent.decrementAndGet();
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.applyAsInt(request), body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}